@@ -0,0 +1,132 @@
+package com.alang.benchmark;
+
+import com.alang.dto.llm.ChatCompletionRequest;
+import com.alang.dto.llm.ChatCompletionResponse;
+import com.alang.dto.llm.ChatMessage;
+import com.alang.service.ChatCompletionCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the /chat/completions body: the old Map + ObjectMapper
+ * path against ChatCompletionCodec.
+ *
+ * Run with the gc profiler to see allocation per call (gc.alloc.rate.norm):
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ChatCompletionCodecBenchmark -prof gc"
+ *
+ * The request mirrors a chat reply with full context: system prompt, a
+ * summary block and 20 recent messages. The response carries the fields
+ * OpenAI actually returns, most of which we ignore.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatCompletionCodecBenchmark {
+
+    private static final String MODEL = "gpt-3.5-turbo";
+    private static final int MAX_TOKENS = 4096;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
+    private String systemPrompt;
+    private List<ChatMessage> messages;
+    private List<Map<String, String>> mapMessages;
+    private byte[] responseBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        systemPrompt = "You are a friendly Japanese tutor. ".repeat(40);
+        messages = new ArrayList<>();
+        messages.add(new ChatMessage("system", "Conversation summary: " + "particles, keigo, counters. ".repeat(20)));
+        for (int i = 0; i < 20; i++) {
+            String role = i % 2 == 0 ? "user" : "assistant";
+            messages.add(new ChatMessage(role, "Message " + i + ": " + "日本語の文法について質問があります。".repeat(8)));
+        }
+        mapMessages = new ArrayList<>();
+        for (ChatMessage message : messages) {
+            mapMessages.add(Map.of("role", message.role(), "content", message.content()));
+        }
+
+        responseBytes = objectMapper.writeValueAsBytes(Map.of(
+                "id", "chatcmpl-8abc",
+                "object", "chat.completion",
+                "created", 1_700_000_000,
+                "model", MODEL,
+                "choices", List.of(Map.of(
+                        "index", 0,
+                        "message", Map.of("role", "assistant", "content", "「は」は主題を示す助詞です。".repeat(30)),
+                        "finish_reason", "stop")),
+                "usage", Map.of("prompt_tokens", 1850, "completion_tokens", 420, "total_tokens", 2270),
+                "system_fingerprint", "fp_44709d6fcb"));
+    }
+
+    @Benchmark
+    public int encodeMap() throws Exception {
+        // What LLMServiceImpl and Jackson2JsonEncoder did before: copy into a new list,
+        // serialize through a byte[], then wrap it for the connection
+        List<Map<String, String>> fullMessages = new ArrayList<>();
+        fullMessages.add(Map.of("role", "system", "content", systemPrompt));
+        fullMessages.addAll(mapMessages);
+        byte[] bytes = objectMapper.writeValueAsBytes(Map.of(
+                "model", MODEL,
+                "messages", fullMessages,
+                "max_tokens", MAX_TOKENS));
+        DataBuffer buffer = bufferFactory.allocateBuffer(bytes.length).write(bytes);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    @Benchmark
+    public int encodeCodec() {
+        DataBuffer buffer = ChatCompletionCodec.encode(
+                new ChatCompletionRequest(MODEL, systemPrompt, messages, MAX_TOKENS), bufferFactory);
+        int size = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return size;
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public int decodeMap() throws Exception {
+        DataBuffer buffer = bufferFactory.allocateBuffer(responseBytes.length).write(responseBytes);
+        byte[] bytes = new byte[buffer.readableByteCount()];
+        buffer.read(bytes);
+        DataBufferUtils.release(buffer);
+        Map<String, Object> response = objectMapper.readValue(bytes, Map.class);
+        List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
+        Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
+        Map<String, Object> usage = (Map<String, Object>) response.get("usage");
+        return ((String) message.get("content")).length() + ((Number) usage.get("total_tokens")).intValue();
+    }
+
+    @Benchmark
+    public int decodeCodec() {
+        DataBuffer buffer = bufferFactory.allocateBuffer(responseBytes.length).write(responseBytes);
+        ChatCompletionResponse response = ChatCompletionCodec.decode(buffer);
+        return response.content().length() + response.usage().totalTokens();
+    }
+
+}
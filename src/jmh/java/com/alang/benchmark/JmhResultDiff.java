@@ -0,0 +1,93 @@
+package com.alang.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (-rf json) benchmark by benchmark:
+ * score and, when the gc profiler ran, allocation per op.
+ *
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=com.alang.benchmark.JmhResultDiff \
+ *     -Djmh.args="before.json target/jmh-result.json 0.10"
+ *
+ * Exits 1 when a benchmark got worse by more than the threshold (default
+ * 10%) and by more than both runs' error margins, so noise alone does not
+ * fail a comparison. Benchmarks in only one file are listed, not compared.
+ */
+public final class JmhResultDiff {
+
+    private static final String ALLOC = "gc.alloc.rate.norm";
+
+    private record Result(String mode, double score, double error, String unit, Double alloc) {
+    }
+
+    private JmhResultDiff() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: JmhResultDiff <before.json> <after.json> [threshold]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        Map<String, Result> before = read(new File(args[0]));
+        Map<String, Result> after = read(new File(args[1]));
+
+        boolean regressed = false;
+        System.out.printf("%-90s %14s %14s %8s %12s %12s%n", "benchmark", "before", "after", "change", "B/op before", "B/op after");
+        for (Map.Entry<String, Result> entry : new TreeMap<>(after).entrySet()) {
+            Result now = entry.getValue();
+            Result old = before.get(entry.getKey());
+            if (old == null) {
+                System.out.printf("%-90s %14s %14.3f %8s%n", entry.getKey(), "-", now.score(), "new");
+                continue;
+            }
+            double change = (now.score() - old.score()) / old.score();
+            // Throughput is better when higher; every other mode is a time
+            double worse = "thrpt".equals(now.mode()) ? -change : change;
+            boolean beyondNoise = Math.abs(now.score() - old.score()) > old.error() + now.error();
+            boolean regression = worse > threshold && beyondNoise;
+            regressed |= regression;
+            System.out.printf("%-90s %14.3f %14.3f %+7.1f%% %12s %12s %s%s%n", entry.getKey(), old.score(), now.score(),
+                    change * 100, alloc(old), alloc(now), now.unit(), regression ? "  REGRESSION" : "");
+        }
+        for (String name : before.keySet()) {
+            if (!after.containsKey(name)) {
+                System.out.printf("%-90s %14.3f %14s %8s%n", name, before.get(name).score(), "-", "removed");
+            }
+        }
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder name = new StringBuilder(run.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                name.append(name.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode alloc = run.path("secondaryMetrics").path(ALLOC);
+            double error = primary.path("scoreError").asDouble(0);
+            results.put(name.toString(), new Result(run.path("mode").asText(), primary.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error, primary.path("scoreUnit").asText(),
+                    alloc.isMissingNode() ? null : alloc.path("score").asDouble()));
+        }
+        return results;
+    }
+
+    private static String alloc(Result result) {
+        return result.alloc() == null ? "-" : "%.0f".formatted(result.alloc());
+    }
+}
@@ -0,0 +1,92 @@
+package com.alang.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Realistic text for the benchmarks, in two scripts: LATIN (an English
+ * speaker learning Spanish) and CJK (learning Japanese). CJK text is shorter
+ * in chars for the same content but every char is outside Latin-1, which is
+ * what changes String and encoder behaviour.
+ */
+public final class Payloads {
+
+    public enum Script {
+        LATIN, CJK
+    }
+
+    private static final String LATIN_USER =
+            "How do I use the subjunctive after 'espero que'? Is 'espero que vienes' wrong?";
+    private static final String LATIN_TUTOR =
+            "Yes, after 'espero que' Spanish needs the subjunctive: 'espero que vengas'. The main clause "
+                    + "expresses a hope, so the verb in the second clause is not stated as fact. Compare "
+                    + "'sé que vienes' (I know you are coming), which takes the indicative.";
+    private static final String CJK_USER = "「は」と「が」の違いがよく分かりません。「私が学生です」は間違いですか？";
+    private static final String CJK_TUTOR =
+            "間違いではありませんが、意味が変わります。「私は学生です」は私について話していて、"
+                    + "「私が学生です」は「誰が学生ですか？」への答えのように、学生なのは私だと強調します。"
+                    + "「が」は新しい情報や強調に、「は」は話題に使います。";
+
+    private Payloads() {
+    }
+
+    public static String userMessage(Script script) {
+        return script == Script.CJK ? CJK_USER : LATIN_USER;
+    }
+
+    public static String tutorReply(Script script) {
+        return script == Script.CJK ? CJK_TUTOR : LATIN_TUTOR;
+    }
+
+    /**
+     * A tutor reply followed by the ---TOPICS--- block the chat prompt asks for.
+     */
+    public static String replyWithTopics(Script script) {
+        String topics = script == Script.CJK
+                ? "[\"は vs が\", \"です copula\", \"総記の「が」\"]"
+                : "[\"subjunctive after esperar\", \"indicative vs subjunctive\", \"saber que\"]";
+        return tutorReply(script) + "\n\n---TOPICS---\n" + topics;
+    }
+
+    /**
+     * turns user/assistant messages as role/content maps, the shape ChatServiceImpl hands to PromptTemplates.
+     */
+    public static List<Map<String, String>> conversation(Script script, int turns) {
+        List<Map<String, String>> messages = new ArrayList<>(turns);
+        for (int i = 0; i < turns; i++) {
+            messages.add(i % 2 == 0
+                    ? Map.of("role", "user", "content", userMessage(script))
+                    : Map.of("role", "assistant", "content", tutorReply(script)));
+        }
+        return messages;
+    }
+
+    /**
+     * A note-creation response as the LLM returns it, with structured content and tags.
+     */
+    public static String noteJson(Script script) {
+        boolean cjk = script == Script.CJK;
+        return """
+                {"type":"grammar","title":"%s","summary":"%s","content":"%s",
+                 "structured":{"pattern":"%s","meaning":"%s","explanation":"%s","formality":"neutral",
+                  "exampleSentences":[{"targetLanguageSentence":"%s","learningLanguageSentence":"%s"},
+                                      {"targetLanguageSentence":"%s","learningLanguageSentence":"%s"}],
+                  "commonMistakes":["%s"]},
+                 "tags":[{"category":"difficulty","value":"beginner"},{"category":"function","value":"contrast"},
+                         {"category":"topic","value":"%s"},{"category":"unknown","value":"dropped"}]}
+                """.formatted(
+                cjk ? "「は」と「が」の使い分け" : "Subjunctive after esperar que",
+                cjk ? "「は」は話題、「が」は主語や新しい情報を示す。" : "Hopes take the subjunctive in the second clause.",
+                cjk ? CJK_TUTOR : LATIN_TUTOR,
+                cjk ? "X は Y / X が Y" : "esperar que + subjuntivo",
+                cjk ? "topic vs subject" : "to hope that",
+                cjk ? "「が」は強調や新情報に使う。" : "The hoped-for event is not asserted as fact.",
+                cjk ? "私は学生です。" : "Espero que vengas.",
+                cjk ? "I am a student." : "I hope you come.",
+                cjk ? "誰が来ましたか？田中さんが来ました。" : "Esperamos que llueva.",
+                cjk ? "Who came? Tanaka came." : "We hope it rains.",
+                cjk ? "私が学生です (when not answering 'who')" : "espero que vienes",
+                cjk ? "particles" : "verbs");
+    }
+}
@@ -0,0 +1,95 @@
+package com.alang.benchmark;
+
+import com.alang.service.PromptTemplates;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt building and reply post-processing, which run on every chat
+ * message (system prompt, topics) or every note call (conversation).
+ *
+ * The note prompts are how appendConversation is measured: it is private,
+ * and they are its only callers. A 20-message session is the close-session
+ * case; 60 is a long one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PromptTemplatesBenchmark {
+
+    @Param({"LATIN", "CJK"})
+    private Payloads.Script script;
+
+    private final PromptTemplates promptTemplates = new PromptTemplates();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String reply;
+
+    /**
+     * Session length only matters to the note prompts, so only they are run per length.
+     */
+    @State(Scope.Benchmark)
+    public static class Conversation {
+
+        @Param({"20", "60"})
+        private int messages;
+
+        private List<Map<String, String>> messageMaps;
+        private String existingNote;
+
+        @Setup
+        public void setUp(PromptTemplatesBenchmark benchmark) {
+            messageMaps = Payloads.conversation(benchmark.script, messages);
+            existingNote = Payloads.noteJson(benchmark.script);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        reply = Payloads.replyWithTopics(script);
+    }
+
+    @Benchmark
+    public String buildChatSystemPrompt() {
+        return script == Payloads.Script.CJK
+                ? promptTemplates.buildChatSystemPrompt("English", "Japanese")
+                : promptTemplates.buildChatSystemPrompt("English", "Spanish");
+    }
+
+    @Benchmark
+    public String buildNoteCreationUserPrompt(Conversation conversation) {
+        return promptTemplates.buildNoteCreationUserPrompt(conversation.messageMaps, null);
+    }
+
+    @Benchmark
+    public String buildNoteUpdateUserPrompt(Conversation conversation) {
+        return promptTemplates.buildNoteUpdateUserPrompt(conversation.messageMaps, conversation.existingNote, "particles");
+    }
+
+    @Benchmark
+    public List<String> extractTopics() {
+        return PromptTemplates.extractTopics(reply, objectMapper);
+    }
+
+    @Benchmark
+    public String stripTopicsBlock() {
+        return PromptTemplates.stripTopicsBlock(reply);
+    }
+}
@@ -0,0 +1,145 @@
+package com.alang.service.impl;
+
+import com.alang.benchmark.Payloads;
+import com.alang.dto.chat.SessionDetailResponse;
+import com.alang.dto.chat.SessionResponse;
+import com.alang.dto.note.NoteDto;
+import com.alang.entity.ChatSession;
+import com.alang.entity.Language;
+import com.alang.entity.Note;
+import com.alang.entity.NoteTag;
+import com.alang.entity.NoteType;
+import com.alang.entity.RecentMessage;
+import com.alang.entity.RoleType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping for the list endpoints: a page of notes
+ * (GET /notes, the review queue) and a session with its messages
+ * (GET /chat/sessions/active).
+ *
+ * The entities are detached and fully populated, so this is the mapping
+ * cost alone, without lazy loads. The page is also serialized with the
+ * app's ObjectMapper, since that is where the mapped DTOs go next.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int SESSION_MESSAGES = 40;
+
+    @Param({"LATIN", "CJK"})
+    private Payloads.Script script;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private List<Note> notes;
+    private ChatSession session;
+    private List<RecentMessage> messages;
+
+    @Setup
+    public void setUp() throws Exception {
+        Language english = language("en", "English");
+        Language learning = script == Payloads.Script.CJK ? language("ja", "Japanese") : language("es", "Spanish");
+        LocalDateTime now = LocalDateTime.now();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> structured = objectMapper.readValue(Payloads.noteJson(script), Map.class);
+        notes = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Note note = new Note();
+            note.setId(UUID.randomUUID().toString());
+            note.setType(NoteType.grammar);
+            note.setTeachingLanguage(english);
+            note.setLearningLanguage(learning);
+            note.setTitle((String) structured.get("title"));
+            note.setSummary((String) structured.get("summary"));
+            note.setNoteContent((String) structured.get("content"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> structuredContent = (Map<String, Object>) structured.get("structured");
+            note.setStructuredContent(structuredContent);
+            note.setReviewCount(i);
+            note.setLastReviewedAt(now.minusDays(i));
+            note.setNextReviewAt(now.plusDays(i));
+            note.setCreatedAt(now.minusDays(30));
+            note.setUpdatedAt(now);
+            for (String[] tag : new String[][]{{"difficulty", "beginner"}, {"function", "contrast"}, {"topic", "particles"}}) {
+                NoteTag noteTag = new NoteTag();
+                noteTag.setNote(note);
+                noteTag.setTagCategory(tag[0]);
+                noteTag.setTagValue(tag[1]);
+                note.getTags().add(noteTag);
+            }
+            notes.add(note);
+        }
+
+        session = new ChatSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setTeachingLanguage(english);
+        session.setLearningLanguage(learning);
+        session.setTitle("Benchmark session");
+        session.setCreatedAt(now.minusHours(1));
+        session.setUpdatedAt(now);
+        session.setMessageCount(SESSION_MESSAGES);
+        session.setLastMessageAt(now);
+        messages = new ArrayList<>(SESSION_MESSAGES);
+        for (int i = 0; i < SESSION_MESSAGES; i++) {
+            RecentMessage message = new RecentMessage();
+            message.setSession(session);
+            message.setRole(i % 2 == 0 ? RoleType.user : RoleType.assistant);
+            message.setContent(i % 2 == 0 ? Payloads.userMessage(script) : Payloads.tutorReply(script));
+            message.setCreatedAt(now.minusMinutes(SESSION_MESSAGES - i));
+            messages.add(message);
+        }
+    }
+
+    @Benchmark
+    public List<NoteDto> notePage() {
+        return notes.stream().map(NoteServiceImpl::toDto).toList();
+    }
+
+    @Benchmark
+    public byte[] notePageJson() throws Exception {
+        return objectMapper.writeValueAsBytes(notes.stream().map(NoteServiceImpl::toDto).toList());
+    }
+
+    @Benchmark
+    public SessionResponse sessionResponse() {
+        return ChatServiceImpl.toSessionResponse(session);
+    }
+
+    @Benchmark
+    public SessionDetailResponse sessionDetailResponse() {
+        return ChatServiceImpl.toSessionDetailResponse(session, messages);
+    }
+
+    private static Language language(String code, String name) {
+        Language language = new Language();
+        language.setCode(code);
+        language.setName(name);
+        return language;
+    }
+}
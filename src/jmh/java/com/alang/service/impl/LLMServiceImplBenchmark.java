@@ -0,0 +1,61 @@
+package com.alang.service.impl;
+
+import com.alang.benchmark.Payloads;
+import com.alang.dto.note.NoteDto;
+import com.alang.service.LLMMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The pure parts of LLMServiceImpl: parsing a note-creation response
+ * (readTree, then parseNoteNode with its convertValue of the structured
+ * block) and the token estimate run on every prompt part.
+ *
+ * Lives in this package because parseNoteCreationResponse is package-private;
+ * the repositories and router are not touched by either path, so they are null.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LLMServiceImplBenchmark {
+
+    @Param({"LATIN", "CJK"})
+    private Payloads.Script script;
+
+    private LLMServiceImpl llmService;
+    private String noteJson;
+    private String message;
+
+    @Setup
+    public void setUp() {
+        llmService = new LLMServiceImpl(null, null, null, null, null, null, null, null, LLMMetrics.noop(),
+                new ObjectMapper());
+        noteJson = Payloads.noteJson(script);
+        message = Payloads.tutorReply(script);
+    }
+
+    @Benchmark
+    public NoteDto parseNoteCreationResponse() {
+        return llmService.parseNoteCreationResponse(noteJson, script == Payloads.Script.CJK ? "ja" : "es");
+    }
+
+    @Benchmark
+    public int countTokens() {
+        return llmService.countTokens(message, "gpt-3.5-turbo");
+    }
+}
@@ -0,0 +1,63 @@
+package com.alang.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SM-2 scheduling math, run per review and per note by NoteRescheduleJob.
+ *
+ * Inputs cycle through a fixed table of (interval, ease, quality) so the
+ * switch is not perfectly predicted and nothing is constant-folded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReviewServiceImplBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    private ReviewServiceImpl reviewService;
+    private final int[] intervals = new int[INPUTS];
+    private final double[] easeFactors = new double[INPUTS];
+    private final int[] qualities = new int[INPUTS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        reviewService = new ReviewServiceImpl(null, null, null, null, null, null, null, null);
+        Random random = new Random(42);
+        for (int i = 0; i < INPUTS; i++) {
+            intervals[i] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(365);
+            easeFactors[i] = 1.0 + random.nextDouble() * 1.5;
+            qualities[i] = 1 + random.nextInt(4);
+        }
+    }
+
+    @Benchmark
+    public int calculateNextInterval() {
+        int i = next++ & (INPUTS - 1);
+        return reviewService.calculateNextInterval(intervals[i], easeFactors[i], qualities[i]);
+    }
+
+    @Benchmark
+    public int scheduleReview() {
+        // What applyReview does per review: new ease factor, then the interval from it
+        int i = next++ & (INPUTS - 1);
+        double easeFactor = reviewService.updateEaseFactor(easeFactors[i], qualities[i]);
+        return reviewService.calculateNextInterval(intervals[i], easeFactor, qualities[i]);
+    }
+}
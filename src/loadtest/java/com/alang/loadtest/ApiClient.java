@@ -0,0 +1,122 @@
+package com.alang.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thin JSON client for the REST API, shared by every virtual user.
+ *
+ * java.net.http keeps a pool of keep-alive connections, so requests measure
+ * the app rather than TCP handshakes. Transport failures come back as
+ * status 0 instead of throwing, so the workload counts them as errors and
+ * keeps going.
+ */
+final class ApiClient {
+
+    record Response(int status, JsonNode body) {
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    record Login(String token, String userId) {
+    }
+
+    private final String baseUrl;
+    private final ObjectMapper json;
+    private final HttpClient http;
+
+    ApiClient(String baseUrl, ObjectMapper json) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.json = json;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    Response get(String path, String token) {
+        return send(HttpRequest.newBuilder(uri(path)).GET(), token);
+    }
+
+    Response post(String path, String token, Object body) {
+        byte[] bytes;
+        try {
+            bytes = json.writeValueAsBytes(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write request body for " + path, e);
+        }
+        return send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(bytes)), token);
+    }
+
+    /**
+     * Signs up, or logs in if the account already exists (a re-run with the same run id).
+     */
+    Login signupOrLogin(String email, String password, String displayName) {
+        Response response = post("/user/signup", null, Map.of(
+                "email", email,
+                "password", password,
+                "displayName", displayName,
+                "appLanguageCode", "en",
+                "targetLanguageCodes", List.of("ja")));
+        if (!response.ok()) {
+            return login(email, password);
+        }
+        return toLogin(response, "/user/signup");
+    }
+
+    Login login(String email, String password) {
+        return toLogin(post("/user/login", null, Map.of("email", email, "password", password)), "/user/login");
+    }
+
+    private Login toLogin(Response response, String path) {
+        if (!response.ok()) {
+            throw new IllegalStateException(path + " returned " + response.status() + ": " + response.body());
+        }
+        return new Login(response.body().path("token").asText(), response.body().path("userId").asText());
+    }
+
+    private Response send(HttpRequest.Builder request, String token) {
+        request.timeout(Duration.ofSeconds(60)).header("Accept", "application/json");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        try {
+            HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            return new Response(response.statusCode(), parse(response.body()));
+        } catch (IOException e) {
+            return new Response(0, MissingNode.getInstance());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(0, MissingNode.getInstance());
+        }
+    }
+
+    private JsonNode parse(byte[] body) {
+        if (body.length == 0) {
+            return MissingNode.getInstance();
+        }
+        try {
+            return json.readTree(body);
+        } catch (IOException e) {
+            return MissingNode.getInstance();
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+}
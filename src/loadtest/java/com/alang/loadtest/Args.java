@@ -0,0 +1,51 @@
+package com.alang.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * key=value program arguments, as the pom's loadtest profile passes them
+ * from -Dloadtest.args. Each key is read at most once; done() rejects any
+ * that were never read, so a typo fails instead of silently using a default.
+ */
+final class Args {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    Args(String[] args) {
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalStateException("Argument must be key=value: " + arg);
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        String value = values.remove(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    int getInt(String name, int defaultValue) {
+        return Integer.parseInt(get(name, String.valueOf(defaultValue)));
+    }
+
+    long getLong(String name, long defaultValue) {
+        return Long.parseLong(get(name, String.valueOf(defaultValue)));
+    }
+
+    double getDouble(String name, double defaultValue) {
+        return Double.parseDouble(get(name, String.valueOf(defaultValue)));
+    }
+
+    boolean getBoolean(String name, boolean defaultValue) {
+        return Boolean.parseBoolean(get(name, String.valueOf(defaultValue)));
+    }
+
+    void done() {
+        if (!values.isEmpty()) {
+            throw new IllegalStateException("Unknown settings: " + values.keySet());
+        }
+    }
+}
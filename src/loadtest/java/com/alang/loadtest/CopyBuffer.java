@@ -0,0 +1,118 @@
+package com.alang.loadtest;
+
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Rows for one table, buffered as CSV and sent with COPY ... FROM STDIN.
+ *
+ * null becomes an unquoted empty field (NULL); strings are always quoted,
+ * so an empty string stays an empty string. String[] is written as a
+ * Postgres array literal with every element quoted, so commas, braces,
+ * quotes and backslashes in an element survive.
+ */
+final class CopyBuffer {
+
+    private final String table;
+    private final String copySql;
+    private final StringBuilder csv = new StringBuilder(1 << 16);
+    private long rows;
+
+    CopyBuffer(String table, String columns) {
+        this.table = table;
+        this.copySql = "COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)";
+    }
+
+    void row(Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            append(values[i]);
+        }
+        csv.append('\n');
+        rows++;
+    }
+
+    int length() {
+        return csv.length();
+    }
+
+    String table() {
+        return table;
+    }
+
+    /**
+     * Sends the buffered rows and clears the buffer; returns how many were sent.
+     */
+    long flush(CopyManager copyManager) throws SQLException {
+        if (csv.isEmpty()) {
+            return 0;
+        }
+        try {
+            copyManager.copyIn(copySql, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into " + table + " failed", e);
+        }
+        long sent = rows;
+        csv.setLength(0);
+        rows = 0;
+        return sent;
+    }
+
+    private void append(Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof String s) {
+            quote(s);
+        } else if (value instanceof String[] array) {
+            quote(arrayLiteral(array));
+        } else if (value instanceof LocalDateTime || value instanceof LocalDate
+                || value instanceof Number || value instanceof Boolean || value instanceof Enum<?>) {
+            csv.append(value);
+        } else {
+            throw new IllegalArgumentException("Unsupported COPY value for " + table + ": " + value.getClass());
+        }
+    }
+
+    private static String arrayLiteral(String[] array) {
+        StringBuilder literal = new StringBuilder("{");
+        for (int i = 0; i < array.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            if (array[i] == null) {
+                literal.append("NULL");
+                continue;
+            }
+            literal.append('"');
+            for (int j = 0; j < array[i].length(); j++) {
+                char c = array[i].charAt(j);
+                if (c == '"' || c == '\\') {
+                    literal.append('\\');
+                }
+                literal.append(c);
+            }
+            literal.append('"');
+        }
+        return literal.append('}').toString();
+    }
+
+    private void quote(String s) {
+        csv.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        csv.append('"');
+    }
+}
@@ -0,0 +1,54 @@
+package com.alang.loadtest;
+
+import java.time.LocalDate;
+
+/**
+ * Data generator settings, from key=value program arguments (see Args).
+ *
+ * The defaults give about 1M notes, 2.5M tags, 2M recent messages and
+ * 10M+ review events; scale with users and meanNotesPerUser.
+ * Output depends only on seed, asOf and the size settings, not on threads
+ * or batchUsers, so two runs with the same values load the same rows.
+ */
+record DataGenConfig(
+        String jdbcUrl,
+        String dbUser,
+        String dbPassword,
+        int users,
+        double meanNotesPerUser,
+        double notesPowerLawAlpha,
+        int maxNotesPerUser,
+        double meanSessionsPerUser,
+        double meanMessagesPerSession,
+        int historyDays,
+        LocalDate asOf,
+        int threads,
+        int batchUsers,
+        boolean truncate,
+        long seed) {
+
+    static DataGenConfig fromArgs(String[] args) {
+        Args values = new Args(args);
+        DataGenConfig config = new DataGenConfig(
+                values.get("jdbcUrl", "jdbc:postgresql://localhost:5432/alang"),
+                values.get("dbUser", "postgres"),
+                values.get("dbPassword", "postgres"),
+                values.getInt("users", 10_000),
+                values.getDouble("meanNotesPerUser", 100),
+                values.getDouble("notesPowerLawAlpha", 1.6),
+                values.getInt("maxNotesPerUser", 20_000),
+                values.getDouble("meanSessionsPerUser", 20),
+                values.getDouble("meanMessagesPerSession", 10),
+                values.getInt("historyDays", 365),
+                LocalDate.parse(values.get("asOf", LocalDate.now().toString())),
+                values.getInt("threads", Runtime.getRuntime().availableProcessors()),
+                values.getInt("batchUsers", 100),
+                values.getBoolean("truncate", false),
+                values.getLong("seed", 42));
+        values.done();
+        if (config.notesPowerLawAlpha() <= 1) {
+            throw new IllegalStateException("notesPowerLawAlpha must be > 1 for the mean to exist");
+        }
+        return config;
+    }
+}
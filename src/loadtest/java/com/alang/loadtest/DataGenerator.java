@@ -0,0 +1,153 @@
+package com.alang.loadtest;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads a production-sized synthetic dataset straight into Postgres with
+ * COPY, for benchmarking queries and load tests at realistic volumes.
+ *
+ * Migrate an empty database first (start the app once), then:
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.alang.loadtest.DataGenerator
+ *     -Dloadtest.args="users=100000 seed=7 asOf=2026-01-01"
+ * Generated users are gen-{seed}-{n}@example.com with password
+ * "datagen-password". See DataGenConfig for the other settings.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Users are split into batches of batchUsers, generated on a fixed pool of
+ *   threads, each batch in one transaction on its own connection, so a
+ *   failed run leaves whole batches rather than half-written users
+ * - Buffers are flushed after a complete user once they pass FLUSH_CHARS,
+ *   in foreign-key order (see Tables)
+ * - truncate=true empties every user-data table first (TRUNCATE ... CASCADE);
+ *   languages, reschedule_jobs and idempotency_keys are left alone.
+ *   Without it, rerunning the same seed fails on the unique email index
+ * - conversation_summaries and note_relations are not generated
+ * - ANALYZE runs at the end so the planner sees the new volumes
+ */
+public final class DataGenerator {
+
+    private static final int FLUSH_CHARS = 16 << 20;
+
+    private DataGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        DataGenConfig config = DataGenConfig.fromArgs(args);
+        long startedAt = System.nanoTime();
+
+        try (Connection connection = connect(config)) {
+            checkLanguages(connection);
+            if (config.truncate()) {
+                System.out.println("Truncating " + String.join(", ", Tables.NAMES_CHILDREN_FIRST));
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("TRUNCATE " + String.join(", ", Tables.NAMES_CHILDREN_FIRST) + " CASCADE");
+                }
+            }
+        }
+
+        System.out.printf("Generating %d users (seed %d, as of %s) on %d threads%n",
+                config.users(), config.seed(), config.asOf(), config.threads());
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        UserRows rows = new UserRows(config);
+        AtomicInteger usersDone = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(config.threads());
+        try {
+            List<Future<?>> batches = new ArrayList<>();
+            for (int from = 0; from < config.users(); from += config.batchUsers()) {
+                int start = from;
+                int end = Math.min(config.users(), from + config.batchUsers());
+                batches.add(pool.submit(() -> {
+                    loadBatch(config, rows, start, end, counts);
+                    int done = usersDone.addAndGet(end - start);
+                    System.out.printf("  %d/%d users (%s)%n", done, config.users(), elapsed(startedAt));
+                    return null;
+                }));
+            }
+            for (Future<?> batch : batches) {
+                batch.get();
+            }
+        } catch (ExecutionException e) {
+            pool.shutdownNow();
+            throw new IllegalStateException("Data generation failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.println("Analyzing");
+        try (Connection connection = connect(config); Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+
+        System.out.printf("%nLoaded in %s:%n", elapsed(startedAt));
+        new TreeMap<>(counts).forEach((table, count) -> System.out.printf("  %-20s %,d%n", table, count));
+    }
+
+    private static void loadBatch(DataGenConfig config, UserRows rows, int start, int end,
+                                  Map<String, Long> counts) throws SQLException {
+        try (Connection connection = connect(config)) {
+            connection.setAutoCommit(false);
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            Tables tables = new Tables();
+            for (int index = start; index < end; index++) {
+                rows.generate(index, tables);
+                if (tables.bufferedChars() > FLUSH_CHARS) {
+                    tables.flush(copyManager, counts);
+                }
+            }
+            tables.flush(copyManager, counts);
+            connection.commit();
+        }
+    }
+
+    private static void checkLanguages(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT code FROM languages")) {
+            List<String> present = new ArrayList<>();
+            while (result.next()) {
+                present.add(result.getString(1));
+            }
+            List<String> missing = new ArrayList<>();
+            for (Vocabulary.Language language : Vocabulary.LANGUAGES) {
+                if (!present.contains(language.code())) {
+                    missing.add(language.code());
+                }
+            }
+            for (String code : Vocabulary.APP_LANGUAGES) {
+                if (!present.contains(code) && !missing.contains(code)) {
+                    missing.add(code);
+                }
+            }
+            if (!missing.isEmpty()) {
+                throw new IllegalStateException("Languages missing from the database (run the migrations first): "
+                        + missing);
+            }
+        }
+    }
+
+    private static Connection connect(DataGenConfig config) throws SQLException {
+        return DriverManager.getConnection(config.jdbcUrl(), config.dbUser(), config.dbPassword());
+    }
+
+    private static String elapsed(long startedAt) {
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+        return elapsed.toMinutes() + "m" + elapsed.toSecondsPart() + "s";
+    }
+}
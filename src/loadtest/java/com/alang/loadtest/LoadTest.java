@@ -0,0 +1,158 @@
+package com.alang.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * End-to-end load test against a running app: seeds accounts, drives the
+ * operation mix for a fixed time, reports per-endpoint latency percentiles,
+ * throughput, DB queries per request and server heap/GC, and fails (exit 1)
+ * on a regression against the stored baseline.
+ *
+ * Start the app against a local Postgres with the loadtest profile (stub
+ * LLM, Hibernate statistics on) and an admin account, then:
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="adminEmail=... adminPassword=..."
+ * See LoadTestConfig for the other settings.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Hibernate statistics are global to the server, so queries per request
+ *   cannot be read off the concurrent run; instead each operation is first
+ *   run alone, calibrationRequests times, and GET /admin/runtime is diffed
+ *   around it (minus the snapshot call's own queries)
+ * - Heap and GC are diffed around the measured phase only, after warm-up
+ * - Without admin credentials both are skipped and the report says null
+ * - A baseline only gates the endpoints it has; write one with
+ *   updateBaseline=true from a run you trust
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        if (config.mix().get(Operation.REVIEW) > 0 && config.notesPerUser() < 1) {
+            throw new IllegalStateException("notesPerUser must be at least 1 when the mix includes review");
+        }
+        ObjectMapper json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ApiClient api = new ApiClient(config.baseUrl(), json);
+        String adminToken = config.hasAdmin() ? api.login(config.adminEmail(), config.adminPassword()).token() : null;
+        if (adminToken == null) {
+            System.out.println("No adminEmail/adminPassword: skipping DB query counts and heap/GC stats");
+        }
+
+        String startedAt = Instant.now().toString();
+        System.out.printf("Seeding %d users with %d notes each%n", config.users(), config.notesPerUser());
+        List<VirtualUser> users = new Seeder(api, config).seed();
+        Workload workload = new Workload(api, config, users);
+
+        System.out.printf("Warming up for %s%n", config.warmup());
+        workload.run(config.warmup());
+
+        Map<Operation, Double> queries = adminToken == null
+                ? Map.of()
+                : calibrateQueries(api, adminToken, workload, config);
+
+        System.out.printf("Running %s at concurrency %d%n", config.duration(), config.concurrency());
+        JsonNode before = adminToken == null ? null : runtime(api, adminToken);
+        Workload.Phase phase = workload.run(config.duration());
+        JsonNode after = adminToken == null ? null : runtime(api, adminToken);
+
+        Report report = report(config, startedAt, phase, queries, before, after);
+        System.out.print(report.table());
+
+        Files.createDirectories(config.report().toAbsolutePath().getParent());
+        json.writeValue(config.report().toFile(), report);
+        System.out.println("Report written to " + config.report());
+
+        if (config.updateBaseline()) {
+            Files.createDirectories(config.baseline().toAbsolutePath().getParent());
+            json.writeValue(config.baseline().toFile(), report);
+            System.out.println("Baseline updated: " + config.baseline());
+            return;
+        }
+        if (!Files.exists(config.baseline())) {
+            System.out.println("No baseline at " + config.baseline() + "; nothing to compare against");
+            return;
+        }
+        List<String> regressions = report.regressionsAgainst(
+                json.readValue(config.baseline().toFile(), Report.class), config.tolerance());
+        if (regressions.isEmpty()) {
+            System.out.printf("Within %.0f%% of baseline %s%n", config.tolerance() * 100, config.baseline());
+            return;
+        }
+        System.out.println("Regressions against " + config.baseline() + ":");
+        regressions.forEach(r -> System.out.println("  " + r));
+        System.exit(1);
+    }
+
+    private static Map<Operation, Double> calibrateQueries(ApiClient api, String adminToken, Workload workload,
+                                                           LoadTestConfig config) {
+        long snapshotCost = statements(runtime(api, adminToken), runtime(api, adminToken));
+        Map<Operation, Double> queries = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            if (config.mix().get(operation) == 0) {
+                continue;
+            }
+            JsonNode before = runtime(api, adminToken);
+            if (!before.path("hibernateStatisticsEnabled").asBoolean()) {
+                System.out.println("Hibernate statistics are off on the server (run it with the loadtest profile)");
+                return Map.of();
+            }
+            int failed = workload.runAlone(operation, config.calibrationRequests());
+            JsonNode after = runtime(api, adminToken);
+            int succeeded = config.calibrationRequests() - failed;
+            if (succeeded > 0) {
+                queries.put(operation, (double) (statements(before, after) - snapshotCost) / succeeded);
+            }
+        }
+        return queries;
+    }
+
+    private static Report report(LoadTestConfig config, String startedAt, Workload.Phase phase,
+                                 Map<Operation, Double> queries, JsonNode before, JsonNode after) {
+        double seconds = phase.elapsed().toNanos() / 1e9;
+        Map<String, Report.Endpoint> endpoints = new LinkedHashMap<>();
+        long requests = 0;
+        for (Operation operation : Operation.values()) {
+            if (config.mix().get(operation) == 0) {
+                continue;
+            }
+            Report.Endpoint endpoint = Report.endpoint(operation, phase.latencies().get(operation),
+                    phase.errors().get(operation), seconds, queries.get(operation));
+            endpoints.put(operation.key(), endpoint);
+            requests += endpoint.requests();
+        }
+        Report.Jvm jvm = before == null ? null : new Report.Jvm(
+                before.path("heapUsedBytes").asLong(),
+                after.path("heapUsedBytes").asLong(),
+                after.path("heapMaxBytes").asLong(),
+                after.path("gcCount").asLong() - before.path("gcCount").asLong(),
+                after.path("gcTimeMs").asLong() - before.path("gcTimeMs").asLong(),
+                after.path("liveThreads").asInt());
+        return new Report(startedAt, config.baseUrl(), config.users(), config.notesPerUser(), config.concurrency(),
+                seconds, requests, requests / seconds, endpoints, jvm);
+    }
+
+    private static JsonNode runtime(ApiClient api, String adminToken) {
+        ApiClient.Response response = api.get("/admin/runtime", adminToken);
+        if (!response.ok()) {
+            throw new IllegalStateException("GET /admin/runtime returned " + response.status()
+                    + " (is the admin account in app.admin.user-ids?)");
+        }
+        return response.body();
+    }
+
+    private static long statements(JsonNode before, JsonNode after) {
+        return after.path("jdbcStatements").asLong() - before.path("jdbcStatements").asLong();
+    }
+}
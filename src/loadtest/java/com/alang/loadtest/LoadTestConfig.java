@@ -0,0 +1,76 @@
+package com.alang.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load-test settings, from key=value program arguments (the pom's loadtest
+ * profile passes -Dloadtest.args through). Keys are the component names;
+ * durations are ISO-8601 (PT2M).
+ *
+ * mix is "op=weight" pairs, e.g. "chat=1,notes=4,search=2,queue=2,review=1";
+ * an operation left out gets weight 0.
+ */
+record LoadTestConfig(
+        String baseUrl,
+        int users,
+        int notesPerUser,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        int calibrationRequests,
+        String adminEmail,
+        String adminPassword,
+        Path report,
+        Path baseline,
+        boolean updateBaseline,
+        double tolerance,
+        long seed) {
+
+    static LoadTestConfig fromArgs(String[] args) {
+        Args values = new Args(args);
+        LoadTestConfig config = new LoadTestConfig(
+                values.get("baseUrl", "http://localhost:8080"),
+                values.getInt("users", 20),
+                values.getInt("notesPerUser", 50),
+                values.getInt("concurrency", 20),
+                Duration.parse(values.get("warmup", "PT30S")),
+                Duration.parse(values.get("duration", "PT2M")),
+                parseMix(values.get("mix", "chat=1,notes=4,search=2,queue=2,review=1")),
+                values.getInt("calibrationRequests", 20),
+                values.get("adminEmail", ""),
+                values.get("adminPassword", ""),
+                Path.of(values.get("report", "target/loadtest/report.json")),
+                Path.of(values.get("baseline", "loadtest/baseline.json")),
+                values.getBoolean("updateBaseline", false),
+                values.getDouble("tolerance", 0.15),
+                values.getLong("seed", 42));
+        values.done();
+        return config;
+    }
+
+    boolean hasAdmin() {
+        return !adminEmail.isBlank() && !adminPassword.isBlank();
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            weights.put(operation, 0);
+        }
+        for (String pair : mix.split(",")) {
+            String[] parts = pair.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalStateException("mix entry must be op=weight: " + pair);
+            }
+            weights.put(Operation.byKey(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalStateException("mix has no operation with a positive weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,85 @@
+package com.alang.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The requests a virtual user makes. Each is reported as its own endpoint.
+ *
+ * Note-list and search pages are the app's default page size; search terms
+ * are words that appear in seeded note titles, so they match.
+ */
+enum Operation {
+
+    CHAT("chat", "POST /chat/sessions/{id}/message") {
+        @Override
+        ApiClient.Response call(ApiClient api, VirtualUser user, Random random) {
+            return api.post("/chat/sessions/" + user.sessionId() + "/message", user.token(),
+                    Map.of("message", MESSAGES.get(random.nextInt(MESSAGES.size()))));
+        }
+    },
+    NOTES("notes", "GET /notes") {
+        @Override
+        ApiClient.Response call(ApiClient api, VirtualUser user, Random random) {
+            return api.get("/notes?language=ja&page=" + random.nextInt(3), user.token());
+        }
+    },
+    SEARCH("search", "GET /notes?search=") {
+        @Override
+        ApiClient.Response call(ApiClient api, VirtualUser user, Random random) {
+            return api.get("/notes?search=" + Seeder.TITLE_WORDS.get(random.nextInt(Seeder.TITLE_WORDS.size())),
+                    user.token());
+        }
+    },
+    QUEUE("queue", "GET /review/queue") {
+        @Override
+        ApiClient.Response call(ApiClient api, VirtualUser user, Random random) {
+            return api.get("/review/queue?limit=20", user.token());
+        }
+    },
+    REVIEW("review", "POST /review/reviewed") {
+        @Override
+        ApiClient.Response call(ApiClient api, VirtualUser user, Random random) {
+            String noteId = user.noteIds().get(random.nextInt(user.noteIds().size()));
+            return api.post("/review/reviewed", user.token(), Map.of(
+                    "noteId", noteId,
+                    "quality", 1 + random.nextInt(4),
+                    "timeSpentSeconds", 5 + random.nextInt(30)));
+        }
+    };
+
+    private static final List<String> MESSAGES = List.of(
+            "What is the difference between は and が?",
+            "How do I say I like cats?",
+            "Can you check this sentence: 私は学生です",
+            "When should I use です?",
+            "Give me an example with 好き");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    abstract ApiClient.Response call(ApiClient api, VirtualUser user, Random random);
+
+    String key() {
+        return key;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    static Operation byKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Unknown load-test operation: " + key);
+    }
+}
@@ -0,0 +1,122 @@
+package com.alang.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a run measured, in the shape written to the report file and read
+ * back as the baseline.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Endpoints are keyed by operation (chat, notes, ...) so a baseline stays
+ *   comparable when the mix changes; operations not in the mix are omitted
+ * - queriesPerRequest and jvm are null when the run had no admin account
+ *   (GET /admin/runtime is admin-only)
+ */
+record Report(
+        String startedAt,
+        String baseUrl,
+        int users,
+        int notesPerUser,
+        int concurrency,
+        double durationSeconds,
+        long requests,
+        double throughputPerSecond,
+        Map<String, Endpoint> endpoints,
+        Jvm jvm) {
+
+    record Endpoint(
+            String endpoint,
+            long requests,
+            long errors,
+            double throughputPerSecond,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs,
+            Double queriesPerRequest) {
+    }
+
+    /**
+     * Server JVM over the measured phase.
+     */
+    record Jvm(long heapUsedStartBytes, long heapUsedEndBytes, long heapMaxBytes,
+               long gcCount, long gcTimeMs, int liveThreadsEnd) {
+    }
+
+    static Endpoint endpoint(Operation operation, Histogram latencies, long errors, double seconds,
+                             Double queriesPerRequest) {
+        long requests = latencies.getTotalCount();
+        return new Endpoint(operation.endpoint(), requests, errors, requests / seconds,
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(90)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()),
+                queriesPerRequest);
+    }
+
+    /**
+     * Slower p99, lower throughput or more queries than the baseline, beyond tolerance.
+     * Query counts are deterministic per request, so any increase over half a query counts.
+     */
+    List<String> regressionsAgainst(Report baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Endpoint> entry : baseline.endpoints().entrySet()) {
+            Endpoint before = entry.getValue();
+            Endpoint now = endpoints.get(entry.getKey());
+            if (now == null) {
+                continue;
+            }
+            String name = before.endpoint();
+            if (now.p99Ms() > before.p99Ms() * (1 + tolerance)) {
+                regressions.add("%s p99 %.1f ms -> %.1f ms".formatted(name, before.p99Ms(), now.p99Ms()));
+            }
+            if (now.throughputPerSecond() < before.throughputPerSecond() * (1 - tolerance)) {
+                regressions.add("%s throughput %.1f/s -> %.1f/s"
+                        .formatted(name, before.throughputPerSecond(), now.throughputPerSecond()));
+            }
+            if (errorRate(now) > errorRate(before) + 0.01) {
+                regressions.add("%s error rate %.2f%% -> %.2f%%"
+                        .formatted(name, errorRate(before) * 100, errorRate(now) * 100));
+            }
+            if (before.queriesPerRequest() != null && now.queriesPerRequest() != null
+                    && now.queriesPerRequest() > before.queriesPerRequest() + 0.5) {
+                regressions.add("%s queries/request %.1f -> %.1f"
+                        .formatted(name, before.queriesPerRequest(), now.queriesPerRequest()));
+            }
+        }
+        return regressions;
+    }
+
+    String table() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("%-34s %8s %6s %8s %8s %8s %8s %9s %8s %7s%n".formatted(
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "queries"));
+        for (Endpoint e : endpoints.values()) {
+            sb.append("%-34s %8d %6d %8.1f %8.1f %8.1f %8.1f %9.1f %8.1f %7s%n".formatted(
+                    e.endpoint(), e.requests(), e.errors(), e.throughputPerSecond(), e.p50Ms(), e.p90Ms(),
+                    e.p99Ms(), e.p999Ms(), e.maxMs(),
+                    e.queriesPerRequest() == null ? "-" : "%.1f".formatted(e.queriesPerRequest())));
+        }
+        sb.append("%-34s %8d %6s %8.1f%n".formatted("total", requests, "", throughputPerSecond));
+        if (jvm != null) {
+            sb.append("server heap %d MB -> %d MB (max %d MB), %d GCs, %d ms in GC, %d threads%n".formatted(
+                    jvm.heapUsedStartBytes() >> 20, jvm.heapUsedEndBytes() >> 20, jvm.heapMaxBytes() >> 20,
+                    jvm.gcCount(), jvm.gcTimeMs(), jvm.liveThreadsEnd()));
+        }
+        return sb.toString();
+    }
+
+    private static double errorRate(Endpoint endpoint) {
+        return endpoint.requests() == 0 ? 0 : (double) endpoint.errors() / endpoint.requests();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
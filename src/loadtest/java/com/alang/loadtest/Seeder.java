@@ -0,0 +1,81 @@
+package com.alang.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Creates the accounts a run drives, through the public API so seeding
+ * exercises the same validation as real sign-ups.
+ *
+ * Accounts are named loadtest-{seed}-{n}@example.com and logged back into
+ * when they already exist, so re-runs with the same seed reuse them
+ * (each run still adds notes on top).
+ */
+final class Seeder {
+
+    static final List<String> TITLE_WORDS = List.of(
+            "particle", "verb", "adjective", "counter", "keigo", "kanji", "greeting", "time", "place", "food");
+
+    private static final String[] TYPES = {"vocab", "grammar", "phrase", "exception", "other"};
+    private static final String PASSWORD = "loadtest-password";
+
+    private final ApiClient api;
+    private final LoadTestConfig config;
+
+    Seeder(ApiClient api, LoadTestConfig config) {
+        this.api = api;
+        this.config = config;
+    }
+
+    List<VirtualUser> seed() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<VirtualUser>> futures = new ArrayList<>(config.users());
+            for (int i = 0; i < config.users(); i++) {
+                int n = i;
+                futures.add(executor.submit(() -> seedUser(n)));
+            }
+            List<VirtualUser> users = new ArrayList<>(config.users());
+            for (Future<VirtualUser> future : futures) {
+                users.add(future.get());
+            }
+            return users;
+        } catch (Exception e) {
+            throw new IllegalStateException("Seeding failed", e);
+        }
+    }
+
+    private VirtualUser seedUser(int n) {
+        String email = "loadtest-" + config.seed() + "-" + n + "@example.com";
+        ApiClient.Login login = api.signupOrLogin(email, PASSWORD, "Load test " + n);
+
+        ApiClient.Response session = api.post("/chat/sessions", login.token(),
+                Map.of("language", "ja", "title", "Load test"));
+        require(session, "POST /chat/sessions");
+
+        Random random = new Random(config.seed() * 31 + n);
+        List<String> noteIds = new ArrayList<>(config.notesPerUser());
+        for (int i = 0; i < config.notesPerUser(); i++) {
+            String word = TITLE_WORDS.get(random.nextInt(TITLE_WORDS.size()));
+            ApiClient.Response note = api.post("/notes", login.token(), Map.of(
+                    "type", TYPES[random.nextInt(TYPES.length)],
+                    "language", "ja",
+                    "title", word + " note " + i,
+                    "summary", "Seeded " + word + " note",
+                    "noteContent", "Seeded by the load-test harness for " + word + "."));
+            require(note, "POST /notes");
+            noteIds.add(note.body().path("id").asText());
+        }
+        return new VirtualUser(login.userId(), login.token(), session.body().path("id").asText(), noteIds);
+    }
+
+    private static void require(ApiClient.Response response, String request) {
+        if (!response.ok()) {
+            throw new IllegalStateException(request + " returned " + response.status() + ": " + response.body());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.alang.loadtest;
+
+import org.postgresql.copy.CopyManager;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One COPY buffer per generated table, flushed in foreign-key order so a
+ * flush never sends a row before the rows it references.
+ */
+final class Tables {
+
+    final CopyBuffer users = new CopyBuffer("users",
+            "id, email, password_hash, display_name, app_language_code, target_language_codes, "
+                    + "total_daily_tokens_used, last_token_reset_date, tier, created_at, updated_at");
+    final CopyBuffer userStats = new CopyBuffer("user_stats", "user_id, note_count, note_counts, updated_at");
+    final CopyBuffer notes = new CopyBuffer("notes",
+            "id, user_id, teaching_language_code, learning_language_code, type, title, summary, note_content, "
+                    + "structured_content, user_edited, review_count, last_reviewed_at, next_review_at, "
+                    + "ease_factor, interval_days, created_at, updated_at");
+    final CopyBuffer noteTags = new CopyBuffer("note_tags", "id, note_id, tag_category, tag_value");
+    final CopyBuffer chatSessions = new CopyBuffer("chat_sessions",
+            "id, user_id, teaching_language_code, learning_language_code, status, title, created_at, updated_at, "
+                    + "closed_at, note_created, note_id, message_count, last_message_at");
+    final CopyBuffer recentMessages = new CopyBuffer("recent_messages",
+            "id, user_id, teaching_language_code, learning_language_code, session_id, role, content, model_used, "
+                    + "token_count, created_at, expires_at");
+    final CopyBuffer reviewEvents = new CopyBuffer("review_events",
+            "id, user_id, note_id, quality, time_spent_seconds, previous_interval_days, next_interval_days, "
+                    + "ease_factor, reviewed_at");
+    final CopyBuffer reviewDailyStats = new CopyBuffer("review_daily_stats",
+            "user_id, learning_language_code, stat_date, review_count, quality1_count, quality2_count, "
+                    + "quality3_count, quality4_count, total_time_spent_seconds, new_count, mature_count");
+
+    /**
+     * Parents before children.
+     */
+    final List<CopyBuffer> inOrder = List.of(
+            users, userStats, notes, noteTags, chatSessions, recentMessages, reviewEvents, reviewDailyStats);
+
+    /**
+     * Table names, children first, for TRUNCATE.
+     */
+    static final List<String> NAMES_CHILDREN_FIRST = List.of(
+            "review_daily_stats", "review_events", "recent_messages", "chat_sessions", "note_relations",
+            "note_tags", "notes", "conversation_summaries", "user_stats", "users");
+
+    int bufferedChars() {
+        int total = 0;
+        for (CopyBuffer buffer : inOrder) {
+            total += buffer.length();
+        }
+        return total;
+    }
+
+    /**
+     * COPYs every buffer in order, adding the rows sent to counts by table.
+     */
+    void flush(CopyManager copyManager, Map<String, Long> counts) throws SQLException {
+        for (CopyBuffer buffer : inOrder) {
+            long sent = buffer.flush(copyManager);
+            if (sent > 0) {
+                counts.merge(buffer.table(), sent, Long::sum);
+            }
+        }
+    }
+}
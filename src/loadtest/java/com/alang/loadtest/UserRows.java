@@ -0,0 +1,322 @@
+package com.alang.loadtest;
+
+import com.alang.entity.Note;
+import com.alang.entity.ReviewDailyStat;
+import com.alang.service.ReviewScheduler;
+import com.alang.service.impl.ReviewServiceImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Generates every row for one synthetic user: the account, notes and tags,
+ * chat sessions and messages, and a review history, into a Tables batch.
+ *
+ * Each user draws from its own SplittableRandom seeded from (seed, index),
+ * so a user's rows do not depend on which thread or batch generated them.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Notes per user follow a Lomax (shifted Pareto) distribution: most users
+ *   have a handful, a few have thousands; sessions scale with notes
+ * - Reviews are simulated note by note with the app's own SM-2 code
+ *   (ReviewServiceImpl.calculateNextInterval / updateEaseFactor and
+ *   ReviewScheduler.nextReviewAt), so intervals, ease factors and due times
+ *   are ones the app could have produced; load balancing is left out
+ *   because it needs the database
+ * - Users review on a due day with their own diligence, otherwise a day
+ *   later; churned users stop reviewing, leaving overdue backlogs
+ * - Derived data is kept consistent: user_stats note counts,
+ *   chat_sessions.message_count / last_message_at, review_daily_stats
+ */
+final class UserRows {
+
+    // BCrypt of "datagen-password" with a fixed salt, so generated users can log in and reruns are identical
+    static final String PASSWORD = "datagen-password";
+    private static final String PASSWORD_HASH = BCrypt.hashpw(PASSWORD, "$2a$10$alangdatagenerator0000");
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ReviewServiceImpl SM2 = new ReviewServiceImpl(null, null, null, null, null, null, null, null);
+    private static final ReviewScheduler SCHEDULER = new ReviewScheduler(null, 6, false, 0.05, 4, 3);
+    private static final int MAX_REVIEWS_PER_NOTE = 200;
+    private static final String MODEL = "gpt-4o-mini";
+
+    private final DataGenConfig config;
+    private final LocalDateTime now;
+    private final double lomaxScale;
+
+    UserRows(DataGenConfig config) {
+        this.config = config;
+        this.now = config.asOf().atStartOfDay();
+        // Lomax mean is scale / (alpha - 1)
+        this.lomaxScale = config.meanNotesPerUser() * (config.notesPowerLawAlpha() - 1);
+    }
+
+    static String email(long seed, int index) {
+        return "gen-" + seed + "-" + index + "@example.com";
+    }
+
+    private record NoteRef(String id, String type) {
+    }
+
+    void generate(int index, Tables tables) {
+        SplittableRandom random = new SplittableRandom(config.seed() * 0x9E3779B97F4A7C15L + index);
+        String userId = uuid(random);
+
+        long tenureSeconds = (long) (random.nextDouble() * config.historyDays() * 86_400L);
+        LocalDateTime joinedAt = now.minusSeconds(Math.max(3600, tenureSeconds));
+        LocalDateTime activeUntil = random.nextInt(10) < 6
+                ? now
+                : joinedAt.plusSeconds((long) (random.nextDouble() * Math.max(3600, tenureSeconds)));
+        double diligence = 0.5 + random.nextDouble() * 0.48;
+
+        List<Vocabulary.Language> languages = new ArrayList<>(2);
+        languages.add(Vocabulary.learningLanguage(random));
+        if (random.nextInt(5) == 0) {
+            Vocabulary.Language second = Vocabulary.learningLanguage(random);
+            if (!second.code().equals(languages.get(0).code())) {
+                languages.add(second);
+            }
+        }
+        String appLanguage = Vocabulary.appLanguage(random, languages.get(0).code());
+
+        tables.users.row(userId, email(config.seed(), index), PASSWORD_HASH, "Generated user " + index, appLanguage,
+                languages.stream().map(Vocabulary.Language::code).toArray(String[]::new),
+                0L, null, random.nextInt(10) == 0 ? "pro" : "free", joinedAt, activeUntil);
+
+        int noteCount = (int) Math.min(config.maxNotesPerUser(),
+                lomaxScale * (Math.pow(1 - random.nextDouble(), -1 / config.notesPowerLawAlpha()) - 1));
+        Map<String, Long> noteCounts = new TreeMap<>();
+        Map<String, List<NoteRef>> notesByLanguage = new HashMap<>();
+        Map<String, int[]> dailyStats = new TreeMap<>();
+        for (int i = 0; i < noteCount; i++) {
+            Vocabulary.Language language = languages.get(random.nextInt(languages.size()));
+            LocalDateTime createdAt = between(random, joinedAt, activeUntil);
+            NoteRef note = note(random, tables, userId, appLanguage, language, createdAt, activeUntil, diligence,
+                    dailyStats);
+            notesByLanguage.computeIfAbsent(language.code(), code -> new ArrayList<>()).add(note);
+            noteCounts.merge(language.code() + ":" + note.type(), 1L, Long::sum);
+        }
+        tables.userStats.row(userId, (long) noteCount, json(noteCounts), now);
+
+        int sessions = Math.max(1, (int) Math.round(
+                config.meanSessionsPerUser() * (noteCount + 1) / (config.meanNotesPerUser() + 1)));
+        for (int i = 0; i < sessions; i++) {
+            Vocabulary.Language language = languages.get(random.nextInt(languages.size()));
+            // The last one is still open if the user is: started within the last day
+            boolean active = i == sessions - 1 && activeUntil.equals(now);
+            LocalDateTime startedAt = active
+                    ? between(random, now.minusDays(1).isBefore(joinedAt) ? joinedAt : now.minusDays(1), now)
+                    : between(random, joinedAt, activeUntil);
+            session(random, tables, userId, appLanguage, language, startedAt, active,
+                    notesByLanguage.get(language.code()));
+        }
+
+        for (Map.Entry<String, int[]> entry : dailyStats.entrySet()) {
+            String[] key = entry.getKey().split("\\|");
+            int[] s = entry.getValue();
+            tables.reviewDailyStats.row(userId, key[0], LocalDate.parse(key[1]),
+                    s[0], s[1], s[2], s[3], s[4], (long) s[5], s[6], s[7]);
+        }
+    }
+
+    private NoteRef note(SplittableRandom random, Tables tables, String userId, String appLanguage,
+                         Vocabulary.Language language, LocalDateTime createdAt, LocalDateTime activeUntil,
+                         double diligence, Map<String, int[]> dailyStats) {
+        String noteId = uuid(random);
+        String type = Vocabulary.noteType(random);
+
+        Map<String, Object> structured = new LinkedHashMap<>();
+        String title = switch (type) {
+            case "vocab" -> {
+                Vocabulary.Word word = Vocabulary.pick(random, language.words());
+                structured.put("word", word.word());
+                structured.put("reading", word.reading());
+                structured.put("meaning", word.meaning());
+                structured.put("partOfSpeech", word.partOfSpeech());
+                yield word.word();
+            }
+            case "grammar", "phrase" -> {
+                Vocabulary.Pattern pattern = Vocabulary.pick(random,
+                        "grammar".equals(type) ? language.patterns() : language.phrases());
+                structured.put("grammar".equals(type) ? "pattern" : "phrase", pattern.pattern());
+                structured.put("meaning", pattern.meaning());
+                structured.put("explanation", Vocabulary.explanation(random, language, 80));
+                structured.put("formality", Vocabulary.TAGS.get("formality").get(random.nextInt(3)));
+                yield pattern.pattern();
+            }
+            case "exception" -> {
+                Vocabulary.Pattern pattern = Vocabulary.pick(random, language.patterns());
+                structured.put("rule", pattern.pattern());
+                structured.put("exception", Vocabulary.pick(random, language.words()).word());
+                structured.put("explanation", Vocabulary.explanation(random, language, 80));
+                yield "Exception: " + pattern.pattern();
+            }
+            default -> {
+                structured.put("topic", Vocabulary.TAGS.get("topic").get(Vocabulary.zipf(random, 13)));
+                structured.put("notes", Vocabulary.explanation(random, language, 60));
+                yield "Notes on " + structured.get("topic");
+            }
+        };
+        if (!"other".equals(type)) {
+            List<Map<String, String>> examples = new ArrayList<>();
+            for (int i = 0, n = 1 + random.nextInt(3); i < n; i++) {
+                Vocabulary.Sentence sentence = Vocabulary.pick(random, language.sentences());
+                examples.add(Map.of("targetLanguageSentence", sentence.target(),
+                        "learningLanguageSentence", sentence.english()));
+            }
+            structured.put("exampleSentences", examples);
+        }
+        if (!"exception".equals(type) && !"other".equals(type)) {
+            structured.put("commonMistakes", random.nextBoolean()
+                    ? List.of(Vocabulary.pick(random, language.sentences()).target())
+                    : List.of());
+        }
+
+        int contentMedian = language.cjk() ? 350 : 550;
+        String summary = Vocabulary.explanation(random, language, Vocabulary.length(random, 90, 0.4));
+        String content = Vocabulary.explanation(random, language, Vocabulary.length(random, contentMedian, 0.6));
+
+        // SM-2 review history up to the user's last active moment
+        double ease = Note.INITIAL_EASE_FACTOR;
+        int interval = Note.INITIAL_INTERVAL_DAYS;
+        int reviewCount = 0;
+        LocalDateTime lastReviewedAt = null;
+        LocalDateTime nextReviewAt = createdAt;
+        LocalDateTime due = createdAt;
+        LocalDateTime stop = activeUntil.isBefore(now) ? activeUntil : now;
+        while (reviewCount < MAX_REVIEWS_PER_NOTE) {
+            LocalDate day = due.toLocalDate();
+            while (random.nextDouble() > diligence) {
+                day = day.plusDays(1);
+            }
+            LocalDateTime reviewedAt = day.atTime(7 + random.nextInt(16), random.nextInt(60), random.nextInt(60));
+            if (reviewedAt.isBefore(due)) {
+                reviewedAt = due.plusMinutes(5 + random.nextInt(60));
+            }
+            if (!reviewedAt.isBefore(stop)) {
+                break;
+            }
+            long overdueDays = Math.max(0, Duration.between(nextReviewAt, reviewedAt).toDays());
+            int quality = quality(random, interval, overdueDays);
+            int previousInterval = interval;
+            ease = SM2.updateEaseFactor(ease, quality);
+            interval = SM2.calculateNextInterval(previousInterval, ease, quality);
+            nextReviewAt = SCHEDULER.nextReviewAt(noteId, reviewedAt.toLocalDate(), interval);
+            // Interval 0 is "again today": due at once, reviewed again later the same session
+            due = interval == 0 ? reviewedAt.plusMinutes(5 + random.nextInt(30)) : nextReviewAt;
+
+            int timeSpent = 3 + (int) Math.min(120, random.nextExponential() * 12);
+            tables.reviewEvents.row(uuid(random), userId, noteId, quality, timeSpent, previousInterval, interval,
+                    ease, reviewedAt);
+            int[] stats = dailyStats.computeIfAbsent(language.code() + "|" + reviewedAt.toLocalDate(), k -> new int[8]);
+            stats[0]++;
+            stats[quality]++;
+            stats[5] += timeSpent;
+            if (reviewCount == 0) {
+                stats[6]++;
+            }
+            if (previousInterval >= ReviewDailyStat.MATURE_INTERVAL_DAYS) {
+                stats[7]++;
+            }
+            reviewCount++;
+            lastReviewedAt = reviewedAt;
+        }
+
+        LocalDateTime updatedAt = lastReviewedAt == null ? createdAt : lastReviewedAt;
+        tables.notes.row(noteId, userId, appLanguage, language.code(), type, truncate(title, 60),
+                summary, content, json(structured), random.nextInt(20) == 0, reviewCount, lastReviewedAt,
+                nextReviewAt, ease, interval, createdAt, updatedAt);
+
+        Set<String> tagged = new HashSet<>();
+        for (int i = 0, n = 1 + random.nextInt(4); i < n; i++) {
+            String category = Vocabulary.TAG_CATEGORIES.get(i);
+            List<String> values = Vocabulary.TAGS.get(category);
+            String value = values.get(Vocabulary.zipf(random, values.size()));
+            if (tagged.add(category + ":" + value)) {
+                tables.noteTags.row(uuid(random), noteId, category, value);
+            }
+        }
+        return new NoteRef(noteId, type);
+    }
+
+    private void session(SplittableRandom random, Tables tables, String userId, String appLanguage,
+                         Vocabulary.Language language, LocalDateTime startedAt, boolean active, List<NoteRef> notes) {
+        String sessionId = uuid(random);
+        // Geometric number of exchanges; each is a learner message and a tutor reply
+        int exchanges = 1 + (int) (random.nextExponential() * Math.max(0, config.meanMessagesPerSession() / 2 - 1));
+        LocalDateTime at = startedAt;
+        int replyMedian = language.cjk() ? 400 : 650;
+        for (int i = 0; i < exchanges; i++) {
+            String question = Vocabulary.learnerMessage(random, language);
+            tables.recentMessages.row(uuid(random), userId, appLanguage, language.code(), sessionId, "user",
+                    question, null, null, at, null);
+            at = at.plusSeconds(2 + random.nextInt(20));
+            String reply = Vocabulary.explanation(random, language, Vocabulary.length(random, replyMedian, 0.5));
+            tables.recentMessages.row(uuid(random), userId, appLanguage, language.code(), sessionId, "assistant",
+                    reply, MODEL, (question.length() + reply.length()) / 4, at, null);
+            at = at.plusSeconds(20 + random.nextInt(120));
+        }
+        LocalDateTime lastMessageAt = at;
+
+        String noteId = null;
+        if (!active && notes != null && !notes.isEmpty() && random.nextInt(4) == 0) {
+            noteId = notes.get(random.nextInt(notes.size())).id();
+        }
+        tables.chatSessions.row(sessionId, userId, appLanguage, language.code(), active ? "active" : "closed",
+                random.nextInt(3) == 0 ? "Practice " + language.code() : null, startedAt, lastMessageAt,
+                active ? null : lastMessageAt.plusMinutes(1 + random.nextInt(30)), noteId != null, noteId,
+                exchanges * 2, lastMessageAt);
+    }
+
+    /**
+     * Recall quality 1-4: first reviews and overdue cards are forgotten more often.
+     */
+    private static int quality(SplittableRandom random, int interval, long overdueDays) {
+        double forgot = interval == 0 ? 0.15 : 0.06 + 0.25 * Math.min(1.0, (double) overdueDays / Math.max(1, interval));
+        double roll = random.nextDouble();
+        if (roll < forgot) {
+            return 1;
+        }
+        if (roll < forgot + 0.15) {
+            return 2;
+        }
+        return roll < 0.85 ? 3 : 4;
+    }
+
+    private static LocalDateTime between(SplittableRandom random, LocalDateTime from, LocalDateTime to) {
+        long seconds = Duration.between(from, to).toSeconds();
+        return seconds <= 0 ? from : from.plusSeconds(random.nextLong(seconds));
+    }
+
+    private static String uuid(SplittableRandom random) {
+        long most = (random.nextLong() & ~0xF000L) | 0x4000L;
+        long least = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(most, least).toString();
+    }
+
+    private static String truncate(String s, int max) {
+        return s.length() <= max ? s : s.substring(0, max);
+    }
+
+    private static String json(Object value) {
+        try {
+            return JSON.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write generated JSON", e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.alang.loadtest;
+
+import java.util.List;
+
+/**
+ * A seeded account: its token, its active chat session and its notes.
+ */
+record VirtualUser(String userId, String token, String sessionId, List<String> noteIds) {
+}
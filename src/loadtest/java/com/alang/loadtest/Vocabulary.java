@@ -0,0 +1,245 @@
+package com.alang.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Word, sentence and tag pools the data generator draws from, per learning
+ * language. Small on purpose: what matters for the database is realistic
+ * lengths, scripts and value distributions, not varied prose.
+ *
+ * ARCHITECTURAL NOTE:
+ * - CJK languages (ja, ko, zh) write sentences without spaces and pack more
+ *   meaning per char, so their notes and messages are shorter in chars
+ *   (and longer in UTF-8 bytes) than Latin ones
+ * - Tag values are the vocabularies in PromptTemplates' note prompt; topic
+ *   values are drawn Zipf-style, so a few (food, daily_life) dominate as they
+ *   do in real notes
+ */
+final class Vocabulary {
+
+    record Word(String word, String reading, String meaning, String partOfSpeech) {
+    }
+
+    record Sentence(String target, String english) {
+    }
+
+    record Pattern(String pattern, String meaning) {
+    }
+
+    record Language(String code, boolean cjk, List<Word> words, List<Sentence> sentences,
+                    List<Pattern> patterns, List<Pattern> phrases) {
+    }
+
+    /**
+     * Learning languages with their share of learners; the codes are the ones seeded by V2.
+     */
+    static final List<Language> LANGUAGES = List.of(
+            new Language("ja", true,
+                    List.of(new Word("食べる", "たべる", "to eat", "verb"), new Word("猫", "ねこ", "cat", "noun"),
+                            new Word("静か", "しずか", "quiet", "adjective"), new Word("駅", "えき", "station", "noun"),
+                            new Word("ゆっくり", "ゆっくり", "slowly", "adverb"), new Word("は", "わ", "topic marker", "particle")),
+                    List.of(new Sentence("私は毎朝コーヒーを飲みます。", "I drink coffee every morning."),
+                            new Sentence("駅までどうやって行きますか？", "How do I get to the station?"),
+                            new Sentence("猫が好きですが、犬はあまり好きじゃないです。", "I like cats, but I don't really like dogs."),
+                            new Sentence("雨が降ったら、家にいます。", "If it rains, I will stay home.")),
+                    List.of(new Pattern("〜たら", "if / when"), new Pattern("〜ながら", "while doing"),
+                            new Pattern("〜てもいいですか", "may I"), new Pattern("〜より〜のほうが", "comparison")),
+                    List.of(new Pattern("よろしくお願いします", "please treat me well"),
+                            new Pattern("お疲れ様です", "thanks for your hard work"),
+                            new Pattern("いただきます", "said before eating"))),
+            new Language("es", false,
+                    List.of(new Word("comer", "", "to eat", "verb"), new Word("gato", "", "cat", "noun"),
+                            new Word("tranquilo", "", "quiet", "adjective"), new Word("estación", "", "station", "noun"),
+                            new Word("despacio", "", "slowly", "adverb"), new Word("aunque", "", "although", "other")),
+                    List.of(new Sentence("Tomo café todas las mañanas.", "I drink coffee every morning."),
+                            new Sentence("¿Cómo llego a la estación?", "How do I get to the station?"),
+                            new Sentence("Espero que vengas a la fiesta.", "I hope you come to the party."),
+                            new Sentence("Si llueve, me quedo en casa.", "If it rains, I stay home.")),
+                    List.of(new Pattern("esperar que + subjuntivo", "to hope that"),
+                            new Pattern("ser vs estar", "permanent vs temporary be"),
+                            new Pattern("por vs para", "cause vs purpose"), new Pattern("si + presente", "real condition")),
+                    List.of(new Pattern("¡Buen provecho!", "enjoy your meal"), new Pattern("Me da igual", "I don't mind"),
+                            new Pattern("¿Qué tal?", "how are things?"))),
+            new Language("fr", false,
+                    List.of(new Word("manger", "", "to eat", "verb"), new Word("chat", "", "cat", "noun"),
+                            new Word("calme", "", "quiet", "adjective"), new Word("gare", "", "station", "noun"),
+                            new Word("lentement", "", "slowly", "adverb"), new Word("bien que", "", "although", "other")),
+                    List.of(new Sentence("Je bois du café tous les matins.", "I drink coffee every morning."),
+                            new Sentence("Comment aller à la gare ?", "How do I get to the station?"),
+                            new Sentence("Il faut que tu viennes demain.", "You have to come tomorrow."),
+                            new Sentence("S'il pleut, je reste à la maison.", "If it rains, I stay home.")),
+                    List.of(new Pattern("il faut que + subjonctif", "it is necessary that"),
+                            new Pattern("passé composé vs imparfait", "completed vs ongoing past"),
+                            new Pattern("depuis + présent", "since / for")),
+                    List.of(new Pattern("Ça marche", "sounds good"), new Pattern("Bon appétit", "enjoy your meal"),
+                            new Pattern("Ce n'est pas grave", "it's no big deal"))),
+            new Language("de", false,
+                    List.of(new Word("essen", "", "to eat", "verb"), new Word("Katze", "", "cat", "noun"),
+                            new Word("ruhig", "", "quiet", "adjective"), new Word("Bahnhof", "", "station", "noun"),
+                            new Word("langsam", "", "slowly", "adverb"), new Word("obwohl", "", "although", "other")),
+                    List.of(new Sentence("Ich trinke jeden Morgen Kaffee.", "I drink coffee every morning."),
+                            new Sentence("Wie komme ich zum Bahnhof?", "How do I get to the station?"),
+                            new Sentence("Obwohl es regnet, gehe ich spazieren.", "Although it is raining, I go for a walk.")),
+                    List.of(new Pattern("weil + Verb am Ende", "because, verb-final"),
+                            new Pattern("Dativ nach mit", "dative after mit"), new Pattern("Perfekt mit sein", "perfect with sein")),
+                    List.of(new Pattern("Guten Appetit", "enjoy your meal"), new Pattern("Na ja", "well..."))),
+            new Language("ko", true,
+                    List.of(new Word("먹다", "meokda", "to eat", "verb"), new Word("고양이", "goyangi", "cat", "noun"),
+                            new Word("조용하다", "joyonghada", "quiet", "adjective"), new Word("역", "yeok", "station", "noun"),
+                            new Word("천천히", "cheoncheonhi", "slowly", "adverb"), new Word("은/는", "eun/neun", "topic marker", "particle")),
+                    List.of(new Sentence("저는 매일 아침 커피를 마셔요.", "I drink coffee every morning."),
+                            new Sentence("역까지 어떻게 가요?", "How do I get to the station?"),
+                            new Sentence("비가 오면 집에 있을 거예요.", "If it rains, I will stay home.")),
+                    List.of(new Pattern("-(으)면", "if"), new Pattern("-는 동안", "while"), new Pattern("-아/어도 돼요", "may I")),
+                    List.of(new Pattern("잘 먹겠습니다", "said before eating"), new Pattern("수고하셨습니다", "thanks for your hard work"))),
+            new Language("zh", true,
+                    List.of(new Word("吃", "chī", "to eat", "verb"), new Word("猫", "māo", "cat", "noun"),
+                            new Word("安静", "ānjìng", "quiet", "adjective"), new Word("车站", "chēzhàn", "station", "noun"),
+                            new Word("慢慢", "mànmàn", "slowly", "adverb"), new Word("了", "le", "aspect particle", "particle")),
+                    List.of(new Sentence("我每天早上喝咖啡。", "I drink coffee every morning."),
+                            new Sentence("去车站怎么走？", "How do I get to the station?"),
+                            new Sentence("如果下雨，我就待在家里。", "If it rains, I will stay home.")),
+                    List.of(new Pattern("如果……就……", "if ... then ..."), new Pattern("一边……一边……", "while"),
+                            new Pattern("比", "comparison")),
+                    List.of(new Pattern("慢慢吃", "enjoy your meal"), new Pattern("辛苦了", "thanks for your hard work"))),
+            new Language("it", false,
+                    List.of(new Word("mangiare", "", "to eat", "verb"), new Word("gatto", "", "cat", "noun"),
+                            new Word("tranquillo", "", "quiet", "adjective"), new Word("stazione", "", "station", "noun")),
+                    List.of(new Sentence("Bevo il caffè ogni mattina.", "I drink coffee every morning."),
+                            new Sentence("Come arrivo alla stazione?", "How do I get to the station?")),
+                    List.of(new Pattern("congiuntivo dopo penso che", "subjunctive after penso che")),
+                    List.of(new Pattern("Buon appetito", "enjoy your meal"))),
+            new Language("pt", false,
+                    List.of(new Word("comer", "", "to eat", "verb"), new Word("gato", "", "cat", "noun"),
+                            new Word("tranquilo", "", "quiet", "adjective"), new Word("estação", "", "station", "noun")),
+                    List.of(new Sentence("Tomo café todas as manhãs.", "I drink coffee every morning."),
+                            new Sentence("Como chego à estação?", "How do I get to the station?")),
+                    List.of(new Pattern("ser vs estar", "permanent vs temporary be")),
+                    List.of(new Pattern("Bom apetite", "enjoy your meal"))));
+
+    private static final int[] LANGUAGE_WEIGHTS = {30, 25, 12, 8, 10, 8, 4, 3};
+
+    /**
+     * App (teaching) languages: mostly English.
+     */
+    static final String[] APP_LANGUAGES = {"en", "es", "pt", "fr", "de"};
+    private static final int[] APP_LANGUAGE_WEIGHTS = {85, 5, 4, 3, 3};
+
+    private static final String[] NOTE_TYPES = {"vocab", "grammar", "phrase", "exception", "other"};
+    private static final int[] NOTE_TYPE_WEIGHTS = {40, 25, 20, 5, 10};
+
+    static final Map<String, List<String>> TAGS = Map.of(
+            "topic", List.of("food", "daily_life", "travel", "work", "family", "shopping", "school", "weather",
+                    "culture", "health", "entertainment", "technology", "sports"),
+            "formality", List.of("polite", "casual", "formal", "slang", "literary"),
+            "difficulty", List.of("beginner", "intermediate", "advanced"),
+            "function", List.of("description", "request", "contrast", "condition", "sequence", "cause",
+                    "comparison", "negation", "permission", "greeting"));
+
+    static final List<String> TAG_CATEGORIES = List.of("topic", "difficulty", "formality", "function");
+
+    private static final String[] EXPLANATION = {
+            "This is one of the first things learners run into, and it is easy to mix up.",
+            "The key difference is what the speaker wants to emphasize.",
+            "In casual speech the shorter form is far more common.",
+            "Compare the two examples below and notice where the stress falls.",
+            "A common mistake is to translate word for word from English.",
+            "Native speakers often drop this in conversation when the context is clear.",
+            "Try making your own sentence and I will check it for you.",
+            "The polite form is safer with people you have just met.",
+            "You will also see this in written instructions and signs.",
+            "Think of it as marking what the sentence is about rather than who does the action."};
+
+    private Vocabulary() {
+    }
+
+    static Language learningLanguage(SplittableRandom random) {
+        return LANGUAGES.get(weighted(random, LANGUAGE_WEIGHTS));
+    }
+
+    static String appLanguage(SplittableRandom random, String learningCode) {
+        String code = APP_LANGUAGES[weighted(random, APP_LANGUAGE_WEIGHTS)];
+        return code.equals(learningCode) ? "en" : code;
+    }
+
+    static String noteType(SplittableRandom random) {
+        return NOTE_TYPES[weighted(random, NOTE_TYPE_WEIGHTS)];
+    }
+
+    /**
+     * Index into values with a Zipf(1) distribution: value i is about 1/(i+1) as likely as the first.
+     */
+    static int zipf(SplittableRandom random, int size) {
+        double harmonic = 0;
+        for (int i = 1; i <= size; i++) {
+            harmonic += 1.0 / i;
+        }
+        double roll = random.nextDouble() * harmonic;
+        for (int i = 1; i <= size; i++) {
+            roll -= 1.0 / i;
+            if (roll <= 0) {
+                return i - 1;
+            }
+        }
+        return size - 1;
+    }
+
+    /**
+     * Log-normal length around median, clamped to [median / 8, median * 8].
+     */
+    static int length(SplittableRandom random, int median, double sigma) {
+        double value = median * Math.exp(sigma * random.nextGaussian());
+        return (int) Math.max(median / 8.0, Math.min(median * 8.0, value));
+    }
+
+    /**
+     * English explanation with inline target-language examples, about chars long.
+     */
+    static String explanation(SplittableRandom random, Language language, int chars) {
+        StringBuilder sb = new StringBuilder(chars + 64);
+        while (sb.length() < chars) {
+            if (!sb.isEmpty()) {
+                sb.append(' ');
+            }
+            if (random.nextInt(3) == 0) {
+                Sentence sentence = pick(random, language.sentences());
+                sb.append("For example: ").append(sentence.target()).append(" (").append(sentence.english()).append(')');
+            } else {
+                sb.append(EXPLANATION[random.nextInt(EXPLANATION.length)]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A learner's chat message: a question about a word, or an attempt at a sentence.
+     */
+    static String learnerMessage(SplittableRandom random, Language language) {
+        return switch (random.nextInt(3)) {
+            case 0 -> "What does " + pick(random, language.words()).word() + " mean and when do I use it?";
+            case 1 -> "Is this correct? " + pick(random, language.sentences()).target();
+            default -> "How do I say \"" + pick(random, language.sentences()).english() + "\"?";
+        };
+    }
+
+    static <T> T pick(SplittableRandom random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static int weighted(SplittableRandom random, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+}
@@ -0,0 +1,100 @@
+package com.alang.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-model driver: concurrency virtual threads, each sending its next
+ * request as soon as the previous one answers, with the operation drawn
+ * from the weighted mix.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Worker n acts as user n % users, so every account sees traffic and
+ *   no two workers share a session when concurrency <= users
+ * - Latencies go into one HdrHistogram Recorder per operation (lock-free
+ *   writers); failed requests are timed too, and also counted as errors
+ * - Closed-model latencies understate queueing under overload; compare
+ *   throughput across runs at the same concurrency, not latency alone
+ */
+final class Workload {
+
+    record Phase(Map<Operation, Histogram> latencies, Map<Operation, Long> errors, Duration elapsed) {
+    }
+
+    private final ApiClient api;
+    private final LoadTestConfig config;
+    private final List<VirtualUser> users;
+    private final Operation[] picks;
+
+    Workload(ApiClient api, LoadTestConfig config, List<VirtualUser> users) {
+        this.api = api;
+        this.config = config;
+        this.users = users;
+        this.picks = config.mix().entrySet().stream()
+                .flatMap(e -> Collections.nCopies(e.getValue(), e.getKey()).stream())
+                .toArray(Operation[]::new);
+    }
+
+    Phase run(Duration duration) {
+        Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+        Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < config.concurrency(); worker++) {
+                VirtualUser user = users.get(worker % users.size());
+                Random random = new Random(config.seed() * 17 + worker);
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = picks[random.nextInt(picks.length)];
+                        long sent = System.nanoTime();
+                        ApiClient.Response response = operation.call(api, user, random);
+                        recorders.get(operation).recordValue(System.nanoTime() - sent);
+                        if (!response.ok()) {
+                            errors.get(operation).increment();
+                        }
+                    }
+                });
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        Map<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, recorders.get(operation).getIntervalHistogram());
+            errorCounts.put(operation, errors.get(operation).sum());
+        }
+        return new Phase(latencies, errorCounts, elapsed);
+    }
+
+    /**
+     * requests sequential calls of one operation, as user 0, with nothing else running.
+     */
+    int runAlone(Operation operation, int requests) {
+        VirtualUser user = users.get(0);
+        Random random = new Random(config.seed());
+        int failed = 0;
+        for (int i = 0; i < requests; i++) {
+            if (!operation.call(api, user, random).ok()) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+}
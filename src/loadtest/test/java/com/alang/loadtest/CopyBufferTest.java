@@ -0,0 +1,111 @@
+package com.alang.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.postgresql.copy.CopyManager;
+
+import java.io.Reader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CopyBufferTest {
+
+    private final List<String> sql = new ArrayList<>();
+    private final List<String> sent = new ArrayList<>();
+    private final CopyManager copyManager = mock(CopyManager.class);
+
+    CopyBufferTest() throws Exception {
+        when(copyManager.copyIn(anyString(), any(Reader.class))).thenAnswer(invocation -> {
+            sql.add(invocation.getArgument(0));
+            StringWriter csv = new StringWriter();
+            invocation.<Reader>getArgument(1).transferTo(csv);
+            sent.add(csv.toString());
+            return 0L;
+        });
+    }
+
+    private String csvOf(Object... values) throws Exception {
+        CopyBuffer buffer = new CopyBuffer("t", "c");
+        buffer.row(values);
+        buffer.flush(copyManager);
+        return sent.get(sent.size() - 1);
+    }
+
+    @Test
+    void flush_sendsCsvCopyForTheColumns() throws Exception {
+        CopyBuffer buffer = new CopyBuffer("notes", "id, title");
+        buffer.row("n1", "Greetings");
+        buffer.row("n2", "Verbs");
+
+        long rows = buffer.flush(copyManager);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(sql).containsExactly("COPY notes (id, title) FROM STDIN WITH (FORMAT csv)");
+        assertThat(sent).containsExactly("\"n1\",\"Greetings\"\n\"n2\",\"Verbs\"\n");
+        assertThat(buffer.length()).isZero();
+    }
+
+    @Test
+    void flush_emptyBuffer_sendsNothing() throws Exception {
+        assertThat(new CopyBuffer("notes", "id").flush(copyManager)).isZero();
+        verifyNoInteractions(copyManager);
+    }
+
+    @Test
+    void null_isUnquotedEmptyField_emptyStringIsQuoted() throws Exception {
+        // In CSV format an unquoted empty field is NULL and "" is the empty string
+        assertThat(csvOf("a", null, "", null)).isEqualTo("\"a\",,\"\",\n");
+    }
+
+    @Test
+    void tabsNewlinesAndBackslashes_arePassedThroughInsideQuotes() throws Exception {
+        // CSV has no backslash escapes; quoting alone keeps tabs, CR/LF and backslashes literal
+        assertThat(csvOf("a\tb", "line1\nline2\r\n", "C:\\dir\\n"))
+                .isEqualTo("\"a\tb\",\"line1\nline2\r\n\",\"C:\\dir\\n\"\n");
+    }
+
+    @Test
+    void quotesAndCommas_areQuotedWithDoubledQuotes() throws Exception {
+        assertThat(csvOf("say \"hola\", then", "\\."))
+                .isEqualTo("\"say \"\"hola\"\", then\",\"\\.\"\n");
+    }
+
+    @Test
+    void jsonbText_keepsItsQuotesAndEscapes() throws Exception {
+        String json = "{\"example\":\"\\\"¿Qué?\\\"\",\"notes\":\"a\\nb\"}";
+
+        assertThat(csvOf(json)).isEqualTo("\"" + json.replace("\"", "\"\"") + "\"\n");
+    }
+
+    @Test
+    void stringArray_isArrayLiteralWithQuotedEscapedElements() throws Exception {
+        assertThat(csvOf((Object) new String[]{"es", "ja"})).isEqualTo("\"{\"\"es\"\",\"\"ja\"\"}\"\n");
+        assertThat(csvOf((Object) new String[]{"a,b", "{c}", "d\"e", "f\\g", null}))
+                .isEqualTo("\"{\"\"a,b\"\",\"\"{c}\"\",\"\"d\\\"\"e\"\",\"\"f\\\\g\"\",NULL}\"\n");
+        assertThat(csvOf((Object) new String[0])).isEqualTo("\"{}\"\n");
+    }
+
+    @Test
+    void temporalNumericBooleanAndEnum_areWrittenUnquoted() throws Exception {
+        assertThat(csvOf(LocalDateTime.of(2026, 3, 1, 9, 30, 15), LocalDate.of(2026, 3, 1),
+                42L, 2.5, true, Thread.State.NEW))
+                .isEqualTo("2026-03-01T09:30:15,2026-03-01,42,2.5,true,NEW\n");
+    }
+
+    @Test
+    void unsupportedType_throws() {
+        CopyBuffer buffer = new CopyBuffer("notes", "id");
+
+        assertThatThrownBy(() -> buffer.row(new Object()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("notes");
+    }
+}
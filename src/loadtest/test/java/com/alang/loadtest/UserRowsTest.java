@@ -0,0 +1,75 @@
+package com.alang.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.postgresql.copy.CopyManager;
+
+import java.io.Reader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserRowsTest {
+
+    private static DataGenConfig config(long seed) {
+        return new DataGenConfig("jdbc:unused", "u", "p", 10, 20, 1.6, 500, 4, 6, 120,
+                LocalDate.of(2026, 6, 1), 1, 10, false, seed);
+    }
+
+    /**
+     * The CSV generated for the users, in order into one batch, by COPY statement.
+     */
+    private static Map<String, String> rowsFor(DataGenConfig config, int... indexes) throws Exception {
+        Map<String, String> csvBySql = new LinkedHashMap<>();
+        CopyManager copyManager = mock(CopyManager.class);
+        when(copyManager.copyIn(anyString(), any(Reader.class))).thenAnswer(invocation -> {
+            StringWriter csv = new StringWriter();
+            invocation.<Reader>getArgument(1).transferTo(csv);
+            csvBySql.put(invocation.getArgument(0), csv.toString());
+            return 0L;
+        });
+        UserRows rows = new UserRows(config);
+        Tables tables = new Tables();
+        for (int index : indexes) {
+            rows.generate(index, tables);
+        }
+        tables.flush(copyManager, new LinkedHashMap<>());
+        return csvBySql;
+    }
+
+    @Test
+    void generate_sameSeedAndIndex_producesIdenticalRows() throws Exception {
+        Map<String, String> first = rowsFor(config(7), 3);
+        Map<String, String> second = rowsFor(config(7), 3);
+
+        assertThat(first).isNotEmpty().isEqualTo(second);
+    }
+
+    @Test
+    void generate_userRowsDoNotDependOnGenerationOrder() throws Exception {
+        Map<String, String> alone = rowsFor(config(7), 5);
+
+        // As if another thread's batch had generated other users first
+        Map<String, String> afterOthers = rowsFor(config(7), 9, 2, 5);
+
+        assertThat(afterOthers.keySet()).containsAll(alone.keySet());
+        alone.forEach((sql, csv) -> assertThat(afterOthers.get(sql)).endsWith(csv));
+    }
+
+    @Test
+    void generate_differentSeedOrIndex_producesDifferentUsers() throws Exception {
+        String users = "COPY users (" + "id, email, password_hash, display_name, app_language_code, "
+                + "target_language_codes, total_daily_tokens_used, last_token_reset_date, tier, created_at, "
+                + "updated_at) FROM STDIN WITH (FORMAT csv)";
+
+        String base = rowsFor(config(7), 3).get(users);
+        assertThat(base).contains(UserRows.email(7, 3));
+        assertThat(rowsFor(config(8), 3).get(users)).isNotEqualTo(base).contains(UserRows.email(8, 3));
+        assertThat(rowsFor(config(7), 4).get(users)).isNotEqualTo(base).contains(UserRows.email(7, 4));
+    }
+}
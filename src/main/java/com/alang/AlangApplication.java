@@ -4,6 +4,7 @@ import com.alang.config.LLMProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application entry point for ALang language learning backend.
@@ -22,6 +23,7 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
  */
 @SpringBootApplication
 @EnableConfigurationProperties(LLMProperties.class)
+@EnableScheduling
 public class AlangApplication {
     public static void main(String[] args) {
         SpringApplication.run(AlangApplication.class, args);
@@ -0,0 +1,45 @@
+package com.alang.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Guards /admin/** endpoints.
+ *
+ * Users have no roles yet, so admins are an allow-list of user ids
+ * (app.admin.user-ids, comma-separated). An empty list locks admin
+ * endpoints for everyone.
+ *
+ * TODO: Replace with a role column on users once we need more than a handful of admins
+ */
+@Component
+public class AdminAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private final Set<String> adminUserIds;
+
+    public AdminAuthorizationManager(@Value("${app.admin.user-ids:}") List<String> adminUserIds) {
+        this.adminUserIds = adminUserIds.stream()
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        Authentication auth = authentication.get();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return new AuthorizationDecision(false);
+        }
+        return new AuthorizationDecision(adminUserIds.contains(auth.getName()));
+    }
+}
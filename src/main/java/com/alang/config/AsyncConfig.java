@@ -0,0 +1,39 @@
+package com.alang.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for @Async background work.
+ *
+ * With spring.threads.virtual.enabled=true Spring Boot already moves Tomcat
+ * request handling, the default @Async executor and @Scheduled jobs onto
+ * virtual threads; executors declared here follow the same switch.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    /**
+     * Single thread for NoteRescheduleJob: at most one bulk rescheduling run
+     * per node. The run itself fans CPU work out to its own ForkJoinPool.
+     */
+    @Bean(name = "rescheduleExecutor")
+    public TaskExecutor rescheduleExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("reschedule-");
+        if (virtualThreads) {
+            // Pool size still caps concurrency at one run; the thread just doesn't hold a carrier while blocked on JDBC
+            executor.setThreadFactory(Thread.ofVirtual().name("reschedule-", 0).factory());
+        }
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,43 @@
+package com.alang.config;
+
+import com.alang.service.RequestProfile;
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Times every JDBC execution of a Hibernate session into RequestDbMetrics
+ * and the db span of the current RequestProfile.
+ *
+ * Hibernate creates one per session (hibernate.session.events.auto in
+ * application.yml), and a session is used by one thread at a time, so the
+ * start times need no synchronization.
+ */
+public class JdbcTimingListener extends BaseSessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(System.nanoTime() - batchStart);
+    }
+
+    private static void record(long nanos) {
+        RequestDbMetrics.recordStatement(nanos);
+        RequestProfile.current().add(RequestProfile.Span.DB, nanos);
+    }
+}
@@ -1,5 +1,6 @@
 package com.alang.config;
 
+import com.alang.service.RequestProfile;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +24,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
+        RequestProfile profile = RequestProfile.current();
+        long authStart = profile.start();
         String token = extractToken(request);
 
         if (token != null && jwtTokenProvider.validateToken(token)) {
@@ -33,6 +36,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
+        profile.record(RequestProfile.Span.AUTH, authStart);
 
         filterChain.doFilter(request, response);
     }
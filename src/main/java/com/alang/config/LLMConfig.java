@@ -1,6 +1,11 @@
 package com.alang.config;
 
+import com.alang.stub.LLMCassette;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.socket.nio.NioChannelOption;
+import jdk.net.ExtendedSocketOptions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,27 +13,102 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
 
 import java.time.Duration;
 
+/**
+ * WebClients for the LLM providers.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Each provider has its own named connection pool ("llm-" + provider), sized
+ *   and evicted per llm.http; pool gauges are published to Micrometer as
+ *   reactor.netty.connection.provider.* tagged with that name
+ * - https endpoints negotiate HTTP/2 via ALPN, so concurrent calls share a few
+ *   multiplexed connections; plain http (e.g. a local Ollama) stays on HTTP/1.1
+ * - TCP keep-alive probes idle connections so ones silently dropped by a NAT
+ *   or load balancer are noticed before a call is sent on them. The timings
+ *   are set through the transport's own options: on Linux Reactor Netty runs
+ *   on native epoll, which ignores NIO socket options
+ * - Connections are opened at startup by LLMProviderRouter.warmUpConnections
+ * - llm.cassette can record the traffic under each client, or replay it
+ *   instead of connecting (see LLMCassette)
+ */
 @Configuration
 @RequiredArgsConstructor
 public class LLMConfig {
 
     private final LLMProperties llmProperties;
+    private final LLMCassette llmCassette;
 
+    /**
+     * Client for the primary provider (llm.api).
+     */
     @Bean
     public WebClient llmWebClient() {
-        HttpClient httpClient = HttpClient.create()
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 30_000)
-                .responseTimeout(Duration.ofSeconds(60));
+        String name = llmProperties.getProvider() == null ? "primary" : llmProperties.getProvider();
+        return llmWebClient(name, llmProperties.getApi().getBaseUrl(), llmProperties.getApi().getKey(),
+                llmProperties.getTimeouts().getMax(), llmProperties.getHttp(), llmCassette);
+    }
 
+    /**
+     * Client for any OpenAI-compatible endpoint; also used for llm.routing.fallbacks.
+     * responseTimeout is only a backstop: LLMProviderRouter times each
+     * attempt out earlier, from observed latency and the request deadline.
+     */
+    public static WebClient llmWebClient(String name, String baseUrl, String key, Duration responseTimeout,
+                                         LLMProperties.Http http, LLMCassette cassette) {
+        HttpClient httpClient = httpClient(name, baseUrl, responseTimeout, http);
         return WebClient.builder()
-                .baseUrl(llmProperties.getApi().getBaseUrl())
-                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + llmProperties.getApi().getKey())
+                .baseUrl(baseUrl)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + key)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .clientConnector(cassette.connector(name, new ReactorClientHttpConnector(httpClient)))
                 .build();
     }
+
+    static HttpClient httpClient(String name, String baseUrl, Duration responseTimeout, LLMProperties.Http http) {
+        HttpClient httpClient = HttpClient.create(connectionProvider(name, http))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .responseTimeout(responseTimeout);
+
+        if (http.isHttp2() && baseUrl != null && baseUrl.startsWith("https:")) {
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        if (http.isTcpKeepAlive()) {
+            int idle = (int) http.getKeepAliveIdle().toSeconds();
+            int interval = (int) http.getKeepAliveInterval().toSeconds();
+            httpClient = httpClient.option(ChannelOption.SO_KEEPALIVE, true);
+            // Same transport choice as Reactor Netty's default event loops
+            if (LoopResources.DEFAULT_NATIVE && Epoll.isAvailable()) {
+                httpClient = httpClient
+                        .option(EpollChannelOption.TCP_KEEPIDLE, idle)
+                        .option(EpollChannelOption.TCP_KEEPINTVL, interval)
+                        .option(EpollChannelOption.TCP_KEEPCNT, http.getKeepAliveCount());
+            } else {
+                httpClient = httpClient
+                        .option(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPIDLE), idle)
+                        .option(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPINTERVAL), interval)
+                        .option(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPCOUNT), http.getKeepAliveCount());
+            }
+        }
+        return httpClient;
+    }
+
+    static ConnectionProvider connectionProvider(String name, LLMProperties.Http http) {
+        ConnectionProvider.Builder pool = ConnectionProvider.builder("llm-" + name)
+                .maxConnections(http.getMaxConnections())
+                .pendingAcquireMaxCount(http.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(http.getPendingAcquireTimeout())
+                .maxIdleTime(http.getMaxIdleTime())
+                .maxLifeTime(http.getMaxLifeTime())
+                .metrics(http.isMetrics());
+        if (!http.getEvictionInterval().isZero()) {
+            pool.evictInBackground(http.getEvictionInterval());
+        }
+        return pool.build();
+    }
 }
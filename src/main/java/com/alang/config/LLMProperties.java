@@ -3,6 +3,12 @@ package com.alang.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Data
 @ConfigurationProperties(prefix = "llm")
 public class LLMProperties {
@@ -12,6 +18,12 @@ public class LLMProperties {
     private Models models = new Models();
     private TokenLimits tokenLimits = new TokenLimits();
     private Summarization summarization = new Summarization();
+    private Admission admission = new Admission();
+    private Routing routing = new Routing();
+    private Timeouts timeouts = new Timeouts();
+    private Http http = new Http();
+    private Stub stub = new Stub();
+    private Cassette cassette = new Cassette();
 
     @Data
     public static class Api {
@@ -38,4 +50,161 @@ public class LLMProperties {
         private int messageThreshold;
         private int tokenThreshold;
     }
+
+    /**
+     * Concurrency limits in front of the provider (see LLMAdmissionController).
+     */
+    @Data
+    public static class Admission {
+        private boolean enabled = true;
+        private int maxConcurrency = 16; // In-flight calls per model
+        private Map<String, Integer> modelMaxConcurrency = new HashMap<>(); // Per-model overrides
+        private int maxQueueSize = 200; // Waiting calls per model; beyond this reject immediately
+        private Duration maxQueueWait = Duration.ofSeconds(10); // Reject calls queued longer than this
+        private Adaptive adaptive = new Adaptive();
+    }
+
+    /**
+     * AIMD tuning for the admission limit (see AdaptiveConcurrencyLimit).
+     * When enabled, max-concurrency and model-max-concurrency are the starting limits.
+     */
+    @Data
+    public static class Adaptive {
+        private boolean enabled = true;
+        private int minLimit = 1;
+        private int maxLimit = 64;
+        private double backoffRatio = 0.5; // On 429/5xx/timeout
+        private double latencyBackoffRatio = 0.9; // On latency inflation
+        private double latencyTolerance = 2.0; // RTT over this x min RTT at a similar completion length
+        private Duration minRttWindow = Duration.ofMinutes(1); // Min RTT is tracked over 1-2 windows
+    }
+
+    /**
+     * Per-attempt provider timeouts, derived from each provider/model's recent
+     * latency (see LLMProviderRouter), and the deadline for callers without one.
+     */
+    @Data
+    public static class Timeouts {
+        private Duration defaultDeadline = Duration.ofSeconds(120); // Callers that set none (sync paths, background)
+        private Duration min = Duration.ofSeconds(5); // Floor per attempt; also the least time worth retrying with
+        private Duration max = Duration.ofSeconds(60); // Ceiling per attempt; also the HTTP response timeout
+        private double percentile = 0.99;
+        private double multiplier = 2.0; // Attempt timeout = multiplier x percentile latency, within [min, max]
+        private int minSamples = 20; // Below this many samples use max
+    }
+
+    /**
+     * Connection pool and transport for every provider's WebClient (see LLMConfig).
+     * Each provider gets its own pool of this size.
+     */
+    @Data
+    public static class Http {
+        private Duration connectTimeout = Duration.ofSeconds(30);
+        private int maxConnections = 100; // Per provider; with HTTP/2 each carries many concurrent calls
+        private int pendingAcquireMaxCount = 500; // Calls waiting for a connection; beyond this fail fast
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+        private Duration maxIdleTime = Duration.ofSeconds(50); // Below the providers' own idle timeouts
+        private Duration maxLifeTime = Duration.ofMinutes(10); // Recycle so DNS/load-balancer changes are picked up
+        private Duration evictionInterval = Duration.ofSeconds(30); // Background eviction; 0 = only on acquire
+        private boolean http2 = true; // Negotiated via ALPN on https; http:// endpoints stay on HTTP/1.1
+        private boolean tcpKeepAlive = true;
+        private Duration keepAliveIdle = Duration.ofSeconds(30);
+        private Duration keepAliveInterval = Duration.ofSeconds(10);
+        private int keepAliveCount = 3;
+        private int warmupConnections = 4; // Opened per provider at startup; 0 = none
+        private boolean metrics = true; // reactor.netty.connection.provider.* pool gauges
+    }
+
+    /**
+     * The in-process OpenAI-compatible provider served under the llm-stub
+     * profile (see StubLLMServer). Rates are shares of calls, 0..1.
+     */
+    @Data
+    public static class Stub {
+        private String host = "127.0.0.1";
+        private int port = 8089; // 0 = any free port
+        private long seed = 42; // Same seed, same sequence of latencies, faults and replies
+        private StubLatency latency = new StubLatency(); // Until the first token
+        private double tokensPerSecond = 50; // Generation speed after the first token; 0 = instant
+        private int completionTokens = 150; // Chat reply length, capped by the request's max_tokens
+        private int streamChunkTokens = 5; // Tokens per SSE chunk when the request sets "stream": true
+        private double topicsRate = 0.3; // Chat replies that end in a ---TOPICS--- block
+        private double rateLimitRate = 0; // Answered 429 with Retry-After
+        private Duration retryAfter = Duration.ofSeconds(1);
+        private double serverErrorRate = 0; // Answered server-error-status
+        private int serverErrorStatus = 503;
+        private double slowLorisRate = 0; // Send 200 and headers, then trickle the body
+        private Duration slowLorisInterval = Duration.ofSeconds(1); // Between body bytes
+    }
+
+    @Data
+    public static class StubLatency {
+        private Distribution distribution = Distribution.LOGNORMAL;
+        private Duration median = Duration.ofMillis(800); // The value itself for FIXED
+        private double sigma = 0.5; // LOGNORMAL spread: p99 is about median x e^(2.33 x sigma)
+        private Duration min = Duration.ZERO;
+        private Duration max = Duration.ofSeconds(30); // Samples are clamped to [min, max]; UNIFORM spans it
+
+        public enum Distribution {
+            FIXED, UNIFORM, EXPONENTIAL, LOGNORMAL
+        }
+    }
+
+    /**
+     * Record/replay of provider traffic (see LLMCassette).
+     */
+    @Data
+    public static class Cassette {
+        private Mode mode = Mode.OFF;
+        private String path = "cassettes/llm.jsonl.gz";
+        private boolean preserveTiming = true; // Replay with the recorded time to headers and to body
+        private OnMiss onMiss = OnMiss.FAIL;
+
+        public enum Mode {
+            OFF, RECORD, REPLAY
+        }
+
+        public enum OnMiss {
+            FAIL, // No recording for this request: fail the call
+            SEQUENTIAL // Serve the next recording in file order, for traffic that only needs the same shape
+        }
+    }
+
+    /**
+     * Fallback providers, hedging and circuit breaking (see LLMProviderRouter).
+     * The primary provider is llm.provider / llm.api.
+     */
+    @Data
+    public static class Routing {
+        private List<Provider> fallbacks = new ArrayList<>(); // Tried in order after the primary
+        private Hedging hedging = new Hedging();
+        private Breaker breaker = new Breaker();
+    }
+
+    /**
+     * An additional OpenAI-compatible endpoint.
+     */
+    @Data
+    public static class Provider {
+        private String name;
+        private String baseUrl;
+        private String key;
+        private String model; // Model to request here, whatever the primary model was; null = same name
+    }
+
+    @Data
+    public static class Hedging {
+        private boolean enabled = true;
+        private double percentile = 0.95; // Hedge once the primary is slower than this share of its recent calls
+        private int minSamples = 20; // Below this many samples use default-delay
+        private Duration defaultDelay = Duration.ofSeconds(5);
+        private Duration minDelay = Duration.ofMillis(500);
+        private double budgetRatio = 0.1; // At most this many hedges per primary call, on average
+    }
+
+    @Data
+    public static class Breaker {
+        private int failureThreshold = 5; // Consecutive 429/5xx/timeouts/connect errors before opening
+        private Duration openDuration = Duration.ofSeconds(30); // Then one trial call is let through
+    }
 }
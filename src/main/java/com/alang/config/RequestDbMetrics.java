@@ -0,0 +1,100 @@
+package com.alang.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC statements and time spent in them, per endpoint: db.request.statements
+ * (summary) and db.request.time (timer), tagged method and uri pattern.
+ *
+ * ARCHITECTURAL NOTE:
+ * - JdbcTimingListener (one per Hibernate session) adds each statement to
+ *   the tally of the request running on the current thread; this interceptor
+ *   opens the tally before the handler and records it after completion
+ * - An async request (ChatController) carries its tally from the REQUEST
+ *   dispatch to the ASYNC dispatch in a request attribute. Statements run on
+ *   other threads in between (LLM callbacks on boundedElastic) are not counted
+ * - Statements outside any request (jobs, startup) are not counted
+ */
+@Component
+public class RequestDbMetrics implements AsyncHandlerInterceptor {
+
+    private static final ThreadLocal<Tally> CURRENT = new ThreadLocal<>();
+    private static final String TALLY_ATTRIBUTE = RequestDbMetrics.class.getName() + ".tally";
+
+    private final MeterRegistry registry;
+
+    public RequestDbMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    static final class Tally {
+        int statements;
+        long nanos;
+    }
+
+    /**
+     * Adds one JDBC execution to the current request, if there is one.
+     */
+    static void recordStatement(long nanos) {
+        Tally tally = CURRENT.get();
+        if (tally != null) {
+            tally.statements++;
+            tally.nanos += nanos;
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object carried = request.getAttribute(TALLY_ATTRIBUTE);
+        CURRENT.set(carried instanceof Tally tally ? tally : new Tally());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        request.setAttribute(TALLY_ATTRIBUTE, CURRENT.get());
+        CURRENT.remove();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Tally tally = CURRENT.get();
+        CURRENT.remove();
+        request.removeAttribute(TALLY_ATTRIBUTE);
+        if (tally == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("db.request.statements")
+                .description("JDBC statements per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1_000.0)
+                .register(registry)
+                .record(tally.statements);
+        Timer.builder("db.request.time")
+                .description("Time in JDBC statements per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry)
+                .record(tally.nanos, TimeUnit.NANOSECONDS);
+    }
+}
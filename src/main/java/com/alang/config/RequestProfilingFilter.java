@@ -0,0 +1,97 @@
+package com.alang.config;
+
+import com.alang.service.RequestProfile;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opens a RequestProfile for every request, ahead of the security chain so
+ * authentication is inside it, and logs the breakdown when the request is
+ * sampled (app.profiling.log-sample-rate) or over app.profiling.log-budget.
+ *
+ * The log line is written once the response is complete, so its total
+ * includes serialization; for async requests (ChatController) that is when
+ * the AsyncContext completes, not when this filter returns.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestProfilingFilter extends OncePerRequestFilter {
+
+    static final String PROFILE_ATTRIBUTE = RequestProfile.class.getName();
+
+    private final boolean enabled;
+    private final double logSampleRate;
+    private final long logBudgetNanos;
+
+    public RequestProfilingFilter(
+            @Value("${app.profiling.enabled:true}") boolean enabled,
+            @Value("${app.profiling.log-sample-rate:0.0}") double logSampleRate,
+            @Value("${app.profiling.log-budget:5s}") Duration logBudget) {
+        this.enabled = enabled;
+        this.logSampleRate = logSampleRate;
+        this.logBudgetNanos = logBudget.toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RequestProfile profile = RequestProfile.start(System.nanoTime());
+        request.setAttribute(PROFILE_ATTRIBUTE, profile);
+        try (RequestProfile.Scope ignored = profile.attach()) {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        finish(request, response, profile);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                finish(request, response, profile);
+            }
+        }
+    }
+
+    void finish(HttpServletRequest request, HttpServletResponse response, RequestProfile profile) {
+        boolean overBudget = profile.elapsedNanos() > logBudgetNanos;
+        if (overBudget) {
+            log.warn("Request over latency budget: method={}, uri={}, status={}, {}",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(), profile.breakdown());
+        } else if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+            log.info("Request profile: method={}, uri={}, status={}, {}",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(), profile.breakdown());
+        }
+    }
+}
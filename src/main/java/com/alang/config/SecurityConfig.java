@@ -1,5 +1,6 @@
 package com.alang.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,7 +30,8 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   AdminAuthorizationManager adminAuthorizationManager) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
 
@@ -40,12 +42,18 @@ public class SecurityConfig {
             )
 
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches complete a request already authorized on its REQUEST dispatch
+                // (the JWT filter does not re-run for them)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/user/login", "/user/signup").permitAll()
                 .requestMatchers("/meta/**").permitAll()
+                // Served on management.server.port, which is not exposed publicly
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                 .requestMatchers("/user/me").authenticated()
                 .requestMatchers("/chat/**").authenticated()
                 .requestMatchers("/notes/**").authenticated()
                 .requestMatchers("/review/**").authenticated()
+                .requestMatchers("/admin/**").access(adminAuthorizationManager)
                 .anyRequest().authenticated()
             )
 
@@ -0,0 +1,42 @@
+package com.alang.config;
+
+import com.alang.service.RequestProfile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's RequestProfile as a Server-Timing header, just before
+ * the body is written (the last point the header can still be set), so
+ * browser dev tools and the client see the breakdown of a slow response.
+ *
+ * Covers controller and GlobalExceptionHandler responses with a body; the
+ * time spent serializing is in the log line only (RequestProfilingFilter).
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    static final String HEADER = "Server-Timing";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(RequestProfilingFilter.PROFILE_ATTRIBUTE)
+                        instanceof RequestProfile profile) {
+            response.getHeaders().set(HEADER, profile.serverTiming());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,29 @@
+package com.alang.config;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tracing setup beyond Spring Boot's auto-configuration.
+ *
+ * Boot wires Micrometer Tracing to OpenTelemetry, samples at
+ * management.tracing.sampling.probability and exports over OTLP when
+ * management.otlp.tracing.endpoint is set. Every SpanExporter bean is
+ * added to the SDK, so the logging exporter here runs alongside OTLP.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Logs each finished span (name, trace and span ids, attributes) through
+     * java.util.logging, to see traces without a collector.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.log-spans", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
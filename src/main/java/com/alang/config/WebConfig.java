@@ -1,6 +1,8 @@
 package com.alang.config;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
@@ -12,8 +14,19 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * TODO: Add interceptors for logging, rate limiting
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final RequestDbMetrics requestDbMetrics;
+
+    /**
+     * JDBC statements and time per endpoint (see RequestDbMetrics).
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(requestDbMetrics);
+    }
+
     // TODO: Add custom configuration
 
     /**
@@ -24,12 +37,4 @@ public class WebConfig implements WebMvcConfigurer {
     // public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
     //     resolvers.add(new CurrentUserArgumentResolver());
     // }
-
-    /**
-     * Example: Add interceptor for request logging
-     */
-    // @Override
-    // public void addInterceptors(InterceptorRegistry registry) {
-    //     registry.addInterceptor(new RequestLoggingInterceptor());
-    // }
 }
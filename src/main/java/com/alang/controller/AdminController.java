@@ -0,0 +1,153 @@
+package com.alang.controller;
+
+import com.alang.dto.admin.FlightRecording;
+import com.alang.dto.admin.LLMAdmissionStats;
+import com.alang.dto.admin.LLMProviderStats;
+import com.alang.dto.admin.RescheduleJobResponse;
+import com.alang.dto.admin.RuntimeStats;
+import com.alang.service.FlightRecorderService;
+import com.alang.service.LLMAdmissionController;
+import com.alang.service.LLMProviderRouter;
+import com.alang.service.RescheduleService;
+import com.alang.service.RuntimeStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Operator endpoints. Access is restricted to app.admin.user-ids
+ * (see AdminAuthorizationManager); this controller does no checks of its own.
+ */
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final RescheduleService rescheduleService;
+    private final LLMAdmissionController llmAdmissionController;
+    private final LLMProviderRouter llmProviderRouter;
+    private final RuntimeStatsService runtimeStatsService;
+    private final FlightRecorderService flightRecorderService;
+
+    private static final DateTimeFormatter DUMP_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    /**
+     * POST /admin/reschedule
+     * Recompute every note's schedule from its review history under the
+     * current spaced-repetition rules. Runs in the background.
+     *
+     * Returns 202 with the job; poll GET /admin/reschedule/{jobId} for progress.
+     */
+    @PostMapping("/reschedule")
+    public ResponseEntity<RescheduleJobResponse> startReschedule(@AuthenticationPrincipal String userId) {
+        return ResponseEntity.accepted().body(rescheduleService.startJob(userId));
+    }
+
+    /**
+     * GET /admin/reschedule/{jobId}
+     */
+    @GetMapping("/reschedule/{jobId}")
+    public ResponseEntity<RescheduleJobResponse> getReschedule(@PathVariable String jobId) {
+        return ResponseEntity.ok(rescheduleService.getJob(jobId));
+    }
+
+    /**
+     * POST /admin/reschedule/{jobId}/resume
+     * Continue a failed or cancelled job from its checkpoint.
+     */
+    @PostMapping("/reschedule/{jobId}/resume")
+    public ResponseEntity<RescheduleJobResponse> resumeReschedule(@PathVariable String jobId) {
+        return ResponseEntity.accepted().body(rescheduleService.resumeJob(jobId));
+    }
+
+    /**
+     * POST /admin/reschedule/{jobId}/cancel
+     * Stop a running job after its current batch. Already-written batches are kept.
+     */
+    @PostMapping("/reschedule/{jobId}/cancel")
+    public ResponseEntity<RescheduleJobResponse> cancelReschedule(@PathVariable String jobId) {
+        return ResponseEntity.ok(rescheduleService.cancelJob(jobId));
+    }
+
+    /**
+     * GET /admin/llm/admission
+     * Per-model LLM admission state: slots in use, queue depth by priority,
+     * rejections and queue wait times.
+     */
+    @GetMapping("/llm/admission")
+    public ResponseEntity<List<LLMAdmissionStats>> getLLMAdmission() {
+        return ResponseEntity.ok(llmAdmissionController.snapshot());
+    }
+
+    /**
+     * GET /admin/llm/providers
+     * Primary and fallback LLM providers: breaker state, hedges and failovers.
+     */
+    @GetMapping("/llm/providers")
+    public ResponseEntity<List<LLMProviderStats>> getLLMProviders() {
+        return ResponseEntity.ok(llmProviderRouter.snapshot());
+    }
+
+    /**
+     * GET /admin/runtime
+     * Database statement counts and heap/GC counters since startup.
+     * Used by the load-test harness to compute queries per request.
+     */
+    @GetMapping("/runtime")
+    public ResponseEntity<RuntimeStats> getRuntime() {
+        return ResponseEntity.ok(runtimeStatsService.snapshot());
+    }
+
+    /**
+     * POST /admin/jfr/start
+     * Start a JDK Flight Recorder recording on this node (app.jfr settings).
+     * Returns 400 if one is already running.
+     */
+    @PostMapping("/jfr/start")
+    public ResponseEntity<FlightRecording> startRecording() {
+        return ResponseEntity.ok(flightRecorderService.start());
+    }
+
+    /**
+     * POST /admin/jfr/stop
+     * Stop the running recording; its data is kept for GET /admin/jfr/dump.
+     */
+    @PostMapping("/jfr/stop")
+    public ResponseEntity<FlightRecording> stopRecording() {
+        return ResponseEntity.ok(flightRecorderService.stop());
+    }
+
+    /**
+     * GET /admin/jfr
+     */
+    @GetMapping("/jfr")
+    public ResponseEntity<FlightRecording> getRecording() {
+        return ResponseEntity.ok(flightRecorderService.snapshot());
+    }
+
+    /**
+     * GET /admin/jfr/dump
+     * Download the recording as a .jfr file (open with JDK Mission Control or
+     * `jfr print`). A running recording is dumped up to now and keeps running.
+     */
+    @GetMapping("/jfr/dump")
+    public ResponseEntity<InputStreamResource> dumpRecording() {
+        String filename = "alang-" + DUMP_TIMESTAMP.format(Instant.now()) + ".jfr";
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new InputStreamResource(flightRecorderService.dump()));
+    }
+}
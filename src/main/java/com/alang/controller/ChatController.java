@@ -10,14 +10,22 @@ import com.alang.dto.chat.SessionResponse;
 import com.alang.dto.chat.UpdateSessionTitleRequest;
 import com.alang.dto.note.NoteDto;
 import com.alang.service.ChatService;
+import com.alang.service.Deadline;
+import com.alang.service.IdempotentRequests;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Chat controller.
@@ -28,13 +36,43 @@ import java.util.List;
  * - Returns HTTP responses
  *
  * All business logic and LLM interaction is in ChatService and LLMService.
+ *
+ * Endpoints that wait on the LLM (message, create/update note) return a
+ * DeferredResult: the Tomcat thread is released while the provider
+ * responds and Spring completes the response when the service's future does.
+ * Each has its own timeout (app.chat.timeouts.*), surfaced as 504 by
+ * GlobalExceptionHandler. The timeout starts a Deadline that is passed down,
+ * so the LLM path stops retrying once nobody is waiting for the answer.
+ *
+ * DeferredResult rather than a plain CompletableFuture return: Spring never
+ * cancels a returned future, so a client that disconnected mid-generation
+ * still had its reply generated, saved and billed. The DeferredResult's
+ * error callback (client gone) and timeout callback cancel the Deadline,
+ * which aborts the provider call.
+ *
+ * Message and note endpoints accept an optional Idempotency-Key header, so a
+ * client retrying after a dropped connection gets the original's answer
+ * instead of a second provider call (see IdempotentRequests).
  */
 @RestController
 @RequestMapping("/chat")
-@RequiredArgsConstructor
 public class ChatController {
 
     private final ChatService chatService;
+    private final IdempotentRequests idempotentRequests;
+    private final Duration messageTimeout;
+    private final Duration noteTimeout;
+
+    public ChatController(
+            ChatService chatService,
+            IdempotentRequests idempotentRequests,
+            @Value("${app.chat.timeouts.message:60s}") Duration messageTimeout,
+            @Value("${app.chat.timeouts.note:120s}") Duration noteTimeout) {
+        this.chatService = chatService;
+        this.idempotentRequests = idempotentRequests;
+        this.messageTimeout = messageTimeout;
+        this.noteTimeout = noteTimeout;
+    }
 
     /**
      * POST /chat/sessions
@@ -66,13 +104,21 @@ public class ChatController {
      * The sessionId is bound into the request object so LLMService can resolve session context.
      */
     @PostMapping("/sessions/{sessionId}/message")
-    public ResponseEntity<ChatMessageResponse> sendMessage(
+    public DeferredResult<ResponseEntity<ChatMessageResponse>> sendMessage(
             @PathVariable String sessionId,
             @Valid @RequestBody ChatMessageRequest request,
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal String userId
     ) {
         request.setSessionId(sessionId);
-        return ResponseEntity.ok(chatService.sendMessage(request, userId));
+        Deadline deadline = Deadline.after(messageTimeout);
+        CompletableFuture<ChatMessageResponse> reply = idempotencyKey == null
+                ? chatService.sendMessageAsync(request, userId, deadline)
+                : idempotentRequests.execute(userId, idempotencyKey, "POST /chat/sessions/" + sessionId + "/message",
+                        request, ChatMessageResponse.class, deadline,
+                        callDeadline -> chatService.sendMessageAsync(request, userId, callDeadline));
+        return cancellable(deadline, withTimeout(reply, messageTimeout)
+                .thenApply(ResponseEntity::ok));
     }
 
     /**
@@ -102,16 +148,21 @@ public class ChatController {
      * Request body may be empty ({}) or include a topicFocus for targeted note creation.
      */
     @PostMapping("/sessions/{sessionId}/note")
-    public ResponseEntity<NoteDto> createNote(
+    public DeferredResult<ResponseEntity<NoteDto>> createNote(
             @PathVariable String sessionId,
             @RequestBody(required = false) NoteFromSessionRequest request,
+            @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey,
             @AuthenticationPrincipal String userId
     ) {
-        if (request == null) {
-            request = new NoteFromSessionRequest();
-        }
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(chatService.createNoteFromSession(sessionId, request, userId));
+        NoteFromSessionRequest body = request != null ? request : new NoteFromSessionRequest();
+        Deadline deadline = Deadline.after(noteTimeout);
+        CompletableFuture<NoteDto> note = idempotencyKey == null
+                ? chatService.createNoteFromSessionAsync(sessionId, body, userId, deadline)
+                : idempotentRequests.execute(userId, idempotencyKey, "POST /chat/sessions/" + sessionId + "/note",
+                        body, NoteDto.class, deadline,
+                        callDeadline -> chatService.createNoteFromSessionAsync(sessionId, body, userId, callDeadline));
+        return cancellable(deadline, withTimeout(note, noteTimeout)
+                .thenApply(created -> ResponseEntity.status(HttpStatus.CREATED).body(created)));
     }
 
     /**
@@ -134,7 +185,7 @@ public class ChatController {
      * Request body may be empty ({}) or include a topicFocus.
      */
     @PutMapping("/sessions/{sessionId}/note/{noteId}")
-    public ResponseEntity<NoteDto> updateNote(
+    public DeferredResult<ResponseEntity<NoteDto>> updateNote(
             @PathVariable String sessionId,
             @PathVariable String noteId,
             @RequestBody(required = false) NoteFromSessionRequest request,
@@ -143,7 +194,38 @@ public class ChatController {
         if (request == null) {
             request = new NoteFromSessionRequest();
         }
-        return ResponseEntity.ok(chatService.updateNoteFromSession(sessionId, noteId, request, userId));
+        Deadline deadline = Deadline.after(noteTimeout);
+        return cancellable(deadline, withTimeout(
+                chatService.updateNoteFromSessionAsync(sessionId, noteId, request, userId, deadline), noteTimeout)
+                .thenApply(ResponseEntity::ok));
+    }
+
+    private static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, Duration timeout) {
+        return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Complete a DeferredResult from the future, and cancel the deadline if
+     * the client goes away (async error, e.g. connection reset), the container's
+     * async timeout fires first, or our own timeout does.
+     */
+    private static <T> DeferredResult<T> cancellable(Deadline deadline, CompletableFuture<T> future) {
+        DeferredResult<T> result = new DeferredResult<>();
+        result.onError(error -> deadline.cancel());
+        result.onTimeout(deadline::cancel);
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                result.setResult(value);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                deadline.cancel();
+            }
+            result.setErrorResult(cause);
+        });
+        return result;
     }
 
 }
@@ -1,15 +1,23 @@
 package com.alang.controller;
 
+import com.alang.dto.review.BatchReviewSubmissionRequest;
+import com.alang.dto.review.BatchReviewSubmissionResponse;
+import com.alang.dto.review.DueForecastResponse;
+import com.alang.dto.review.ReviewHeatmapResponse;
 import com.alang.dto.review.ReviewQueueResponse;
 import com.alang.dto.review.ReviewSubmissionRequest;
+import com.alang.dto.review.ReviewTrendResponse;
 import com.alang.service.ReviewService;
 import com.alang.service.ReviewService.ReviewStats;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 /**
  * Spaced repetition review controller.
  *
@@ -59,6 +67,20 @@ public class ReviewController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * POST /review/reviewed/batch
+     * Submit many review results in one call (e.g. an offline review session).
+     *
+     * Always 200 when the batch itself is valid; check per-item results for failures.
+     */
+    @PostMapping("/reviewed/batch")
+    public ResponseEntity<BatchReviewSubmissionResponse> submitReviews(
+        @Valid @RequestBody BatchReviewSubmissionRequest request,
+        @AuthenticationPrincipal String userId
+    ) {
+        return ResponseEntity.ok(reviewService.submitReviews(request.getReviews(), userId));
+    }
+
     /**
      * GET /review/stats
      * Get review statistics for the authenticated user.
@@ -69,4 +91,46 @@ public class ReviewController {
     ) {
         return ResponseEntity.ok(reviewService.getReviewStats(userId));
     }
+
+    /**
+     * GET /review/analytics/daily
+     * Per-day review activity for a heat-map (served from daily rollups).
+     *
+     * Dates are ISO (yyyy-MM-dd). Defaults to the last year.
+     */
+    @GetMapping("/analytics/daily")
+    public ResponseEntity<ReviewHeatmapResponse> getDailyReviewStats(
+        @RequestParam(required = false) String language,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @AuthenticationPrincipal String userId
+    ) {
+        return ResponseEntity.ok(reviewService.getDailyReviewStats(userId, language, from, to));
+    }
+
+    /**
+     * GET /review/analytics/trend
+     * Weekly review volume, quality, time per review and retention (served from daily rollups).
+     */
+    @GetMapping("/analytics/trend")
+    public ResponseEntity<ReviewTrendResponse> getReviewTrend(
+        @RequestParam(required = false) String language,
+        @RequestParam(defaultValue = "12") int weeks,
+        @AuthenticationPrincipal String userId
+    ) {
+        return ResponseEntity.ok(reviewService.getReviewTrend(userId, language, weeks));
+    }
+
+    /**
+     * GET /review/due-forecast
+     * Cards becoming due per day from today onward (plus the overdue backlog).
+     */
+    @GetMapping("/due-forecast")
+    public ResponseEntity<DueForecastResponse> getDueForecast(
+        @RequestParam(required = false) String language,
+        @RequestParam(defaultValue = "30") int days,
+        @AuthenticationPrincipal String userId
+    ) {
+        return ResponseEntity.ok(reviewService.getDueForecast(userId, language, days));
+    }
 }
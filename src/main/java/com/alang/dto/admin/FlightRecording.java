@@ -0,0 +1,21 @@
+package com.alang.dto.admin;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * The admin JFR recording on this node (GET /admin/jfr).
+ * Dump it with GET /admin/jfr/dump while running or after it is stopped.
+ */
+@Data
+public class FlightRecording {
+    private String state;         // NONE, RUNNING or STOPPED
+    private String settings;      // JDK settings the recording was started with
+    private Instant startedAt;
+    private Instant stoppedAt;
+    private long durationMs;      // so far, if still running
+    private long sizeBytes;       // on disk; 0 until the first chunk is written
+    private long maxAgeMs;
+    private long maxSizeBytes;
+}
@@ -0,0 +1,27 @@
+package com.alang.dto.admin;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Admission-control state for one model (GET /admin/llm/admission).
+ * Counters are cumulative since startup.
+ */
+@Data
+public class LLMAdmissionStats {
+    private String model;
+    private int maxConcurrency;                     // current limit (moves when adaptive)
+    private boolean adaptive;
+    private double minRttMs;                        // rolling minimum provider RTT (adaptive only)
+    private long limitIncreases;
+    private long limitDecreases;                    // multiplicative cuts on 429/5xx/timeout or latency inflation
+    private int inFlight;                           // calls currently at the provider
+    private int queueDepth;                         // calls waiting for a slot
+    private Map<String, Integer> queueDepthByPriority;
+    private long admitted;                          // calls that got a slot (immediately or after waiting)
+    private long rejected;                          // turned away because the queue was full
+    private long timedOut;                          // gave up after max-queue-wait
+    private double meanWaitMs;                      // mean queue wait of admitted calls
+    private double maxWaitMs;
+}
@@ -0,0 +1,23 @@
+package com.alang.dto.admin;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Routing state for one LLM provider (GET /admin/llm/providers).
+ * Counters are cumulative since startup.
+ */
+@Data
+public class LLMProviderStats {
+    private String name;
+    private boolean primary;
+    private String breakerState;                    // CLOSED, OPEN or HALF_OPEN
+    private long served;                            // successful responses returned to callers
+    private long failures;                          // 429/5xx/timeouts/connect errors
+    private long hedgesSent;                        // hedged requests sent to this provider
+    private long hedgesWon;                         // hedges that answered before the primary
+    private long failovers;                         // calls sent here because the provider before it failed or was open
+    private Map<String, Double> hedgeDelayMsByModel; // current hedge trigger per model (primary only)
+    private Map<String, Double> timeoutMsByModel;    // current per-attempt timeout per model
+}
@@ -0,0 +1,22 @@
+package com.alang.dto.admin;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Status of a bulk rescheduling job.
+ */
+@Data
+public class RescheduleJobResponse {
+    private String id;
+    private String status;              // "running" | "completed" | "failed" | "cancelled"
+    private String lastNoteId;          // checkpoint; the job resumes after this note
+    private Long processedCount;        // notes examined so far
+    private Long updatedCount;          // notes whose schedule changed
+    private String requestedBy;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,26 @@
+package com.alang.dto.admin;
+
+import lombok.Data;
+
+/**
+ * Database and JVM counters for this node (GET /admin/runtime).
+ * Counters are cumulative since startup; take two snapshots and diff them.
+ * The Hibernate counters stay 0 unless hibernate.generate_statistics is on
+ * (the loadtest profile turns it on).
+ */
+@Data
+public class RuntimeStats {
+    private boolean hibernateStatisticsEnabled;
+    private long jdbcStatements;      // statements prepared, i.e. round trips to the database
+    private long queryExecutions;     // HQL/JPQL/native queries
+    private long entityLoads;
+    private long collectionFetches;   // lazy collections initialized (N+1 candidates)
+    private long transactions;
+    private long heapUsedBytes;
+    private long heapCommittedBytes;
+    private long heapMaxBytes;
+    private long gcCount;             // collections across all collectors
+    private long gcTimeMs;
+    private int liveThreads;          // platform threads; virtual threads are not counted
+    private long uptimeMs;
+}
@@ -0,0 +1,11 @@
+package com.alang.dto.llm;
+
+import java.util.List;
+
+/**
+ * POST /chat/completions body. The system prompt is kept apart from messages
+ * so callers never copy the conversation just to put it first; the encoder
+ * writes it as the first message.
+ */
+public record ChatCompletionRequest(String model, String systemPrompt, List<ChatMessage> messages, int maxTokens) {
+}
@@ -0,0 +1,17 @@
+package com.alang.dto.llm;
+
+/**
+ * The parts of a /chat/completions response we use: the first choice's
+ * message content and the token usage. Everything else is skipped while decoding.
+ *
+ * @param choices number of choices, or MISSING if the field was absent
+ * @param content first choice's message.content (null if absent)
+ * @param usage   null if the provider reported none
+ */
+public record ChatCompletionResponse(int choices, String content, Usage usage) {
+
+    public static final int MISSING = -1;
+
+    public record Usage(int promptTokens, int completionTokens, int totalTokens) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.alang.dto.llm;
+
+/**
+ * One message of a chat completion request, as sent to the provider.
+ * role is "system", "user" or "assistant".
+ */
+public record ChatMessage(String role, String content) {
+
+    public static ChatMessage system(String content) {
+        return new ChatMessage("system", content);
+    }
+
+    public static ChatMessage user(String content) {
+        return new ChatMessage("user", content);
+    }
+}
@@ -0,0 +1,25 @@
+package com.alang.dto.review;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Request for POST /review/reviewed/batch
+ *
+ * A whole review session graded on the client (e.g. offline) and synced in one call.
+ * Reviews are applied in list order, so the same note may appear more than once.
+ */
+@Data
+public class BatchReviewSubmissionRequest {
+
+    public static final int MAX_BATCH_SIZE = 500;
+
+    @NotEmpty(message = "At least one review is required")
+    @Size(max = MAX_BATCH_SIZE, message = "At most " + MAX_BATCH_SIZE + " reviews per batch")
+    @Valid
+    private List<ReviewSubmissionRequest> reviews;
+}
@@ -0,0 +1,17 @@
+package com.alang.dto.review;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Response for POST /review/reviewed/batch
+ *
+ * One result per submitted review, in request order.
+ */
+@Data
+public class BatchReviewSubmissionResponse {
+    private List<ReviewResultDto> results;
+    private int appliedCount;
+    private int failedCount;
+}
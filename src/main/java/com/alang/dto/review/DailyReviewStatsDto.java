@@ -0,0 +1,33 @@
+package com.alang.dto.review;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * One day of review activity (one heat-map cell).
+ *
+ * Built from review_daily_stats rollups, summed across languages
+ * when no language filter is given.
+ */
+@Data
+public class DailyReviewStatsDto {
+    private LocalDate date;
+    private int reviewCount;
+
+    /**
+     * Counts per quality grade (1 = forgot ... 4 = easy)
+     */
+    private int quality1Count;
+    private int quality2Count;
+    private int quality3Count;
+    private int quality4Count;
+
+    private long totalTimeSpentSeconds;
+
+    /**
+     * First-ever reviews of a note vs. reviews of mature notes (interval >= 21 days)
+     */
+    private int newCount;
+    private int matureCount;
+}
@@ -0,0 +1,14 @@
+package com.alang.dto.review;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Number of cards that become due on one day.
+ */
+@Data
+public class DueForecastDayDto {
+    private LocalDate date;
+    private long dueCount;
+}
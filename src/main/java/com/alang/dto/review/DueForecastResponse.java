@@ -0,0 +1,30 @@
+package com.alang.dto.review;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Response for GET /review/due-forecast
+ *
+ * Per-day due-card load from today onward. Every day in the range is
+ * present (zero-filled) so the frontend can chart it directly.
+ */
+@Data
+public class DueForecastResponse {
+    private LocalDate from;
+    private LocalDate to;
+
+    /**
+     * Learning language filter, or null for all languages
+     */
+    private String language;
+
+    /**
+     * Cards whose due day is before today (still waiting to be reviewed)
+     */
+    private long overdueCount;
+
+    private List<DueForecastDayDto> days;
+}
@@ -0,0 +1,24 @@
+package com.alang.dto.review;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Response for GET /review/analytics/daily
+ *
+ * Days without any reviews are omitted; the frontend fills the gaps.
+ */
+@Data
+public class ReviewHeatmapResponse {
+    private LocalDate from;
+    private LocalDate to;
+
+    /**
+     * Learning language filter, or null for all languages
+     */
+    private String language;
+
+    private List<DailyReviewStatsDto> days;
+}
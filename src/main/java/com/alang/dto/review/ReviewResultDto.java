@@ -0,0 +1,30 @@
+package com.alang.dto.review;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one review in a batch submission.
+ *
+ * Items fail individually — a missing note or bad grade does not
+ * roll back the rest of the batch.
+ */
+@Data
+public class ReviewResultDto {
+
+    public static final String STATUS_APPLIED = "applied";
+    public static final String STATUS_NOT_FOUND = "not_found";
+    public static final String STATUS_INVALID_QUALITY = "invalid_quality";
+
+    private String noteId;
+    private String status;           // "applied" | "not_found" | "invalid_quality"
+    private String error;            // null when applied
+
+    /**
+     * Updated schedule (null unless applied)
+     */
+    private Integer intervalDays;
+    private Double easeFactor;
+    private LocalDateTime nextReviewAt;
+}
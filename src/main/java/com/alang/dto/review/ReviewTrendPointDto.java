@@ -0,0 +1,36 @@
+package com.alang.dto.review;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * One week of aggregated review activity (one point on a trend chart).
+ */
+@Data
+public class ReviewTrendPointDto {
+    /**
+     * Monday of the week this point covers
+     */
+    private LocalDate weekStart;
+
+    private int reviewCount;
+
+    /**
+     * Mean quality grade (1-4), 0 if no reviews
+     */
+    private double averageQuality;
+
+    /**
+     * Mean seconds spent per review, 0 if no reviews
+     */
+    private double averageTimeSpentSeconds;
+
+    /**
+     * Share of reviews graded 3 or 4 (remembered), 0 if no reviews
+     */
+    private double retentionRate;
+
+    private int newCount;
+    private int matureCount;
+}
@@ -0,0 +1,21 @@
+package com.alang.dto.review;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Response for GET /review/analytics/trend
+ *
+ * One point per week, oldest first. Weeks without reviews are included
+ * with zero counts so charts have a continuous x-axis.
+ */
+@Data
+public class ReviewTrendResponse {
+    /**
+     * Learning language filter, or null for all languages
+     */
+    private String language;
+
+    private List<ReviewTrendPointDto> weeks;
+}
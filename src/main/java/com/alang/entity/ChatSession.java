@@ -76,6 +76,17 @@ public class ChatSession {
     @JoinColumn(name = "note_id")
     private Note note;
 
+    /**
+     * Number of messages in the session and time of the latest one.
+     * Maintained atomically by ChatSessionRepository.recordMessages (never written
+     * through the entity, so saving a stale session cannot clobber the counter).
+     */
+    @Column(insertable = false, updatable = false)
+    private Integer messageCount = 0;
+
+    @Column(insertable = false, updatable = false)
+    private LocalDateTime lastMessageAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
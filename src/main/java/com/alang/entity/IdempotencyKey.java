@@ -0,0 +1,63 @@
+package com.alang.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A client-supplied Idempotency-Key and the response it produced.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Written only by the native upserts in IdempotencyKeyRepository, which
+ *   IdempotentRequests uses to claim, complete and release keys
+ * - responseBody is null while the original request is in flight
+ * - Expired rows are deleted by IdempotencyKeyCleanupJob
+ */
+@Entity
+@Table(name = "idempotency_keys")
+@IdClass(IdempotencyKey.Key.class)
+@Data
+public class IdempotencyKey {
+
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the endpoint and request body; a key reused for a different request is rejected
+     */
+    @Column(nullable = false)
+    private byte[] requestHash;
+
+    /**
+     * Serialized response of the original request (null while in flight)
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private String responseBody;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    public boolean isCompleted() {
+        return responseBody != null;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String userId;
+        private String idempotencyKey;
+    }
+}
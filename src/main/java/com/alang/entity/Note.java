@@ -25,6 +25,13 @@ import java.util.Map;
 @Table(name = "notes")
 @Data
 public class Note {
+    /**
+     * Scheduling state of a never-reviewed note. NoteRescheduleJob replays
+     * review history starting from these values.
+     */
+    public static final double INITIAL_EASE_FACTOR = 1.5;
+    public static final int INITIAL_INTERVAL_DAYS = 0;
+
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
@@ -92,12 +99,12 @@ public class Note {
     /**
      * Ease factor for spaced repetition (SM-2 algorithm)
      */
-    private Double easeFactor = 1.5;
+    private Double easeFactor = INITIAL_EASE_FACTOR;
 
     /**
      * Current interval in days
      */
-    private Integer intervalDays = 0;
+    private Integer intervalDays = INITIAL_INTERVAL_DAYS;
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -66,7 +66,7 @@ public class RecentMessage {
     private String content;
 
     /**
-     * Metadata: which model generated this (for assistant messages)
+     * Metadata: which provider and model generated this, as "provider/model" (for assistant messages)
      */
     private String modelUsed;
 
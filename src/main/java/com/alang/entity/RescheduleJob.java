@@ -0,0 +1,69 @@
+package com.alang.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress record for a bulk spaced-repetition rescheduling run.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Created by RescheduleService when an admin triggers a run
+ * - Advanced by NoteRescheduleJob, which checkpoints lastNoteId in the same
+ *   transaction as each batch of note updates
+ * - A failed/cancelled job is resumed from lastNoteId rather than restarted
+ */
+@Entity
+@Table(name = "reschedule_jobs")
+@Data
+public class RescheduleJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @JdbcTypeCode(SqlTypes.NAMED_ENUM)
+    @Column(nullable = false, columnDefinition = "reschedule_status")
+    private RescheduleStatus status = RescheduleStatus.running;
+
+    /**
+     * Highest note id fully processed (notes are walked in id order).
+     * Null until the first batch commits.
+     */
+    private String lastNoteId;
+
+    @Column(nullable = false)
+    private Long processedCount = 0L;
+
+    @Column(nullable = false)
+    private Long updatedCount = 0L;
+
+    /**
+     * Admin user who started the job
+     */
+    private String requestedBy;
+
+    @Column(columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,8 @@
+package com.alang.entity;
+
+public enum RescheduleStatus {
+    running,
+    completed,
+    failed,
+    cancelled
+}
@@ -0,0 +1,81 @@
+package com.alang.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Daily review rollup for one (user, learning language, day).
+ *
+ * ARCHITECTURAL NOTE:
+ * - Analytics endpoints read ONLY from this table, never from review_events
+ * - Incremented in the same transaction as ReviewService.submitReview()
+ * - Completed days are recomputed from review_events by ReviewRollupJob
+ *
+ * A year-long heat-map is therefore at most 365 rows per language.
+ */
+@Entity
+@Table(name = "review_daily_stats")
+@Data
+public class ReviewDailyStat {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private Integer reviewCount = 0;
+
+    /**
+     * Counts per quality grade (1 = forgot ... 4 = easy)
+     */
+    @Column(name = "quality1_count", nullable = false)
+    private Integer quality1Count = 0;
+
+    @Column(name = "quality2_count", nullable = false)
+    private Integer quality2Count = 0;
+
+    @Column(name = "quality3_count", nullable = false)
+    private Integer quality3Count = 0;
+
+    @Column(name = "quality4_count", nullable = false)
+    private Integer quality4Count = 0;
+
+    @Column(nullable = false)
+    private Long totalTimeSpentSeconds = 0L;
+
+    /**
+     * Reviews of notes that had never been reviewed before
+     */
+    @Column(nullable = false)
+    private Integer newCount = 0;
+
+    /**
+     * Reviews of notes whose previous interval was >= MATURE_INTERVAL_DAYS
+     */
+    @Column(nullable = false)
+    private Integer matureCount = 0;
+
+    /**
+     * Same threshold Anki uses to call a card "mature".
+     */
+    public static final int MATURE_INTERVAL_DAYS = 21;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        private String userId;
+
+        @Column(name = "learning_language_code")
+        private String learningLanguageCode;
+
+        @Column(name = "stat_date")
+        private LocalDate statDate;
+    }
+}
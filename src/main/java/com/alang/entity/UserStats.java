@@ -0,0 +1,70 @@
+package com.alang.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maintained per-user counters (one row per user).
+ *
+ * ARCHITECTURAL NOTE:
+ * - Read-only from the application's point of view: rows are written only by
+ *   the atomic upserts in UserStatsRepository, inside the transaction that
+ *   creates/deletes the note, and corrected by CounterReconciliationJob
+ * - A missing row means the user has no notes yet
+ */
+@Entity
+@Table(name = "user_stats")
+@Data
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(nullable = false)
+    private Long noteCount = 0L;
+
+    /**
+     * Note counts keyed by {@link #key(String, NoteType)}
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private Map<String, Long> noteCounts = new HashMap<>();
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Counter key for a learning language + note type, e.g. "ja:vocab".
+     */
+    public static String key(String learningLanguageCode, NoteType type) {
+        return learningLanguageCode + ":" + type.name();
+    }
+
+    /**
+     * Notes in one learning language (all types).
+     */
+    public long countForLanguage(String learningLanguageCode) {
+        String prefix = learningLanguageCode + ":";
+        long total = 0;
+        for (Map.Entry<String, Long> entry : noteCounts.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                total += entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Notes in one learning language and type.
+     */
+    public long countFor(String learningLanguageCode, NoteType type) {
+        return noteCounts.getOrDefault(key(learningLanguageCode, type), 0L);
+    }
+}
@@ -0,0 +1,12 @@
+package com.alang.exception;
+
+/**
+ * The request's deadline (see Deadline) passed before the LLM answered,
+ * or too little of it was left to start another attempt. Mapped to 504
+ * like other request timeouts.
+ */
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
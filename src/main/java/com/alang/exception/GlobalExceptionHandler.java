@@ -1,14 +1,17 @@
 package com.alang.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Global exception handler.
@@ -69,7 +72,8 @@ public class GlobalExceptionHandler {
     /**
      * Handle resource not found errors.
      */
-    @ExceptionHandler({NoteNotFoundException.class, UserNotFoundException.class})
+    @ExceptionHandler({NoteNotFoundException.class, UserNotFoundException.class,
+                       RescheduleJobNotFoundException.class})
     public ResponseEntity<ErrorResponse> handleNotFound(RuntimeException ex) {
         ErrorResponse response = new ErrorResponse(
             ex.getMessage(),
@@ -105,6 +109,19 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    /**
+     * Handle an Idempotency-Key reused for a different request.
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReused(IdempotencyKeyReusedException ex) {
+        ErrorResponse response = new ErrorResponse(
+            ex.getMessage(),
+            null,
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
+
     /**
      * Handle rate limit errors.
      */
@@ -132,6 +149,37 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
     }
 
+    /**
+     * Handle LLM admission rejections: the provider is at its concurrency limit.
+     * Retry-After tells clients when to try again.
+     */
+    @ExceptionHandler(LLMCapacityExceededException.class)
+    public ResponseEntity<ErrorResponse> handleLLMCapacity(LLMCapacityExceededException ex) {
+        ErrorResponse response = new ErrorResponse(
+            ex.getMessage(),
+            Map.of("retryAfterSeconds", ex.getRetryAfterSeconds()),
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(response);
+    }
+
+    /**
+     * Handle async request timeouts: a ChatController endpoint's own timeout
+     * (TimeoutException from its future), the request deadline running out
+     * inside the LLM path, or the container-wide spring.mvc.async.request-timeout.
+     */
+    @ExceptionHandler({TimeoutException.class, DeadlineExceededException.class, AsyncRequestTimeoutException.class})
+    public ResponseEntity<ErrorResponse> handleTimeout(Exception ex) {
+        ErrorResponse response = new ErrorResponse(
+            "AI service took too long to respond. Please try again.",
+            null,
+            LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(response);
+    }
+
     /**
      * Handle all other exceptions (fallback).
      */
@@ -0,0 +1,11 @@
+package com.alang.exception;
+
+/**
+ * An Idempotency-Key was sent again with a different request (other endpoint
+ * or body). Replaying the stored response would answer the wrong question.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
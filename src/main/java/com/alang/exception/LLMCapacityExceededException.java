@@ -0,0 +1,19 @@
+package com.alang.exception;
+
+/**
+ * The LLM provider is at its configured concurrency and the call could not
+ * be admitted in time. Not the user's fault and not a provider failure:
+ * the client should retry after retryAfterSeconds.
+ */
+public class LLMCapacityExceededException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public LLMCapacityExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
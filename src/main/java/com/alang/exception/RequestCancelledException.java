@@ -0,0 +1,11 @@
+package com.alang.exception;
+
+/**
+ * The caller went away (see Deadline.cancel) and the work behind its request
+ * was abandoned. There is nobody left to send a response to.
+ */
+public class RequestCancelledException extends RuntimeException {
+    public RequestCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.alang.exception;
+
+public class RescheduleJobNotFoundException extends RuntimeException {
+    public RescheduleJobNotFoundException(String jobId) {
+        super("Reschedule job not found: " + jobId);
+    }
+}
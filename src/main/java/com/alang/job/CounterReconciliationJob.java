@@ -0,0 +1,47 @@
+package com.alang.job;
+
+import com.alang.repository.ChatSessionRepository;
+import com.alang.repository.UserStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Corrects drift in the maintained counters (user_stats note counts and
+ * chat_sessions.message_count / last_message_at) by recomputing them from
+ * the source tables.
+ *
+ * Counters are updated in the same transaction as the writes they track, so
+ * drift should only come from paths that bypass the services (manual SQL,
+ * cascading deletes, bugs). Only rows that actually differ are rewritten.
+ *
+ * A note created while the reconcile statement runs can be missed by its
+ * snapshot and overwritten back by one; the next run corrects it. Runs
+ * off-peak for that reason.
+ */
+@Slf4j
+@Component
+public class CounterReconciliationJob {
+
+    private final UserStatsRepository userStatsRepository;
+    private final ChatSessionRepository chatSessionRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public CounterReconciliationJob(
+            UserStatsRepository userStatsRepository,
+            ChatSessionRepository chatSessionRepository,
+            PlatformTransactionManager transactionManager) {
+        this.userStatsRepository = userStatsRepository;
+        this.chatSessionRepository = chatSessionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 45 3 * * *}")
+    public void run() {
+        Integer users = transactionTemplate.execute(status -> userStatsRepository.reconcileNoteCounts());
+        Integer sessions = transactionTemplate.execute(status -> chatSessionRepository.reconcileMessageCounts());
+        log.info("Counter reconciliation: corrected user_stats={}, chat_sessions={}", users, sessions);
+    }
+}
@@ -0,0 +1,45 @@
+package com.alang.job;
+
+import com.alang.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes expired idempotency keys: completed responses past
+ * app.idempotency.ttl and in-flight claims whose lease ran out (their node
+ * died mid-request).
+ *
+ * Expired rows are already ignored by IdempotentRequests, so this only keeps
+ * the table small. Deletes in batches of app.idempotency.cleanup-batch-size,
+ * each its own short transaction, so a backlog never holds locks for long.
+ */
+@Slf4j
+@Component
+public class IdempotencyKeyCleanupJob {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final int batchSize;
+
+    public IdempotencyKeyCleanupJob(
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            @Value("${app.idempotency.cleanup-batch-size:5000}") int batchSize) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval:PT15M}",
+            initialDelayString = "${app.idempotency.cleanup-interval:PT15M}")
+    public void run() {
+        long deleted = 0;
+        int batch;
+        do {
+            batch = idempotencyKeyRepository.deleteExpired(batchSize);
+            deleted += batch;
+        } while (batch == batchSize);
+        if (deleted > 0) {
+            log.info("Idempotency key cleanup: deleted={}", deleted);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.alang.job;
+
+import com.alang.entity.Note;
+import com.alang.entity.RescheduleStatus;
+import com.alang.repository.RescheduleJobRepository;
+import com.alang.service.DueCardIndex;
+import com.alang.service.ReviewScheduler;
+import com.alang.service.ReviewService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recomputes every note's schedule by replaying its review_events history
+ * through the CURRENT ReviewService rules. Run after tuning
+ * calculateNextInterval / updateEaseFactor so existing notes pick up the change.
+ *
+ * Per batch:
+ * 1. Read the next app.reschedule.batch-size notes after the checkpoint
+ *    (keyset: WHERE id > :lastNoteId ORDER BY id) plus their review events,
+ *    streamed with a JDBC fetch size inside a read-only transaction
+ * 2. Replay each note's history on a dedicated ForkJoinPool (CPU-only work)
+ * 3. In one short transaction, batch-UPDATE only the notes whose schedule
+ *    actually changed, and advance the job checkpoint
+ *
+ * Keyset batches instead of one cursor held open for the whole run: a
+ * multi-hour cursor pins an old snapshot (blocking vacuum on notes) and cannot
+ * survive a restart, while each batch here is a short index range scan and the
+ * checkpoint is exactly the resume point.
+ *
+ * User-facing tables are never locked for long:
+ * - Writes touch at most batch-size rows, each under SET LOCAL lock_timeout,
+ *   so a batch that collides with a live review fails fast instead of queueing
+ * - The UPDATE is guarded on last_reviewed_at, so a note reviewed between our
+ *   read and our write is skipped (the live review already used the new rules)
+ * - Total write rate is capped at app.reschedule.max-writes-per-second
+ *
+ * Cancellation is cooperative: the status row is checked between batches.
+ */
+@Slf4j
+@Component
+public class NoteRescheduleJob {
+
+    private static final String SELECT_NOTES_SQL =
+            "SELECT id, ease_factor, interval_days, next_review_at, last_reviewed_at " +
+            "FROM notes WHERE id > :lastNoteId ORDER BY id LIMIT :limit";
+
+    private static final String SELECT_EVENTS_SQL =
+            "SELECT note_id, quality, reviewed_at FROM review_events " +
+            "WHERE note_id IN (:noteIds) ORDER BY note_id, reviewed_at";
+
+    private static final String UPDATE_NOTE_SQL =
+            "UPDATE notes SET ease_factor = :easeFactor, interval_days = :intervalDays, " +
+            "next_review_at = :nextReviewAt, updated_at = now() " +
+            "WHERE id = :id AND last_reviewed_at IS NOT DISTINCT FROM CAST(:lastReviewedAt AS TIMESTAMP)";
+
+    private static final double EASE_EPSILON = 1e-9;
+
+    private final RescheduleJobRepository rescheduleJobRepository;
+    private final ReviewService reviewService;
+    private final ReviewScheduler reviewScheduler;
+    private final DueCardIndex dueCardIndex;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int batchSize;
+    private final int parallelism;
+    private final int maxWritesPerSecond;
+    private final long lockTimeoutMs;
+
+    /**
+     * Id of the job currently executing on this node (null when idle)
+     */
+    private final AtomicReference<String> runningJobId = new AtomicReference<>();
+
+    public NoteRescheduleJob(
+            RescheduleJobRepository rescheduleJobRepository,
+            ReviewService reviewService,
+            ReviewScheduler reviewScheduler,
+            DueCardIndex dueCardIndex,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.reschedule.batch-size:5000}") int batchSize,
+            @Value("${app.reschedule.fetch-size:1000}") int fetchSize,
+            @Value("${app.reschedule.parallelism:0}") int parallelism,
+            @Value("${app.reschedule.max-writes-per-second:20000}") int maxWritesPerSecond,
+            @Value("${app.reschedule.lock-timeout-ms:2000}") long lockTimeoutMs) {
+        this.rescheduleJobRepository = rescheduleJobRepository;
+        this.reviewService = reviewService;
+        this.reviewScheduler = reviewScheduler;
+        this.dueCardIndex = dueCardIndex;
+
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxWritesPerSecond = maxWritesPerSecond;
+        this.lockTimeoutMs = lockTimeoutMs;
+    }
+
+    /**
+     * Whether the given job is executing on this node.
+     */
+    public boolean isRunning(String jobId) {
+        return jobId.equals(runningJobId.get());
+    }
+
+    /**
+     * Run (or resume) a job from its checkpoint. The job row must already be in
+     * 'running' status and committed. Returns immediately; work happens on the
+     * rescheduleExecutor.
+     */
+    @Async("rescheduleExecutor")
+    public void run(String jobId) {
+        if (!runningJobId.compareAndSet(null, jobId)) {
+            log.warn("Reschedule job {} not started: job {} is already running on this node",
+                    jobId, runningJobId.get());
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            execute(jobId, pool);
+        } catch (Exception e) {
+            log.error("Reschedule job {} failed", jobId, e);
+            rescheduleJobRepository.finish(jobId, RescheduleStatus.failed,
+                    e.getMessage() != null ? e.getMessage() : e.getClass().getName(), LocalDateTime.now());
+        } finally {
+            pool.shutdown();
+            runningJobId.set(null);
+        }
+    }
+
+    private void execute(String jobId, ForkJoinPool pool) throws InterruptedException, ExecutionException {
+        String cursor = rescheduleJobRepository.findById(jobId)
+                .map(job -> job.getLastNoteId() != null ? job.getLastNoteId() : "")
+                .orElseThrow(() -> new IllegalStateException("Reschedule job not found: " + jobId));
+
+        long startedAt = System.nanoTime();
+        long written = 0;
+        log.info("Reschedule job {} starting after note '{}'", jobId, cursor);
+
+        while (true) {
+            if (rescheduleJobRepository.findStatusById(jobId) != RescheduleStatus.running) {
+                log.info("Reschedule job {} stopped at note '{}'", jobId, cursor);
+                return;
+            }
+
+            String lastNoteId = cursor;
+            List<NoteHistory> batch = readTransaction.execute(status -> readBatch(lastNoteId));
+            if (batch == null || batch.isEmpty()) {
+                rescheduleJobRepository.finish(jobId, RescheduleStatus.completed, null, LocalDateTime.now());
+                log.info("Reschedule job {} completed ({} notes rewritten this run)", jobId, written);
+                return;
+            }
+
+            List<ScheduleUpdate> updates = pool.submit(() -> batch.parallelStream()
+                    .map(this::replay)
+                    .filter(Objects::nonNull)
+                    .toList()).get();
+
+            String batchEnd = batch.get(batch.size() - 1).noteId;
+            Integer updated = writeTransaction.execute(status -> writeBatch(jobId, updates, batchEnd, batch.size()));
+            if (updated != null && updated > 0) {
+                written += updated;
+                // Rewritten rows span many users; cheaper to drop the cache than to patch it
+                dueCardIndex.invalidateAll();
+            }
+            cursor = batchEnd;
+
+            throttle(startedAt, written);
+        }
+    }
+
+    /**
+     * Load the next batch of notes after the checkpoint, with their review history.
+     */
+    List<NoteHistory> readBatch(String lastNoteId) {
+        Map<String, NoteHistory> notes = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_NOTES_SQL,
+                new MapSqlParameterSource().addValue("lastNoteId", lastNoteId).addValue("limit", batchSize),
+                rs -> {
+                    NoteHistory note = new NoteHistory(
+                            rs.getString("id"),
+                            rs.getDouble("ease_factor"),
+                            rs.getInt("interval_days"),
+                            toLocalDateTime(rs.getTimestamp("next_review_at")),
+                            toLocalDateTime(rs.getTimestamp("last_reviewed_at")));
+                    notes.put(note.noteId, note);
+                });
+        if (notes.isEmpty()) {
+            return List.of();
+        }
+
+        jdbcTemplate.query(SELECT_EVENTS_SQL,
+                new MapSqlParameterSource("noteIds", notes.keySet()),
+                rs -> {
+                    NoteHistory note = notes.get(rs.getString("note_id"));
+                    note.addReview(rs.getInt("quality"), toLocalDateTime(rs.getTimestamp("reviewed_at")));
+                });
+        return new ArrayList<>(notes.values());
+    }
+
+    /**
+     * Replay a note's review history under the current rules.
+     * Mirrors ReviewServiceImpl.applyReview, starting from a never-reviewed note.
+     * Load balancing is not re-run (it depends on other notes' state at review
+     * time); the stored interval is kept if it is within the fuzz window.
+     *
+     * @return the new schedule, or null if the note has no history or is already up to date
+     */
+    ScheduleUpdate replay(NoteHistory note) {
+        if (note.qualities.isEmpty()) {
+            return null;
+        }
+
+        double easeFactor = Note.INITIAL_EASE_FACTOR;
+        int intervalDays = Note.INITIAL_INTERVAL_DAYS;
+        for (int quality : note.qualities) {
+            easeFactor = reviewService.updateEaseFactor(easeFactor, quality);
+            intervalDays = reviewService.calculateNextInterval(intervalDays, easeFactor, quality);
+        }
+        // A stored interval that load balancing moved within the fuzz window is still valid
+        if (note.intervalDays != intervalDays
+                && Math.abs(note.intervalDays - intervalDays) <= reviewScheduler.fuzzDays(intervalDays)) {
+            intervalDays = note.intervalDays;
+        }
+        LocalDateTime lastReview = note.reviewedAt.get(note.reviewedAt.size() - 1);
+        LocalDateTime nextReviewAt = reviewScheduler.nextReviewAt(note.noteId, lastReview.toLocalDate(), intervalDays);
+
+        if (Math.abs(easeFactor - note.easeFactor) < EASE_EPSILON
+                && intervalDays == note.intervalDays
+                && nextReviewAt.equals(note.nextReviewAt)) {
+            return null;
+        }
+        return new ScheduleUpdate(note.noteId, easeFactor, intervalDays, nextReviewAt, note.lastReviewedAt);
+    }
+
+    /**
+     * Apply one batch of schedule changes and advance the checkpoint atomically.
+     *
+     * @return number of notes actually rewritten
+     */
+    private int writeBatch(String jobId, List<ScheduleUpdate> updates, String batchEnd, int processed) {
+        int updated = 0;
+        if (!updates.isEmpty()) {
+            jdbcTemplate.getJdbcTemplate().execute("SET LOCAL lock_timeout = '" + lockTimeoutMs + "ms'");
+
+            SqlParameterSource[] params = updates.stream()
+                    .map(u -> new MapSqlParameterSource()
+                            .addValue("id", u.noteId())
+                            .addValue("easeFactor", u.easeFactor())
+                            .addValue("intervalDays", u.intervalDays())
+                            .addValue("nextReviewAt", Timestamp.valueOf(u.nextReviewAt()))
+                            .addValue("lastReviewedAt",
+                                    u.expectedLastReviewedAt() != null ? Timestamp.valueOf(u.expectedLastReviewedAt()) : null))
+                    .toArray(SqlParameterSource[]::new);
+            for (int count : jdbcTemplate.batchUpdate(UPDATE_NOTE_SQL, params)) {
+                // pgjdbc reports real per-statement counts; guard against SUCCESS_NO_INFO (-2)
+                updated += Math.max(count, 0);
+            }
+        }
+        rescheduleJobRepository.checkpoint(jobId, batchEnd, processed, updated, LocalDateTime.now());
+        return updated;
+    }
+
+    /**
+     * Sleep just enough to keep the average write rate under the configured cap.
+     */
+    private void throttle(long startedAtNanos, long written) throws InterruptedException {
+        if (maxWritesPerSecond <= 0) {
+            return;
+        }
+        long targetNanos = TimeUnit.SECONDS.toNanos(written) / maxWritesPerSecond;
+        long aheadNanos = targetNanos - (System.nanoTime() - startedAtNanos);
+        if (aheadNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * A note's current schedule plus its review history in chronological order.
+     */
+    static final class NoteHistory {
+        final String noteId;
+        final double easeFactor;
+        final int intervalDays;
+        final LocalDateTime nextReviewAt;
+        final LocalDateTime lastReviewedAt;
+        final List<Integer> qualities = new ArrayList<>();
+        final List<LocalDateTime> reviewedAt = new ArrayList<>();
+
+        NoteHistory(String noteId, double easeFactor, int intervalDays,
+                    LocalDateTime nextReviewAt, LocalDateTime lastReviewedAt) {
+            this.noteId = noteId;
+            this.easeFactor = easeFactor;
+            this.intervalDays = intervalDays;
+            this.nextReviewAt = nextReviewAt;
+            this.lastReviewedAt = lastReviewedAt;
+        }
+
+        void addReview(int quality, LocalDateTime at) {
+            qualities.add(quality);
+            reviewedAt.add(at);
+        }
+    }
+
+    record ScheduleUpdate(String noteId, double easeFactor, int intervalDays,
+                          LocalDateTime nextReviewAt, LocalDateTime expectedLastReviewedAt) {
+    }
+}
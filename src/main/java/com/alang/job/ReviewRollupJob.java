@@ -0,0 +1,107 @@
+package com.alang.job;
+
+import com.alang.repository.ReviewDailyStatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Backfills and reconciles the review_daily_stats rollups from review_events.
+ *
+ * ReviewService increments rollups as reviews are submitted; this job:
+ * 1. Backfills the full review_events history until review_rollup_backfill
+ *    (V11) records it as complete. The table's row count can't be used for
+ *    this, because live submissions add rows before the first run. Progress
+ *    is checkpointed per chunk, so an interrupted backfill resumes where it
+ *    stopped.
+ * 2. Nightly, recomputes the last N COMPLETED days to correct any drift
+ *
+ * Today is never recomputed: its row is still being incremented by live
+ * submissions, and an overwrite could race with them.
+ *
+ * Each chunk of days runs in its own short transaction so a full backfill
+ * never holds locks on review_daily_stats for long. Recomputing is idempotent,
+ * so running it on several nodes at once is harmless (just redundant).
+ */
+@Slf4j
+@Component
+public class ReviewRollupJob {
+
+    private final ReviewDailyStatRepository reviewDailyStatRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int reconcileDays;
+    private final int chunkDays;
+
+    public ReviewRollupJob(
+            ReviewDailyStatRepository reviewDailyStatRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.review-analytics.reconcile-days:3}") int reconcileDays,
+            @Value("${app.review-analytics.backfill-chunk-days:7}") int chunkDays) {
+        this.reviewDailyStatRepository = reviewDailyStatRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileDays = reconcileDays;
+        this.chunkDays = Math.max(1, chunkDays);
+    }
+
+    @Scheduled(cron = "${app.review-analytics.backfill-cron:0 15 3 * * *}")
+    public void run() {
+        LocalDate today = LocalDate.now();
+
+        if (!reviewDailyStatRepository.isBackfillComplete()) {
+            fullBackfill(today);
+            return;
+        }
+
+        backfill(today.minusDays(reconcileDays), today);
+    }
+
+    /**
+     * Backfill all history before today, resuming from the last checkpoint.
+     * Today and later are kept by live increments and the nightly reconcile.
+     */
+    void fullBackfill(LocalDate today) {
+        LocalDate from = reviewDailyStatRepository.findBackfilledThrough();
+        if (from == null) {
+            LocalDateTime earliest = reviewDailyStatRepository.findEarliestReviewedAt();
+            from = earliest != null ? earliest.toLocalDate() : today;
+        }
+        log.info("Review rollup backfill pending, backfilling from {}", from);
+        backfill(from, today, true);
+        transactionTemplate.executeWithoutResult(status -> reviewDailyStatRepository.markBackfillComplete());
+    }
+
+    /**
+     * Recompute rollups for days in [from, to) from review_events.
+     *
+     * @return number of rollup rows written
+     */
+    public int backfill(LocalDate from, LocalDate to) {
+        return backfill(from, to, false);
+    }
+
+    private int backfill(LocalDate from, LocalDate to, boolean checkpoint) {
+        int rows = 0;
+        for (LocalDate chunkStart = from; chunkStart.isBefore(to); chunkStart = chunkStart.plusDays(chunkDays)) {
+            LocalDate chunkEnd = chunkStart.plusDays(chunkDays).isBefore(to) ? chunkStart.plusDays(chunkDays) : to;
+            LocalDateTime start = chunkStart.atStartOfDay();
+            LocalDateTime end = chunkEnd.atStartOfDay();
+            LocalDate through = chunkEnd;
+            Integer written = transactionTemplate.execute(status -> {
+                int chunkRows = reviewDailyStatRepository.recomputeFromEvents(start, end);
+                if (checkpoint) {
+                    reviewDailyStatRepository.markBackfilledThrough(through);
+                }
+                return chunkRows;
+            });
+            rows += written != null ? written : 0;
+        }
+        log.info("Review rollup backfill complete: from={}, to={}, rows={}", from, to, rows);
+        return rows;
+    }
+}
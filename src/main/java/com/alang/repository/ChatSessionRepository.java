@@ -6,8 +6,12 @@ import com.alang.entity.SessionStatus;
 import com.alang.entity.User;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,4 +46,37 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, String
      * Called at the beginning of closeSession() to guard against closing without saving a note.
      */
     boolean existsByIdAndUserAndNoteCreatedTrue(String id, User user);
+
+    /**
+     * Atomically bump a session's message counter. Runs in the caller's transaction,
+     * alongside the recent_messages inserts it accounts for.
+     */
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.messageCount = s.messageCount + :added, s.lastMessageAt = :at " +
+           "WHERE s.id = :sessionId")
+    int recordMessages(@Param("sessionId") String sessionId,
+                       @Param("added") int added,
+                       @Param("at") LocalDateTime at);
+
+    /**
+     * Recompute message_count / last_message_at from recent_messages for sessions that drifted.
+     *
+     * @return number of sessions corrected
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE chat_sessions s
+            SET message_count = COALESCE(c.cnt, 0), last_message_at = c.last_at
+            FROM chat_sessions s2
+            LEFT JOIN (
+                SELECT session_id, COUNT(*) AS cnt, MAX(created_at) AS last_at
+                FROM recent_messages
+                WHERE session_id IS NOT NULL
+                GROUP BY session_id
+            ) c ON c.session_id = s2.id
+            WHERE s.id = s2.id
+              AND (s.message_count <> COALESCE(c.cnt, 0)
+                   OR s.last_message_at IS DISTINCT FROM c.last_at)
+            """, nativeQuery = true)
+    int reconcileMessageCounts();
 }
@@ -0,0 +1,86 @@
+package com.alang.repository;
+
+import com.alang.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Idempotency keys for LLM-backed endpoints.
+ *
+ * Each write is a single atomic statement in its own short transaction: the
+ * LLM call between claim and complete must not hold a connection.
+ */
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, IdempotencyKey.Key> {
+
+    /**
+     * Take the key for a new in-flight request: insert it, or take over a row
+     * whose lease or TTL has run out.
+     *
+     * @return 1 if this caller now owns the key, 0 if someone else does
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, response_body, expires_at)
+            VALUES (:userId, :key, :requestHash, NULL, now() + make_interval(secs => :leaseSeconds))
+            ON CONFLICT (user_id, idempotency_key) DO UPDATE SET
+                request_hash = EXCLUDED.request_hash,
+                response_body = NULL,
+                expires_at = EXCLUDED.expires_at
+            WHERE idempotency_keys.expires_at < now()
+            """, nativeQuery = true)
+    int claim(@Param("userId") String userId,
+              @Param("key") String key,
+              @Param("requestHash") byte[] requestHash,
+              @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * Store the original's response and keep it for ttlSeconds.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE idempotency_keys
+            SET response_body = CAST(:responseBody AS JSONB),
+                expires_at = now() + make_interval(secs => :ttlSeconds)
+            WHERE user_id = :userId AND idempotency_key = :key AND response_body IS NULL
+            """, nativeQuery = true)
+    int complete(@Param("userId") String userId,
+                 @Param("key") String key,
+                 @Param("responseBody") String responseBody,
+                 @Param("ttlSeconds") long ttlSeconds);
+
+    /**
+     * Give up an in-flight key after the original failed, so a retry runs afresh.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM idempotency_keys
+            WHERE user_id = :userId AND idempotency_key = :key AND response_body IS NULL
+            """, nativeQuery = true)
+    int release(@Param("userId") String userId, @Param("key") String key);
+
+    /**
+     * Delete up to batchSize expired keys (completed past their TTL, or
+     * in-flight past their lease).
+     *
+     * @return number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM idempotency_keys
+            WHERE (user_id, idempotency_key) IN (
+                SELECT user_id, idempotency_key FROM idempotency_keys
+                WHERE expires_at < now()
+                LIMIT :batchSize
+            )
+            """, nativeQuery = true)
+    int deleteExpired(@Param("batchSize") int batchSize);
+}
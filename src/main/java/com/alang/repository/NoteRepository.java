@@ -6,12 +6,14 @@ import com.alang.entity.User;
 import com.alang.entity.Language;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,26 +28,37 @@ public interface NoteRepository extends JpaRepository<Note, String> {
 
     /**
      * Find all notes for a user.
+     * Returns a Slice (no COUNT query) — the total comes from user_stats.
      */
-    Page<Note> findByUser(User user, Pageable pageable);
+    Slice<Note> findByUser(User user, Pageable pageable);
 
     /**
      * Find notes by user and learning language.
+     * Returns a Slice (no COUNT query) — the total comes from user_stats.
      */
-    Page<Note> findByUserAndLearningLanguage(User user, Language language, Pageable pageable);
+    Slice<Note> findByUserAndLearningLanguage(User user, Language language, Pageable pageable);
 
     /**
      * Find notes by user, learning language, and type.
+     * Returns a Slice (no COUNT query) — the total comes from user_stats.
      */
-    Page<Note> findByUserAndLearningLanguageAndType(User user, Language language, NoteType type, Pageable pageable);
+    Slice<Note> findByUserAndLearningLanguageAndType(User user, Language language, NoteType type, Pageable pageable);
 
     /**
      * Find note by ID and user (for authorization check).
      */
     Optional<Note> findByIdAndUser(String id, User user);
 
+    /**
+     * Find several notes by ID for a user in one query (batch review submission).
+     * IDs belonging to other users are silently dropped.
+     */
+    @Query("SELECT n FROM Note n JOIN FETCH n.learningLanguage WHERE n.user = :user AND n.id IN :ids")
+    List<Note> findByUserAndIdIn(@Param("user") User user, @Param("ids") Collection<String> ids);
+
     /**
      * Count notes for a user.
+     * Hot paths read UserStats.noteCount instead; kept for reconciliation/debugging.
      */
     long countByUser(User user);
 
@@ -74,6 +87,13 @@ public interface NoteRepository extends JpaRepository<Note, String> {
             @Param("language") Language language,
             @Param("title") String title);
 
+    /**
+     * Scheduling columns only — [id, nextReviewAt, learningLanguageCode] — for every
+     * note of a user. Loads the in-process DueCardIndex.
+     */
+    @Query("SELECT n.id, n.nextReviewAt, n.learningLanguage.code FROM Note n WHERE n.user.id = :userId")
+    List<Object[]> findScheduleByUserId(@Param("userId") String userId, Pageable pageable);
+
     /**
      * Find all notes due for review (nextReviewAt <= now), ordered oldest-due-first.
      */
@@ -92,6 +112,29 @@ public interface NoteRepository extends JpaRepository<Note, String> {
     @Query("SELECT COUNT(n) FROM Note n WHERE n.user = :user AND n.nextReviewAt <= :endOfDay")
     long countDueByEndOfDay(@Param("user") User user, @Param("endOfDay") LocalDateTime endOfDay);
 
+    /**
+     * Due-card histogram: [day (LocalDate), count (Long)] for notes due in [from, to).
+     * Used by ReviewScheduler for load balancing and by the due forecast.
+     */
+    @Query("SELECT CAST(n.nextReviewAt AS LocalDate), COUNT(n) FROM Note n " +
+           "WHERE n.user = :user AND n.nextReviewAt >= :from AND n.nextReviewAt < :to " +
+           "GROUP BY CAST(n.nextReviewAt AS LocalDate)")
+    List<Object[]> countDueByDay(@Param("user") User user,
+                                 @Param("from") LocalDateTime from,
+                                 @Param("to") LocalDateTime to);
+
+    /**
+     * Same as countDueByDay, restricted to one learning language.
+     */
+    @Query("SELECT CAST(n.nextReviewAt AS LocalDate), COUNT(n) FROM Note n " +
+           "WHERE n.user = :user AND n.learningLanguage = :language " +
+           "AND n.nextReviewAt >= :from AND n.nextReviewAt < :to " +
+           "GROUP BY CAST(n.nextReviewAt AS LocalDate)")
+    List<Object[]> countDueByDayAndLanguage(@Param("user") User user,
+                                            @Param("language") Language language,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
     /**
      * Find notes by tag (category + value).
      * Joins through note_tags to filter notes that have a specific tag.
@@ -0,0 +1,58 @@
+package com.alang.repository;
+
+import com.alang.entity.RescheduleJob;
+import com.alang.entity.RescheduleStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RescheduleJobRepository extends JpaRepository<RescheduleJob, String> {
+
+    /**
+     * Find a job in the given status (used to allow only one running job at a time).
+     */
+    Optional<RescheduleJob> findFirstByStatus(RescheduleStatus status);
+
+    /**
+     * Current status only — polled by the running job between batches to notice cancellation.
+     */
+    @Query("SELECT j.status FROM RescheduleJob j WHERE j.id = :id")
+    RescheduleStatus findStatusById(@Param("id") String id);
+
+    /**
+     * Advance the checkpoint after a batch. Must run in the same transaction as the
+     * batch's note updates so progress and data can never disagree.
+     * Deliberately leaves status alone so a concurrent cancel is not overwritten.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RescheduleJob j SET j.lastNoteId = :lastNoteId, " +
+           "j.processedCount = j.processedCount + :processed, " +
+           "j.updatedCount = j.updatedCount + :updated, " +
+           "j.updatedAt = :now WHERE j.id = :id")
+    int checkpoint(@Param("id") String id,
+                   @Param("lastNoteId") String lastNoteId,
+                   @Param("processed") long processed,
+                   @Param("updated") long updated,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Move a job out of 'running' (completed / failed). No-op if it was cancelled meanwhile.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE RescheduleJob j SET j.status = :status, j.errorMessage = :error, " +
+           "j.finishedAt = :now, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = com.alang.entity.RescheduleStatus.running")
+    int finish(@Param("id") String id,
+               @Param("status") RescheduleStatus status,
+               @Param("error") String error,
+               @Param("now") LocalDateTime now);
+}
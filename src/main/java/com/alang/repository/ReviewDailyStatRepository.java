@@ -0,0 +1,136 @@
+package com.alang.repository;
+
+import com.alang.entity.ReviewDailyStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Daily review rollup repository.
+ *
+ * Reads are bounded by (user, date range), so a dashboard never touches more
+ * than a few hundred rows regardless of how long the review history is.
+ */
+@Repository
+public interface ReviewDailyStatRepository extends JpaRepository<ReviewDailyStat, ReviewDailyStat.Key> {
+
+    /**
+     * Rollups for a user across all languages in a date range (inclusive).
+     */
+    @Query("SELECT s FROM ReviewDailyStat s WHERE s.id.userId = :userId " +
+           "AND s.id.statDate BETWEEN :from AND :to ORDER BY s.id.statDate ASC")
+    List<ReviewDailyStat> findByUserAndDateRange(
+            @Param("userId") String userId,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Rollups for a user in one learning language in a date range (inclusive).
+     */
+    @Query("SELECT s FROM ReviewDailyStat s WHERE s.id.userId = :userId " +
+           "AND s.id.learningLanguageCode = :language " +
+           "AND s.id.statDate BETWEEN :from AND :to ORDER BY s.id.statDate ASC")
+    List<ReviewDailyStat> findByUserAndLanguageAndDateRange(
+            @Param("userId") String userId,
+            @Param("language") String language,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    /**
+     * Add review counts to a day's rollup, creating the row if needed.
+     * Called in the same transaction as the review_events insert.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO review_daily_stats (user_id, learning_language_code, stat_date, review_count, " +
+                   "quality1_count, quality2_count, quality3_count, quality4_count, " +
+                   "total_time_spent_seconds, new_count, mature_count) " +
+                   "VALUES (:userId, :language, :statDate, :reviews, :q1, :q2, :q3, :q4, :timeSpent, :newCount, :matureCount) " +
+                   "ON CONFLICT (user_id, learning_language_code, stat_date) DO UPDATE SET " +
+                   "review_count = review_daily_stats.review_count + EXCLUDED.review_count, " +
+                   "quality1_count = review_daily_stats.quality1_count + EXCLUDED.quality1_count, " +
+                   "quality2_count = review_daily_stats.quality2_count + EXCLUDED.quality2_count, " +
+                   "quality3_count = review_daily_stats.quality3_count + EXCLUDED.quality3_count, " +
+                   "quality4_count = review_daily_stats.quality4_count + EXCLUDED.quality4_count, " +
+                   "total_time_spent_seconds = review_daily_stats.total_time_spent_seconds + EXCLUDED.total_time_spent_seconds, " +
+                   "new_count = review_daily_stats.new_count + EXCLUDED.new_count, " +
+                   "mature_count = review_daily_stats.mature_count + EXCLUDED.mature_count",
+           nativeQuery = true)
+    void increment(@Param("userId") String userId,
+                   @Param("language") String language,
+                   @Param("statDate") LocalDate statDate,
+                   @Param("reviews") int reviews,
+                   @Param("q1") int q1,
+                   @Param("q2") int q2,
+                   @Param("q3") int q3,
+                   @Param("q4") int q4,
+                   @Param("timeSpent") long timeSpent,
+                   @Param("newCount") int newCount,
+                   @Param("matureCount") int matureCount);
+
+    /**
+     * Recompute rollups from review_events for [from, to).
+     * Overwrites existing rows, so re-running a window is idempotent.
+     * Only run this for completed days — see ReviewRollupJob.
+     *
+     * @return number of rollup rows written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO review_daily_stats (user_id, learning_language_code, stat_date, review_count, " +
+                   "quality1_count, quality2_count, quality3_count, quality4_count, " +
+                   "total_time_spent_seconds, new_count, mature_count) " +
+                   "SELECT e.user_id, n.learning_language_code, CAST(e.reviewed_at AS DATE), COUNT(*), " +
+                   "COUNT(*) FILTER (WHERE e.quality = 1), " +
+                   "COUNT(*) FILTER (WHERE e.quality = 2), " +
+                   "COUNT(*) FILTER (WHERE e.quality = 3), " +
+                   "COUNT(*) FILTER (WHERE e.quality = 4), " +
+                   "COALESCE(SUM(e.time_spent_seconds), 0), " +
+                   "COUNT(*) FILTER (WHERE NOT EXISTS (SELECT 1 FROM review_events p " +
+                   "    WHERE p.note_id = e.note_id AND p.reviewed_at < e.reviewed_at)), " +
+                   "COUNT(*) FILTER (WHERE e.previous_interval_days >= " + ReviewDailyStat.MATURE_INTERVAL_DAYS + ") " +
+                   "FROM review_events e JOIN notes n ON n.id = e.note_id " +
+                   "WHERE e.reviewed_at >= :from AND e.reviewed_at < :to " +
+                   "GROUP BY e.user_id, n.learning_language_code, CAST(e.reviewed_at AS DATE) " +
+                   "ON CONFLICT (user_id, learning_language_code, stat_date) DO UPDATE SET " +
+                   "review_count = EXCLUDED.review_count, " +
+                   "quality1_count = EXCLUDED.quality1_count, " +
+                   "quality2_count = EXCLUDED.quality2_count, " +
+                   "quality3_count = EXCLUDED.quality3_count, " +
+                   "quality4_count = EXCLUDED.quality4_count, " +
+                   "total_time_spent_seconds = EXCLUDED.total_time_spent_seconds, " +
+                   "new_count = EXCLUDED.new_count, " +
+                   "mature_count = EXCLUDED.mature_count",
+           nativeQuery = true)
+    int recomputeFromEvents(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Earliest review event timestamp (for the initial full backfill).
+     */
+    @Query(value = "SELECT MIN(reviewed_at) FROM review_events", nativeQuery = true)
+    LocalDateTime findEarliestReviewedAt();
+
+    /**
+     * Whether the one-off full backfill has finished (review_rollup_backfill, V11).
+     */
+    @Query(value = "SELECT completed_at IS NOT NULL FROM review_rollup_backfill WHERE id = 1", nativeQuery = true)
+    boolean isBackfillComplete();
+
+    /**
+     * Days before this have been backfilled; null if the backfill has not started.
+     */
+    @Query(value = "SELECT backfilled_through FROM review_rollup_backfill WHERE id = 1", nativeQuery = true)
+    LocalDate findBackfilledThrough();
+
+    @Modifying
+    @Query(value = "UPDATE review_rollup_backfill SET backfilled_through = :through WHERE id = 1", nativeQuery = true)
+    void markBackfilledThrough(@Param("through") LocalDate through);
+
+    @Modifying
+    @Query(value = "UPDATE review_rollup_backfill SET completed_at = CURRENT_TIMESTAMP WHERE id = 1", nativeQuery = true)
+    void markBackfillComplete();
+}
@@ -17,7 +17,8 @@ import java.util.List;
  * 2. Analytics (review frequency)
  * 3. Algorithm tuning
  *
- * TODO: Add indexes on (userId, reviewedAt) for analytics queries
+ * Dashboards should NOT aggregate this table directly — use the daily rollups
+ * in ReviewDailyStatRepository (maintained by ReviewService + ReviewRollupJob).
  */
 @Repository
 public interface ReviewEventRepository extends JpaRepository<ReviewEvent, String> {
@@ -42,8 +43,6 @@ public interface ReviewEventRepository extends JpaRepository<ReviewEvent, String
      */
     List<ReviewEvent> findByUserAndReviewedAtBetween(User user, LocalDateTime start, LocalDateTime end);
 
-// TODO: Add more analytics queries
-    // - Reviews per day/week
-    // - Average time spent per review
-    // - Quality trends over time
+    // Reviews per day/week, average time per review and quality trends are served
+    // from review_daily_stats (see ReviewDailyStatRepository), not from raw events.
 }
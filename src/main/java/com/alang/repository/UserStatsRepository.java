@@ -0,0 +1,65 @@
+package com.alang.repository;
+
+import com.alang.entity.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Maintained per-user counters.
+ *
+ * Writers call adjustNoteCount inside the transaction that inserts/deletes the
+ * note, so the counter commits or rolls back with it. The upsert takes a row
+ * lock on user_stats, making concurrent adjustments for one user safe.
+ */
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, String> {
+
+    /**
+     * Atomically add delta (+1 / -1) to a user's total and per-key note counts.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_stats (user_id, note_count, note_counts, updated_at)
+            VALUES (:userId, :delta, jsonb_build_object(CAST(:countKey AS TEXT), :delta), now())
+            ON CONFLICT (user_id) DO UPDATE SET
+                note_count = user_stats.note_count + EXCLUDED.note_count,
+                note_counts = user_stats.note_counts || jsonb_build_object(CAST(:countKey AS TEXT),
+                    COALESCE(CAST(user_stats.note_counts ->> CAST(:countKey AS TEXT) AS BIGINT), 0) + EXCLUDED.note_count),
+                updated_at = now()
+            """, nativeQuery = true)
+    void adjustNoteCount(@Param("userId") String userId,
+                         @Param("countKey") String countKey,
+                         @Param("delta") long delta);
+
+    /**
+     * Recompute every user's counters from notes, rewriting only rows that drifted.
+     * Users whose notes were all deleted are reset to zero.
+     *
+     * @return number of user_stats rows corrected
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_stats (user_id, note_count, note_counts, updated_at)
+            SELECT u.id, COALESCE(c.total, 0), COALESCE(c.counts, '{}'::jsonb), now()
+            FROM users u
+            LEFT JOIN (
+                SELECT user_id, SUM(cnt) AS total, jsonb_object_agg(count_key, cnt) AS counts
+                FROM (
+                    SELECT user_id, learning_language_code || ':' || type::text AS count_key, COUNT(*) AS cnt
+                    FROM notes
+                    GROUP BY user_id, learning_language_code, type
+                ) per_key
+                GROUP BY user_id
+            ) c ON c.user_id = u.id
+            ON CONFLICT (user_id) DO UPDATE SET
+                note_count = EXCLUDED.note_count,
+                note_counts = EXCLUDED.note_counts,
+                updated_at = now()
+            WHERE user_stats.note_count <> EXCLUDED.note_count
+               OR user_stats.note_counts <> EXCLUDED.note_counts
+            """, nativeQuery = true)
+    int reconcileNoteCounts();
+}
@@ -0,0 +1,183 @@
+package com.alang.service;
+
+import com.alang.config.LLMProperties;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD concurrency limit for one model, fed by the outcome of each provider call.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Additive increase: every successful call adds 1/limit, so the limit grows
+ *   by about one per round trip while latency holds steady
+ * - Multiplicative decrease on provider pushback (429/5xx, timeouts): limit *= backoff-ratio
+ * - Multiplicative decrease on latency inflation: a call slower than
+ *   latency-tolerance x the rolling minimum RTT means the provider is queueing
+ *   us; limit *= latency-backoff-ratio (gentler — it is an early warning, not a refusal)
+ * - RTT grows with the length of the completion, and one lane carries both
+ *   short chat replies and long generated notes. Each call is only compared
+ *   with calls of similar length: the minimum RTT is kept per band of
+ *   completion tokens (bands a factor of sqrt(2) wide), where length alone
+ *   moves RTT by at most sqrt(2), under any sensible latency-tolerance
+ * - At most one decrease per minimum RTT: a burst of concurrent 429s is one
+ *   congestion signal, not N, and must not collapse the limit to min-limit
+ * - The limit only grows while at least half of it is in use; otherwise a quiet
+ *   period would ratchet it to max-limit without ever testing that level
+ *
+ * Lock-free: all state is in immutable snapshots swapped with CAS, so it is
+ * safe to update from any thread, including inside LLMAdmissionController's lane lock.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    private static final long NEVER = Long.MIN_VALUE;
+    // sqrt(2)-wide bands of completion tokens; the last also takes anything above 2^20
+    private static final int LENGTH_BANDS = 40;
+
+    private record State(double limit, long lastDecreaseNanos) {
+    }
+
+    /**
+     * Minimum RTT over the current and the previous window, so the baseline
+     * follows the provider when it gets permanently slower.
+     */
+    private record RttWindow(long currentMin, long previousMin, long windowStart) {
+        long baseline() {
+            return Math.min(currentMin, previousMin);
+        }
+    }
+
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final double latencyBackoffRatio;
+    private final double latencyTolerance;
+    private final long rttWindowNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<State> state;
+    private final AtomicReferenceArray<RttWindow> rtt = new AtomicReferenceArray<>(LENGTH_BANDS);
+    private final LongAdder increases = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+
+    public AdaptiveConcurrencyLimit(int initialLimit, LLMProperties.Adaptive config) {
+        this(initialLimit, config, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, LLMProperties.Adaptive config, LongSupplier nanoClock) {
+        this.minLimit = Math.max(1, config.getMinLimit());
+        this.maxLimit = Math.max(minLimit, config.getMaxLimit());
+        this.backoffRatio = config.getBackoffRatio();
+        this.latencyBackoffRatio = config.getLatencyBackoffRatio();
+        this.latencyTolerance = config.getLatencyTolerance();
+        this.rttWindowNanos = config.getMinRttWindow().toNanos();
+        this.nanoClock = nanoClock;
+        this.state = new AtomicReference<>(new State(clamp(initialLimit), NEVER));
+    }
+
+    /**
+     * Calls allowed in flight right now.
+     */
+    public int limit() {
+        return (int) state.get().limit();
+    }
+
+    /**
+     * A call completed normally after rttNanos with outputTokens completion
+     * tokens (0 if the provider reported none), with inFlight calls
+     * (including this one) at the provider.
+     */
+    public void onSuccess(long rttNanos, int outputTokens, int inFlight) {
+        long now = nanoClock.getAsLong();
+        long baseline = recordRtt(lengthBand(outputTokens), rttNanos, now);
+        if (rttNanos > baseline * latencyTolerance) {
+            decrease(latencyBackoffRatio, now, baseline);
+            return;
+        }
+
+        State previous = state.getAndUpdate(s -> inFlight * 2 < s.limit()
+                ? s
+                : new State(clamp(s.limit() + 1 / s.limit()), s.lastDecreaseNanos()));
+        if ((int) previous.limit() < limit()) {
+            increases.increment();
+        }
+    }
+
+    /**
+     * The provider pushed back (429, 5xx or a timeout) after rttNanos.
+     */
+    public void onDrop(long rttNanos) {
+        long minRtt = minRttNanos();
+        // Before the first success there is no baseline; the failed call's own RTT is the best guess
+        decrease(backoffRatio, nanoClock.getAsLong(), minRtt == 0 ? rttNanos : minRtt);
+    }
+
+    /**
+     * Rolling minimum RTT in nanoseconds over all completion lengths (in
+     * practice, the shortest ones), or 0 before the first successful call.
+     */
+    public long minRttNanos() {
+        long min = Long.MAX_VALUE;
+        for (int band = 0; band < LENGTH_BANDS; band++) {
+            RttWindow window = rtt.get(band);
+            if (window != null) {
+                min = Math.min(min, window.baseline());
+            }
+        }
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    public long increases() {
+        return increases.sum();
+    }
+
+    public long decreases() {
+        return decreases.sum();
+    }
+
+    private void decrease(double ratio, long now, long cooldownNanos) {
+        State current;
+        State next;
+        do {
+            current = state.get();
+            if (current.lastDecreaseNanos() != NEVER && now - current.lastDecreaseNanos() < cooldownNanos) {
+                return;
+            }
+            next = new State(clamp(current.limit() * ratio), now);
+        } while (!state.compareAndSet(current, next));
+        decreases.increment();
+    }
+
+    /**
+     * Band k holds [2^(k/2), 2^((k+1)/2)) tokens; 0 and 1 token share band 0.
+     */
+    static int lengthBand(int outputTokens) {
+        if (outputTokens <= 1) {
+            return 0;
+        }
+        int band = (int) (2 * Math.log(outputTokens) / Math.log(2));
+        return Math.min(LENGTH_BANDS - 1, band);
+    }
+
+    private long recordRtt(int band, long sample, long now) {
+        return rtt.updateAndGet(band, w -> {
+            if (w == null) {
+                return new RttWindow(sample, Long.MAX_VALUE, now);
+            }
+            long age = now - w.windowStart();
+            if (age >= 2 * rttWindowNanos) {
+                return new RttWindow(sample, Long.MAX_VALUE, now);
+            }
+            if (age >= rttWindowNanos) {
+                return new RttWindow(sample, w.currentMin(), now);
+            }
+            return sample < w.currentMin() ? new RttWindow(sample, w.previousMin(), w.windowStart()) : w;
+        }).baseline();
+    }
+
+    private double clamp(double limit) {
+        return Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+}
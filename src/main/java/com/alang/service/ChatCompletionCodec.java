@@ -0,0 +1,216 @@
+package com.alang.service;
+
+import com.alang.dto.llm.ChatCompletionRequest;
+import com.alang.dto.llm.ChatCompletionResponse;
+import com.alang.dto.llm.ChatMessage;
+import com.alang.exception.LLMProviderException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.web.reactive.function.BodyInserter;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Streaming JSON codec for /chat/completions, bypassing Jackson databind.
+ *
+ * Before this every call built nested Map.of/ArrayList structures for the
+ * request, had databind serialize them through an intermediate byte[], and
+ * decoded the whole response into a Map tree (every choice, logprobs,
+ * metadata) only to read two fields through unchecked casts.
+ *
+ * ARCHITECTURAL NOTE:
+ * - encode writes tokens straight into one DataBuffer from the connection's
+ *   factory (a pooled Netty buffer under WebClient), sized from the content
+ *   up front, so there is no intermediate byte[] and usually no regrowth
+ * - decode pulls tokens from the response buffer and keeps only
+ *   choices[0].message.content and usage; everything else is skipped
+ *   without being materialized
+ * - Structural problems (missing/empty choices) are reported through the
+ *   ChatCompletionResponse rather than thrown, so LLMServiceImpl keeps deciding
+ *   what is retryable. Only malformed JSON throws.
+ */
+public final class ChatCompletionCodec {
+
+    private static final JsonFactory JSON = JsonFactory.builder().build();
+
+    /**
+     * Bytes per message beyond its content: {"role":"assistant","content":""},
+     */
+    private static final int MESSAGE_OVERHEAD = 40;
+    private static final int REQUEST_OVERHEAD = 64;
+
+    private ChatCompletionCodec() {
+    }
+
+    /**
+     * Body inserter for WebClient: encodes once the connection's buffer factory is known.
+     */
+    public static BodyInserter<ChatCompletionRequest, ReactiveHttpOutputMessage> body(ChatCompletionRequest request) {
+        return (message, context) -> {
+            DataBuffer buffer;
+            try {
+                buffer = encode(request, message.bufferFactory());
+            } catch (LLMProviderException e) {
+                return Mono.error(e);
+            }
+            message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            message.getHeaders().setContentLength(buffer.readableByteCount());
+            return message.writeWith(Mono.just(buffer));
+        };
+    }
+
+    public static DataBuffer encode(ChatCompletionRequest request, DataBufferFactory bufferFactory) {
+        DataBuffer buffer = bufferFactory.allocateBuffer(estimateSize(request));
+        try (OutputStream out = buffer.asOutputStream();
+             JsonGenerator json = JSON.createGenerator(out)) {
+            json.writeStartObject();
+            json.writeStringField("model", request.model());
+            json.writeArrayFieldStart("messages");
+            writeMessage(json, "system", request.systemPrompt());
+            for (ChatMessage message : request.messages()) {
+                writeMessage(json, message.role(), message.content());
+            }
+            json.writeEndArray();
+            json.writeNumberField("max_tokens", request.maxTokens());
+            json.writeEndObject();
+        } catch (IOException | RuntimeException e) {
+            DataBufferUtils.release(buffer);
+            throw new LLMProviderException("Failed to encode LLM request", e);
+        }
+        return buffer;
+    }
+
+    private static void writeMessage(JsonGenerator json, String role, String content) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("role", role);
+        json.writeStringField("content", content);
+        json.writeEndObject();
+    }
+
+    /**
+     * Exact for ASCII content; multi-byte text grows the buffer once at most.
+     */
+    private static int estimateSize(ChatCompletionRequest request) {
+        long size = REQUEST_OVERHEAD + request.model().length() + MESSAGE_OVERHEAD + length(request.systemPrompt());
+        for (ChatMessage message : request.messages()) {
+            size += MESSAGE_OVERHEAD + length(message.content());
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE - 8);
+    }
+
+    private static int length(String content) {
+        return content == null ? 0 : content.length();
+    }
+
+    /**
+     * Decode and release the buffer.
+     */
+    public static ChatCompletionResponse decode(DataBuffer buffer) {
+        try (InputStream in = buffer.asInputStream(true);
+             JsonParser json = JSON.createParser(in)) {
+            return decode(json);
+        } catch (IOException e) {
+            throw new LLMProviderException("Invalid LLM response: " + e.getMessage(), e);
+        }
+    }
+
+    private static ChatCompletionResponse decode(JsonParser json) throws IOException {
+        if (json.nextToken() != JsonToken.START_OBJECT) {
+            throw new LLMProviderException("Invalid LLM response: not a JSON object");
+        }
+        int choices = ChatCompletionResponse.MISSING;
+        String content = null;
+        ChatCompletionResponse.Usage usage = null;
+        while (json.nextToken() == JsonToken.FIELD_NAME) {
+            String field = json.currentName();
+            JsonToken value = json.nextToken();
+            if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                choices = 0;
+                while (next(json) != JsonToken.END_ARRAY) {
+                    if (choices++ == 0 && json.currentToken() == JsonToken.START_OBJECT) {
+                        content = readChoiceContent(json);
+                    } else {
+                        json.skipChildren();
+                    }
+                }
+            } else if ("usage".equals(field) && value == JsonToken.START_OBJECT) {
+                usage = readUsage(json);
+            } else {
+                json.skipChildren();
+            }
+        }
+        expectEndObject(json);
+        return new ChatCompletionResponse(choices, content, usage);
+    }
+
+    private static JsonToken next(JsonParser json) throws IOException {
+        JsonToken token = json.nextToken();
+        if (token == null) {
+            throw new LLMProviderException("Invalid LLM response: truncated JSON");
+        }
+        return token;
+    }
+
+    /**
+     * A field loop ends on END_OBJECT, or on null when the input was truncated.
+     */
+    private static void expectEndObject(JsonParser json) {
+        if (json.currentToken() != JsonToken.END_OBJECT) {
+            throw new LLMProviderException("Invalid LLM response: truncated JSON");
+        }
+    }
+
+    /**
+     * choices[0]: {"message": {"content": "..."}, ...}
+     */
+    private static String readChoiceContent(JsonParser json) throws IOException {
+        String content = null;
+        while (json.nextToken() == JsonToken.FIELD_NAME) {
+            String field = json.currentName();
+            if (json.nextToken() == JsonToken.START_OBJECT && "message".equals(field)) {
+                while (json.nextToken() == JsonToken.FIELD_NAME) {
+                    String messageField = json.currentName();
+                    JsonToken value = json.nextToken();
+                    if ("content".equals(messageField) && value == JsonToken.VALUE_STRING) {
+                        content = json.getText();
+                    } else {
+                        json.skipChildren();
+                    }
+                }
+                expectEndObject(json);
+            } else {
+                json.skipChildren();
+            }
+        }
+        expectEndObject(json);
+        return content;
+    }
+
+    private static ChatCompletionResponse.Usage readUsage(JsonParser json) throws IOException {
+        int prompt = 0;
+        int completion = 0;
+        int total = 0;
+        while (json.nextToken() == JsonToken.FIELD_NAME) {
+            String field = json.currentName();
+            json.nextToken();
+            switch (field) {
+                case "prompt_tokens" -> prompt = json.getValueAsInt(0);
+                case "completion_tokens" -> completion = json.getValueAsInt(0);
+                case "total_tokens" -> total = json.getValueAsInt(0);
+                default -> json.skipChildren();
+            }
+        }
+        expectEndObject(json);
+        return new ChatCompletionResponse.Usage(prompt, completion, total);
+    }
+}
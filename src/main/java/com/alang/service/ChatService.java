@@ -12,6 +12,7 @@ import com.alang.dto.chat.UpdateSessionTitleRequest;
 import com.alang.dto.note.NoteDto;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Chat orchestration service.
@@ -67,6 +68,15 @@ public interface ChatService {
      */
     ChatMessageResponse sendMessage(ChatMessageRequest request, String userId);
 
+    /**
+     * Same as {@link #sendMessage}, but the LLM call does not hold the calling
+     * thread (see LLMService.generateReplyAsync). Used by ChatController so
+     * Tomcat threads are released while the provider responds.
+     *
+     * @param deadline When the client stops waiting (see Deadline)
+     */
+    CompletableFuture<ChatMessageResponse> sendMessageAsync(ChatMessageRequest request, String userId, Deadline deadline);
+
     /**
      * Explicitly create a note from the session's full conversation history.
      * Called when the user presses "Create Note".
@@ -78,6 +88,12 @@ public interface ChatService {
      */
     NoteDto createNoteFromSession(String sessionId, NoteFromSessionRequest request, String userId);
 
+    /**
+     * Non-blocking variant of {@link #createNoteFromSession}.
+     */
+    CompletableFuture<NoteDto> createNoteFromSessionAsync(String sessionId, NoteFromSessionRequest request, String userId,
+                                                          Deadline deadline);
+
     /**
      * Update an existing note using the session's full conversation as context.
      * Called when the user presses "Update Note" after additional follow-up questions.
@@ -91,6 +107,12 @@ public interface ChatService {
      */
     NoteDto updateNoteFromSession(String sessionId, String noteId, NoteFromSessionRequest request, String userId);
 
+    /**
+     * Non-blocking variant of {@link #updateNoteFromSession}.
+     */
+    CompletableFuture<NoteDto> updateNoteFromSessionAsync(String sessionId, String noteId, NoteFromSessionRequest request,
+                                                          String userId, Deadline deadline);
+
     /**
      * Close a session, preventing further messages from being sent.
      *
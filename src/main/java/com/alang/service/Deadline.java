@@ -0,0 +1,75 @@
+package com.alang.service;
+
+import reactor.core.Scannable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+/**
+ * The point by which a caller needs its answer.
+ *
+ * Set once where a request enters (ChatController, from app.chat.timeouts)
+ * and passed down to LLMService and LLMProviderRouter, so provider timeouts,
+ * retries and backoff all spend the same budget. Without it each layer had its
+ * own fixed timeout and a single chat message could keep retrying for minutes
+ * after the client had given up.
+ *
+ * It can also be cancelled before it expires. ChatController does this when
+ * the client disconnects, and the LLM call behind the request is then aborted.
+ * Otherwise an abandoned generation still ran to completion, held its
+ * connection, and had its reply saved and its tokens billed.
+ *
+ * Monotonic (System.nanoTime); only meaningful within this JVM.
+ */
+public final class Deadline {
+
+    private final long expiresAtNanos;
+    private final Sinks.Empty<Void> cancelled = Sinks.empty();
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration budget) {
+        return new Deadline(System.nanoTime() + budget.toNanos());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, expiresAtNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    /**
+     * Nobody is waiting for the answer any more. Idempotent.
+     */
+    public void cancel() {
+        cancelled.tryEmitEmpty();
+    }
+
+    public boolean isCancelled() {
+        return cancelled.scan(Scannable.Attr.TERMINATED);
+    }
+
+    /**
+     * Completes when cancel() is called; never completes otherwise.
+     */
+    public Mono<Void> cancellation() {
+        return cancelled.asMono();
+    }
+
+    /**
+     * Whether at least the given time is left.
+     */
+    public boolean allows(Duration needed) {
+        return expiresAtNanos - System.nanoTime() >= needed.toNanos();
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[remaining=" + remaining() + (isCancelled() ? ", cancelled" : "") + "]";
+    }
+}
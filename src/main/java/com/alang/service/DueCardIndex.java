@@ -0,0 +1,430 @@
+package com.alang.service;
+
+import com.alang.repository.NoteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index of every note's next_review_at, per user, for the review queue.
+ *
+ * ARCHITECTURAL NOTE:
+ * - One entry per user, loaded from the notes table on first access
+ *   (one narrow query: id, next_review_at, learning language)
+ * - Entries are sorted primitive arrays (due epoch-second, note-id UUID as two
+ *   longs, language slot), so a queue read is a binary search plus a short
+ *   scan — the notes table is only touched to hydrate the returned page
+ * - Writers (review submission, note create/delete) update entries in place
+ *   after their transaction commits; rolled-back writes never reach the index
+ * - Bounded: at most app.review-queue.index.max-users entries (LRU), users
+ *   with more than max-cards-per-user notes are not indexed (the composite
+ *   notes index serves them), and entries expire after ttl-seconds so writes
+ *   made on other nodes are picked up
+ *
+ * Readers must treat results as hints: ReviewServiceImpl re-checks the
+ * hydrated notes and invalidates the user if the index was stale.
+ */
+@Slf4j
+@Component
+public class DueCardIndex {
+
+    private final NoteRepository noteRepository;
+    private final boolean enabled;
+    private final int maxCardsPerUser;
+    private final long ttlNanos;
+    private final Map<String, UserDueCards> users;
+    // Guards users (access-ordered, so even get() mutates). Not synchronized:
+    // contended monitors pin carrier threads when requests run on virtual threads.
+    private final ReentrantLock usersLock = new ReentrantLock();
+
+    public DueCardIndex(
+            NoteRepository noteRepository,
+            @Value("${app.review-queue.index.enabled:true}") boolean enabled,
+            @Value("${app.review-queue.index.max-users:10000}") int maxUsers,
+            @Value("${app.review-queue.index.max-cards-per-user:50000}") int maxCardsPerUser,
+            @Value("${app.review-queue.index.ttl-seconds:300}") long ttlSeconds) {
+        this.noteRepository = noteRepository;
+        this.enabled = enabled;
+        this.maxCardsPerUser = maxCardsPerUser;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.users = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, UserDueCards> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Get (loading if needed) a user's due cards.
+     *
+     * @return null if the index is disabled or the user has too many notes to index
+     */
+    public UserDueCards get(String userId) {
+        if (!enabled) {
+            return null;
+        }
+
+        UserDueCards cards;
+        usersLock.lock();
+        try {
+            cards = users.get(userId);
+            if (cards != null && System.nanoTime() - cards.loadedAt > ttlNanos) {
+                users.remove(userId);
+                cards = null;
+            }
+            if (cards == null) {
+                // Placeholder first, so writes committed while we load mark it stale
+                cards = new UserDueCards();
+                users.put(userId, cards);
+            }
+        } finally {
+            usersLock.unlock();
+        }
+
+        if (!cards.loaded) {
+            load(userId, cards);
+        }
+        return cards.tooLarge ? null : cards;
+    }
+
+    /**
+     * Record a note's new due time once the current transaction commits.
+     */
+    public void noteScheduled(String userId, String noteId, String language, LocalDateTime nextReviewAt) {
+        afterCommit(() -> {
+            UserDueCards cards = cached(userId);
+            if (cards != null) {
+                cards.put(noteId, language, nextReviewAt);
+            }
+        });
+    }
+
+    /**
+     * Remove a note once the current transaction commits.
+     */
+    public void noteRemoved(String userId, String noteId) {
+        afterCommit(() -> {
+            UserDueCards cards = cached(userId);
+            if (cards != null) {
+                cards.remove(noteId);
+            }
+        });
+    }
+
+    /**
+     * Drop one user's entry (reloaded on next access).
+     */
+    public void invalidate(String userId) {
+        usersLock.lock();
+        try {
+            users.remove(userId);
+        } finally {
+            usersLock.unlock();
+        }
+    }
+
+    /**
+     * Drop every entry (after bulk writes such as NoteRescheduleJob).
+     */
+    public void invalidateAll() {
+        usersLock.lock();
+        try {
+            users.clear();
+        } finally {
+            usersLock.unlock();
+        }
+    }
+
+    private UserDueCards cached(String userId) {
+        usersLock.lock();
+        try {
+            return users.get(userId);
+        } finally {
+            usersLock.unlock();
+        }
+    }
+
+    private void load(String userId, UserDueCards cards) {
+        cards.lock.writeLock().lock();
+        try {
+            if (cards.loaded) {
+                return;
+            }
+            List<Object[]> rows = noteRepository.findScheduleByUserId(userId, PageRequest.of(0, maxCardsPerUser + 1));
+            if (rows.size() > maxCardsPerUser) {
+                cards.tooLarge = true;
+            } else if (!cards.fill(rows)) {
+                log.warn("Due index: non-UUID note id for user {}, not indexing", userId);
+                cards.tooLarge = true;
+            }
+            cards.loadedAt = System.nanoTime();
+            cards.loaded = true;
+        } finally {
+            cards.lock.writeLock().unlock();
+        }
+
+        if (cards.stale) {
+            // A write committed mid-load may be missing; serve this result once, reload next time
+            invalidate(userId);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static long toEpochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    /**
+     * One user's notes ordered by (due, note id). Parallel primitive arrays;
+     * languages are interned per user into a small slot table.
+     */
+    public static final class UserDueCards {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile boolean loaded;
+        private volatile boolean stale;
+        private boolean tooLarge;
+        private long loadedAt;
+
+        private long[] due = new long[0];
+        private long[] idHigh = new long[0];
+        private long[] idLow = new long[0];
+        private byte[] languageSlot = new byte[0];
+        private int size;
+        private final List<String> languages = new ArrayList<>();
+
+        UserDueCards() {
+        }
+
+        // rows: [noteId, nextReviewAt, learningLanguageCode]
+        boolean fill(List<Object[]> rows) {
+            int n = rows.size();
+            long[][] sortable = new long[n][];
+            for (int i = 0; i < n; i++) {
+                Object[] row = rows.get(i);
+                UUID id = parseId((String) row[0]);
+                if (id == null) {
+                    return false;
+                }
+                LocalDateTime nextReviewAt = (LocalDateTime) row[1];
+                sortable[i] = new long[]{
+                        nextReviewAt != null ? toEpochSecond(nextReviewAt) : Long.MIN_VALUE,
+                        id.getMostSignificantBits(),
+                        id.getLeastSignificantBits(),
+                        slotFor((String) row[2])};
+            }
+            Arrays.sort(sortable, (a, b) -> compare(a[0], a[1], a[2], b[0], b[1], b[2]));
+
+            ensureCapacity(n);
+            for (int i = 0; i < n; i++) {
+                due[i] = sortable[i][0];
+                idHigh[i] = sortable[i][1];
+                idLow[i] = sortable[i][2];
+                languageSlot[i] = (byte) sortable[i][3];
+            }
+            size = n;
+            return true;
+        }
+
+        /**
+         * Note ids due at or before {@code now}, oldest-due first.
+         *
+         * @param language Learning language filter (null = all)
+         */
+        public List<String> findDue(String language, LocalDateTime now, int limit) {
+            lock.readLock().lock();
+            try {
+                int slot = language != null ? languages.indexOf(language) : -1;
+                List<String> ids = new ArrayList<>(Math.min(limit, size));
+                if (language != null && slot < 0) {
+                    return ids;
+                }
+                long nowSecond = toEpochSecond(now);
+                for (int i = 0; i < size && due[i] <= nowSecond && ids.size() < limit; i++) {
+                    if (slot < 0 || languageSlot[i] == slot) {
+                        ids.add(new UUID(idHigh[i], idLow[i]).toString());
+                    }
+                }
+                return ids;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Number of notes (any language) due at or before {@code end}.
+         */
+        public long countDueBy(LocalDateTime end) {
+            lock.readLock().lock();
+            try {
+                // First index with due > end
+                long endSecond = toEpochSecond(end);
+                int lo = 0;
+                int hi = size;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (due[mid] <= endSecond) {
+                        lo = mid + 1;
+                    } else {
+                        hi = mid;
+                    }
+                }
+                return lo;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        void put(String noteId, String language, LocalDateTime nextReviewAt) {
+            UUID id = parseId(noteId);
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    stale = true;
+                    return;
+                }
+                if (id == null || tooLarge) {
+                    return;
+                }
+                removeAt(indexOf(id));
+
+                long dueSecond = nextReviewAt != null ? toEpochSecond(nextReviewAt) : Long.MIN_VALUE;
+                int slot = slotFor(language);
+                int pos = insertionPoint(dueSecond, id.getMostSignificantBits(), id.getLeastSignificantBits());
+                ensureCapacity(size + 1);
+                System.arraycopy(due, pos, due, pos + 1, size - pos);
+                System.arraycopy(idHigh, pos, idHigh, pos + 1, size - pos);
+                System.arraycopy(idLow, pos, idLow, pos + 1, size - pos);
+                System.arraycopy(languageSlot, pos, languageSlot, pos + 1, size - pos);
+                due[pos] = dueSecond;
+                idHigh[pos] = id.getMostSignificantBits();
+                idLow[pos] = id.getLeastSignificantBits();
+                languageSlot[pos] = (byte) slot;
+                size++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(String noteId) {
+            UUID id = parseId(noteId);
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    stale = true;
+                    return;
+                }
+                if (id != null) {
+                    removeAt(indexOf(id));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Linear scan over two long arrays: entries are ordered by due time, not id
+        private int indexOf(UUID id) {
+            long high = id.getMostSignificantBits();
+            long low = id.getLeastSignificantBits();
+            for (int i = 0; i < size; i++) {
+                if (idLow[i] == low && idHigh[i] == high) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void removeAt(int i) {
+            if (i < 0) {
+                return;
+            }
+            int tail = size - i - 1;
+            System.arraycopy(due, i + 1, due, i, tail);
+            System.arraycopy(idHigh, i + 1, idHigh, i, tail);
+            System.arraycopy(idLow, i + 1, idLow, i, tail);
+            System.arraycopy(languageSlot, i + 1, languageSlot, i, tail);
+            size--;
+        }
+
+        private int insertionPoint(long dueSecond, long high, long low) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(due[mid], idHigh[mid], idLow[mid], dueSecond, high, low) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (due.length >= capacity) {
+                return;
+            }
+            int newLength = Math.max(capacity, due.length + (due.length >> 1) + 8);
+            due = Arrays.copyOf(due, newLength);
+            idHigh = Arrays.copyOf(idHigh, newLength);
+            idLow = Arrays.copyOf(idLow, newLength);
+            languageSlot = Arrays.copyOf(languageSlot, newLength);
+        }
+
+        private int slotFor(String language) {
+            int slot = languages.indexOf(language);
+            if (slot < 0) {
+                languages.add(language);
+                slot = languages.size() - 1;
+            }
+            return slot;
+        }
+
+        private static int compare(long dueA, long highA, long lowA, long dueB, long highB, long lowB) {
+            int c = Long.compare(dueA, dueB);
+            if (c != 0) {
+                return c;
+            }
+            c = Long.compare(highA, highB);
+            return c != 0 ? c : Long.compare(lowA, lowB);
+        }
+
+        private static UUID parseId(String noteId) {
+            try {
+                return noteId != null ? UUID.fromString(noteId) : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.alang.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for the application's hot paths, so a
+ * recording (FlightRecorderService, or -XX:StartFlightRecording) shows
+ * them next to GC, lock contention and allocation samples.
+ *
+ * Each event's duration is the operation's latency; begin() where it
+ * starts, then end() and commit() once the fields are set. An event that is
+ * not enabled in the running recording costs a field write per call.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Enabled by default, with no threshold, in both JDK settings ("default"
+ *   and "profile"); a .jfc file can raise the threshold or disable them
+ * - Stack traces are off: the call sites are fixed and known, and walking
+ *   the stack would be most of the cost
+ * - No user content (messages, prompts, replies) is ever recorded
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    @Name("com.alang.LLMAttempt")
+    @Label("LLM Provider Attempt")
+    @Category({"ALang", "LLM"})
+    @Description("One request to an LLM provider, from send to response or failure")
+    @StackTrace(false)
+    public static final class LLMAttempt extends Event {
+        @Label("Provider")
+        public String provider;
+
+        @Label("Model")
+        public String model;
+
+        @Label("Retry Attempt")
+        @Description("0 for the first try of a call")
+        public int retryAttempt;
+
+        @Label("Outcome")
+        public String outcome;
+
+        @Label("Prompt Tokens")
+        public int promptTokens;
+
+        @Label("Completion Tokens")
+        public int completionTokens;
+    }
+
+    @Name("com.alang.ContextAssembly")
+    @Label("Context Assembly")
+    @Category({"ALang", "LLM"})
+    @Description("Loading conversation context and estimating the prompt's tokens for a chat reply")
+    @StackTrace(false)
+    public static final class ContextAssembly extends Event {
+        @Label("Model")
+        public String model;
+
+        @Label("Message Count")
+        @Description("Messages sent, including the summary block and the new user message")
+        public int messageCount;
+
+        @Label("Estimated Tokens")
+        public int estimatedTokens;
+    }
+
+    @Name("com.alang.NoteParse")
+    @Label("Note Parse")
+    @Category({"ALang", "LLM"})
+    @Description("Parsing a generated note out of the LLM's JSON reply")
+    @StackTrace(false)
+    public static final class NoteParse extends Event {
+        @Label("Language")
+        public String language;
+
+        @Label("Response Length")
+        @Description("Characters in the reply")
+        public int responseChars;
+
+        @Label("Succeeded")
+        public boolean succeeded;
+    }
+
+    @Name("com.alang.ReviewSubmission")
+    @Label("Review Submission")
+    @Category({"ALang", "Review"})
+    @Description("Applying graded reviews (single or batch) and saving them; the flush and commit come after")
+    @StackTrace(false)
+    public static final class ReviewSubmission extends Event {
+        @Label("Submitted")
+        public int submitted;
+
+        @Label("Applied")
+        public int applied;
+
+        @Label("Batch")
+        public boolean batch;
+    }
+
+    @Name("com.alang.TokenLedger")
+    @Label("Token Ledger")
+    @Category({"ALang", "Tokens"})
+    @Description("A daily token budget check or usage record for one user")
+    @StackTrace(false)
+    public static final class TokenLedger extends Event {
+        @Label("Operation")
+        @Description("check or record")
+        public String operation;
+
+        @Label("User Id")
+        public String userId;
+
+        @Label("Tokens")
+        @Description("Estimated (check) or used (record)")
+        public long tokens;
+
+        @Label("Daily Total")
+        @Description("Tokens used today, after the operation")
+        public long dailyTotal;
+
+        @Label("Allowed")
+        @Description("Whether a check found room in the budget; always true for record")
+        public boolean allowed;
+    }
+}
@@ -0,0 +1,154 @@
+package com.alang.service;
+
+import com.alang.dto.admin.FlightRecording;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * One JDK Flight Recorder recording per node, started, stopped and dumped
+ * from the admin endpoints (POST /admin/jfr/start etc.).
+ *
+ * The recording has the JDK's settings (app.jfr.settings) plus the app's own
+ * events (FlightEvents), and keeps at most app.jfr.max-age / app.jfr.max-size
+ * of data. A stopped recording is kept for dumping until the next start.
+ *
+ * Only one admin recording may be running at a time; recordings started
+ * with -XX:StartFlightRecording or jcmd are independent of it.
+ */
+@Slf4j
+@Service
+public class FlightRecorderService {
+
+    static final String RECORDING_NAME = "alang-admin";
+
+    private final String settings;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+
+    private Recording recording;
+
+    public FlightRecorderService(
+            @Value("${app.jfr.settings:profile}") String settings,
+            @Value("${app.jfr.max-age:1h}") Duration maxAge,
+            @Value("${app.jfr.max-size:256MB}") DataSize maxSize) {
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @throws IllegalStateException if a recording is already running, or the settings cannot be loaded
+     */
+    public synchronized FlightRecording start() {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A JFR recording is already running");
+        }
+        Recording next = new Recording(configuration());
+        next.setName(RECORDING_NAME);
+        next.setToDisk(true);
+        next.setMaxAge(maxAge);
+        next.setMaxSize(maxSize.toBytes());
+        next.start();
+        if (recording != null) {
+            recording.close();
+        }
+        recording = next;
+        log.info("JFR recording started: settings={}, maxAge={}, maxSize={}", settings, maxAge, maxSize);
+        return snapshot();
+    }
+
+    /**
+     * @throws IllegalStateException if no recording is running
+     */
+    public synchronized FlightRecording stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No JFR recording is running");
+        }
+        recording.stop();
+        log.info("JFR recording stopped: duration={}, size={} bytes", recording.getDuration(), recording.getSize());
+        return snapshot();
+    }
+
+    public synchronized FlightRecording snapshot() {
+        FlightRecording status = new FlightRecording();
+        status.setSettings(settings);
+        status.setMaxAgeMs(maxAge.toMillis());
+        status.setMaxSizeBytes(maxSize.toBytes());
+        if (recording == null) {
+            status.setState("NONE");
+            return status;
+        }
+        boolean running = recording.getState() == RecordingState.RUNNING;
+        status.setState(running ? "RUNNING" : "STOPPED");
+        status.setStartedAt(recording.getStartTime());
+        status.setStoppedAt(running ? null : recording.getStopTime());
+        Instant end = running ? Instant.now() : recording.getStopTime();
+        status.setDurationMs(Duration.between(recording.getStartTime(), end).toMillis());
+        status.setSizeBytes(recording.getSize());
+        return status;
+    }
+
+    /**
+     * The recording's data as a .jfr file. A running recording is copied up
+     * to now and keeps running; the caller must close the stream.
+     *
+     * @throws IllegalStateException if no recording has been started
+     */
+    public synchronized InputStream dump() {
+        if (recording == null) {
+            throw new IllegalStateException("No JFR recording to dump");
+        }
+        Recording data = recording.getState() == RecordingState.RUNNING ? recording.copy(true) : recording;
+        try {
+            InputStream stream = data.getStream(null, null);
+            if (stream == null) {
+                if (data != recording) {
+                    data.close();
+                }
+                throw new IllegalStateException("The JFR recording has no data yet");
+            }
+            if (data == recording) {
+                return stream;
+            }
+            return new FilterInputStream(stream) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        data.close();
+                    }
+                }
+            };
+        } catch (IOException e) {
+            if (data != recording) {
+                data.close();
+            }
+            throw new UncheckedIOException("Failed to read JFR recording", e);
+        }
+    }
+
+    private Configuration configuration() {
+        try {
+            return settings.endsWith(".jfc")
+                    ? Configuration.create(Path.of(settings))
+                    : Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot load JFR settings: " + settings, e);
+        }
+    }
+}
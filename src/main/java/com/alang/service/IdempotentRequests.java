@@ -0,0 +1,250 @@
+package com.alang.service;
+
+import com.alang.entity.IdempotencyKey;
+import com.alang.exception.DeadlineExceededException;
+import com.alang.exception.IdempotencyKeyReusedException;
+import com.alang.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Idempotency-Key handling for the LLM-backed chat endpoints.
+ *
+ * Mobile clients retry on flaky networks. Without this each retry ran a
+ * fresh provider call, saved another pair of RecentMessage rows and charged
+ * the tokens again.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Single-flight on this node: a duplicate that arrives while the original
+ *   is in flight here shares its future (no second provider call)
+ * - Across nodes: the key is claimed in idempotency_keys with a lease; a
+ *   duplicate on another node polls that row until the original's response
+ *   is stored, then replays it
+ * - Completed responses are replayed for app.idempotency.ttl without calling
+ *   the provider; a key reused with a different request body is rejected
+ * - Failures are not stored: the key is released so the client's retry runs afresh
+ * - The provider call runs under its own Deadline, cancelled only once every
+ *   request waiting on it has gone away (a client that disconnects and retries
+ *   must not cancel the call its retry is waiting for)
+ */
+@Slf4j
+@Component
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private record FlightKey(String userId, String key) {
+    }
+
+    /**
+     * One original request and everyone waiting on it.
+     */
+    private static final class Flight<T> {
+        final byte[] requestHash;
+        final Class<T> responseType;
+        final Deadline deadline;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final AtomicInteger waiters = new AtomicInteger();
+
+        Flight(byte[] requestHash, Class<T> responseType, Deadline deadline) {
+            this.requestHash = requestHash;
+            this.responseType = responseType;
+            this.deadline = deadline;
+        }
+    }
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final long ttlSeconds;
+    private final long leaseSeconds;
+    private final Executor pollExecutor;
+
+    private final ConcurrentHashMap<FlightKey, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotentRequests(
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            ObjectMapper objectMapper,
+            @Value("${app.idempotency.ttl:24h}") Duration ttl,
+            @Value("${app.idempotency.lease:5m}") Duration lease,
+            @Value("${app.idempotency.poll-interval:250ms}") Duration pollInterval) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.ttlSeconds = ttl.toSeconds();
+        this.leaseSeconds = lease.toSeconds();
+        // Polls block on JDBC; a virtual thread each costs nothing while waiting
+        this.pollExecutor = CompletableFuture.delayedExecutor(pollInterval.toMillis(), TimeUnit.MILLISECONDS,
+                task -> Thread.ofVirtual().name("idempotency-poll").start(task));
+    }
+
+    /**
+     * Run call at most once per (userId, key).
+     *
+     * @param endpoint identifies the operation, e.g. "POST /chat/sessions/{id}/message" with the id filled in
+     * @param request  request body; together with endpoint it must match the original's
+     * @param deadline this caller's deadline; cancelling it stops the provider call only if nobody else waits on it
+     * @param call     the original request, given the deadline it should run under
+     * @return the original's response (fresh, shared or replayed)
+     */
+    public <T> CompletableFuture<T> execute(String userId, String key, String endpoint, Object request,
+                                            Class<T> responseType, Deadline deadline,
+                                            Function<Deadline, CompletableFuture<T>> call) {
+        byte[] requestHash;
+        try {
+            if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+                throw new IllegalStateException(HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+            }
+            requestHash = fingerprint(endpoint, request);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        FlightKey id = new FlightKey(userId, key);
+        Flight<T> flight = new Flight<>(requestHash, responseType, Deadline.after(deadline.remaining()));
+        Flight<?> existing = inFlight.putIfAbsent(id, flight);
+        if (existing != null) {
+            if (!Arrays.equals(existing.requestHash, requestHash) || existing.responseType != responseType) {
+                return CompletableFuture.failedFuture(reused(key));
+            }
+            log.info("Joining in-flight request: userId={}, key={}", userId, key);
+            @SuppressWarnings("unchecked")
+            Flight<T> original = (Flight<T>) existing;
+            return join(original, deadline);
+        }
+
+        CompletableFuture<T> result = join(flight, deadline);
+        resolve(id, flight, call);
+        return result;
+    }
+
+    /**
+     * Claim the key and run the call, replay a stored response, or poll while
+     * another node runs the original.
+     */
+    private <T> void resolve(FlightKey id, Flight<T> flight, Function<Deadline, CompletableFuture<T>> call) {
+        try {
+            while (true) {
+                if (idempotencyKeyRepository.claim(id.userId(), id.key(), flight.requestHash, leaseSeconds) == 1) {
+                    run(id, flight, call);
+                    return;
+                }
+                IdempotencyKey stored = idempotencyKeyRepository
+                        .findById(new IdempotencyKey.Key(id.userId(), id.key()))
+                        .orElse(null);
+                if (stored == null) {
+                    // Released (original failed) or cleaned up since our claim; claim again
+                    continue;
+                }
+                if (!Arrays.equals(stored.getRequestHash(), flight.requestHash)) {
+                    fail(id, flight, reused(id.key()));
+                    return;
+                }
+                if (stored.isCompleted()) {
+                    log.info("Replaying stored response: userId={}, key={}", id.userId(), id.key());
+                    finish(id, flight, objectMapper.readValue(stored.getResponseBody(), flight.responseType));
+                    return;
+                }
+                if (flight.deadline.isExpired() || flight.deadline.isCancelled()) {
+                    fail(id, flight, new DeadlineExceededException(
+                            "Original request with this " + HEADER + " is still in progress"));
+                    return;
+                }
+                CompletableFuture.runAsync(() -> resolve(id, flight, call), pollExecutor);
+                return;
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            fail(id, flight, e);
+        }
+    }
+
+    private <T> void run(FlightKey id, Flight<T> flight, Function<Deadline, CompletableFuture<T>> call) {
+        CompletableFuture<T> original;
+        try {
+            original = call.apply(flight.deadline);
+        } catch (RuntimeException e) {
+            original = CompletableFuture.failedFuture(e);
+        }
+        original.whenComplete((value, error) -> {
+            if (error != null) {
+                release(id);
+                fail(id, flight, error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                return;
+            }
+            try {
+                idempotencyKeyRepository.complete(id.userId(), id.key(),
+                        objectMapper.writeValueAsString(value), ttlSeconds);
+            } catch (JsonProcessingException | RuntimeException e) {
+                // The caller still gets its answer; a later retry just runs again
+                log.warn("Could not store idempotent response: userId={}, key={}", id.userId(), id.key(), e);
+                release(id);
+            }
+            finish(id, flight, value);
+        });
+    }
+
+    /**
+     * A copy per caller: orTimeout on one caller's future must not fail the others.
+     */
+    private <T> CompletableFuture<T> join(Flight<T> flight, Deadline deadline) {
+        flight.waiters.incrementAndGet();
+        deadline.cancellation().subscribe(null, null, () -> {
+            if (flight.waiters.decrementAndGet() == 0) {
+                flight.deadline.cancel();
+            }
+        });
+        return flight.result.copy();
+    }
+
+    private <T> void finish(FlightKey id, Flight<T> flight, T value) {
+        inFlight.remove(id, flight);
+        flight.result.complete(value);
+    }
+
+    private void fail(FlightKey id, Flight<?> flight, Throwable error) {
+        inFlight.remove(id, flight);
+        flight.result.completeExceptionally(error);
+    }
+
+    private void release(FlightKey id) {
+        try {
+            idempotencyKeyRepository.release(id.userId(), id.key());
+        } catch (RuntimeException e) {
+            // The lease expires on its own
+            log.warn("Could not release idempotency key: userId={}, key={}", id.userId(), id.key(), e);
+        }
+    }
+
+    private byte[] fingerprint(String endpoint, Object request) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(endpoint.getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) '\n');
+            sha256.update(objectMapper.writeValueAsBytes(request));
+            return sha256.digest();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private static IdempotencyKeyReusedException reused(String key) {
+        return new IdempotencyKeyReusedException(HEADER + " " + key + " was already used for a different request");
+    }
+}
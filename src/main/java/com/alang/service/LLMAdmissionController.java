@@ -0,0 +1,351 @@
+package com.alang.service;
+
+import com.alang.config.LLMProperties;
+import com.alang.dto.admin.LLMAdmissionStats;
+import com.alang.entity.UserTier;
+import com.alang.exception.LLMCapacityExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Admission control in front of the LLM provider.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Each model has at most llm.admission.max-concurrency calls in flight
+ *   (model-max-concurrency overrides per model). Without this, peaks sent
+ *   everything to the provider at once, got 429s, and retries made it worse
+ * - Calls over the limit wait in a bounded per-model queue, served by
+ *   Priority and FIFO within a priority
+ * - A call that finds the queue full, or waits longer than max-queue-wait,
+ *   fails with LLMCapacityExceededException (503 + Retry-After) rather than
+ *   adding to the pile-up — peak load turns into fast, explicit rejections
+ *   for the lowest-priority work first
+ * - Waiting is non-blocking: acquire() is a Mono that completes when a slot
+ *   is handed over, so queued async requests hold no thread
+ * - With llm.admission.adaptive.enabled the limit is not fixed: each call's
+ *   outcome and latency feed an AdaptiveConcurrencyLimit (AIMD), so the lane
+ *   tracks what the provider can actually take at the moment
+ *
+ * One permit covers one provider attempt; LLMServiceImpl re-admits each retry.
+ */
+@Slf4j
+@Component
+public class LLMAdmissionController {
+
+    /**
+     * Queue order. Interactive chat comes before background work (note
+     * generation, summaries) because a user is waiting on it; within each,
+     * pro before free.
+     */
+    public enum Priority {
+        INTERACTIVE_PRO,
+        INTERACTIVE_FREE,
+        BACKGROUND_PRO,
+        BACKGROUND_FREE;
+
+        public static Priority of(UserTier tier, boolean interactive) {
+            boolean pro = tier == UserTier.pro;
+            if (interactive) {
+                return pro ? INTERACTIVE_PRO : INTERACTIVE_FREE;
+            }
+            return pro ? BACKGROUND_PRO : BACKGROUND_FREE;
+        }
+    }
+
+    private final LLMProperties.Admission config;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public LLMAdmissionController(LLMProperties llmProperties) {
+        this.config = llmProperties.getAdmission();
+    }
+
+    /**
+     * Run call once a slot for model is available; the slot is held until
+     * the returned Mono terminates or is cancelled.
+     */
+    public <T> Mono<T> admit(String model, Priority priority, Supplier<Mono<T>> call) {
+        return admit(model, priority, call, value -> 0);
+    }
+
+    /**
+     * As above, with outputTokens giving the completion length of a result,
+     * so the adaptive limit compares its latency with that of similar calls.
+     */
+    public <T> Mono<T> admit(String model, Priority priority, Supplier<Mono<T>> call,
+                             ToIntFunction<? super T> outputTokens) {
+        if (!config.isEnabled()) {
+            return Mono.defer(call);
+        }
+        return lane(model).acquire(priority)
+                .flatMap(permit -> Mono.defer(call)
+                        .doOnSuccess(value -> {
+                            permit.outputTokens = value == null ? 0 : outputTokens.applyAsInt(value);
+                            permit.outcome = Outcome.SUCCESS;
+                        })
+                        .doOnError(error -> permit.outcome = classify(error))
+                        .doFinally(signal -> permit.release()));
+    }
+
+    public List<LLMAdmissionStats> snapshot() {
+        List<LLMAdmissionStats> stats = new ArrayList<>();
+        for (Lane lane : lanes.values()) {
+            stats.add(lane.stats());
+        }
+        stats.sort(Comparator.comparing(LLMAdmissionStats::getModel));
+        return stats;
+    }
+
+    private Lane lane(String model) {
+        return lanes.computeIfAbsent(model, m -> {
+            int limit = Math.max(1, config.getModelMaxConcurrency().getOrDefault(m, config.getMaxConcurrency()));
+            return new Lane(m, limit,
+                    config.getAdaptive().isEnabled() ? new AdaptiveConcurrencyLimit(limit, config.getAdaptive()) : null);
+        });
+    }
+
+    /**
+     * Only provider pushback lowers the limit. Other failures (4xx, bad
+     * responses) say nothing about capacity and leave it alone.
+     */
+    private static Outcome classify(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            return status == 429 || status >= 500 ? Outcome.DROPPED : Outcome.IGNORED;
+        }
+        return error instanceof TimeoutException ? Outcome.DROPPED : Outcome.IGNORED;
+    }
+
+    private long retryAfterSeconds() {
+        return Math.max(1, (config.getMaxQueueWait().toMillis() + 999) / 1000);
+    }
+
+    private enum Outcome { SUCCESS, DROPPED, IGNORED }
+
+    /**
+     * Per-model slots and wait queue. All state is guarded by lock; sinks are
+     * completed outside it. The adaptive limit is lock-free and may also be read outside.
+     */
+    final class Lane {
+        private final String model;
+        private final int fixedLimit;
+        private final AdaptiveConcurrencyLimit adaptive; // null when adaptive limiting is off
+        private final ReentrantLock lock = new ReentrantLock();
+        private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+                Comparator.comparing((Waiter w) -> w.priority).thenComparingLong(w -> w.seq));
+        private int inFlight;
+        private long seq;
+
+        private long admitted;
+        private long rejected;
+        private long timedOut;
+        private long totalWaitNanos;
+        private long maxWaitNanos;
+
+        Lane(String model, int fixedLimit, AdaptiveConcurrencyLimit adaptive) {
+            this.model = model;
+            this.fixedLimit = fixedLimit;
+            this.adaptive = adaptive;
+        }
+
+        private int limit() {
+            return adaptive == null ? fixedLimit : adaptive.limit();
+        }
+
+        Mono<Permit> acquire(Priority priority) {
+            return Mono.create(sink -> {
+                boolean admittedNow = false;
+                boolean full = false;
+                lock.lock();
+                try {
+                    if (inFlight < limit() && queue.isEmpty()) {
+                        inFlight++;
+                        admitted++;
+                        admittedNow = true;
+                    } else if (queue.size() >= config.getMaxQueueSize()) {
+                        rejected++;
+                        full = true;
+                    } else {
+                        Waiter waiter = new Waiter(priority, seq++, sink, System.nanoTime());
+                        queue.add(waiter);
+                        waiter.timer = Schedulers.parallel().schedule(
+                                () -> expire(waiter), config.getMaxQueueWait().toNanos(), TimeUnit.NANOSECONDS);
+                        sink.onCancel(() -> cancel(waiter));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+
+                if (admittedNow) {
+                    sink.success(new Permit(this));
+                } else if (full) {
+                    log.warn("LLM admission rejected: model={}, priority={}, queue full ({})",
+                            model, priority, config.getMaxQueueSize());
+                    sink.error(new LLMCapacityExceededException(
+                            "AI service is at capacity. Please try again shortly.", retryAfterSeconds()));
+                }
+            });
+        }
+
+        /**
+         * Feed the call's outcome to the adaptive limit, free its slot, and
+         * hand slots to waiters while the (possibly new) limit allows.
+         */
+        void release(Permit permit) {
+            List<Waiter> granted = new ArrayList<>();
+            lock.lock();
+            try {
+                if (adaptive != null) {
+                    long rtt = System.nanoTime() - permit.grantedAt;
+                    if (permit.outcome == Outcome.SUCCESS) {
+                        adaptive.onSuccess(rtt, permit.outputTokens, inFlight);
+                    } else if (permit.outcome == Outcome.DROPPED) {
+                        adaptive.onDrop(rtt);
+                    }
+                }
+                inFlight--;
+                while (inFlight < limit() && !queue.isEmpty()) {
+                    Waiter next = queue.poll();
+                    next.granted = true;
+                    next.permit = new Permit(this);
+                    inFlight++;
+                    admitted++;
+                    long waited = System.nanoTime() - next.queuedAt;
+                    totalWaitNanos += waited;
+                    maxWaitNanos = Math.max(maxWaitNanos, waited);
+                    granted.add(next);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            for (Waiter next : granted) {
+                next.timer.dispose();
+                next.sink.success(next.permit);
+            }
+        }
+
+        private void expire(Waiter waiter) {
+            lock.lock();
+            try {
+                if (!queue.remove(waiter)) {
+                    return;
+                }
+                timedOut++;
+            } finally {
+                lock.unlock();
+            }
+            log.warn("LLM admission timed out: model={}, priority={}, waited {}",
+                    model, waiter.priority, config.getMaxQueueWait());
+            waiter.sink.error(new LLMCapacityExceededException(
+                    "AI service is busy. Please try again shortly.", retryAfterSeconds()));
+        }
+
+        private void cancel(Waiter waiter) {
+            boolean handedOver;
+            lock.lock();
+            try {
+                handedOver = !queue.remove(waiter) && waiter.granted;
+            } finally {
+                lock.unlock();
+            }
+            if (handedOver) {
+                // Cancelled while the slot was being handed over: the subscriber never got the permit
+                waiter.permit.release();
+            } else if (waiter.timer != null) {
+                waiter.timer.dispose();
+            }
+        }
+
+        LLMAdmissionStats stats() {
+            LLMAdmissionStats stats = new LLMAdmissionStats();
+            lock.lock();
+            try {
+                Map<Priority, Integer> byPriority = new EnumMap<>(Priority.class);
+                for (Waiter waiter : queue) {
+                    byPriority.merge(waiter.priority, 1, Integer::sum);
+                }
+                Map<String, Integer> depth = new LinkedHashMap<>();
+                byPriority.forEach((priority, count) -> depth.put(priority.name(), count));
+
+                stats.setModel(model);
+                stats.setMaxConcurrency(limit());
+                stats.setAdaptive(adaptive != null);
+                if (adaptive != null) {
+                    stats.setMinRttMs(adaptive.minRttNanos() / 1e6);
+                    stats.setLimitIncreases(adaptive.increases());
+                    stats.setLimitDecreases(adaptive.decreases());
+                }
+                stats.setInFlight(inFlight);
+                stats.setQueueDepth(queue.size());
+                stats.setQueueDepthByPriority(depth);
+                stats.setAdmitted(admitted);
+                stats.setRejected(rejected);
+                stats.setTimedOut(timedOut);
+                stats.setMeanWaitMs(admitted == 0 ? 0 : totalWaitNanos / 1e6 / admitted);
+                stats.setMaxWaitMs(maxWaitNanos / 1e6);
+            } finally {
+                lock.unlock();
+            }
+            return stats;
+        }
+    }
+
+    private static final class Waiter {
+        private final Priority priority;
+        private final long seq;
+        private final MonoSink<Permit> sink;
+        private final long queuedAt;
+        private Disposable timer;
+        private boolean granted;
+        private Permit permit;
+
+        private Waiter(Priority priority, long seq, MonoSink<Permit> sink, long queuedAt) {
+            this.priority = priority;
+            this.seq = seq;
+            this.sink = sink;
+            this.queuedAt = queuedAt;
+        }
+    }
+
+    /**
+     * One admitted call. Releasing twice is harmless. A permit released
+     * without an outcome (cancelled) does not feed the adaptive limit.
+     */
+    static final class Permit {
+        private final Lane lane;
+        private final long grantedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile Outcome outcome;
+        private volatile int outputTokens;
+
+        private Permit(Lane lane) {
+            this.lane = lane;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                lane.release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.alang.service;
+
+import com.alang.dto.chat.TokenUsageDto;
+import com.alang.dto.llm.ChatCompletionResponse;
+import com.alang.entity.UserTier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Micrometer meters and trace spans for the LLM path; meters are scraped
+ * from /actuator/prometheus, spans exported over OTLP.
+ *
+ * ARCHITECTURAL NOTE:
+ * - llm.requests (observation): one provider attempt. As a timer it is
+ *   tagged provider, model and outcome, with a percentile histogram
+ *   (application.yml) so p95/p99 can be aggregated across nodes; as a span
+ *   it also carries the retry attempt and token counts, under the caller's
+ *   LLMService span, and is recorded as a FlightEvents.LLMAttempt for JFR.
+ *   A hedge or failover is its own attempt
+ * - llm.retries, llm.rate.limited (429s), llm.breaker.trips and
+ *   llm.parse.failures (counters)
+ * - llm.tokens (summary): prompt and completion tokens per call, tagged
+ *   type, model and user tier, also with a histogram
+ * - Tag values are bounded (providers and models come from config,
+ *   outcomes and reasons from fixed sets or HTTP statuses), so the number
+ *   of series stays small
+ */
+@Component
+public class LLMMetrics {
+
+    /**
+     * Reactor context key for the retry attempt (0 for the first try) that a
+     * provider call belongs to; set by LLMServiceImpl, read by LLMProviderRouter.
+     */
+    public static final String RETRY_ATTEMPT = LLMMetrics.class.getName() + ".retryAttempt";
+
+    private final MeterRegistry registry;
+    private final ObservationRegistry observations;
+
+    @Autowired
+    public LLMMetrics(MeterRegistry registry, ObservationRegistry observations) {
+        this.registry = registry;
+        this.observations = observations;
+    }
+
+    /**
+     * Meters only, no spans: attempts are timed straight into registry.
+     */
+    public LLMMetrics(MeterRegistry registry) {
+        this(registry, timedInto(registry));
+    }
+
+    private static ObservationRegistry timedInto(MeterRegistry registry) {
+        ObservationRegistry observations = ObservationRegistry.create();
+        observations.observationConfig().observationHandler(new DefaultMeterObservationHandler(registry));
+        return observations;
+    }
+
+    /**
+     * Metrics that go nowhere, for tests and benchmarks that do not look at them.
+     */
+    public static LLMMetrics noop() {
+        return new LLMMetrics(new CompositeMeterRegistry(), ObservationRegistry.NOOP);
+    }
+
+    /**
+     * The observation open on this thread (the LLMService span), to parent
+     * provider attempts that run on other threads.
+     */
+    public Observation currentObservation() {
+        return observations.getCurrentObservation();
+    }
+
+    /**
+     * Starts timing one provider attempt; end it with exactly one of the
+     * Attempt methods.
+     */
+    public Attempt startAttempt(String provider, String model, int retryAttempt, Observation parent) {
+        Observation observation = Observation.createNotStarted("llm.requests", observations)
+                .contextualName("llm " + provider + "/" + model)
+                .parentObservation(parent)
+                .lowCardinalityKeyValue("provider", provider)
+                .lowCardinalityKeyValue("model", model)
+                .highCardinalityKeyValue("llm.retry.attempt", String.valueOf(retryAttempt))
+                .start();
+        FlightEvents.LLMAttempt event = new FlightEvents.LLMAttempt();
+        event.begin();
+        event.provider = provider;
+        event.model = model;
+        event.retryAttempt = retryAttempt;
+        return new Attempt(provider, observation, event);
+    }
+
+    public final class Attempt {
+        private final String provider;
+        private final Observation observation;
+        private final FlightEvents.LLMAttempt event;
+
+        private Attempt(String provider, Observation observation, FlightEvents.LLMAttempt event) {
+            this.provider = provider;
+            this.observation = observation;
+            this.event = event;
+        }
+
+        public void success(ChatCompletionResponse response) {
+            if (response != null && response.usage() != null) {
+                observation.highCardinalityKeyValue("llm.tokens.prompt",
+                        String.valueOf(response.usage().promptTokens()));
+                observation.highCardinalityKeyValue("llm.tokens.completion",
+                        String.valueOf(response.usage().completionTokens()));
+                event.promptTokens = response.usage().promptTokens();
+                event.completionTokens = response.usage().completionTokens();
+            }
+            stop("success");
+        }
+
+        public void failure(Throwable error) {
+            String outcome = outcome(error);
+            if (outcome.equals("rate_limited")) {
+                recordRateLimited(provider);
+            }
+            observation.error(error);
+            stop(outcome);
+        }
+
+        public void cancelled() {
+            stop("cancelled");
+        }
+
+        private void stop(String outcome) {
+            observation.lowCardinalityKeyValue("outcome", outcome).stop();
+            event.end();
+            if (event.shouldCommit()) {
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * A retry scheduled by LLMServiceImpl; reason is the HTTP status or the error type.
+     */
+    public void recordRetry(String model, String reason) {
+        Counter.builder("llm.retries")
+                .description("LLM calls retried after a transient failure")
+                .tag("model", model)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    void recordRateLimited(String provider) {
+        Counter.builder("llm.rate.limited")
+                .description("429 responses from an LLM provider")
+                .tag("provider", provider)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordBreakerTrip(String provider) {
+        Counter.builder("llm.breaker.trips")
+                .description("Times a provider's circuit breaker opened")
+                .tag("provider", provider)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * A provider response that could not be used; kind is "response" (no
+     * choices) or "note" (note JSON invalid).
+     */
+    public void recordParseFailure(String kind) {
+        Counter.builder("llm.parse.failures")
+                .description("LLM responses that could not be parsed")
+                .tag("kind", kind)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordTokens(String model, UserTier tier, TokenUsageDto usage) {
+        String tierTag = tier == null ? "unknown" : tier.name();
+        tokens("prompt", model, tierTag).record(usage.getPromptTokens());
+        tokens("completion", model, tierTag).record(usage.getCompletionTokens());
+    }
+
+    private DistributionSummary tokens(String type, String model, String tier) {
+        return DistributionSummary.builder("llm.tokens")
+                .description("Tokens per LLM call")
+                .baseUnit("tokens")
+                .tag("type", type)
+                .tag("model", model)
+                .tag("tier", tier)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(131_072.0)
+                .register(registry);
+    }
+
+    /**
+     * Outcome tag for a failed attempt.
+     */
+    static String outcome(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            if (status == 429) {
+                return "rate_limited";
+            }
+            return status >= 500 ? "server_error" : "client_error";
+        }
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof WebClientRequestException) {
+            return "connect_error";
+        }
+        return "error";
+    }
+}
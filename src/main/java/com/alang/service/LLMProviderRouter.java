@@ -0,0 +1,586 @@
+package com.alang.service;
+
+import com.alang.config.LLMConfig;
+import com.alang.config.LLMProperties;
+import com.alang.dto.admin.LLMProviderStats;
+import com.alang.dto.llm.ChatCompletionRequest;
+import com.alang.dto.llm.ChatCompletionResponse;
+import com.alang.exception.DeadlineExceededException;
+import com.alang.exception.LLMCapacityExceededException;
+import com.alang.exception.LLMProviderException;
+import com.alang.stub.LLMCassette;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Sends chat completions to an ordered list of OpenAI-compatible providers:
+ * the primary (llm.api) followed by llm.routing.fallbacks.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Hedging: if the primary has not answered within its recent p95 latency
+ *   (hedging.percentile), the same request also goes to the next provider.
+ *   The first success wins and the other call is cancelled. Only the slowest
+ *   few percent of calls hedge, and a token budget (hedging.budget-ratio)
+ *   caps hedges during a provider-wide slowdown, so cost stays well short of double
+ * - Failover: a provider whose circuit breaker is open is skipped, and a
+ *   provider failure (429, 5xx, timeout, connect error) moves the call to the
+ *   next provider immediately instead of waiting for the hedge delay.
+ *   Other errors (4xx, bad requests) are returned as-is
+ * - Each provider attempt goes through LLMAdmissionController under its own
+ *   lane ("provider/model"), so a hedge holds a slot like any other call
+ * - Timeouts: each attempt times out after timeouts.multiplier x the recent
+ *   p99 latency of that provider/model (within [min, max]) rather than a
+ *   fixed 60s, and the whole call (queueing, hedge, failover) ends at the
+ *   caller's Deadline with DeadlineExceededException
+ * - Warm-up: at startup each provider's pool gets llm.http.warmup-connections
+ *   open connections, so steady-state calls never pay connection setup
+ * - Every attempt is timed into llm.requests by provider, model and outcome,
+ *   and traced as a child of the caller's span with its retry attempt and
+ *   token counts; 429s and breaker trips are counted too (see LLMMetrics)
+ *
+ * Retries stay with the caller (LLMServiceImpl); each retry is routed afresh.
+ */
+@Slf4j
+@Component
+public class LLMProviderRouter {
+
+    /**
+     * A response and the provider that produced it, as "provider/model".
+     */
+    public record Routed<T>(String servedBy, T body) {
+    }
+
+    private final List<Provider> providers;
+    private final LLMProperties.Hedging hedging;
+    private final LLMProperties.Timeouts timeouts;
+    private final LLMAdmissionController admissionController;
+    private final HedgeBudget hedgeBudget;
+    private final int warmupConnections;
+    private final LLMMetrics metrics;
+
+    @Autowired
+    public LLMProviderRouter(WebClient llmWebClient, LLMProperties llmProperties,
+                             LLMAdmissionController admissionController, LLMCassette llmCassette,
+                             LLMMetrics llmMetrics) {
+        this(providers(llmWebClient, llmProperties, llmCassette), llmProperties.getRouting(), llmProperties.getTimeouts(),
+                admissionController, llmProperties.getHttp().getWarmupConnections(), llmMetrics);
+    }
+
+    LLMProviderRouter(List<Provider> providers, LLMProperties.Routing routing, LLMProperties.Timeouts timeouts,
+                      LLMAdmissionController admissionController) {
+        this(providers, routing, timeouts, admissionController, 0, LLMMetrics.noop());
+    }
+
+    LLMProviderRouter(List<Provider> providers, LLMProperties.Routing routing, LLMProperties.Timeouts timeouts,
+                      LLMAdmissionController admissionController, int warmupConnections) {
+        this(providers, routing, timeouts, admissionController, warmupConnections, LLMMetrics.noop());
+    }
+
+    LLMProviderRouter(List<Provider> providers, LLMProperties.Routing routing, LLMProperties.Timeouts timeouts,
+                      LLMAdmissionController admissionController, int warmupConnections, LLMMetrics metrics) {
+        this.providers = List.copyOf(providers);
+        this.warmupConnections = warmupConnections;
+        this.metrics = metrics;
+        this.hedging = routing.getHedging();
+        this.timeouts = timeouts;
+        this.admissionController = admissionController;
+        this.hedgeBudget = new HedgeBudget(hedging.getBudgetRatio());
+    }
+
+    private static List<Provider> providers(WebClient llmWebClient, LLMProperties llmProperties,
+                                            LLMCassette llmCassette) {
+        LLMProperties.Breaker breaker = llmProperties.getRouting().getBreaker();
+        String primaryName = llmProperties.getProvider() == null ? "primary" : llmProperties.getProvider();
+
+        List<Provider> providers = new ArrayList<>();
+        providers.add(new Provider(primaryName, llmWebClient, null, new CircuitBreaker(breaker, System::nanoTime)));
+        for (LLMProperties.Provider fallback : llmProperties.getRouting().getFallbacks()) {
+            providers.add(new Provider(fallback.getName(),
+                    LLMConfig.llmWebClient(fallback.getName(), fallback.getBaseUrl(), fallback.getKey(),
+                            llmProperties.getTimeouts().getMax(), llmProperties.getHttp(), llmCassette),
+                    fallback.getModel(), new CircuitBreaker(breaker, System::nanoTime)));
+        }
+        return providers;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUpConnections().subscribe();
+    }
+
+    /**
+     * Open llm.http.warmup-connections connections to every provider before
+     * the first real call, so the first burst after a deploy does not pay DNS,
+     * TCP and TLS setup. GET /models is cheap, unbilled and served by every
+     * OpenAI-compatible API; any HTTP response means the connection is up.
+     * With HTTP/2 the requests share one connection, which is all a burst needs.
+     */
+    Mono<Void> warmUpConnections() {
+        if (warmupConnections <= 0) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(providers)
+                .flatMap(provider -> Flux.range(0, warmupConnections)
+                        .flatMap(i -> provider.client.get().uri("/models")
+                                .retrieve()
+                                .toBodilessEntity()
+                                .thenReturn(true)
+                                .onErrorResume(WebClientResponseException.class, e -> Mono.just(true))
+                                .onErrorResume(e -> {
+                                    log.warn("LLM connection warm-up to {} failed: {}", provider.name, e.toString());
+                                    return Mono.just(false);
+                                }), warmupConnections)
+                        .filter(connected -> connected)
+                        .count()
+                        .doOnNext(connected -> log.info("Warmed up LLM connections to {}: {}/{} requests connected",
+                                provider.name, connected, warmupConnections)))
+                .then();
+    }
+
+    /**
+     * Deadline for callers that have none of their own.
+     */
+    public Deadline defaultDeadline() {
+        return Deadline.after(timeouts.getDefaultDeadline());
+    }
+
+    /**
+     * The least remaining deadline worth starting another attempt with.
+     */
+    public Duration minAttemptTime() {
+        return timeouts.getMin();
+    }
+
+    /**
+     * POST /chat/completions for model. requestBody builds the body for the
+     * model name the chosen provider serves. Completes empty if the provider
+     * returned no body; fails with DeadlineExceededException once deadline passes.
+     */
+    public Mono<Routed<ChatCompletionResponse>> chatCompletion(
+            String model, LLMAdmissionController.Priority priority, Deadline deadline,
+            Function<String, ChatCompletionRequest> requestBody) {
+        return Mono.defer(() -> {
+            Duration remaining = deadline.remaining();
+            if (remaining.isZero()) {
+                return Mono.error(deadlineExceeded());
+            }
+            return route(model, priority, requestBody)
+                    .timeout(remaining)
+                    .onErrorMap(TimeoutException.class, e -> deadline.isExpired() ? deadlineExceeded() : e);
+        });
+    }
+
+    private static DeadlineExceededException deadlineExceeded() {
+        return new DeadlineExceededException("LLM request deadline exceeded");
+    }
+
+    private Mono<Routed<ChatCompletionResponse>> route(
+            String model, LLMAdmissionController.Priority priority,
+            Function<String, ChatCompletionRequest> requestBody) {
+        return Mono.defer(() -> {
+            int primaryIndex = nextAvailable(0);
+            if (primaryIndex < 0) {
+                return Mono.error(new LLMProviderException("No LLM provider available: all circuit breakers are open"));
+            }
+            Provider primary = providers.get(primaryIndex);
+            if (primaryIndex > 0) {
+                primary.failovers.increment();
+                log.warn("LLM primary unavailable (breaker open), routing to {}", primary.name);
+            }
+            if (primaryIndex == providers.size() - 1) {
+                return attempt(primary, model, priority, requestBody);
+            }
+
+            hedgeBudget.deposit();
+            // Completes when the primary fails in a way another provider could fix;
+            // errors (and aborts the hedge) when it fails in a way it could not
+            Sinks.Empty<Void> primaryFailed = Sinks.empty();
+            Mono<Routed<ChatCompletionResponse>> first = attempt(primary, model, priority, requestBody)
+                    .doOnSuccess(routed -> {
+                        if (routed == null) {
+                            primaryFailed.tryEmitError(new LLMProviderException("Invalid LLM response: missing 'choices'"));
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (isProviderFailure(e)) {
+                            primaryFailed.tryEmitEmpty();
+                        } else {
+                            primaryFailed.tryEmitError(e);
+                        }
+                    });
+
+            Mono<Boolean> latencyHedge = hedging.isEnabled()
+                    ? Mono.delay(primary.hedgeDelay(model, hedging))
+                            .flatMap(tick -> hedgeBudget.tryWithdraw() ? Mono.just(true) : Mono.<Boolean>never())
+                    : Mono.never();
+            Mono<Routed<ChatCompletionResponse>> second = Mono.firstWithSignal(
+                            latencyHedge, primaryFailed.asMono().thenReturn(false))
+                    .flatMap(hedge -> secondary(primaryIndex, hedge, model, priority, requestBody));
+
+            return Mono.firstWithValue(first, second)
+                    .onErrorMap(NoSuchElementException.class, LLMProviderRouter::firstFailure);
+        });
+    }
+
+    private Mono<Routed<ChatCompletionResponse>> secondary(
+            int primaryIndex, boolean hedge, String model, LLMAdmissionController.Priority priority,
+            Function<String, ChatCompletionRequest> requestBody) {
+        int index = nextAvailable(primaryIndex + 1);
+        if (index < 0) {
+            return Mono.error(new LLMProviderException("No fallback LLM provider available"));
+        }
+        Provider provider = providers.get(index);
+        if (!hedge) {
+            provider.failovers.increment();
+            log.warn("LLM provider {} failed, failing over to {}", providers.get(primaryIndex).name, provider.name);
+            return attempt(provider, model, priority, requestBody);
+        }
+        provider.hedgesSent.increment();
+        log.info("LLM provider {} slow, hedging to {}", providers.get(primaryIndex).name, provider.name);
+        return attempt(provider, model, priority, requestBody)
+                .doOnSuccess(routed -> {
+                    if (routed != null) {
+                        provider.hedgesWon.increment();
+                    }
+                });
+    }
+
+    private Mono<Routed<ChatCompletionResponse>> attempt(
+            Provider provider, String model, LLMAdmissionController.Priority priority,
+            Function<String, ChatCompletionRequest> requestBody) {
+        String servedModel = provider.model == null ? model : provider.model;
+        String servedBy = provider.name + "/" + servedModel;
+        LatencyWindow latency = provider.latency(model);
+        return Mono.deferContextual(context -> admissionController.admit(servedBy, priority, () -> {
+            long start = System.nanoTime();
+            LLMMetrics.Attempt observed = metrics.startAttempt(provider.name, servedModel,
+                    context.getOrDefault(LLMMetrics.RETRY_ATTEMPT, 0),
+                    context.getOrDefault(ObservationThreadLocalAccessor.KEY, null));
+            return provider.client.post()
+                    .uri("/chat/completions")
+                    .body(ChatCompletionCodec.body(requestBody.apply(servedModel)))
+                    .retrieve()
+                    .bodyToMono(DataBuffer.class)
+                    .map(ChatCompletionCodec::decode)
+                    .timeout(provider.attemptTimeout(model, timeouts))
+                    .doOnSuccess(body -> {
+                        latency.record(System.nanoTime() - start);
+                        observed.success(body);
+                        provider.breaker.onSuccess();
+                        provider.served.increment();
+                    })
+                    .doOnError(e -> {
+                        if (e instanceof TimeoutException) {
+                            latency.record(System.nanoTime() - start);
+                        }
+                        observed.failure(e);
+                        if (isProviderFailure(e)) {
+                            if (provider.breaker.onFailure()) {
+                                metrics.recordBreakerTrip(provider.name);
+                            }
+                            provider.failures.increment();
+                        }
+                    })
+                    // A cancelled call was at least this slow; leaving it out would bias the percentile low
+                    .doOnCancel(() -> {
+                        latency.record(System.nanoTime() - start);
+                        observed.cancelled();
+                    });
+        }, LLMProviderRouter::completionTokens))
+                // Never reached the provider (queue full/timeout) or was abandoned: not a verdict on it
+                .doOnError(LLMCapacityExceededException.class, e -> provider.breaker.onCancel())
+                .doOnCancel(provider.breaker::onCancel)
+                .map(body -> new Routed<>(servedBy, body));
+    }
+
+    private int nextAvailable(int from) {
+        for (int i = from; i < providers.size(); i++) {
+            if (providers.get(i).breaker.tryAcquire()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int completionTokens(ChatCompletionResponse body) {
+        return body.usage() == null ? 0 : body.usage().completionTokens();
+    }
+
+    /**
+     * Failures that say the provider, not the request, is the problem.
+     */
+    static boolean isProviderFailure(Throwable error) {
+        if (error instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            return status == 429 || status >= 500;
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    /**
+     * firstWithValue fails with NoSuchElementException wrapping every
+     * source's error; surface the primary's so callers can classify it.
+     */
+    private static Throwable firstFailure(NoSuchElementException error) {
+        Throwable cause = error.getCause();
+        if (cause != null && Exceptions.isMultiple(cause)) {
+            for (Throwable e : Exceptions.unwrapMultiple(cause)) {
+                if (!(e instanceof NoSuchElementException)) {
+                    return e;
+                }
+            }
+        }
+        return error;
+    }
+
+    public List<LLMProviderStats> snapshot() {
+        List<LLMProviderStats> stats = new ArrayList<>();
+        for (int i = 0; i < providers.size(); i++) {
+            Provider provider = providers.get(i);
+            LLMProviderStats s = new LLMProviderStats();
+            s.setName(provider.name);
+            s.setPrimary(i == 0);
+            s.setBreakerState(provider.breaker.state().name());
+            s.setServed(provider.served.sum());
+            s.setFailures(provider.failures.sum());
+            s.setHedgesSent(provider.hedgesSent.sum());
+            s.setHedgesWon(provider.hedgesWon.sum());
+            s.setFailovers(provider.failovers.sum());
+            Map<String, Double> hedgeDelays = new TreeMap<>();
+            Map<String, Double> attemptTimeouts = new TreeMap<>();
+            for (String model : provider.latencyByModel.keySet()) {
+                if (i == 0) {
+                    hedgeDelays.put(model, provider.hedgeDelay(model, hedging).toNanos() / 1e6);
+                }
+                attemptTimeouts.put(model, provider.attemptTimeout(model, timeouts).toNanos() / 1e6);
+            }
+            s.setHedgeDelayMsByModel(hedgeDelays);
+            s.setTimeoutMsByModel(attemptTimeouts);
+            stats.add(s);
+        }
+        return stats;
+    }
+
+    static final class Provider {
+        private final String name;
+        private final WebClient client;
+        private final String model;
+        private final CircuitBreaker breaker;
+        private final Map<String, LatencyWindow> latencyByModel = new ConcurrentHashMap<>(); // keyed by requested model
+        private final LongAdder served = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder hedgesSent = new LongAdder();
+        private final LongAdder hedgesWon = new LongAdder();
+        private final LongAdder failovers = new LongAdder();
+
+        Provider(String name, WebClient client, String model, CircuitBreaker breaker) {
+            this.name = name;
+            this.client = client;
+            this.model = model;
+            this.breaker = breaker;
+        }
+
+        LatencyWindow latency(String model) {
+            return latencyByModel.computeIfAbsent(model, m -> new LatencyWindow(256));
+        }
+
+        Duration hedgeDelay(String model, LLMProperties.Hedging hedging) {
+            long percentile = latency(model).percentile(hedging.getPercentile(), hedging.getMinSamples());
+            if (percentile < 0) {
+                return hedging.getDefaultDelay();
+            }
+            return Duration.ofNanos(Math.max(hedging.getMinDelay().toNanos(), percentile));
+        }
+
+        /**
+         * How long one attempt may take before it counts as a provider failure.
+         */
+        Duration attemptTimeout(String model, LLMProperties.Timeouts timeouts) {
+            long percentile = latency(model).percentile(timeouts.getPercentile(), timeouts.getMinSamples());
+            if (percentile < 0) {
+                return timeouts.getMax();
+            }
+            long nanos = (long) (percentile * timeouts.getMultiplier());
+            return Duration.ofNanos(Math.max(timeouts.getMin().toNanos(), Math.min(timeouts.getMax().toNanos(), nanos)));
+        }
+    }
+
+    /**
+     * Last N call latencies in a ring buffer. Writes are lock-free; reads sort a copy.
+     */
+    static final class LatencyWindow {
+        private final AtomicLongArray samples;
+        private final AtomicLong count = new AtomicLong();
+
+        LatencyWindow(int size) {
+            this.samples = new AtomicLongArray(size);
+        }
+
+        void record(long nanos) {
+            samples.set((int) (count.getAndIncrement() % samples.length()), nanos);
+        }
+
+        /**
+         * The p-th percentile in nanoseconds, or -1 with fewer than minSamples samples.
+         */
+        long percentile(double p, int minSamples) {
+            int n = (int) Math.min(count.get(), samples.length());
+            if (n == 0 || n < minSamples) {
+                return -1;
+            }
+            long[] sorted = new long[n];
+            for (int i = 0; i < n; i++) {
+                sorted[i] = samples.get(i);
+            }
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(p * n);
+            return sorted[Math.max(0, Math.min(n - 1, rank - 1))];
+        }
+    }
+
+    /**
+     * Consecutive-failure breaker. OPEN for open-duration, then HALF_OPEN lets
+     * a single trial call through: success closes it, failure reopens it.
+     * Lock-free: state is one immutable snapshot swapped with CAS.
+     */
+    static final class CircuitBreaker {
+        enum State { CLOSED, OPEN, HALF_OPEN }
+
+        private record Status(State state, int failures, long openedAt) {
+        }
+
+        private static final Status CLOSED = new Status(State.CLOSED, 0, 0);
+
+        private final int failureThreshold;
+        private final long openNanos;
+        private final LongSupplier nanoClock;
+        private final AtomicReference<Status> status = new AtomicReference<>(CLOSED);
+
+        CircuitBreaker(LLMProperties.Breaker config, LongSupplier nanoClock) {
+            this.failureThreshold = Math.max(1, config.getFailureThreshold());
+            this.openNanos = config.getOpenDuration().toNanos();
+            this.nanoClock = nanoClock;
+        }
+
+        State state() {
+            return status.get().state();
+        }
+
+        /**
+         * Whether a call may go to this provider now. Moving OPEN to HALF_OPEN
+         * reserves the trial call for the caller.
+         */
+        boolean tryAcquire() {
+            while (true) {
+                Status s = status.get();
+                switch (s.state()) {
+                    case CLOSED:
+                        return true;
+                    case HALF_OPEN:
+                        return false;
+                    default:
+                        if (nanoClock.getAsLong() - s.openedAt() < openNanos) {
+                            return false;
+                        }
+                        if (status.compareAndSet(s, new Status(State.HALF_OPEN, s.failures(), s.openedAt()))) {
+                            return true;
+                        }
+                }
+            }
+        }
+
+        void onSuccess() {
+            status.set(CLOSED);
+        }
+
+        /**
+         * Returns true if this failure opened the breaker.
+         */
+        boolean onFailure() {
+            long now = nanoClock.getAsLong();
+            Status previous = status.getAndUpdate(s -> afterFailure(s, now));
+            return previous.state() != State.OPEN && afterFailure(previous, now).state() == State.OPEN;
+        }
+
+        private Status afterFailure(Status s, long now) {
+            return switch (s.state()) {
+                case OPEN -> s;
+                case HALF_OPEN -> new Status(State.OPEN, s.failures(), now);
+                case CLOSED -> s.failures() + 1 >= failureThreshold
+                        ? new Status(State.OPEN, s.failures() + 1, now)
+                        : new Status(State.CLOSED, s.failures() + 1, 0);
+            };
+        }
+
+        /**
+         * A cancelled trial proved nothing; let the next caller try instead.
+         */
+        void onCancel() {
+            status.updateAndGet(s -> s.state() == State.HALF_OPEN
+                    ? new Status(State.OPEN, s.failures(), nanoClock.getAsLong() - openNanos)
+                    : s);
+        }
+    }
+
+    /**
+     * Token bucket: every primary call adds budget-ratio of a token (up to a
+     * small burst), every hedge spends one.
+     */
+    static final class HedgeBudget {
+        private final double ratio;
+        private final double capacity;
+        private final AtomicLong tokenBits;
+
+        HedgeBudget(double ratio) {
+            this.ratio = ratio;
+            this.capacity = Math.max(1, ratio * 100);
+            this.tokenBits = new AtomicLong(Double.doubleToLongBits(capacity));
+        }
+
+        void deposit() {
+            tokenBits.updateAndGet(bits -> Double.doubleToLongBits(
+                    Math.min(capacity, Double.longBitsToDouble(bits) + ratio)));
+        }
+
+        boolean tryWithdraw() {
+            while (true) {
+                long bits = tokenBits.get();
+                double tokens = Double.longBitsToDouble(bits);
+                if (tokens < 1) {
+                    return false;
+                }
+                if (tokenBits.compareAndSet(bits, Double.doubleToLongBits(tokens - 1))) {
+                    return true;
+                }
+            }
+        }
+    }
+}
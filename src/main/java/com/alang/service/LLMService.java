@@ -9,6 +9,7 @@ import com.alang.entity.RecentMessage;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ⚠️ CRITICAL: This is THE ONLY service that talks to external LLM APIs.
@@ -77,6 +78,22 @@ public interface LLMService {
      */
     LLMResponse generateReply(ChatMessageRequest request, String userId);
 
+    /**
+     * Non-blocking variant of {@link #generateReply}, for async request handling.
+     *
+     * Context loading and the budget check still run on the calling thread;
+     * the provider call does not hold it. The future completes on a thread
+     * where blocking work (JDBC) is allowed.
+     *
+     * Failures (including RateLimitExceededException) complete the future
+     * exceptionally rather than being thrown.
+     *
+     * @param deadline When the caller stops waiting. Provider timeouts, retries
+     *                 and backoff all stay within it; past it the future fails
+     *                 with DeadlineExceededException.
+     */
+    CompletableFuture<LLMResponse> generateReplyAsync(ChatMessageRequest request, String userId, Deadline deadline);
+
     /**
      * Generate a single structured note from a session's conversation history.
      *
@@ -104,6 +121,20 @@ public interface LLMService {
             String userId
     );
 
+    /**
+     * Non-blocking variant of {@link #generateNoteFromConversation}; same
+     * threading and failure rules as {@link #generateReplyAsync}.
+     */
+    CompletableFuture<NoteDto> generateNoteFromConversationAsync(
+            List<Map<String, String>> sessionMessages,
+            String topicFocus,
+            NoteDto existingNote,
+            Language learningLanguage,
+            Language appLanguage,
+            String userId,
+            Deadline deadline
+    );
+
     /**
      * Generate a conversation summary from recent messages.
      *
@@ -184,7 +215,7 @@ public interface LLMService {
      */
     class LLMResponse {
         private String reply;
-        private String modelUsed;
+        private String modelUsed; // "provider/model" that actually answered (see LLMProviderRouter)
         private TokenUsageDto tokenUsage;
 
         public LLMResponse(String reply, String modelUsed, TokenUsageDto tokenUsage) {
@@ -61,7 +61,7 @@ public class PromptTemplates {
      * @return user prompt string
      */
     public String buildNoteCreationUserPrompt(List<Map<String, String>> messages, String topicFocus) {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(PROMPT_HEADER_CAPACITY + conversationLength(messages));
         if (topicFocus != null && !topicFocus.isBlank()) {
             sb.append("Create a study note specifically about: ").append(topicFocus.trim()).append("\n\n");
         } else {
@@ -84,7 +84,9 @@ public class PromptTemplates {
     public String buildNoteUpdateUserPrompt(List<Map<String, String>> messages,
                                             String existingNoteJson,
                                             String topicFocus) {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(
+                PROMPT_HEADER_CAPACITY + (existingNoteJson == null ? 4 : existingNoteJson.length())
+                        + conversationLength(messages));
         sb.append("Update the following existing study note based on new information in the conversation below.\n");
         if (topicFocus != null && !topicFocus.isBlank()) {
             sb.append("Focus the update on: ").append(topicFocus.trim()).append("\n");
@@ -94,6 +96,24 @@ public class PromptTemplates {
         return sb.toString();
     }
 
+    /**
+     * Room for the instructions around the conversation, so the builder is
+     * sized once instead of doubling its way up to a long transcript.
+     */
+    private static final int PROMPT_HEADER_CAPACITY = 256;
+
+    /**
+     * Characters appendConversation will add.
+     */
+    private static int conversationLength(List<Map<String, String>> messages) {
+        int length = "Conversation:\n".length();
+        for (Map<String, String> msg : messages) {
+            String content = msg.get("content");
+            length += "Learner: ".length() + (content == null ? 4 : content.length()) + 1;
+        }
+        return length;
+    }
+
     private void appendConversation(StringBuilder sb, List<Map<String, String>> messages) {
         sb.append("Conversation:\n");
         for (Map<String, String> msg : messages) {
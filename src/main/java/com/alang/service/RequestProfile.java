@@ -0,0 +1,183 @@
+package com.alang.service;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Where one HTTP request spent its time: nanoTime spans recorded at fixed
+ * points on the request path, summed per span.
+ *
+ * Created by RequestProfilingFilter and reachable from the request thread
+ * through current(). Code that continues the request on another thread (an
+ * async LLM callback) captures current() first and records into it, or
+ * runs under within(). With profiling off, current() is a shared no-op
+ * profile whose start() does not even read the clock.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Spans may overlap: db is every JDBC statement (JdbcTimingListener), so it
+ *   is also inside context and persist; they are a breakdown, not a partition
+ * - Sent as a Server-Timing header (ServerTimingAdvice) and, for sampled or
+ *   over-budget requests, logged by RequestProfilingFilter
+ * - Recording is lock-free, since an async request's spans come from
+ *   several threads
+ */
+public final class RequestProfile {
+
+    public enum Span {
+        AUTH("auth"),
+        DB("db"),
+        CONTEXT("context"),
+        TOKENS("tokens"),
+        LLM("llm"),
+        PERSIST("persist");
+
+        private final String metric;
+
+        Span(String metric) {
+            this.metric = metric;
+        }
+
+        public String metric() {
+            return metric;
+        }
+    }
+
+    private static final Span[] SPANS = Span.values();
+    private static final RequestProfile NOOP = new RequestProfile(0, false);
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos;
+    private final boolean enabled;
+    private final AtomicLongArray nanos = new AtomicLongArray(SPANS.length);
+    private final AtomicLongArray counts = new AtomicLongArray(SPANS.length);
+
+    private RequestProfile(long startNanos, boolean enabled) {
+        this.startNanos = startNanos;
+        this.enabled = enabled;
+    }
+
+    /**
+     * A profile for a request starting now.
+     */
+    public static RequestProfile start(long startNanos) {
+        return new RequestProfile(startNanos, true);
+    }
+
+    /**
+     * The profile of the request on this thread, or a no-op one.
+     */
+    public static RequestProfile current() {
+        RequestProfile profile = CURRENT.get();
+        return profile == null ? NOOP : profile;
+    }
+
+    /**
+     * Makes this the current profile until the returned scope is closed.
+     */
+    public Scope attach() {
+        RequestProfile previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Runs work with this as the current profile, for callbacks on other threads.
+     */
+    public <T> T within(Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        try (Scope ignored = attach()) {
+            return work.get();
+        }
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The start of a span; pass it to record().
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public void record(Span span, long startNanos) {
+        if (enabled) {
+            add(span, System.nanoTime() - startNanos);
+        }
+    }
+
+    public void add(Span span, long elapsedNanos) {
+        if (enabled) {
+            nanos.addAndGet(span.ordinal(), elapsedNanos);
+            counts.incrementAndGet(span.ordinal());
+        }
+    }
+
+    public long nanos(Span span) {
+        return nanos.get(span.ordinal());
+    }
+
+    public long count(Span span) {
+        return counts.get(span.ordinal());
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Server-Timing header value: the recorded spans and the total so far, in ms.
+     */
+    public String serverTiming() {
+        StringBuilder header = new StringBuilder(128);
+        for (Span span : SPANS) {
+            long count = count(span);
+            if (count == 0) {
+                continue;
+            }
+            header.append(span.metric()).append(";dur=").append(millis(nanos(span)));
+            if (count > 1) {
+                header.append(";desc=\"").append(count).append("x\"");
+            }
+            header.append(", ");
+        }
+        return header.append("total;dur=").append(millis(elapsedNanos())).toString();
+    }
+
+    /**
+     * key=value breakdown for the log line, e.g. "total_ms=812.4 auth_ms=0.3 db_ms=9.1 db_count=7".
+     */
+    public String breakdown() {
+        StringBuilder line = new StringBuilder(160).append("total_ms=").append(millis(elapsedNanos()));
+        for (Span span : SPANS) {
+            long count = count(span);
+            if (count == 0) {
+                continue;
+            }
+            line.append(' ').append(span.metric()).append("_ms=").append(millis(nanos(span)));
+            if (count > 1) {
+                line.append(' ').append(span.metric()).append("_count=").append(count);
+            }
+        }
+        return line.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,45 @@
+package com.alang.service;
+
+import com.alang.dto.admin.RescheduleJobResponse;
+
+/**
+ * Admin operations for bulk spaced-repetition rescheduling.
+ *
+ * RESPONSIBILITIES:
+ * - Start a job that recomputes every note's schedule from its review history
+ * - Resume a failed/cancelled job from its checkpoint
+ * - Cancel a running job (takes effect between batches)
+ *
+ * Only one job may be running at a time. The actual work is done
+ * asynchronously by NoteRescheduleJob; these calls return immediately.
+ */
+public interface RescheduleService {
+
+    /**
+     * Start a new rescheduling job.
+     *
+     * @param requestedBy Admin user id
+     * @throws IllegalStateException if another job is running
+     */
+    RescheduleJobResponse startJob(String requestedBy);
+
+    /**
+     * Resume a failed or cancelled job from its checkpoint.
+     * Also restarts a job left 'running' by a node that died mid-run.
+     *
+     * @throws IllegalStateException if the job is completed, actively running, or another job is running
+     */
+    RescheduleJobResponse resumeJob(String jobId);
+
+    /**
+     * Request cancellation of a running job.
+     *
+     * @throws IllegalStateException if the job is not running
+     */
+    RescheduleJobResponse cancelJob(String jobId);
+
+    /**
+     * Get job progress.
+     */
+    RescheduleJobResponse getJob(String jobId);
+}
@@ -0,0 +1,185 @@
+package com.alang.service;
+
+import com.alang.entity.Language;
+import com.alang.entity.User;
+import com.alang.repository.NoteRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Turns an SM-2 interval into a concrete next_review_at.
+ *
+ * Without this every card due on a given day became due at exactly 00:00,
+ * so queue counts, countDueByEndOfDay and client polling all spiked together.
+ *
+ * Two mechanisms:
+ * 1. Time-of-day jitter: each note gets a stable offset within the first
+ *    app.review-scheduling.jitter-window-hours of its due day, derived from
+ *    its id. Same note + same day always gives the same time, so
+ *    rescheduling is idempotent.
+ * 2. Load balancing (optional): intervals of at least min-balanced-interval
+ *    days may move by up to fuzz-factor * interval (capped at max-fuzz-days)
+ *    toward the day with the fewest cards already due for that user.
+ *    Ties keep the original interval, then prefer the closer/earlier day.
+ */
+@Component
+public class ReviewScheduler {
+
+    private final NoteRepository noteRepository;
+    private final long jitterWindowSeconds;
+    private final boolean loadBalancing;
+    private final double fuzzFactor;
+    private final int maxFuzzDays;
+    private final int minBalancedInterval;
+
+    public ReviewScheduler(
+            NoteRepository noteRepository,
+            @Value("${app.review-scheduling.jitter-window-hours:6}") int jitterWindowHours,
+            @Value("${app.review-scheduling.load-balancing:true}") boolean loadBalancing,
+            @Value("${app.review-scheduling.fuzz-factor:0.05}") double fuzzFactor,
+            @Value("${app.review-scheduling.max-fuzz-days:4}") int maxFuzzDays,
+            @Value("${app.review-scheduling.min-balanced-interval:3}") int minBalancedInterval) {
+        this.noteRepository = noteRepository;
+        this.jitterWindowSeconds = Math.max(0, Math.min(24, jitterWindowHours)) * 3600L;
+        this.loadBalancing = loadBalancing;
+        this.fuzzFactor = fuzzFactor;
+        this.maxFuzzDays = Math.max(0, maxFuzzDays);
+        this.minBalancedInterval = minBalancedInterval;
+    }
+
+    /**
+     * When a note reviewed on reviewDate with the given interval becomes due.
+     * Interval 0 means "again today" and stays due immediately.
+     */
+    public LocalDateTime nextReviewAt(String noteId, LocalDate reviewDate, int intervalDays) {
+        LocalDateTime startOfDay = reviewDate.plusDays(intervalDays).atStartOfDay();
+        if (intervalDays <= 0) {
+            return startOfDay;
+        }
+        return startOfDay.plusSeconds(jitterSeconds(noteId));
+    }
+
+    /**
+     * Stable per-note offset into the jitter window.
+     */
+    long jitterSeconds(String noteId) {
+        if (jitterWindowSeconds == 0 || noteId == null) {
+            return 0;
+        }
+        // murmur3 fmix32 — String.hashCode alone clusters for similar ids
+        int h = noteId.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Integer.toUnsignedLong(h) % jitterWindowSeconds;
+    }
+
+    /**
+     * How far (in days, either direction) an interval may be moved by load balancing.
+     */
+    public int fuzzDays(int intervalDays) {
+        if (!loadBalancing || intervalDays < minBalancedInterval) {
+            return 0;
+        }
+        return (int) Math.min(maxFuzzDays, Math.max(1, Math.round(intervalDays * fuzzFactor)));
+    }
+
+    /**
+     * Pick the least-loaded interval within the fuzz window and record the
+     * placement in the load so later cards in the same request see it.
+     */
+    public int balanceInterval(DueLoad load, LocalDate today, int intervalDays) {
+        int fuzz = fuzzDays(intervalDays);
+        if (fuzz == 0) {
+            return intervalDays;
+        }
+
+        Map<LocalDate, Long> counts = load.counts(
+                today.plusDays(intervalDays - fuzz), today.plusDays(intervalDays + fuzz));
+        int best = intervalDays;
+        long bestCount = counts.getOrDefault(today.plusDays(intervalDays), 0L);
+        for (int d = 1; d <= fuzz; d++) {
+            for (int candidate : new int[]{intervalDays - d, intervalDays + d}) {
+                long count = counts.getOrDefault(today.plusDays(candidate), 0L);
+                if (count < bestCount) {
+                    best = candidate;
+                    bestCount = count;
+                }
+            }
+        }
+        load.add(today.plusDays(best));
+        return best;
+    }
+
+    /**
+     * Start tracking one user's due-card load for a request.
+     */
+    public DueLoad dueLoad(User user) {
+        return new DueLoad(user);
+    }
+
+    /**
+     * Due cards per day in [from, to], for a user and optionally one language.
+     * Days with no cards are absent.
+     */
+    public Map<LocalDate, Long> countDueByDay(User user, Language language, LocalDate from, LocalDate to) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        List<Object[]> rows = language == null
+                ? noteRepository.countDueByDay(user, start, end)
+                : noteRepository.countDueByDayAndLanguage(user, language, start, end);
+
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        for (Object[] row : rows) {
+            counts.put((LocalDate) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * A user's per-day due counts, fetched lazily and updated in memory as
+     * cards are placed. Scoped to one request; not thread-safe.
+     */
+    public final class DueLoad {
+        private final User user;
+        private final Map<LocalDate, Long> counts = new HashMap<>();
+        private LocalDate loadedFrom;
+        private LocalDate loadedTo;
+
+        private DueLoad(User user) {
+            this.user = user;
+        }
+
+        Map<LocalDate, Long> counts(LocalDate from, LocalDate to) {
+            if (loadedFrom == null || from.isBefore(loadedFrom) || to.isAfter(loadedTo)) {
+                // Refetch the union so earlier in-memory placements are not lost to a gap
+                LocalDate fetchFrom = loadedFrom == null || from.isBefore(loadedFrom) ? from : loadedFrom;
+                LocalDate fetchTo = loadedTo == null || to.isAfter(loadedTo) ? to : loadedTo;
+                Map<LocalDate, Long> placed = new HashMap<>(counts);
+                Map<LocalDate, Long> stored = countDueByDay(user, null, fetchFrom, fetchTo);
+                if (loadedFrom != null) {
+                    // Days already loaded keep their in-memory value (includes placements)
+                    stored.putAll(placed);
+                }
+                counts.clear();
+                counts.putAll(stored);
+                loadedFrom = fetchFrom;
+                loadedTo = fetchTo;
+            }
+            return counts;
+        }
+
+        void add(LocalDate day) {
+            counts.merge(day, 1L, Long::sum);
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package com.alang.service;
 
+import com.alang.dto.review.BatchReviewSubmissionResponse;
+import com.alang.dto.review.DueForecastResponse;
+import com.alang.dto.review.ReviewHeatmapResponse;
 import com.alang.dto.review.ReviewQueueResponse;
 import com.alang.dto.review.ReviewSubmissionRequest;
+import com.alang.dto.review.ReviewTrendResponse;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+import java.util.List;
+
 /**
  * Spaced repetition review service (Anki-style).
  *
@@ -58,6 +65,23 @@ public interface ReviewService {
      */
     void submitReview(ReviewSubmissionRequest submission, String userId);
 
+    /**
+     * Submit many review results at once (e.g. a whole session synced by an offline client).
+     *
+     * FLOW:
+     * 1. Load every referenced note in ONE query
+     * 2. Apply the same SM-2 update as submitReview() to each item in memory, in order
+     * 3. Write all ReviewEvents and note updates in one transaction (JDBC-batched)
+     *
+     * Items fail individually (unknown note, quality outside 1-4) and are reported
+     * in the per-item results; the rest of the batch is still applied.
+     *
+     * @param submissions Reviews in the order they were performed
+     * @param userId User ID (for authorization)
+     * @return One result per submission, in request order
+     */
+    BatchReviewSubmissionResponse submitReviews(List<ReviewSubmissionRequest> submissions, String userId);
+
     /**
      * Calculate next review interval using SM-2 algorithm.
      *
@@ -93,6 +117,43 @@ public interface ReviewService {
      */
     ReviewStats getReviewStats(String userId);
 
+    /**
+     * Get per-day review activity for a heat-map.
+     *
+     * Reads ONLY the review_daily_stats rollups (never review_events), so the
+     * cost is bounded by the number of days in the range, not review history.
+     * Ranges longer than a year are clamped to the last 366 days before {@code to}.
+     *
+     * @param userId User ID
+     * @param language Optional learning language filter (null = all languages)
+     * @param from First day (inclusive), null = one year before {@code to}
+     * @param to Last day (inclusive), null = today
+     * @return Days with at least one review, oldest first
+     */
+    ReviewHeatmapResponse getDailyReviewStats(String userId, String language, LocalDate from, LocalDate to);
+
+    /**
+     * Get weekly review trends (volume, average quality, time per review, retention).
+     *
+     * Aggregated from the review_daily_stats rollups.
+     *
+     * @param userId User ID
+     * @param language Optional learning language filter (null = all languages)
+     * @param weeks Number of weeks to return, ending with the current week (clamped to 1-104)
+     * @return One point per week, oldest first
+     */
+    ReviewTrendResponse getReviewTrend(String userId, String language, int weeks);
+
+    /**
+     * Get the per-day due-card histogram from today onward.
+     *
+     * @param userId User ID
+     * @param language Optional learning language filter (null = all languages)
+     * @param days Number of days including today (clamped to 1-365)
+     * @return One entry per day, plus the count of cards already overdue
+     */
+    DueForecastResponse getDueForecast(String userId, String language, int days);
+
     /**
      * Review statistics DTO.
      */
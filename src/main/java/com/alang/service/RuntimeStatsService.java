@@ -0,0 +1,51 @@
+package com.alang.service;
+
+import com.alang.dto.admin.RuntimeStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+
+/**
+ * Point-in-time database and JVM counters, for load tests to diff around a run
+ * (queries per request, heap and GC cost).
+ */
+@Service
+public class RuntimeStatsService {
+
+    private final Statistics statistics;
+
+    public RuntimeStatsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public RuntimeStats snapshot() {
+        RuntimeStats stats = new RuntimeStats();
+        stats.setHibernateStatisticsEnabled(statistics.isStatisticsEnabled());
+        stats.setJdbcStatements(statistics.getPrepareStatementCount());
+        stats.setQueryExecutions(statistics.getQueryExecutionCount());
+        stats.setEntityLoads(statistics.getEntityLoadCount());
+        stats.setCollectionFetches(statistics.getCollectionFetchCount());
+        stats.setTransactions(statistics.getTransactionCount());
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        stats.setHeapUsedBytes(heap.getUsed());
+        stats.setHeapCommittedBytes(heap.getCommitted());
+        stats.setHeapMaxBytes(heap.getMax());
+        long gcCount = 0;
+        long gcTimeMs = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTimeMs += Math.max(0, gc.getCollectionTime());
+        }
+        stats.setGcCount(gcCount);
+        stats.setGcTimeMs(gcTimeMs);
+        stats.setLiveThreads(ManagementFactory.getThreadMXBean().getThreadCount());
+        stats.setUptimeMs(ManagementFactory.getRuntimeMXBean().getUptime());
+        return stats;
+    }
+}
@@ -26,17 +26,21 @@ import com.alang.repository.NoteRepository;
 import com.alang.repository.RecentMessageRepository;
 import com.alang.repository.UserRepository;
 import com.alang.service.ChatService;
+import com.alang.service.Deadline;
 import com.alang.service.LLMService;
 import com.alang.service.NoteService;
 import com.alang.service.PromptTemplates;
+import com.alang.service.RequestProfile;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -51,6 +55,7 @@ public class ChatServiceImpl implements ChatService {
     private final RecentMessageRepository recentMessageRepository;
     private final ChatSessionRepository chatSessionRepository;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
 
     // ---- Session management ----
 
@@ -75,7 +80,7 @@ public class ChatServiceImpl implements ChatService {
         ChatSession saved = chatSessionRepository.save(session);
         log.info("Created chat session: id={}, userId={}, language={}", saved.getId(), userId, request.getLanguage());
 
-        return toSessionResponse(saved, 0);
+        return toSessionResponse(saved);
     }
 
     @Override
@@ -95,52 +100,110 @@ public class ChatServiceImpl implements ChatService {
 
     // ---- Messaging ----
 
+    /**
+     * Not @Transactional: the LLM call can take many seconds, and holding a
+     * pooled connection across it makes the DB pool the concurrency limit
+     * (especially with virtual threads, where request threads are cheap).
+     * The writes before and after the call each run in their own short
+     * transaction; if the call fails the user's message is removed again so
+     * the session never shows an unanswered turn.
+     */
     @Override
-    @Transactional
     public ChatMessageResponse sendMessage(ChatMessageRequest request, String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId));
+        // 1. Validate the session and save the user's message
+        RecentMessage userMessage = saveUserMessage(request, userId);
+
+        // 2. Call LLM outside any transaction — session context is resolved inside LLMServiceImpl via sessionId
+        LLMService.LLMResponse llmResponse;
+        try {
+            llmResponse = llmService.generateReply(request, userId);
+        } catch (RuntimeException e) {
+            discardUserMessage(userMessage);
+            throw e;
+        }
 
-        ChatSession session = chatSessionRepository.findByIdAndUser(request.getSessionId(), user)
-                .orElseThrow(() -> new UnauthorizedException("Session not found or access denied"));
+        return completeReply(request, userId, userMessage, llmResponse);
+    }
 
-        if (session.getStatus() == SessionStatus.closed) {
-            throw new IllegalStateException("Cannot send messages to a closed session");
+    @Override
+    public CompletableFuture<ChatMessageResponse> sendMessageAsync(ChatMessageRequest request, String userId,
+                                                                  Deadline deadline) {
+        RecentMessage userMessage;
+        try {
+            userMessage = saveUserMessage(request, userId);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
 
-        Language teachingLanguage = session.getTeachingLanguage();
-        Language learningLanguage = session.getLearningLanguage();
+        // The reply is saved on the thread the LLM call completes on
+        RequestProfile profile = RequestProfile.current();
+        return llmService.generateReplyAsync(request, userId, deadline)
+                .whenComplete((llmResponse, error) -> {
+                    if (error != null) {
+                        discardUserMessage(userMessage);
+                    }
+                })
+                .thenApply(llmResponse -> profile.within(
+                        () -> completeReply(request, userId, userMessage, llmResponse)));
+    }
+
+    private RecentMessage saveUserMessage(ChatMessageRequest request, String userId) {
+        RequestProfile profile = RequestProfile.current();
+        long start = profile.start();
+        RecentMessage saved = transactionTemplate.execute(status -> {
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new UserNotFoundException(userId));
+
+            ChatSession session = chatSessionRepository.findByIdAndUser(request.getSessionId(), user)
+                    .orElseThrow(() -> new UnauthorizedException("Session not found or access denied"));
 
-        // 1. Save user's message linked to session
-        RecentMessage userMessage = new RecentMessage();
-        userMessage.setUser(user);
-        userMessage.setTeachingLanguage(teachingLanguage);
-        userMessage.setLearningLanguage(learningLanguage);
-        userMessage.setSession(session);
-        userMessage.setRole(RoleType.user);
-        userMessage.setContent(request.getMessage());
-        recentMessageRepository.save(userMessage);
+            if (session.getStatus() == SessionStatus.closed) {
+                throw new IllegalStateException("Cannot send messages to a closed session");
+            }
+
+            RecentMessage message = new RecentMessage();
+            message.setUser(user);
+            message.setTeachingLanguage(session.getTeachingLanguage());
+            message.setLearningLanguage(session.getLearningLanguage());
+            message.setSession(session);
+            message.setRole(RoleType.user);
+            message.setContent(request.getMessage());
+            return recentMessageRepository.save(message);
+        });
+        profile.record(RequestProfile.Span.PERSIST, start);
+        return saved;
+    }
 
-        // 2. Call LLM — session context is resolved inside LLMServiceImpl via sessionId
-        LLMService.LLMResponse llmResponse = llmService.generateReply(request, userId);
-        llmService.recordTokenUsage(userId, llmResponse.getTokenUsage());
+    private void discardUserMessage(RecentMessage userMessage) {
+        transactionTemplate.executeWithoutResult(status -> recentMessageRepository.delete(userMessage));
+    }
 
+    private ChatMessageResponse completeReply(ChatMessageRequest request, String userId,
+                                              RecentMessage userMessage, LLMService.LLMResponse llmResponse) {
         String rawReply = llmResponse.getReply();
 
         // 3. Strip ---TOPICS--- block for clean user-facing reply
         String cleanReply = PromptTemplates.stripTopicsBlock(rawReply);
 
-        // 4. Save assistant's reply (clean version) linked to session
-        RecentMessage assistantMessage = new RecentMessage();
-        assistantMessage.setUser(user);
-        assistantMessage.setTeachingLanguage(teachingLanguage);
-        assistantMessage.setLearningLanguage(learningLanguage);
-        assistantMessage.setSession(session);
-        assistantMessage.setRole(RoleType.assistant);
-        assistantMessage.setContent(cleanReply);
-        assistantMessage.setModelUsed(llmResponse.getModelUsed());
-        assistantMessage.setTokenCount(llmResponse.getTokenUsage().getTotalTokens());
-        recentMessageRepository.save(assistantMessage);
+        // 4. Record usage and save assistant's reply (clean version) linked to session
+        RequestProfile profile = RequestProfile.current();
+        long persistStart = profile.start();
+        transactionTemplate.executeWithoutResult(status -> {
+            llmService.recordTokenUsage(userId, llmResponse.getTokenUsage());
+
+            RecentMessage assistantMessage = new RecentMessage();
+            assistantMessage.setUser(userMessage.getUser());
+            assistantMessage.setTeachingLanguage(userMessage.getTeachingLanguage());
+            assistantMessage.setLearningLanguage(userMessage.getLearningLanguage());
+            assistantMessage.setSession(userMessage.getSession());
+            assistantMessage.setRole(RoleType.assistant);
+            assistantMessage.setContent(cleanReply);
+            assistantMessage.setModelUsed(llmResponse.getModelUsed());
+            assistantMessage.setTokenCount(llmResponse.getTokenUsage().getTotalTokens());
+            recentMessageRepository.save(assistantMessage);
+            chatSessionRepository.recordMessages(userMessage.getSession().getId(), 2, assistantMessage.getCreatedAt());
+        });
+        profile.record(RequestProfile.Span.PERSIST, persistStart);
 
         // 5. Extract topic suggestions (non-null only for broad questions covering 3+ topics)
         List<String> suggestedTopics = PromptTemplates.extractTopics(rawReply, objectMapper);
@@ -158,43 +221,102 @@ public class ChatServiceImpl implements ChatService {
 
     // ---- Note creation / update from session ----
 
+    /**
+     * Not @Transactional, like sendMessage: the session is read and the note
+     * saved in two short transactions, and the LLM call between them holds
+     * no pooled connection.
+     */
     @Override
-    @Transactional
     public NoteDto createNoteFromSession(String sessionId, NoteFromSessionRequest request, String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId));
-
-        ChatSession session = chatSessionRepository.findByIdAndUser(sessionId, user)
-                .orElseThrow(() -> new UnauthorizedException("Session not found or access denied"));
-
-        List<RecentMessage> messages = recentMessageRepository.findBySessionOrderByCreatedAtAsc(session);
-        if (messages.isEmpty()) {
-            throw new IllegalStateException("Cannot create a note from an empty session");
-        }
+        NoteSource source = transactionTemplate.execute(status -> loadNoteSource(sessionId, null, userId));
 
         NoteDto generatedNote = llmService.generateNoteFromConversation(
-                toMessageContext(messages),
+                source.context(),
                 request.getTopicFocus(),
                 null, // creating new note, not updating
-                session.getLearningLanguage(),
-                session.getTeachingLanguage(),
+                source.session().getLearningLanguage(),
+                source.session().getTeachingLanguage(),
                 userId);
 
-        NoteDto savedNote = noteService.createNote(generatedNote, userId);
-
-        session.setNoteCreated(true);
-        session.setNote(noteRepository.getReferenceById(savedNote.getId()));
-        chatSessionRepository.save(session);
+        return transactionTemplate.execute(status -> saveCreatedNote(sessionId, generatedNote, request, userId));
+    }
 
-        log.info("Note created from session: sessionId={}, noteId={}, userId={}, topic={}",
-                sessionId, savedNote.getId(), userId, request.getTopicFocus());
+    /**
+     * Async variant: the session is read and the note saved in two short
+     * transactions, with the LLM call in between holding neither a thread
+     * nor a connection.
+     */
+    @Override
+    public CompletableFuture<NoteDto> createNoteFromSessionAsync(String sessionId, NoteFromSessionRequest request,
+                                                                 String userId, Deadline deadline) {
+        NoteSource source;
+        try {
+            source = transactionTemplate.execute(status -> loadNoteSource(sessionId, null, userId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-        return savedNote;
+        return llmService.generateNoteFromConversationAsync(
+                        source.context(),
+                        request.getTopicFocus(),
+                        null,
+                        source.session().getLearningLanguage(),
+                        source.session().getTeachingLanguage(),
+                        userId,
+                        deadline)
+                .thenApply(generatedNote -> transactionTemplate.execute(status ->
+                        saveCreatedNote(sessionId, generatedNote, request, userId)));
     }
 
+    /**
+     * Not @Transactional, for the same reason as createNoteFromSession.
+     */
     @Override
-    @Transactional
     public NoteDto updateNoteFromSession(String sessionId, String noteId, NoteFromSessionRequest request, String userId) {
+        NoteSource source = transactionTemplate.execute(status -> loadNoteSource(sessionId, noteId, userId));
+
+        NoteDto generatedNote = llmService.generateNoteFromConversation(
+                source.context(),
+                request.getTopicFocus(),
+                source.existingNote(), // LLM uses this as the base to build on
+                source.session().getLearningLanguage(),
+                source.session().getTeachingLanguage(),
+                userId);
+
+        return transactionTemplate.execute(status ->
+                saveUpdatedNote(sessionId, noteId, generatedNote, request, userId));
+    }
+
+    @Override
+    public CompletableFuture<NoteDto> updateNoteFromSessionAsync(String sessionId, String noteId,
+                                                                 NoteFromSessionRequest request, String userId,
+                                                                 Deadline deadline) {
+        NoteSource source;
+        try {
+            source = transactionTemplate.execute(status -> loadNoteSource(sessionId, noteId, userId));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return llmService.generateNoteFromConversationAsync(
+                        source.context(),
+                        request.getTopicFocus(),
+                        source.existingNote(),
+                        source.session().getLearningLanguage(),
+                        source.session().getTeachingLanguage(),
+                        userId,
+                        deadline)
+                .thenApply(generatedNote -> transactionTemplate.execute(status ->
+                        saveUpdatedNote(sessionId, noteId, generatedNote, request, userId)));
+    }
+
+    /**
+     * Session, its conversation and (for updates) the existing note — everything
+     * the note prompt needs.
+     *
+     * @param noteId null when creating a new note
+     */
+    private NoteSource loadNoteSource(String sessionId, String noteId, String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
@@ -202,21 +324,41 @@ public class ChatServiceImpl implements ChatService {
                 .orElseThrow(() -> new UnauthorizedException("Session not found or access denied"));
 
         // Verify note ownership (throws NoteNotFoundException / UnauthorizedException if invalid)
-        NoteDto existingNote = noteService.getNote(noteId, userId);
+        NoteDto existingNote = noteId != null ? noteService.getNote(noteId, userId) : null;
 
         List<RecentMessage> messages = recentMessageRepository.findBySessionOrderByCreatedAtAsc(session);
         if (messages.isEmpty()) {
-            throw new IllegalStateException("Cannot update a note from an empty session");
+            throw new IllegalStateException(noteId == null
+                    ? "Cannot create a note from an empty session"
+                    : "Cannot update a note from an empty session");
         }
 
-        NoteDto generatedNote = llmService.generateNoteFromConversation(
-                toMessageContext(messages),
-                request.getTopicFocus(),
-                existingNote, // LLM uses this as the base to build on
-                session.getLearningLanguage(),
-                session.getTeachingLanguage(),
-                userId);
+        return new NoteSource(session, toMessageContext(messages), existingNote);
+    }
+
+    /**
+     * Re-reads the session in the write transaction: the one loaded before the
+     * LLM call is detached, and saving it would revert a close or title change
+     * made meanwhile.
+     */
+    private NoteDto saveCreatedNote(String sessionId, NoteDto generatedNote, NoteFromSessionRequest request,
+                                    String userId) {
+        ChatSession session = chatSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new UnauthorizedException("Session not found or access denied"));
+        NoteDto savedNote = noteService.createNote(generatedNote, userId);
+
+        session.setNoteCreated(true);
+        session.setNote(noteRepository.getReferenceById(savedNote.getId()));
+        chatSessionRepository.save(session);
+
+        log.info("Note created from session: sessionId={}, noteId={}, userId={}, topic={}",
+                session.getId(), savedNote.getId(), userId, request.getTopicFocus());
 
+        return savedNote;
+    }
+
+    private NoteDto saveUpdatedNote(String sessionId, String noteId, NoteDto generatedNote,
+                                    NoteFromSessionRequest request, String userId) {
         UpdateNoteRequest updateRequest = new UpdateNoteRequest();
         updateRequest.setTitle(generatedNote.getTitle());
         updateRequest.setSummary(generatedNote.getSummary());
@@ -232,6 +374,8 @@ public class ChatServiceImpl implements ChatService {
         return updatedNote;
     }
 
+    private record NoteSource(ChatSession session, List<Map<String, String>> context, NoteDto existingNote) {}
+
     // ---- Session lifecycle ----
 
     @Override
@@ -246,7 +390,7 @@ public class ChatServiceImpl implements ChatService {
             ChatSession session = chatSessionRepository.findByIdAndUser(sessionId, user)
                     .orElseThrow(() -> new UnauthorizedException("Session not found or access denied"));
             log.info("Session close blocked: note not yet created, force=false. sessionId={}, userId={}", sessionId, userId);
-            return toSessionResponse(session, (int) recentMessageRepository.countBySession(session));
+            return toSessionResponse(session);
         }
 
         ChatSession session = chatSessionRepository.findByIdAndUser(sessionId, user)
@@ -261,7 +405,7 @@ public class ChatServiceImpl implements ChatService {
         ChatSession saved = chatSessionRepository.save(session);
 
         log.info("Closed session: sessionId={}, userId={}", sessionId, userId);
-        return toSessionResponse(saved, (int) recentMessageRepository.countBySession(saved));
+        return toSessionResponse(saved);
     }
 
 
@@ -278,7 +422,7 @@ public class ChatServiceImpl implements ChatService {
         ChatSession saved = chatSessionRepository.save(session);
 
         log.info("Updated session title: sessionId={}, userId={}", sessionId, userId);
-        return toSessionResponse(saved, (int) recentMessageRepository.countBySession(saved));
+        return toSessionResponse(saved);
     }
 
     // ---- Week 4 stubs ----
@@ -309,7 +453,8 @@ public class ChatServiceImpl implements ChatService {
                 .toList();
     }
 
-    private SessionDetailResponse toSessionDetailResponse(ChatSession session, List<RecentMessage> messages) {
+    // This and toSessionResponse are package-private so DtoMappingBenchmark can call them
+    static SessionDetailResponse toSessionDetailResponse(ChatSession session, List<RecentMessage> messages) {
         SessionDetailResponse response = new SessionDetailResponse();
         response.setId(session.getId());
         response.setLearningLanguage(session.getLearningLanguage().getCode());
@@ -331,7 +476,8 @@ public class ChatServiceImpl implements ChatService {
         return response;
     }
 
-    private SessionResponse toSessionResponse(ChatSession session, int messageCount) {
+    // Message count comes from the maintained chat_sessions.message_count column.
+    static SessionResponse toSessionResponse(ChatSession session) {
         SessionResponse dto = new SessionResponse();
         dto.setId(session.getId());
         dto.setLearningLanguage(session.getLearningLanguage().getCode());
@@ -341,7 +487,8 @@ public class ChatServiceImpl implements ChatService {
         dto.setCreatedAt(session.getCreatedAt());
         dto.setUpdatedAt(session.getUpdatedAt());
         dto.setClosedAt(session.getClosedAt());
-        dto.setMessageCount(messageCount);
+        dto.setMessageCount(session.getMessageCount() != null ? session.getMessageCount() : 0);
+        dto.setLastMessageAt(session.getLastMessageAt());
         dto.setNoteCreated(Boolean.TRUE.equals(session.getNoteCreated()));
         return dto;
     }
@@ -3,6 +3,9 @@ package com.alang.service.impl;
 import com.alang.config.LLMProperties;
 import com.alang.dto.chat.ChatMessageRequest;
 import com.alang.dto.chat.TokenUsageDto;
+import com.alang.dto.llm.ChatCompletionRequest;
+import com.alang.dto.llm.ChatCompletionResponse;
+import com.alang.dto.llm.ChatMessage;
 import com.alang.dto.note.NoteDto;
 import com.alang.entity.ChatSession;
 import com.alang.entity.ConversationSummary;
@@ -10,8 +13,11 @@ import com.alang.entity.Language;
 import com.alang.entity.RecentMessage;
 import com.alang.entity.User;
 import com.alang.entity.UserTier;
+import com.alang.exception.DeadlineExceededException;
+import com.alang.exception.LLMCapacityExceededException;
 import com.alang.exception.LLMProviderException;
 import com.alang.exception.RateLimitExceededException;
+import com.alang.exception.RequestCancelledException;
 import com.alang.exception.UnauthorizedException;
 import com.alang.exception.UserNotFoundException;
 import com.alang.repository.ChatSessionRepository;
@@ -20,18 +26,31 @@ import com.alang.repository.LanguageRepository;
 import com.alang.repository.RecentMessageRepository;
 import com.alang.repository.UserRepository;
 import com.alang.entity.NoteType;
+import com.alang.service.Deadline;
+import com.alang.service.FlightEvents;
+import com.alang.service.LLMAdmissionController;
+import com.alang.service.LLMMetrics;
+import com.alang.service.LLMProviderRouter;
 import com.alang.service.LLMService;
 import com.alang.service.PromptTemplates;
+import com.alang.service.RequestProfile;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.annotation.Observed;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import com.alang.dto.note.NoteTagDto;
 
@@ -40,13 +59,16 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Service
+@Observed(name = "llm.service")
 @RequiredArgsConstructor
 public class LLMServiceImpl implements LLMService {
 
-    private final WebClient llmWebClient;
+    private final LLMProviderRouter providerRouter;
     private final LLMProperties llmProperties;
     private final PromptTemplates promptTemplates;
     private final UserRepository userRepository;
@@ -54,6 +76,7 @@ public class LLMServiceImpl implements LLMService {
     private final RecentMessageRepository recentMessageRepository;
     private final ConversationSummaryRepository conversationSummaryRepository;
     private final ChatSessionRepository chatSessionRepository;
+    private final LLMMetrics llmMetrics;
 
     private final ObjectMapper objectMapper;
 
@@ -65,6 +88,29 @@ public class LLMServiceImpl implements LLMService {
     // The message array sent to the LLM looks like: [system prompt] → [summary context] → [recent msg 1] → [recent msg 2] → ... → [new user message]
     @Override
     public LLMResponse generateReply(ChatMessageRequest request, String userId) {
+        LLMCall call = prepareReply(request, userId);
+        return toReply(call, callLLMApi(call));
+    }
+
+    @Override
+    public CompletableFuture<LLMResponse> generateReplyAsync(ChatMessageRequest request, String userId,
+                                                            Deadline deadline) {
+        LLMCall call;
+        try {
+            call = prepareReply(request, userId);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return callLLMApiAsync(call, deadline)
+                .map(apiResponse -> toReply(call, apiResponse))
+                .toFuture();
+    }
+
+    /**
+     * Everything before the provider call: context, prompt, budget check.
+     * Blocking (JDBC); runs on the request thread.
+     */
+    private LLMCall prepareReply(ChatMessageRequest request, String userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
@@ -81,19 +127,30 @@ public class LLMServiceImpl implements LLMService {
         String systemPrompt = promptTemplates.buildChatSystemPrompt(
                 appLanguage.getName(), targetLanguage.getName());
 
-        List<Map<String, String>> messages = new ArrayList<>();
+        FlightEvents.ContextAssembly assembly = new FlightEvents.ContextAssembly();
+        assembly.begin();
 
         // Include session-scoped conversation context if requested
-        if (request.getIncludeContext()) {
-            messages.addAll(buildConversationContext(session));
-        }
+        List<ChatMessage> messages = request.getIncludeContext()
+                ? buildConversationContext(session)
+                : new ArrayList<>(1);
 
-        messages.add(Map.of("role", "user", "content", request.getMessage()));
+        messages.add(ChatMessage.user(request.getMessage()));
 
         // Estimate token usage and check budget before calling LLM
+        RequestProfile profile = RequestProfile.current();
+        long tokensStart = profile.start();
         int estimatedTokens = countTokens(systemPrompt, model);
-        for (Map<String, String> msg : messages) {
-            estimatedTokens += countTokens(msg.get("content"), model);
+        for (ChatMessage msg : messages) {
+            estimatedTokens += countTokens(msg.content(), model);
+        }
+        profile.record(RequestProfile.Span.TOKENS, tokensStart);
+        assembly.end();
+        if (assembly.shouldCommit()) {
+            assembly.model = model;
+            assembly.messageCount = messages.size();
+            assembly.estimatedTokens = estimatedTokens;
+            assembly.commit();
         }
         if (!checkTokenBudget(userId, estimatedTokens)) {
             long remaining = Math.max(0, getDailyLimit(user) - user.getTotalDailyTokensUsed());
@@ -103,12 +160,17 @@ public class LLMServiceImpl implements LLMService {
                     remaining);
         }
 
-        LLMApiResponse apiResponse = callLLMApi(model, systemPrompt, messages);
+        return new LLMCall(userId, model, user.getTier(), systemPrompt, messages,
+                LLMAdmissionController.Priority.of(user.getTier(), true), estimatedTokens);
+    }
 
+    private LLMResponse toReply(LLMCall call, LLMApiResponse apiResponse) {
         TokenUsageDto tokenUsage = apiResponse.tokenUsage();
-        log.info("LLM call completed: model={}, tokens={}", model, tokenUsage.getTotalTokens());
+        llmMetrics.recordTokens(call.model(), call.tier(), tokenUsage);
+        log.info("LLM call completed: model={}, servedBy={}, tokens={}",
+                call.model(), apiResponse.servedBy(), tokenUsage.getTotalTokens());
 
-        return new LLMResponse(apiResponse.content(), model, tokenUsage);
+        return new LLMResponse(apiResponse.content(), apiResponse.servedBy(), tokenUsage);
     }
 
     @Override
@@ -120,6 +182,39 @@ public class LLMServiceImpl implements LLMService {
             Language appLanguage,
             String userId) {
 
+        LLMCall call = prepareNote(sessionMessages, topicFocus, existingNote, learningLanguage, appLanguage, userId);
+        return toNote(call, callLLMApi(call), topicFocus, learningLanguage, appLanguage, userId);
+    }
+
+    @Override
+    public CompletableFuture<NoteDto> generateNoteFromConversationAsync(
+            List<Map<String, String>> sessionMessages,
+            String topicFocus,
+            NoteDto existingNote,
+            Language learningLanguage,
+            Language appLanguage,
+            String userId,
+            Deadline deadline) {
+
+        LLMCall call;
+        try {
+            call = prepareNote(sessionMessages, topicFocus, existingNote, learningLanguage, appLanguage, userId);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return callLLMApiAsync(call, deadline)
+                .map(apiResponse -> toNote(call, apiResponse, topicFocus, learningLanguage, appLanguage, userId))
+                .toFuture();
+    }
+
+    private LLMCall prepareNote(
+            List<Map<String, String>> sessionMessages,
+            String topicFocus,
+            NoteDto existingNote,
+            Language learningLanguage,
+            Language appLanguage,
+            String userId) {
+
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
@@ -151,32 +246,51 @@ public class LLMServiceImpl implements LLMService {
         }
 
         // Single user message containing the full conversation transcript
-        List<Map<String, String>> messages = List.of(Map.of("role", "user", "content", userPrompt));
+        List<ChatMessage> messages = List.of(ChatMessage.user(userPrompt));
+        return new LLMCall(userId, model, user.getTier(), systemPrompt, messages,
+                LLMAdmissionController.Priority.of(user.getTier(), false), estimatedTokens);
+    }
 
-        LLMApiResponse apiResponse = callLLMApi(model, systemPrompt, messages);
+    private NoteDto toNote(LLMCall call, LLMApiResponse apiResponse, String topicFocus,
+                           Language learningLanguage, Language appLanguage, String userId) {
         recordTokenUsage(userId, apiResponse.tokenUsage());
+        llmMetrics.recordTokens(call.model(), call.tier(), apiResponse.tokenUsage());
 
         NoteDto note = parseNoteCreationResponse(apiResponse.content(), learningLanguage.getCode());
         note.setLearningLanguage(learningLanguage.getCode());
         note.setTeachingLanguage(appLanguage.getCode());
 
         log.info("Generated note from conversation: userId={}, language={}, topic={}, model={}",
-                userId, learningLanguage.getCode(), topicFocus, model);
+                userId, learningLanguage.getCode(), topicFocus, apiResponse.servedBy());
 
         return note;
     }
 
-    private NoteDto parseNoteCreationResponse(String json, String language) {
+    // Package-private for LLMServiceImplBenchmark
+    NoteDto parseNoteCreationResponse(String json, String language) {
+        FlightEvents.NoteParse event = new FlightEvents.NoteParse();
+        event.begin();
+        NoteDto note = null;
         try {
             JsonNode root = objectMapper.readTree(json.trim());
-            NoteDto note = parseNoteNode(root, language);
+            note = parseNoteNode(root, language);
             if (note == null) {
+                llmMetrics.recordParseFailure("note");
                 throw new LLMProviderException("LLM returned an invalid note structure for language=" + language);
             }
             return note;
         } catch (JsonProcessingException e) {
             log.warn("Failed to parse note creation JSON for language={}: {}", language, e.getMessage());
+            llmMetrics.recordParseFailure("note");
             throw new LLMProviderException("LLM returned unparseable JSON for note creation", e);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.language = language;
+                event.responseChars = json.length();
+                event.succeeded = note != null;
+                event.commit();
+            }
         }
     }
 
@@ -253,6 +367,8 @@ public class LLMServiceImpl implements LLMService {
 
     @Override
     public boolean checkTokenBudget(String userId, int estimatedTokens) {
+        FlightEvents.TokenLedger event = new FlightEvents.TokenLedger();
+        event.begin();
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
         // TODO: Implement daily reset specific to user timezone
@@ -265,22 +381,40 @@ public class LLMServiceImpl implements LLMService {
             userRepository.save(user);
         }
 
-        return (user.getTotalDailyTokensUsed() + estimatedTokens) <= getDailyLimit(user);
+        boolean allowed = (user.getTotalDailyTokensUsed() + estimatedTokens) <= getDailyLimit(user);
+        commitLedger(event, "check", userId, estimatedTokens, user.getTotalDailyTokensUsed(), allowed);
+        return allowed;
     }
 
     @Override
     public void recordTokenUsage(String userId, TokenUsageDto tokenUsage) {
+        FlightEvents.TokenLedger event = new FlightEvents.TokenLedger();
+        event.begin();
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
         long current = user.getTotalDailyTokensUsed() != null ? user.getTotalDailyTokensUsed() : 0L;
         user.setTotalDailyTokensUsed(current + tokenUsage.getTotalTokens());
         userRepository.save(user);
+        commitLedger(event, "record", userId, tokenUsage.getTotalTokens(), user.getTotalDailyTokensUsed(), true);
 
         log.info("Recorded token usage: userId={}, tokens={}, totalUsed={}",
                 userId, tokenUsage.getTotalTokens(), user.getTotalDailyTokensUsed());
     }
 
+    private static void commitLedger(FlightEvents.TokenLedger event, String operation, String userId,
+                                     long tokens, long dailyTotal, boolean allowed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.userId = userId;
+            event.tokens = tokens;
+            event.dailyTotal = dailyTotal;
+            event.allowed = allowed;
+            event.commit();
+        }
+    }
+
     @Override
     public String selectModel(String userId) {
         User user = userRepository.findById(userId)
@@ -314,8 +448,11 @@ public class LLMServiceImpl implements LLMService {
      * query here should also be session-scoped. For now, summaries are loaded by
      * user+language as a placeholder.
      */
-    private List<Map<String, String>> buildConversationContext(ChatSession session) {
-        List<Map<String, String>> contextMessages = new ArrayList<>();
+    private List<ChatMessage> buildConversationContext(ChatSession session) {
+        RequestProfile profile = RequestProfile.current();
+        long contextStart = profile.start();
+        // +2: the summary block and the new user message appended by prepareReply
+        List<ChatMessage> contextMessages = new ArrayList<>(MAX_CONTEXT_MESSAGES + 2);
 
         // Load recent summaries (placeholder: user+language scoped until Week 4 adds session_id to summaries)
         List<ConversationSummary> summaries = conversationSummaryRepository
@@ -329,7 +466,7 @@ public class LLMServiceImpl implements LLMService {
             for (int i = summaries.size() - 1; i >= 0; i--) {
                 summaryBlock.append("- ").append(summaries.get(i).getSummaryText()).append("\n");
             }
-            contextMessages.add(Map.of("role", "system", "content", summaryBlock.toString()));
+            contextMessages.add(ChatMessage.system(summaryBlock.toString()));
         }
 
         // Load recent messages scoped to this session (not user+language)
@@ -337,9 +474,10 @@ public class LLMServiceImpl implements LLMService {
                 .findBySessionOrderByCreatedAtAsc(session, PageRequest.of(0, MAX_CONTEXT_MESSAGES));
 
         for (RecentMessage msg : recentMessages) {
-            contextMessages.add(Map.of("role", msg.getRole().name(), "content", msg.getContent()));
+            contextMessages.add(new ChatMessage(msg.getRole().name(), msg.getContent()));
         }
 
+        profile.record(RequestProfile.Span.CONTEXT, contextStart);
         return contextMessages;
     }
 
@@ -348,14 +486,14 @@ public class LLMServiceImpl implements LLMService {
      * New code should use {@link #buildConversationContext(ChatSession)}.
      */
     @SuppressWarnings("unused") // Reserved for Week 4 summarization
-    private List<Map<String, String>> buildConversationContext(User user, String learningLanguageCode) {
+    private List<ChatMessage> buildConversationContext(User user, String learningLanguageCode) {
         Language learningLanguage = languageRepository.findById(learningLanguageCode).orElse(null);
         if (learningLanguage == null) {
             log.warn("Language not found: {}, skipping context", learningLanguageCode);
             return List.of();
         }
 
-        List<Map<String, String>> contextMessages = new ArrayList<>();
+        List<ChatMessage> contextMessages = new ArrayList<>();
 
         List<ConversationSummary> summaries = conversationSummaryRepository
                 .findByUserAndLearningLanguageOrderByCreatedAtDesc(
@@ -366,7 +504,7 @@ public class LLMServiceImpl implements LLMService {
             for (int i = summaries.size() - 1; i >= 0; i--) {
                 summaryBlock.append("- ").append(summaries.get(i).getSummaryText()).append("\n");
             }
-            contextMessages.add(Map.of("role", "system", "content", summaryBlock.toString()));
+            contextMessages.add(ChatMessage.system(summaryBlock.toString()));
         }
 
         List<RecentMessage> recentMessages = recentMessageRepository
@@ -374,7 +512,7 @@ public class LLMServiceImpl implements LLMService {
                         user, learningLanguage, PageRequest.of(0, MAX_CONTEXT_MESSAGES));
 
         for (RecentMessage msg : recentMessages) {
-            contextMessages.add(Map.of("role", msg.getRole().name(), "content", msg.getContent()));
+            contextMessages.add(new ChatMessage(msg.getRole().name(), msg.getContent()));
         }
 
         return contextMessages;
@@ -383,110 +521,234 @@ public class LLMServiceImpl implements LLMService {
     private static final int MAX_RETRIES = 3;
     private static final long INITIAL_BACKOFF_MS = 1000;
 
+    /**
+     * Blocking call, for callers that are fine holding their thread
+     * (virtual threads, background jobs). Bounded by llm.timeouts.default-deadline.
+     */
+    private LLMApiResponse callLLMApi(LLMCall call) {
+        RequestProfile profile = RequestProfile.current();
+        long start = profile.start();
+        try {
+            return exchange(call, providerRouter.defaultDeadline()).block();
+        } finally {
+            profile.record(RequestProfile.Span.LLM, start);
+        }
+    }
+
+    /**
+     * Non-blocking call. Completes on a boundedElastic thread rather than a
+     * Netty event loop, so callers may continue with blocking work (JDBC)
+     * in their callbacks.
+     */
+    private Mono<LLMApiResponse> callLLMApiAsync(LLMCall call, Deadline deadline) {
+        // Captured here, on the request thread; the call completes on another
+        RequestProfile profile = RequestProfile.current();
+        return Mono.defer(() -> {
+            long start = profile.start();
+            return exchange(call, deadline)
+                    .doFinally(signal -> profile.record(RequestProfile.Span.LLM, start));
+        }).publishOn(Schedulers.boundedElastic());
+    }
+
     /**
      * Call the LLM API using the chat completions format (compatible with Ollama, OpenAI, etc.).
-     * Retries on transient errors (429, 5xx) with exponential backoff.
+     * Retries on transient errors (429, 5xx, I/O, unparseable responses) with exponential backoff,
+     * but never past the deadline: a retry is only started if its backoff plus
+     * llm.timeouts.min still fits.
+     * Each attempt is routed by LLMProviderRouter (hedging, failover, timeouts) and
+     * admitted by LLMAdmissionController.
+     * Cancelling the deadline aborts whatever is in progress (queued admission,
+     * provider request or backoff) with RequestCancelledException. The provider
+     * connection is closed and nothing gets parsed or saved, but the user is
+     * billed for what the provider already consumed (see ConsumedTokens).
      */
-    private LLMApiResponse callLLMApi(String model, String systemPrompt, List<Map<String, String>> messages) {
-        List<Map<String, String>> fullMessages = new ArrayList<>();
-        fullMessages.add(Map.of("role", "system", "content", systemPrompt));
-        fullMessages.addAll(messages);
-
-        Map<String, Object> requestBody = Map.of(
-                "model", model,
-                "messages", fullMessages,
-                "max_tokens", llmProperties.getTokenLimits().getPerRequestMax()
-        );
-
-        for (int attempt = 1; attempt <= MAX_RETRIES; attempt++) {
-            try {
-                Map<String, Object> response = llmWebClient.post()
-                        .uri("/chat/completions")
-                        .bodyValue(requestBody)
-                        .retrieve()
-                        .bodyToMono(Map.class)
-                        .block();
-
-                return parseApiResponse(response);
-            } catch (WebClientResponseException e) {
-                int status = e.getStatusCode().value();
-
-                if (!isRetryable(status)) {
-                    log.error("LLM API non-retryable error: status={}, body={}", status, e.getResponseBodyAsString());
-                    throw new LLMProviderException("LLM API returned " + status, e);
-                }
+    private Mono<LLMApiResponse> exchange(LLMCall call, Deadline deadline) {
+        // The provider attempt spans run on other threads; parent them explicitly
+        Observation parent = llmMetrics.currentObservation();
+        AtomicInteger attempt = new AtomicInteger();
+        ConsumedTokens consumed = new ConsumedTokens();
+        // Routed per attempt, so a retry waiting out its backoff holds no slot
+        // and skips a provider whose breaker opened meanwhile
+        Mono<LLMApiResponse> response = Mono.defer(() -> providerRouter.chatCompletion(call.model(),
+                                call.priority(), deadline,
+                                model -> {
+                                    // Built once admitted, as the request goes out (also per hedge/failover)
+                                    consumed.sent();
+                                    return new ChatCompletionRequest(model, call.systemPrompt(), call.messages(),
+                                            llmProperties.getTokenLimits().getPerRequestMax());
+                                })
+                        .contextWrite(attemptContext(attempt.getAndIncrement(), parent))
+                        .doOnSuccess(routed -> consumed.answered(routed != null ? routed.body() : null))
+                        .doOnError(e -> consumed.failed()))
+                .map(routed -> parseApiResponse(routed.body(), routed.servedBy()))
+                .switchIfEmpty(Mono.fromCallable(() -> parseApiResponse(null, null)))
+                .retryWhen(retryWithin(call.model(), deadline))
+                .onErrorMap(WebClientResponseException.class, e -> {
+                    // Only non-retryable statuses reach here; exhausted retries are already mapped
+                    log.error("LLM API non-retryable error: status={}, body={}",
+                            e.getStatusCode().value(), e.getResponseBodyAsString());
+                    return new LLMProviderException("LLM API returned " + e.getStatusCode().value(), e);
+                });
+        Mono<LLMApiResponse> abandoned = deadline.cancellation().then(Mono.error(() -> {
+            log.info("LLM call abandoned by client, cancelling: model={}", call.model());
+            return new RequestCancelledException("Client disconnected; LLM call cancelled");
+        }));
+        return Mono.firstWithSignal(response, abandoned)
+                .onErrorResume(RequestCancelledException.class, e -> Mono
+                        .fromRunnable(() -> recordCancelledUsage(call, consumed))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(Mono.error(e)));
+    }
 
-                if (attempt == MAX_RETRIES) {
-                    log.error("LLM API failed after {} attempts: status={}", MAX_RETRIES, status);
-                    throw new LLMProviderException("LLM API returned " + status + " after " + MAX_RETRIES + " attempts", e);
-                }
+    // Off the cancelling thread; a failure here must not mask the cancellation
+    private void recordCancelledUsage(LLMCall call, ConsumedTokens consumed) {
+        TokenUsageDto usage = consumed.bill(call.estimatedPromptTokens());
+        if (usage == null || usage.getTotalTokens() == 0) {
+            return;
+        }
+        try {
+            recordTokenUsage(call.userId(), usage);
+            llmMetrics.recordTokens(call.model(), call.tier(), usage);
+        } catch (RuntimeException e) {
+            log.warn("Failed to record usage of cancelled LLM call: userId={}, tokens={}",
+                    call.userId(), usage.getTotalTokens(), e);
+        }
+    }
 
-                long backoff = INITIAL_BACKOFF_MS * (1L << (attempt - 1));
-                log.warn("LLM API retryable error: status={}, attempt={}/{}, retrying in {}ms", status, attempt, MAX_RETRIES, backoff);
-                sleep(backoff);
-            } catch (Exception e) {
-                if (attempt == MAX_RETRIES) {
-                    log.error("LLM API call failed after {} attempts", MAX_RETRIES, e);
-                    throw new LLMProviderException("Failed to call LLM API after " + MAX_RETRIES + " attempts", e);
-                }
+    /**
+     * What the provider was sent and answered during one exchange, so a call
+     * cancelled mid-flight is billed for what it consumed rather than zero.
+     * A response that came back (one that failed to parse and was retried)
+     * counts with its reported usage. A request still in flight has no usage
+     * yet, but the provider has been processing its prompt, so it counts as
+     * the prompt estimate from the budget check. A call cancelled while still
+     * queued for admission sent nothing and costs nothing.
+     */
+    private static final class ConsumedTokens {
+        private int sent;
+        private int settled;
+        private int promptTokens;
+        private int completionTokens;
+
+        synchronized void sent() {
+            sent++;
+        }
+
+        synchronized void answered(ChatCompletionResponse response) {
+            settled++;
+            if (response != null && response.usage() != null) {
+                promptTokens += response.usage().promptTokens();
+                completionTokens += response.usage().completionTokens();
+            }
+        }
+
+        synchronized void failed() {
+            settled++;
+        }
 
-                long backoff = INITIAL_BACKOFF_MS * (1L << (attempt - 1));
-                log.warn("LLM API call error, attempt={}/{}, retrying in {}ms: {}", attempt, MAX_RETRIES, backoff, e.getMessage());
-                sleep(backoff);
+        /** Null if no request went out. */
+        synchronized TokenUsageDto bill(int estimatedPromptTokens) {
+            if (sent == 0) {
+                return null;
             }
+            int prompt = promptTokens + (sent > settled ? estimatedPromptTokens : 0);
+            return new TokenUsageDto(prompt, completionTokens, prompt + completionTokens, null);
         }
+    }
 
-        // Unreachable, but the compiler needs it
-        throw new LLMProviderException("LLM API call failed unexpectedly");
+    private static Context attemptContext(int attempt, Observation parent) {
+        Context context = Context.of(LLMMetrics.RETRY_ATTEMPT, attempt);
+        return parent == null ? context : context.put(ObservationThreadLocalAccessor.KEY, parent);
+    }
+
+    /**
+     * Exponential backoff (1s, 2s) up to MAX_RETRIES attempts, giving up early
+     * when the deadline leaves no room for the backoff plus a useful attempt.
+     * Each retry is counted in llm.retries.
+     */
+    private Retry retryWithin(String model, Deadline deadline) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            long attempts = signal.totalRetries() + 1;
+            if (!isRetryable(failure)) {
+                return Mono.error(failure);
+            }
+            if (attempts >= MAX_RETRIES) {
+                return Mono.error(retriesExhausted(failure, attempts));
+            }
+            Duration backoff = Duration.ofMillis(INITIAL_BACKOFF_MS << signal.totalRetries());
+            if (!deadline.allows(backoff.plus(providerRouter.minAttemptTime()))) {
+                log.warn("LLM API call error, attempt={}/{}, no time left to retry ({})",
+                        attempts, MAX_RETRIES, deadline);
+                return Mono.error(retriesExhausted(failure, attempts));
+            }
+            log.warn("LLM API call error, attempt={}/{}, retrying: {}", attempts, MAX_RETRIES, failure.getMessage());
+            llmMetrics.recordRetry(model, retryReason(failure));
+            return Mono.delay(backoff);
+        }));
+    }
+
+    private boolean isRetryable(Throwable error) {
+        if (error instanceof LLMCapacityExceededException) {
+            // Already waited out the queue budget; retrying would only add load
+            return false;
+        }
+        if (error instanceof DeadlineExceededException || error instanceof RequestCancelledException) {
+            return false;
+        }
+        if (error instanceof WebClientResponseException e) {
+            return isRetryable(e.getStatusCode().value());
+        }
+        return true;
     }
 
     private boolean isRetryable(int httpStatus) {
         return httpStatus == 429 || httpStatus >= 500;
     }
 
-    private void sleep(long ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new LLMProviderException("LLM API call interrupted", e);
+    private static String retryReason(Throwable failure) {
+        if (failure instanceof WebClientResponseException e) {
+            return String.valueOf(e.getStatusCode().value());
+        }
+        return failure.getClass().getSimpleName();
+    }
+
+    private LLMProviderException retriesExhausted(Throwable failure, long attempts) {
+        if (failure instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            log.error("LLM API failed after {} attempts: status={}", attempts, status);
+            return new LLMProviderException("LLM API returned " + status + " after " + attempts + " attempts", e);
         }
+        log.error("LLM API call failed after {} attempts", attempts, failure);
+        return new LLMProviderException("Failed to call LLM API after " + attempts + " attempts", failure);
     }
 
     /**
-     * Parse the chat completions response.
+     * Validate the decoded chat completions response (see ChatCompletionCodec).
      */
-    @SuppressWarnings("unchecked")
-    private LLMApiResponse parseApiResponse(Map<String, Object> response) {
-        if (response == null || !response.containsKey("choices")) {
+    private LLMApiResponse parseApiResponse(ChatCompletionResponse response, String servedBy) {
+        if (response == null || response.choices() == ChatCompletionResponse.MISSING) {
+            llmMetrics.recordParseFailure("response");
             throw new LLMProviderException("Invalid LLM response: missing 'choices'");
         }
-
-        List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
-        if (choices.isEmpty()) {
+        if (response.choices() == 0) {
+            llmMetrics.recordParseFailure("response");
             throw new LLMProviderException("Invalid LLM response: empty 'choices'");
         }
 
-        Map<String, Object> message = (Map<String, Object>) choices.get(0).get("message");
-        String content = (String) message.get("content");
-
         TokenUsageDto tokenUsage = new TokenUsageDto();
-        if (response.containsKey("usage")) {
-            Map<String, Object> usage = (Map<String, Object>) response.get("usage");
-            tokenUsage.setPromptTokens(toInt(usage.get("prompt_tokens")));
-            tokenUsage.setCompletionTokens(toInt(usage.get("completion_tokens")));
-            tokenUsage.setTotalTokens(toInt(usage.get("total_tokens")));
+        if (response.usage() != null) {
+            tokenUsage.setPromptTokens(response.usage().promptTokens());
+            tokenUsage.setCompletionTokens(response.usage().completionTokens());
+            tokenUsage.setTotalTokens(response.usage().totalTokens());
         }
 
-        return new LLMApiResponse(content, tokenUsage);
+        return new LLMApiResponse(response.content(), tokenUsage, servedBy);
     }
 
-    private int toInt(Object value) {
-        if (value instanceof Number) {
-            return ((Number) value).intValue();
-        }
-        return 0;
-    }
+    private record LLMApiResponse(String content, TokenUsageDto tokenUsage, String servedBy) {}
 
-    private record LLMApiResponse(String content, TokenUsageDto tokenUsage) {}
+    private record LLMCall(String userId, String model, UserTier tier, String systemPrompt,
+                           List<ChatMessage> messages, LLMAdmissionController.Priority priority,
+                           int estimatedPromptTokens) {}
 }
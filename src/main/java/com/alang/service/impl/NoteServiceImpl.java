@@ -9,12 +9,15 @@ import com.alang.repository.LanguageRepository;
 import com.alang.repository.NoteRepository;
 import com.alang.repository.NoteTagRepository;
 import com.alang.repository.UserRepository;
+import com.alang.repository.UserStatsRepository;
+import com.alang.service.DueCardIndex;
 import com.alang.service.NoteService;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -31,6 +34,8 @@ public class NoteServiceImpl implements NoteService {
     private final NoteTagRepository noteTagRepository;
     private final UserRepository userRepository;
     private final LanguageRepository languageRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final DueCardIndex dueCardIndex;
     private final EntityManager entityManager;
 
     // Persist a single note, defaulting teachingLanguage to the user's app language if not provided.
@@ -65,6 +70,8 @@ public class NoteServiceImpl implements NoteService {
 
         // Save note first to get ID, then add tags
         Note saved = noteRepository.save(note);
+        userStatsRepository.adjustNoteCount(userId, UserStats.key(learningLanguage.getCode(), note.getType()), 1);
+        dueCardIndex.noteScheduled(userId, saved.getId(), learningLanguage.getCode(), saved.getNextReviewAt());
 
         // Create tags if provided
         if (noteDto.getTags() != null && !noteDto.getTags().isEmpty()) {
@@ -127,12 +134,16 @@ public class NoteServiceImpl implements NoteService {
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
         PageRequest pageRequest = PageRequest.of(page, pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
-        Page<Note> notePage;
+        Slice<Note> notes;
+        long totalCount;
 
         if (searchQuery != null && !searchQuery.isBlank()) {
-            notePage = noteRepository.searchNotes(user, searchQuery.trim(), pageRequest);
+            Page<Note> notePage = noteRepository.searchNotes(user, searchQuery.trim(), pageRequest);
+            notes = notePage;
+            totalCount = notePage.getTotalElements();
         } else if (tagCategory != null && tagValue != null) {
             // Tag-based filtering
+            Page<Note> notePage;
             if (language != null) {
                 Language lang = languageRepository.findById(language).orElse(null);
                 if (lang == null) {
@@ -142,6 +153,8 @@ public class NoteServiceImpl implements NoteService {
             } else {
                 notePage = noteRepository.findByUserAndTag(user, tagCategory, tagValue, pageRequest);
             }
+            notes = notePage;
+            totalCount = notePage.getTotalElements();
         } else if (language != null && type != null) {
             Language lang = languageRepository.findById(language).orElse(null);
             if (lang == null) {
@@ -153,20 +166,24 @@ public class NoteServiceImpl implements NoteService {
             } catch (IllegalArgumentException e) {
                 return emptyResponse(page, pageSize);
             }
-            notePage = noteRepository.findByUserAndLearningLanguageAndType(user, lang, noteType, pageRequest);
+            // Unfiltered-by-content listings take their total from user_stats (PK lookup, no COUNT)
+            notes = noteRepository.findByUserAndLearningLanguageAndType(user, lang, noteType, pageRequest);
+            totalCount = userStats(userId).countFor(language, noteType);
         } else if (language != null) {
             Language lang = languageRepository.findById(language).orElse(null);
             if (lang == null) {
                 return emptyResponse(page, pageSize);
             }
-            notePage = noteRepository.findByUserAndLearningLanguage(user, lang, pageRequest);
+            notes = noteRepository.findByUserAndLearningLanguage(user, lang, pageRequest);
+            totalCount = userStats(userId).countForLanguage(language);
         } else {
-            notePage = noteRepository.findByUser(user, pageRequest);
+            notes = noteRepository.findByUser(user, pageRequest);
+            totalCount = userStats(userId).getNoteCount();
         }
 
         NoteListResponse response = new NoteListResponse();
-        response.setNotes(notePage.getContent().stream().map(this::toDto).toList());
-        response.setTotalCount((int) notePage.getTotalElements());
+        response.setNotes(notes.getContent().stream().map(NoteServiceImpl::toDto).toList());
+        response.setTotalCount((int) totalCount);
         response.setPage(page);
         response.setPageSize(pageSize);
         return response;
@@ -240,6 +257,9 @@ public class NoteServiceImpl implements NoteService {
         }
 
         noteRepository.delete(note);
+        userStatsRepository.adjustNoteCount(userId,
+                UserStats.key(note.getLearningLanguage().getCode(), note.getType()), -1);
+        dueCardIndex.noteRemoved(userId, noteId);
         log.info("Deleted note: id={}, userId={}", noteId, userId);
     }
 
@@ -257,13 +277,13 @@ public class NoteServiceImpl implements NoteService {
         List<Note> matches = noteRepository.findByUserAndLearningLanguageAndTitleIgnoreCase(
                 user, learningLanguage, noteDto.getTitle());
 
-        return matches.stream().map(this::toDto).toList();
+        return matches.stream().map(NoteServiceImpl::toDto).toList();
     }
 
     // ---- Helpers ----
 
-    // Map Note entity to NoteDto for API responses.
-    private NoteDto toDto(Note note) {
+    // Map Note entity to NoteDto for API responses. Package-private for DtoMappingBenchmark.
+    static NoteDto toDto(Note note) {
         NoteDto dto = new NoteDto();
         dto.setId(note.getId());
         dto.setType(note.getType());
@@ -290,6 +310,11 @@ public class NoteServiceImpl implements NoteService {
         return dto;
     }
 
+    // Maintained counters for the user; no row yet means no notes.
+    private UserStats userStats(String userId) {
+        return userStatsRepository.findById(userId).orElseGet(UserStats::new);
+    }
+
     private NoteListResponse emptyResponse(int page, int pageSize) {
         NoteListResponse response = new NoteListResponse();
         response.setNotes(List.of());
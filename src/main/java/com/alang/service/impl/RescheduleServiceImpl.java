@@ -0,0 +1,129 @@
+package com.alang.service.impl;
+
+import com.alang.dto.admin.RescheduleJobResponse;
+import com.alang.entity.RescheduleJob;
+import com.alang.entity.RescheduleStatus;
+import com.alang.exception.RescheduleJobNotFoundException;
+import com.alang.job.NoteRescheduleJob;
+import com.alang.repository.RescheduleJobRepository;
+import com.alang.service.RescheduleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Deliberately NOT @Transactional: the job row must be committed before
+ * NoteRescheduleJob picks it up on another thread.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RescheduleServiceImpl implements RescheduleService {
+
+    private final RescheduleJobRepository rescheduleJobRepository;
+    private final NoteRescheduleJob noteRescheduleJob;
+
+    // Serialises start/resume on this node. A lock rather than synchronized:
+    // the critical section does JDBC and would pin a virtual thread's carrier.
+    private final ReentrantLock jobLock = new ReentrantLock();
+
+    @Override
+    public RescheduleJobResponse startJob(String requestedBy) {
+        jobLock.lock();
+        try {
+            return doStartJob(requestedBy);
+        } finally {
+            jobLock.unlock();
+        }
+    }
+
+    private RescheduleJobResponse doStartJob(String requestedBy) {
+        rescheduleJobRepository.findFirstByStatus(RescheduleStatus.running).ifPresent(running -> {
+            throw new IllegalStateException("Reschedule job already running: " + running.getId());
+        });
+
+        RescheduleJob job = new RescheduleJob();
+        job.setStatus(RescheduleStatus.running);
+        job.setRequestedBy(requestedBy);
+        job = rescheduleJobRepository.save(job);
+
+        log.info("Reschedule job {} started by {}", job.getId(), requestedBy);
+        noteRescheduleJob.run(job.getId());
+        return toResponse(job);
+    }
+
+    @Override
+    public RescheduleJobResponse resumeJob(String jobId) {
+        jobLock.lock();
+        try {
+            return doResumeJob(jobId);
+        } finally {
+            jobLock.unlock();
+        }
+    }
+
+    private RescheduleJobResponse doResumeJob(String jobId) {
+        RescheduleJob job = findJob(jobId);
+
+        if (job.getStatus() == RescheduleStatus.completed) {
+            throw new IllegalStateException("Reschedule job already completed: " + jobId);
+        }
+        if (noteRescheduleJob.isRunning(jobId)) {
+            throw new IllegalStateException("Reschedule job is still running: " + jobId);
+        }
+        rescheduleJobRepository.findFirstByStatus(RescheduleStatus.running)
+                .filter(running -> !running.getId().equals(jobId))
+                .ifPresent(running -> {
+                    throw new IllegalStateException("Reschedule job already running: " + running.getId());
+                });
+
+        job.setStatus(RescheduleStatus.running);
+        job.setErrorMessage(null);
+        job.setFinishedAt(null);
+        job = rescheduleJobRepository.save(job);
+
+        log.info("Reschedule job {} resumed after note '{}'", jobId, job.getLastNoteId());
+        noteRescheduleJob.run(jobId);
+        return toResponse(job);
+    }
+
+    @Override
+    public RescheduleJobResponse cancelJob(String jobId) {
+        RescheduleJob job = findJob(jobId);
+        if (job.getStatus() != RescheduleStatus.running) {
+            throw new IllegalStateException("Reschedule job is not running: " + jobId);
+        }
+
+        // Finishes with 'cancelled'; the running job notices before its next batch
+        rescheduleJobRepository.finish(jobId, RescheduleStatus.cancelled, null, LocalDateTime.now());
+        return toResponse(findJob(jobId));
+    }
+
+    @Override
+    public RescheduleJobResponse getJob(String jobId) {
+        return toResponse(findJob(jobId));
+    }
+
+    private RescheduleJob findJob(String jobId) {
+        return rescheduleJobRepository.findById(jobId)
+                .orElseThrow(() -> new RescheduleJobNotFoundException(jobId));
+    }
+
+    private RescheduleJobResponse toResponse(RescheduleJob job) {
+        RescheduleJobResponse response = new RescheduleJobResponse();
+        response.setId(job.getId());
+        response.setStatus(job.getStatus().name());
+        response.setLastNoteId(job.getLastNoteId());
+        response.setProcessedCount(job.getProcessedCount());
+        response.setUpdatedCount(job.getUpdatedCount());
+        response.setRequestedBy(job.getRequestedBy());
+        response.setErrorMessage(job.getErrorMessage());
+        response.setCreatedAt(job.getCreatedAt());
+        response.setUpdatedAt(job.getUpdatedAt());
+        response.setFinishedAt(job.getFinishedAt());
+        return response;
+    }
+}
@@ -2,18 +2,33 @@ package com.alang.service.impl;
 
 import com.alang.dto.note.NoteDto;
 import com.alang.dto.note.NoteTagDto;
+import com.alang.dto.review.BatchReviewSubmissionResponse;
+import com.alang.dto.review.DailyReviewStatsDto;
+import com.alang.dto.review.DueForecastDayDto;
+import com.alang.dto.review.DueForecastResponse;
+import com.alang.dto.review.ReviewHeatmapResponse;
 import com.alang.dto.review.ReviewQueueResponse;
+import com.alang.dto.review.ReviewResultDto;
 import com.alang.dto.review.ReviewSubmissionRequest;
+import com.alang.dto.review.ReviewTrendPointDto;
+import com.alang.dto.review.ReviewTrendResponse;
 import com.alang.entity.Language;
 import com.alang.entity.Note;
+import com.alang.entity.ReviewDailyStat;
 import com.alang.entity.ReviewEvent;
 import com.alang.entity.User;
+import com.alang.entity.UserStats;
 import com.alang.exception.NoteNotFoundException;
 import com.alang.exception.UserNotFoundException;
 import com.alang.repository.LanguageRepository;
 import com.alang.repository.NoteRepository;
+import com.alang.repository.ReviewDailyStatRepository;
 import com.alang.repository.ReviewEventRepository;
 import com.alang.repository.UserRepository;
+import com.alang.repository.UserStatsRepository;
+import com.alang.service.DueCardIndex;
+import com.alang.service.FlightEvents;
+import com.alang.service.ReviewScheduler;
 import com.alang.service.ReviewService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,9 +36,19 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Slf4j
 @Service
@@ -34,6 +59,15 @@ public class ReviewServiceImpl implements ReviewService {
     private final ReviewEventRepository reviewEventRepository;
     private final UserRepository userRepository;
     private final LanguageRepository languageRepository;
+    private final ReviewDailyStatRepository reviewDailyStatRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final ReviewScheduler reviewScheduler;
+    private final DueCardIndex dueCardIndex;
+
+    private static final int MAX_HEATMAP_DAYS = 366;
+    private static final int MAX_TREND_WEEKS = 104;
+    private static final int MAX_FORECAST_DAYS = 365;
+    private static final LocalDate FORECAST_EPOCH = LocalDate.of(1970, 1, 1);
 
     @Override
     public ReviewQueueResponse getReviewQueue(String userId, String language, int limit) {
@@ -41,20 +75,35 @@ public class ReviewServiceImpl implements ReviewService {
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
         LocalDateTime now = LocalDateTime.now();
-        PageRequest pageable = PageRequest.of(0, limit);
+        LocalDateTime endOfDay = now.toLocalDate().atTime(23, 59, 59);
 
         List<Note> dueNotes;
-        if (language != null) {
-            Language lang = languageRepository.findById(language).orElse(null);
-            dueNotes = lang != null
-                    ? noteRepository.findDueForReviewByLanguage(user, lang, now, pageable)
-                    : List.of();
+        long dueToday;
+        DueCardIndex.UserDueCards dueCards = dueCardIndex.get(userId);
+        if (dueCards != null) {
+            // Hot path: ids from the in-process index, notes table only to hydrate the page
+            List<String> dueIds = dueCards.findDue(language, now, limit);
+            dueNotes = hydrateDueNotes(user, dueIds, now);
+            dueToday = dueCards.countDueBy(endOfDay);
+            if (dueNotes.size() != dueIds.size()) {
+                // Changed elsewhere (another node, manual SQL) — reload on next request
+                dueCardIndex.invalidate(userId);
+            }
         } else {
-            dueNotes = noteRepository.findDueForReview(user, now, pageable);
+            PageRequest pageable = PageRequest.of(0, limit);
+            if (language != null) {
+                Language lang = languageRepository.findById(language).orElse(null);
+                dueNotes = lang != null
+                        ? noteRepository.findDueForReviewByLanguage(user, lang, now, pageable)
+                        : List.of();
+            } else {
+                dueNotes = noteRepository.findDueForReview(user, now, pageable);
+            }
+            // Due counts depend on the clock, not just on writes, so they stay a query (index-backed)
+            dueToday = noteRepository.countDueByEndOfDay(user, endOfDay);
         }
 
-        long totalNotes = noteRepository.countByUser(user);
-        long dueToday = noteRepository.countDueByEndOfDay(user, now.toLocalDate().atTime(23, 59, 59));
+        long totalNotes = noteCount(userId);
 
         ReviewQueueResponse response = new ReviewQueueResponse();
         response.setDueNotes(dueNotes.stream().map(this::toDto).toList());
@@ -66,6 +115,8 @@ return response;
     @Override
     @Transactional
     public void submitReview(ReviewSubmissionRequest submission, String userId) {
+        FlightEvents.ReviewSubmission submitted = new FlightEvents.ReviewSubmission();
+        submitted.begin();
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
 
@@ -78,28 +129,135 @@ return response;
         }
 
         int previousInterval = note.getIntervalDays();
+        RollupDelta rollup = new RollupDelta();
+
+        ReviewEvent event = applyReview(user, note, quality, submission.getTimeSpentSeconds(), rollup,
+                reviewScheduler.dueLoad(user));
+        reviewEventRepository.save(event);
+        noteRepository.save(note);
+
+        writeDailyRollup(userId, note.getLearningLanguage().getCode(), rollup);
+
+        int newInterval = note.getIntervalDays();
+        log.info("Review submitted: noteId={}, quality={}, prevInterval={}, newInterval={}, userId={}",
+                note.getId(), quality, previousInterval, newInterval, userId);
+        commitSubmission(submitted, 1, 1, false);
+    }
+
+    @Override
+    @Transactional
+    public BatchReviewSubmissionResponse submitReviews(List<ReviewSubmissionRequest> submissions, String userId) {
+        FlightEvents.ReviewSubmission submitted = new FlightEvents.ReviewSubmission();
+        submitted.begin();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+
+        // One query for every note in the batch
+        Set<String> noteIds = new HashSet<>();
+        for (ReviewSubmissionRequest submission : submissions) {
+            if (submission.getNoteId() != null) {
+                noteIds.add(submission.getNoteId());
+            }
+        }
+        Map<String, Note> notesById = new HashMap<>();
+        if (!noteIds.isEmpty()) {
+            for (Note note : noteRepository.findByUserAndIdIn(user, noteIds)) {
+                notesById.put(note.getId(), note);
+            }
+        }
+
+        // Apply SM-2 in memory, in submission order (a note may be reviewed twice in one batch)
+        List<ReviewResultDto> results = new ArrayList<>(submissions.size());
+        List<ReviewEvent> events = new ArrayList<>();
+        Map<String, Note> touchedNotes = new LinkedHashMap<>();
+        Map<String, RollupDelta> rollupsByLanguage = new HashMap<>();
+        ReviewScheduler.DueLoad dueLoad = reviewScheduler.dueLoad(user);
+        int applied = 0;
+
+        for (ReviewSubmissionRequest submission : submissions) {
+            ReviewResultDto result = new ReviewResultDto();
+            result.setNoteId(submission.getNoteId());
+
+            int quality = submission.getQuality();
+            Note note = notesById.get(submission.getNoteId());
+            if (quality < 1 || quality > 4) {
+                result.setStatus(ReviewResultDto.STATUS_INVALID_QUALITY);
+                result.setError("Quality must be between 1 and 4");
+            } else if (note == null) {
+                result.setStatus(ReviewResultDto.STATUS_NOT_FOUND);
+                result.setError("Note not found");
+            } else {
+                RollupDelta rollup = rollupsByLanguage.computeIfAbsent(
+                        note.getLearningLanguage().getCode(), code -> new RollupDelta());
+                events.add(applyReview(user, note, quality, submission.getTimeSpentSeconds(), rollup, dueLoad));
+                touchedNotes.put(note.getId(), note);
+
+                result.setStatus(ReviewResultDto.STATUS_APPLIED);
+                result.setIntervalDays(note.getIntervalDays());
+                result.setEaseFactor(note.getEaseFactor());
+                result.setNextReviewAt(note.getNextReviewAt());
+                applied++;
+            }
+            results.add(result);
+        }
+
+        // Flushed as JDBC batches (hibernate.jdbc.batch_size + order_inserts/order_updates)
+        reviewEventRepository.saveAll(events);
+        noteRepository.saveAll(touchedNotes.values());
+        rollupsByLanguage.forEach((language, rollup) -> writeDailyRollup(userId, language, rollup));
+
+        log.info("Batch review submitted: userId={}, submitted={}, applied={}, notes={}",
+                userId, submissions.size(), applied, touchedNotes.size());
+        commitSubmission(submitted, submissions.size(), applied, true);
+
+        BatchReviewSubmissionResponse response = new BatchReviewSubmissionResponse();
+        response.setResults(results);
+        response.setAppliedCount(applied);
+        response.setFailedCount(submissions.size() - applied);
+        return response;
+    }
+
+    // Ends at the last save; the flush and commit follow when the @Transactional method returns
+    private static void commitSubmission(FlightEvents.ReviewSubmission event, int submitted, int applied,
+                                         boolean batch) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.submitted = submitted;
+            event.applied = applied;
+            event.batch = batch;
+            event.commit();
+        }
+    }
+
+    // Apply one graded review to the note in memory (SM-2 update) and build its ReviewEvent.
+    // The caller persists both; quality must already be validated.
+    private ReviewEvent applyReview(User user, Note note, int quality, Integer timeSpentSeconds,
+                                    RollupDelta rollup, ReviewScheduler.DueLoad dueLoad) {
+        int previousInterval = note.getIntervalDays();
+        boolean firstReview = note.getReviewCount() == null || note.getReviewCount() == 0;
         double newEaseFactor = updateEaseFactor(note.getEaseFactor(), quality);
-        int newInterval = calculateNextInterval(previousInterval, newEaseFactor, quality);
+        LocalDate today = LocalDate.now();
+        int newInterval = reviewScheduler.balanceInterval(
+                dueLoad, today, calculateNextInterval(previousInterval, newEaseFactor, quality));
 
         ReviewEvent event = new ReviewEvent();
         event.setUser(user);
         event.setNote(note);
         event.setQuality(quality);
-        event.setTimeSpentSeconds(submission.getTimeSpentSeconds());
+        event.setTimeSpentSeconds(timeSpentSeconds);
         event.setPreviousIntervalDays(previousInterval);
         event.setNextIntervalDays(newInterval);
         event.setEaseFactor(newEaseFactor);
-        reviewEventRepository.save(event);
 
         note.setEaseFactor(newEaseFactor);
         note.setIntervalDays(newInterval);
-        note.setNextReviewAt(LocalDate.now().plusDays(newInterval).atStartOfDay());
+        note.setNextReviewAt(reviewScheduler.nextReviewAt(note.getId(), today, newInterval));
         note.setLastReviewedAt(LocalDateTime.now());
-        note.setReviewCount(note.getReviewCount() + 1);
-        noteRepository.save(note);
+        note.setReviewCount((note.getReviewCount() != null ? note.getReviewCount() : 0) + 1);
+        dueCardIndex.noteScheduled(user.getId(), note.getId(), note.getLearningLanguage().getCode(), note.getNextReviewAt());
 
-        log.info("Review submitted: noteId={}, quality={}, prevInterval={}, newInterval={}, userId={}",
-                note.getId(), quality, previousInterval, newInterval, userId);
+        rollup.add(quality, timeSpentSeconds, firstReview, previousInterval);
+        return event;
     }
 
     /**
@@ -157,7 +315,7 @@ return response;
         LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
         LocalDateTime endOfDay = now.toLocalDate().atTime(23, 59, 59);
 
-        int totalNotes = (int) noteRepository.countByUser(user);
+        int totalNotes = (int) noteCount(userId);
         int reviewedToday = (int) reviewEventRepository.countByUserAndReviewedAtBetween(user, startOfDay, now);
         int dueToday = (int) noteRepository.countDueByEndOfDay(user, endOfDay);
 
@@ -166,6 +324,200 @@ return response;
         return new ReviewStats(totalNotes, reviewedToday, dueToday, streakDays);
     }
 
+    @Override
+    public ReviewHeatmapResponse getDailyReviewStats(String userId, String language, LocalDate from, LocalDate to) {
+        userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate earliest = end.minusDays(MAX_HEATMAP_DAYS - 1);
+        LocalDate start = from == null || from.isBefore(earliest) ? earliest : from;
+
+        List<ReviewDailyStat> rows = loadRollups(userId, language, start, end);
+
+        // Sum across languages per day (rows are already ordered by date)
+        Map<LocalDate, DailyReviewStatsDto> byDay = new TreeMap<>();
+        for (ReviewDailyStat row : rows) {
+            DailyReviewStatsDto day = byDay.computeIfAbsent(row.getId().getStatDate(), d -> {
+                DailyReviewStatsDto dto = new DailyReviewStatsDto();
+                dto.setDate(d);
+                return dto;
+            });
+            day.setReviewCount(day.getReviewCount() + row.getReviewCount());
+            day.setQuality1Count(day.getQuality1Count() + row.getQuality1Count());
+            day.setQuality2Count(day.getQuality2Count() + row.getQuality2Count());
+            day.setQuality3Count(day.getQuality3Count() + row.getQuality3Count());
+            day.setQuality4Count(day.getQuality4Count() + row.getQuality4Count());
+            day.setTotalTimeSpentSeconds(day.getTotalTimeSpentSeconds() + row.getTotalTimeSpentSeconds());
+            day.setNewCount(day.getNewCount() + row.getNewCount());
+            day.setMatureCount(day.getMatureCount() + row.getMatureCount());
+        }
+
+        ReviewHeatmapResponse response = new ReviewHeatmapResponse();
+        response.setFrom(start);
+        response.setTo(end);
+        response.setLanguage(language);
+        response.setDays(new ArrayList<>(byDay.values()));
+        return response;
+    }
+
+    @Override
+    public ReviewTrendResponse getReviewTrend(String userId, String language, int weeks) {
+        userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+
+        int weekCount = Math.min(MAX_TREND_WEEKS, Math.max(1, weeks));
+        LocalDate currentWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate firstWeek = currentWeek.minusWeeks(weekCount - 1);
+
+        // Pre-fill every week so the chart has a continuous x-axis
+        List<ReviewTrendPointDto> points = new ArrayList<>(weekCount);
+        long[] qualitySums = new long[weekCount];
+        long[] timeSums = new long[weekCount];
+        int[] remembered = new int[weekCount];
+        for (int i = 0; i < weekCount; i++) {
+            ReviewTrendPointDto point = new ReviewTrendPointDto();
+            point.setWeekStart(firstWeek.plusWeeks(i));
+            points.add(point);
+        }
+
+        for (ReviewDailyStat row : loadRollups(userId, language, firstWeek, LocalDate.now())) {
+            int i = (int) ChronoUnit.WEEKS.between(firstWeek, row.getId().getStatDate());
+            ReviewTrendPointDto point = points.get(i);
+            point.setReviewCount(point.getReviewCount() + row.getReviewCount());
+            point.setNewCount(point.getNewCount() + row.getNewCount());
+            point.setMatureCount(point.getMatureCount() + row.getMatureCount());
+            qualitySums[i] += row.getQuality1Count() + 2L * row.getQuality2Count()
+                    + 3L * row.getQuality3Count() + 4L * row.getQuality4Count();
+            timeSums[i] += row.getTotalTimeSpentSeconds();
+            remembered[i] += row.getQuality3Count() + row.getQuality4Count();
+        }
+
+        for (int i = 0; i < weekCount; i++) {
+            ReviewTrendPointDto point = points.get(i);
+            int reviews = point.getReviewCount();
+            if (reviews > 0) {
+                point.setAverageQuality((double) qualitySums[i] / reviews);
+                point.setAverageTimeSpentSeconds((double) timeSums[i] / reviews);
+                point.setRetentionRate((double) remembered[i] / reviews);
+            }
+        }
+
+        ReviewTrendResponse response = new ReviewTrendResponse();
+        response.setLanguage(language);
+        response.setWeeks(points);
+        return response;
+    }
+
+    @Override
+    public DueForecastResponse getDueForecast(String userId, String language, int days) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        Language lang = language != null ? languageRepository.findById(language).orElse(null) : null;
+
+        int dayCount = Math.min(MAX_FORECAST_DAYS, Math.max(1, days));
+        LocalDate today = LocalDate.now();
+        LocalDate end = today.plusDays(dayCount - 1);
+
+        // One grouped query; days before today are folded into overdueCount
+        Map<LocalDate, Long> counts = reviewScheduler.countDueByDay(user, lang, FORECAST_EPOCH, end);
+
+        long overdue = 0;
+        for (Map.Entry<LocalDate, Long> entry : counts.entrySet()) {
+            if (entry.getKey().isBefore(today)) {
+                overdue += entry.getValue();
+            }
+        }
+
+        List<DueForecastDayDto> forecast = new ArrayList<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            DueForecastDayDto day = new DueForecastDayDto();
+            day.setDate(today.plusDays(i));
+            day.setDueCount(counts.getOrDefault(day.getDate(), 0L));
+            forecast.add(day);
+        }
+
+        DueForecastResponse response = new DueForecastResponse();
+        response.setFrom(today);
+        response.setTo(end);
+        response.setLanguage(language);
+        response.setOverdueCount(overdue);
+        response.setDays(forecast);
+        return response;
+    }
+
+    // Load notes by id in index order, keeping only those still due (the index may be stale).
+    private List<Note> hydrateDueNotes(User user, List<String> dueIds, LocalDateTime now) {
+        if (dueIds.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Note> byId = new HashMap<>();
+        for (Note note : noteRepository.findByUserAndIdIn(user, dueIds)) {
+            byId.put(note.getId(), note);
+        }
+        List<Note> due = new ArrayList<>(dueIds.size());
+        for (String id : dueIds) {
+            Note note = byId.get(id);
+            if (note != null && note.getNextReviewAt() != null && !note.getNextReviewAt().isAfter(now)) {
+                due.add(note);
+            }
+        }
+        return due;
+    }
+
+    // Total notes from the maintained user_stats counter (PK lookup).
+    private long noteCount(String userId) {
+        return userStatsRepository.findById(userId).map(UserStats::getNoteCount).orElse(0L);
+    }
+
+    private List<ReviewDailyStat> loadRollups(String userId, String language, LocalDate from, LocalDate to) {
+        return language != null
+                ? reviewDailyStatRepository.findByUserAndLanguageAndDateRange(userId, language, from, to)
+                : reviewDailyStatRepository.findByUserAndDateRange(userId, from, to);
+    }
+
+    // Add accumulated reviews to today's rollup row. Runs inside the caller's transaction so the
+    // rollup can never count a review whose event insert rolled back.
+    private void writeDailyRollup(String userId, String language, RollupDelta rollup) {
+        reviewDailyStatRepository.increment(
+                userId,
+                language,
+                LocalDate.now(),
+                rollup.reviews,
+                rollup.quality1,
+                rollup.quality2,
+                rollup.quality3,
+                rollup.quality4,
+                rollup.timeSpentSeconds,
+                rollup.newCount,
+                rollup.matureCount);
+    }
+
+    // Per-language rollup counts accumulated in memory before a single upsert.
+    private static class RollupDelta {
+        int reviews;
+        int quality1;
+        int quality2;
+        int quality3;
+        int quality4;
+        long timeSpentSeconds;
+        int newCount;
+        int matureCount;
+
+        void add(int quality, Integer timeSpent, boolean firstReview, int previousInterval) {
+            reviews++;
+            switch (quality) {
+                case 1 -> quality1++;
+                case 2 -> quality2++;
+                case 3 -> quality3++;
+                default -> quality4++;
+            }
+            timeSpentSeconds += timeSpent != null ? timeSpent : 0;
+            if (firstReview) newCount++;
+            if (previousInterval >= ReviewDailyStat.MATURE_INTERVAL_DAYS) matureCount++;
+        }
+    }
+
     // Count consecutive days with at least one review, going backwards from today.
     // If user hasn't reviewed today, we start counting from yesterday so a streak
     // isn't broken mid-day.
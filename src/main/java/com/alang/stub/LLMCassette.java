@@ -0,0 +1,378 @@
+package com.alang.stub;
+
+import com.alang.config.LLMProperties;
+import com.alang.exception.LLMProviderException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.client.reactive.AbstractClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.http.client.reactive.ClientHttpResponse;
+import org.springframework.http.client.reactive.ClientHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records provider traffic to a cassette file and plays it back, so
+ * benchmarks of the chat and note paths run on real tutor replies and note
+ * JSON with no network, and two builds can be compared on identical traffic.
+ *
+ * Record against a real provider with llm.cassette.mode=RECORD, then run
+ * with REPLAY.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Sits at the ClientHttpConnector under every provider WebClient, so the
+ *   codec, router, retries and timeouts above it behave as in production
+ * - The file is gzipped JSON lines, one exchange per line, written in
+ *   completion order by a single writer thread
+ * - Sanitized: no request headers (API keys) and no request bodies (learner
+ *   messages) are written, only a SHA-256 of method, path and body to match
+ *   on; of the response headers only Content-Type and Retry-After are kept
+ * - Replay matches on that hash; identical requests get their recordings in
+ *   order, cycling. A request with no recording fails, or with on-miss
+ *   SEQUENTIAL gets the next recording in file order
+ * - Time to response headers and to the end of the body are recorded and,
+ *   with preserve-timing, reproduced
+ */
+@Slf4j
+@Component
+public class LLMCassette implements DisposableBean {
+
+    private static final List<String> KEPT_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.RETRY_AFTER);
+
+    /**
+     * One recorded exchange: a line of the cassette file.
+     */
+    record Entry(String provider, String method, String path, String requestHash, int requestBytes,
+                 int status, Map<String, String> headers, long headersMillis, long totalMillis, String body) {
+    }
+
+    /**
+     * Recordings of one request, served in order and cycling.
+     */
+    private record Recordings(List<Entry> entries, AtomicInteger cursor) {
+        Entry next() {
+            return entries.get(Math.floorMod(cursor.getAndIncrement(), entries.size()));
+        }
+    }
+
+    private final LLMProperties.Cassette config;
+    private final ObjectMapper objectMapper;
+
+    private final ExecutorService writer;
+    private final Writer out;
+
+    private final Map<String, Recordings> byHash = new HashMap<>();
+    private final List<Entry> inOrder = new ArrayList<>();
+    private final AtomicInteger nextInOrder = new AtomicInteger();
+
+    public LLMCassette(LLMProperties llmProperties, ObjectMapper objectMapper) {
+        this.config = llmProperties.getCassette();
+        this.objectMapper = objectMapper;
+        Path path = Path.of(config.getPath());
+        try {
+            if (config.getMode() == LLMProperties.Cassette.Mode.RECORD) {
+                if (path.toAbsolutePath().getParent() != null) {
+                    Files.createDirectories(path.toAbsolutePath().getParent());
+                }
+                out = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(path), 8192, true),
+                        StandardCharsets.UTF_8);
+                writer = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("llm-cassette").factory());
+                log.info("Recording LLM traffic to {}", path);
+            } else {
+                out = null;
+                writer = null;
+                if (config.getMode() == LLMProperties.Cassette.Mode.REPLAY) {
+                    load(path);
+                    log.info("Replaying {} LLM exchanges ({} distinct requests) from {}",
+                            inOrder.size(), byHash.size(), path);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open LLM cassette " + path, e);
+        }
+    }
+
+    private void load(Path path) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Entry entry = objectMapper.readValue(line, Entry.class);
+                inOrder.add(entry);
+                byHash.computeIfAbsent(entry.requestHash(), h -> new Recordings(new ArrayList<>(), new AtomicInteger()))
+                        .entries().add(entry);
+            }
+        }
+    }
+
+    /**
+     * The connector a provider's WebClient should use: delegate itself when
+     * off, delegate plus recording, or a replay that never touches the network.
+     */
+    public ClientHttpConnector connector(String provider, ClientHttpConnector delegate) {
+        return switch (config.getMode()) {
+            case OFF -> delegate;
+            case RECORD -> (method, uri, callback) -> record(provider, delegate, method, uri, callback);
+            case REPLAY -> this::replay;
+        };
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("LLM cassette writer did not drain in time; the last exchanges may be missing");
+        }
+        out.close();
+    }
+
+    // ---- Record ----
+
+    private Mono<ClientHttpResponse> record(String provider, ClientHttpConnector delegate, HttpMethod method, URI uri,
+                                            Function<? super ClientHttpRequest, Mono<Void>> callback) {
+        AtomicReference<String> requestBody = new AtomicReference<>("");
+        long start = System.nanoTime();
+        return delegate.connect(method, uri, request -> callback.apply(new ClientHttpRequestDecorator(request) {
+                    @Override
+                    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                        return super.writeWith(DataBufferUtils.join(body)
+                                .doOnNext(buffer -> requestBody.set(text(buffer))));
+                    }
+                }))
+                .map(response -> {
+                    long headersNanos = System.nanoTime() - start;
+                    Map<String, String> headers = new TreeMap<>();
+                    for (String name : KEPT_HEADERS) {
+                        String value = response.getHeaders().getFirst(name);
+                        if (value != null) {
+                            headers.put(name, value);
+                        }
+                    }
+                    Function<String, Entry> entry = body -> {
+                        String request = requestBody.get();
+                        return new Entry(provider, method.name(), uri.getPath(), hash(method, uri.getPath(), request),
+                                request.getBytes(StandardCharsets.UTF_8).length, response.getStatusCode().value(),
+                                headers, TimeUnit.NANOSECONDS.toMillis(headersNanos),
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), body);
+                    };
+                    return new ClientHttpResponseDecorator(response) {
+                        @Override
+                        public Flux<DataBuffer> getBody() {
+                            return DataBufferUtils.join(super.getBody())
+                                    .doOnNext(buffer -> write(entry.apply(text(buffer))))
+                                    .switchIfEmpty(Mono.fromRunnable(() -> write(entry.apply(""))))
+                                    .flux();
+                        }
+                    };
+                });
+    }
+
+    private void write(Entry entry) {
+        writer.execute(() -> {
+            try {
+                out.write(objectMapper.writeValueAsString(entry));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                log.warn("Could not record LLM exchange {} {}", entry.method(), entry.path(), e);
+            }
+        });
+    }
+
+    // ---- Replay ----
+
+    private Mono<ClientHttpResponse> replay(HttpMethod method, URI uri,
+                                            Function<? super ClientHttpRequest, Mono<Void>> callback) {
+        CapturedRequest request = new CapturedRequest(method, uri);
+        return callback.apply(request).then(Mono.defer(() -> {
+            String hash = hash(method, uri.getPath(), request.body);
+            Entry entry = next(hash);
+            if (entry == null) {
+                return Mono.error(new LLMProviderException("No recorded LLM response for " + method + " "
+                        + uri.getPath() + " (request " + hash.substring(0, 12) + ")"));
+            }
+            Duration toHeaders = config.isPreserveTiming() ? Duration.ofMillis(entry.headersMillis()) : Duration.ZERO;
+            Duration toBody = config.isPreserveTiming()
+                    ? Duration.ofMillis(Math.max(0, entry.totalMillis() - entry.headersMillis()))
+                    : Duration.ZERO;
+            return delayed(Mono.just(new ReplayedResponse(entry, toBody)), toHeaders);
+        }));
+    }
+
+    Entry next(String hash) {
+        Recordings recordings = byHash.get(hash);
+        if (recordings != null) {
+            return recordings.next();
+        }
+        if (config.getOnMiss() == LLMProperties.Cassette.OnMiss.SEQUENTIAL && !inOrder.isEmpty()) {
+            return inOrder.get(Math.floorMod(nextInOrder.getAndIncrement(), inOrder.size()));
+        }
+        return null;
+    }
+
+    private static <T> Mono<T> delayed(Mono<T> value, Duration delay) {
+        return delay.isZero() ? value : value.delayElement(delay);
+    }
+
+    /**
+     * Takes the request body instead of sending it.
+     */
+    private static final class CapturedRequest extends AbstractClientHttpRequest {
+        private final HttpMethod method;
+        private final URI uri;
+        private volatile String body = "";
+
+        CapturedRequest(HttpMethod method, URI uri) {
+            this.method = method;
+            this.uri = uri;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public DataBufferFactory bufferFactory() {
+            return DefaultDataBufferFactory.sharedInstance;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getNativeRequest() {
+            return (T) this;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return doCommit(() -> DataBufferUtils.join(body)
+                    .doOnNext(buffer -> {
+                        this.body = text(buffer);
+                        DataBufferUtils.release(buffer);
+                    })
+                    .then());
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).concatMap(Flux::from));
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            return doCommit();
+        }
+
+        @Override
+        protected void applyHeaders() {
+        }
+
+        @Override
+        protected void applyCookies() {
+        }
+    }
+
+    private static final class ReplayedResponse implements ClientHttpResponse {
+        private final Entry entry;
+        private final Duration toBody;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        ReplayedResponse(Entry entry, Duration toBody) {
+            this.entry = entry;
+            this.toBody = toBody;
+            entry.headers().forEach(headers::set);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return HttpStatusCode.valueOf(entry.status());
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public MultiValueMap<String, ResponseCookie> getCookies() {
+            return new LinkedMultiValueMap<>();
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            Mono<DataBuffer> body = Mono.fromSupplier(() ->
+                    DefaultDataBufferFactory.sharedInstance.wrap(entry.body().getBytes(StandardCharsets.UTF_8)));
+            return delayed(body, toBody).flux();
+        }
+    }
+
+    // ---- Helpers ----
+
+    private static String text(DataBuffer buffer) {
+        return buffer.toString(buffer.readPosition(), buffer.readableByteCount(), StandardCharsets.UTF_8);
+    }
+
+    static String hash(HttpMethod method, String path, String body) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update((method.name() + " " + path + "\n").getBytes(StandardCharsets.UTF_8));
+            sha256.update(body.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha256.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.alang.stub;
+
+import com.alang.config.LLMProperties;
+import com.alang.service.PromptTemplates;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What StubLLMServer answers: which fault (if any), after how long, and with
+ * what text. Everything random comes from one seeded Random, so a run with
+ * the same seed and the same request order is reproducible.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Chat replies are canned tutor text, one word per token, with a
+ *   ---TOPICS--- block on topics-rate of them
+ * - Note calls (system prompt asks for ONLY valid JSON) get a note that
+ *   LLMServiceImpl.parseNoteNode accepts; titles are numbered so repeated
+ *   calls do not all collide on one title
+ */
+final class StubCompletions {
+
+    enum Outcome {
+        OK, RATE_LIMITED, SERVER_ERROR, SLOW_LORIS
+    }
+
+    private static final String[] REPLY_WORDS = (
+            "In Japanese the particle は marks the topic of the sentence while が marks the grammatical subject. "
+                    + "For example 私は学生です means I am a student and 猫が好きです means I like cats. "
+                    + "Try making your own sentence with each particle and I will check it for you.")
+            .split(" ");
+
+    private static final String TOPICS_BLOCK = "\n\n" + PromptTemplates.TOPICS_DELIMITER
+            + "\n[\"は vs が\", \"です copula\", \"好き + が\"]";
+
+    private static final String NOTE_JSON = """
+            {"type":"grammar","title":"は vs が #%d",\
+            "summary":"は marks the topic; が marks the subject.",\
+            "content":"Use は for what the sentence is about and が for new or emphasized information.",\
+            "structured":{"pattern":"X は Y / X が Y","meaning":"topic vs subject","explanation":"",\
+            "formality":"polite","exampleSentences":[{"targetLanguageSentence":"私は学生です",\
+            "learningLanguageSentence":"I am a student"}],"commonMistakes":[]},\
+            "tags":[{"category":"difficulty","value":"beginner"},{"category":"function","value":"contrast"}]}""";
+
+    private final LLMProperties.Stub stub;
+    private final Random random;
+    private final AtomicLong notes = new AtomicLong();
+
+    StubCompletions(LLMProperties.Stub stub) {
+        this.stub = stub;
+        this.random = new Random(stub.getSeed());
+    }
+
+    Outcome nextOutcome() {
+        double roll = random.nextDouble();
+        double rateLimited = stub.getRateLimitRate();
+        double serverError = rateLimited + stub.getServerErrorRate();
+        if (roll < rateLimited) {
+            return Outcome.RATE_LIMITED;
+        }
+        if (roll < serverError) {
+            return Outcome.SERVER_ERROR;
+        }
+        if (roll < serverError + stub.getSlowLorisRate()) {
+            return Outcome.SLOW_LORIS;
+        }
+        return Outcome.OK;
+    }
+
+    /**
+     * Time to first token.
+     */
+    Duration nextLatency() {
+        LLMProperties.StubLatency latency = stub.getLatency();
+        double median = latency.getMedian().toNanos();
+        double min = latency.getMin().toNanos();
+        double max = latency.getMax().toNanos();
+        double nanos = switch (latency.getDistribution()) {
+            case FIXED -> median;
+            case UNIFORM -> min + random.nextDouble() * (max - min);
+            case EXPONENTIAL -> -median / Math.log(2) * Math.log(1 - random.nextDouble());
+            case LOGNORMAL -> median * Math.exp(latency.getSigma() * random.nextGaussian());
+        };
+        return Duration.ofNanos((long) Math.max(min, Math.min(max, nanos)));
+    }
+
+    /**
+     * Time to generate tokens after the first one.
+     */
+    Duration generationTime(int tokens) {
+        if (stub.getTokensPerSecond() <= 0 || tokens <= 1) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) ((tokens - 1) / stub.getTokensPerSecond() * 1e9));
+    }
+
+    static boolean isNoteRequest(String systemPrompt) {
+        return systemPrompt != null && systemPrompt.contains("ONLY valid JSON");
+    }
+
+    String noteContent() {
+        return NOTE_JSON.formatted(notes.incrementAndGet());
+    }
+
+    /**
+     * min(completion-tokens, maxTokens) words of tutor text, sometimes followed by a topics block.
+     */
+    String replyContent(int maxTokens) {
+        int tokens = Math.max(1, Math.min(stub.getCompletionTokens(), maxTokens));
+        StringBuilder sb = new StringBuilder(tokens * 8 + TOPICS_BLOCK.length());
+        for (int i = 0; i < tokens; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(REPLY_WORDS[i % REPLY_WORDS.length]);
+        }
+        if (random.nextDouble() < stub.getTopicsRate()) {
+            sb.append(TOPICS_BLOCK);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The stub's token count: whitespace-separated words, as replyContent generates them.
+     */
+    static int countTokens(String text) {
+        if (text == null || text.isBlank()) {
+            return 0;
+        }
+        return text.trim().split("\\s+").length;
+    }
+}
@@ -0,0 +1,227 @@
+package com.alang.stub;
+
+import com.alang.config.LLMProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * An OpenAI-compatible provider served in-process on llm.stub.port, so the
+ * chat path (LLMServiceImpl, routing, retries, timeouts) can be load-tested
+ * and benchmarked offline and reproducibly.
+ *
+ * Enabled with the llm-stub profile, whose section in application.yml
+ * also points llm.api at it.
+ *
+ * ARCHITECTURAL NOTE:
+ * - Runs on its own Reactor Netty server and event loop, not on the app's
+ *   Tomcat, so it holds no request threads and is measured like a remote provider
+ * - POST /v1/chat/completions answers after a sampled time to first token
+ *   plus generation time at tokens-per-second; with "stream": true the same
+ *   text goes out as SSE chunks at that pace, ending in "data: [DONE]"
+ * - Faults are decided per call: 429 with Retry-After and 5xx are answered
+ *   at once; slow-loris sends 200 and headers, then one body character per
+ *   slow-loris-interval, which only the caller's own timeouts can end
+ * - GET /v1/models answers too, for LLMProviderRouter's connection warm-up
+ */
+@Slf4j
+@Component
+@Profile("llm-stub")
+public class StubLLMServer implements SmartLifecycle {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String MODELS = "{\"object\":\"list\",\"data\":[{\"id\":\"stub\",\"object\":\"model\"}]}";
+
+    private final LLMProperties.Stub stub;
+    private final StubCompletions completions;
+    private volatile DisposableServer server;
+
+    public StubLLMServer(LLMProperties llmProperties) {
+        this.stub = llmProperties.getStub();
+        this.completions = new StubCompletions(stub);
+    }
+
+    private record Call(String model, String systemPrompt, int promptTokens, int maxTokens, boolean stream) {
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .host(stub.getHost())
+                .port(stub.getPort())
+                .route(routes -> routes
+                        .post("/v1/chat/completions", this::chatCompletions)
+                        .get("/v1/models", (request, response) -> json(response, MODELS)))
+                .bindNow();
+        log.info("Stub LLM provider listening on http://{}:{}/v1 (seed={})", stub.getHost(), port(), stub.getSeed());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer running = server;
+        if (running != null) {
+            running.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * The bound port; differs from llm.stub.port when that is 0.
+     */
+    public int port() {
+        return server.port();
+    }
+
+    private Mono<Void> chatCompletions(HttpServerRequest request, HttpServerResponse response) {
+        return request.receive().aggregate().asByteArray()
+                .flatMap(body -> {
+                    Call call;
+                    try {
+                        call = parse(body);
+                    } catch (IOException | RuntimeException e) {
+                        return error(response, 400, "invalid_request_error", "Could not parse request body");
+                    }
+                    return switch (completions.nextOutcome()) {
+                        case RATE_LIMITED -> error(response.header(HttpHeaders.RETRY_AFTER,
+                                        String.valueOf(Math.max(1, stub.getRetryAfter().toSeconds()))),
+                                429, "rate_limit_exceeded", "Rate limit reached (stub)");
+                        case SERVER_ERROR -> error(response, stub.getServerErrorStatus(), "server_error",
+                                "The server had an error while processing your request (stub)");
+                        case SLOW_LORIS -> slowLoris(response, completion(call, content(call)));
+                        case OK -> call.stream() ? stream(response, call) : complete(response, call);
+                    };
+                });
+    }
+
+    private static Call parse(byte[] body) throws IOException {
+        JsonNode root = JSON.readTree(body);
+        String systemPrompt = null;
+        int promptTokens = 0;
+        for (JsonNode message : root.path("messages")) {
+            String content = message.path("content").asText("");
+            if (systemPrompt == null && "system".equals(message.path("role").asText())) {
+                systemPrompt = content;
+            }
+            promptTokens += StubCompletions.countTokens(content);
+        }
+        return new Call(root.path("model").asText("stub"), systemPrompt, promptTokens,
+                root.path("max_tokens").asInt(Integer.MAX_VALUE), root.path("stream").asBoolean(false));
+    }
+
+    private String content(Call call) {
+        return StubCompletions.isNoteRequest(call.systemPrompt())
+                ? completions.noteContent()
+                : completions.replyContent(call.maxTokens());
+    }
+
+    private Mono<Void> complete(HttpServerResponse response, Call call) {
+        String content = content(call);
+        Duration delay = completions.nextLatency()
+                .plus(completions.generationTime(StubCompletions.countTokens(content)));
+        return Mono.delay(delay).then(json(response, completion(call, content)));
+    }
+
+    private Mono<Void> stream(HttpServerResponse response, Call call) {
+        String[] words = content(call).split(" ");
+        int chunkTokens = Math.max(1, stub.getStreamChunkTokens());
+        List<String> events = new ArrayList<>(words.length / chunkTokens + 2);
+        for (int i = 0; i < words.length; i += chunkTokens) {
+            String text = String.join(" ", List.of(words).subList(i, Math.min(words.length, i + chunkTokens)));
+            events.add(chunk(call, i == 0 ? text : " " + text, null));
+        }
+        events.add(chunk(call, null, "stop"));
+
+        Duration perChunk = completions.generationTime(chunkTokens + 1);
+        Flux<String> body = Flux.concat(
+                Mono.delay(completions.nextLatency()).thenReturn(events.get(0)),
+                Flux.fromIterable(events.subList(1, events.size())).delayElements(perChunk),
+                Mono.just("data: [DONE]\n\n"));
+        return response.header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .sendString(body)
+                .then();
+    }
+
+    /**
+     * Headers and a byte of whitespace at once, then the body at a crawl.
+     */
+    private Mono<Void> slowLoris(HttpServerResponse response, String body) {
+        Flux<String> trickle = Flux.fromStream(body.codePoints().mapToObj(Character::toString))
+                .delayElements(stub.getSlowLorisInterval());
+        return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .sendString(Flux.concat(Mono.just(" "), trickle))
+                .then();
+    }
+
+    private static String completion(Call call, String content) {
+        int completionTokens = StubCompletions.countTokens(content);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", "chatcmpl-stub-" + UUID.randomUUID());
+        body.put("object", "chat.completion");
+        body.put("created", System.currentTimeMillis() / 1000);
+        body.put("model", call.model());
+        body.put("choices", List.of(Map.of(
+                "index", 0,
+                "message", Map.of("role", "assistant", "content", content),
+                "finish_reason", "stop")));
+        body.put("usage", Map.of(
+                "prompt_tokens", call.promptTokens(),
+                "completion_tokens", completionTokens,
+                "total_tokens", call.promptTokens() + completionTokens));
+        return write(body);
+    }
+
+    private static String chunk(Call call, String content, String finishReason) {
+        Map<String, Object> choice = new LinkedHashMap<>();
+        choice.put("index", 0);
+        choice.put("delta", content == null ? Map.of() : Map.of("content", content));
+        choice.put("finish_reason", finishReason);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("object", "chat.completion.chunk");
+        body.put("model", call.model());
+        body.put("choices", List.of(choice));
+        return "data: " + write(body) + "\n\n";
+    }
+
+    private static Mono<Void> error(HttpServerResponse response, int status, String code, String message) {
+        return json(response.status(status), write(Map.of("error", Map.of(
+                "message", message, "type", code, "code", code))));
+    }
+
+    private static Mono<Void> json(HttpServerResponse response, String body) {
+        return response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .sendString(Mono.just(body))
+                .then();
+    }
+
+    private static String write(Object body) {
+        try {
+            return JSON.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write stub response", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+-- ===========================================================================
+-- V10: Idempotency keys for LLM-backed chat endpoints
+--
+-- One row per (user, Idempotency-Key header). A retried POST with the same
+-- key waits for the original or replays its stored response instead of
+-- calling the provider again (see IdempotentRequests).
+--
+-- response_body is NULL while the original is in flight; expires_at is then
+-- a lease, so a key held by a node that died becomes claimable again.
+-- Completed rows live for app.idempotency.ttl and are deleted by
+-- IdempotencyKeyCleanupJob.
+-- ===========================================================================
+
+CREATE TABLE idempotency_keys (
+    user_id         VARCHAR(255) NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    BYTEA        NOT NULL, -- SHA-256 of endpoint + request body
+    response_body   JSONB,
+    expires_at      TIMESTAMP    NOT NULL,
+    PRIMARY KEY (user_id, idempotency_key)
+);
+
+CREATE INDEX idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
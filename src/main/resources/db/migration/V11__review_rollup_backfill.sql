@@ -0,0 +1,19 @@
+-- ===========================================================================
+-- V11: Progress of the one-off review_daily_stats backfill
+--
+-- A single row. ReviewRollupJob backfills review_events history into
+-- review_daily_stats chunk by chunk, moving backfilled_through forward
+-- after each chunk, and sets completed_at once it reaches the day it started
+-- on. Until then every run resumes the backfill instead of only
+-- reconciling recent days. Live submissions also write review_daily_stats
+-- rows, so an empty table can't be used to tell whether the backfill is
+-- still needed.
+-- ===========================================================================
+
+CREATE TABLE review_rollup_backfill (
+    id                 SMALLINT  PRIMARY KEY CHECK (id = 1),
+    backfilled_through DATE,      -- days before this are done; NULL = not started
+    completed_at       TIMESTAMP
+);
+
+INSERT INTO review_rollup_backfill (id) VALUES (1);
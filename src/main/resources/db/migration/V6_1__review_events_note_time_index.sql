@@ -0,0 +1,17 @@
+-- flyway:executeInTransaction=false
+-- ===========================================================================
+-- V6.1: Per-note review history index
+--
+-- review_events is the largest table and append-only; a plain CREATE INDEX
+-- would block review submissions for the whole build. CONCURRENTLY cannot
+-- run inside a transaction, so this script runs without one and holds
+-- nothing else.
+--
+-- If the build fails it leaves an INVALID index that IF NOT EXISTS would
+-- then skip: DROP INDEX CONCURRENTLY idx_review_events_note_time, then
+-- flyway repair and migrate again.
+-- ===========================================================================
+
+-- Review events: per-note history in review order (first-review detection in
+-- the rollup backfill, SM-2 history replay)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_review_events_note_time ON review_events(note_id, reviewed_at);
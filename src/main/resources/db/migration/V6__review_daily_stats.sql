@@ -0,0 +1,28 @@
+-- ===========================================================================
+-- V6: Daily review rollups (one row per user + learning language + day)
+--
+-- Analytics endpoints read ONLY from this table. Rows are incremented in the
+-- same transaction as each review submission and recomputed for completed
+-- days by the nightly backfill job (ReviewRollupJob).
+-- ===========================================================================
+
+CREATE TABLE review_daily_stats (
+    user_id                  VARCHAR(255) NOT NULL REFERENCES users(id),
+    learning_language_code   VARCHAR(255) NOT NULL REFERENCES languages(code),
+    stat_date                DATE         NOT NULL,
+    review_count             INTEGER      NOT NULL DEFAULT 0,
+    quality1_count           INTEGER      NOT NULL DEFAULT 0,  -- forgot
+    quality2_count           INTEGER      NOT NULL DEFAULT 0,  -- hard
+    quality3_count           INTEGER      NOT NULL DEFAULT 0,  -- good
+    quality4_count           INTEGER      NOT NULL DEFAULT 0,  -- easy
+    total_time_spent_seconds BIGINT       NOT NULL DEFAULT 0,
+    new_count                INTEGER      NOT NULL DEFAULT 0,  -- first review of a note
+    mature_count             INTEGER      NOT NULL DEFAULT 0,  -- previous interval >= 21 days
+    PRIMARY KEY (user_id, learning_language_code, stat_date)
+);
+
+-- Heat-map / trend reads across all languages for a user
+CREATE INDEX idx_review_daily_stats_user_date ON review_daily_stats(user_id, stat_date);
+
+-- The review_events index the backfill needs is built in V6_1, outside a
+-- transaction
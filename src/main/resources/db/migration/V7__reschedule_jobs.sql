@@ -0,0 +1,24 @@
+-- ===========================================================================
+-- V7: Admin-triggered bulk rescheduling jobs
+--
+-- One row per run of NoteRescheduleJob. The job walks notes in id order and
+-- checkpoints last_note_id in the same transaction as each batch of note
+-- updates, so a failed or cancelled job resumes exactly where it stopped.
+-- ===========================================================================
+
+CREATE TYPE reschedule_status AS ENUM ('running', 'completed', 'failed', 'cancelled');
+
+CREATE TABLE reschedule_jobs (
+    id              VARCHAR(255)      PRIMARY KEY,
+    status          reschedule_status NOT NULL DEFAULT 'running',
+    last_note_id    VARCHAR(255),                -- keyset checkpoint (exclusive lower bound)
+    processed_count BIGINT            NOT NULL DEFAULT 0,  -- notes examined
+    updated_count   BIGINT            NOT NULL DEFAULT 0,  -- notes whose schedule changed
+    requested_by    VARCHAR(255),                -- admin user id
+    error_message   TEXT,
+    created_at      TIMESTAMP         NOT NULL,
+    updated_at      TIMESTAMP         NOT NULL,
+    finished_at     TIMESTAMP
+);
+
+CREATE INDEX idx_reschedule_jobs_status ON reschedule_jobs(status);
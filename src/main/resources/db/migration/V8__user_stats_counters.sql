@@ -0,0 +1,44 @@
+-- ===========================================================================
+-- V8: Maintained counters
+--
+-- user_stats: one row per user with note counts, so hot endpoints read a
+-- single row by primary key instead of running COUNT(*) over notes.
+-- note_counts is keyed "<learning_language_code>:<note_type>", e.g. "ja:vocab".
+--
+-- chat_sessions.message_count / last_message_at: replace COUNT(*) over
+-- recent_messages when rendering a session.
+--
+-- Both are updated in the same transaction as the writes that change them
+-- (see UserStatsRepository / ChatSessionRepository) and periodically
+-- reconciled by CounterReconciliationJob.
+-- ===========================================================================
+
+CREATE TABLE user_stats (
+    user_id     VARCHAR(255) PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    note_count  BIGINT       NOT NULL DEFAULT 0,
+    note_counts JSONB        NOT NULL DEFAULT '{}'::jsonb,
+    updated_at  TIMESTAMP    NOT NULL DEFAULT now()
+);
+
+INSERT INTO user_stats (user_id, note_count, note_counts, updated_at)
+SELECT user_id, SUM(cnt), jsonb_object_agg(count_key, cnt), now()
+FROM (
+    SELECT user_id, learning_language_code || ':' || type::text AS count_key, COUNT(*) AS cnt
+    FROM notes
+    GROUP BY user_id, learning_language_code, type
+) per_key
+GROUP BY user_id;
+
+ALTER TABLE chat_sessions
+    ADD COLUMN message_count   INTEGER   NOT NULL DEFAULT 0,
+    ADD COLUMN last_message_at TIMESTAMP;
+
+UPDATE chat_sessions s
+SET message_count = c.cnt, last_message_at = c.last_at
+FROM (
+    SELECT session_id, COUNT(*) AS cnt, MAX(created_at) AS last_at
+    FROM recent_messages
+    WHERE session_id IS NOT NULL
+    GROUP BY session_id
+) c
+WHERE s.id = c.session_id;
@@ -0,0 +1,23 @@
+-- flyway:executeInTransaction=false
+-- ===========================================================================
+-- V9: Per-user due-card indexes for the review queue
+--
+-- idx_notes_next_review (next_review_at alone) made Postgres walk every
+-- user's due notes and filter by user. These serve the queue queries directly
+-- and are the cold path behind the in-process DueCardIndex.
+--
+-- notes runs to tens of millions of rows, so both are built CONCURRENTLY
+-- and note writes carry on during the build. CONCURRENTLY cannot run inside
+-- a transaction: this script runs without one and holds only these indexes.
+-- A failed build leaves an INVALID index that IF NOT EXISTS would then
+-- skip: DROP INDEX CONCURRENTLY it, then flyway repair and migrate again.
+-- ===========================================================================
+
+-- findDueForReviewByLanguage / countDueByDayAndLanguage
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notes_user_language_next_review
+    ON notes(user_id, learning_language_code, next_review_at);
+
+-- findDueForReview / countDueByEndOfDay / countDueByDay (no language filter):
+-- the composite above cannot return one user's notes in next_review_at order
+-- across languages without a sort
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_notes_user_next_review ON notes(user_id, next_review_at);
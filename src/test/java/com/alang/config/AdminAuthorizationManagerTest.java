@@ -0,0 +1,46 @@
+package com.alang.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdminAuthorizationManagerTest {
+
+    private final AdminAuthorizationManager manager = new AdminAuthorizationManager(List.of("admin-1", " admin-2 "));
+
+    @Test
+    void check_allowListedUser_granted() {
+        var auth = new UsernamePasswordAuthenticationToken("admin-2", null, Collections.emptyList());
+
+        assertThat(manager.check(() -> auth, null).isGranted()).isTrue();
+    }
+
+    @Test
+    void check_otherUser_denied() {
+        var auth = new UsernamePasswordAuthenticationToken("user-1", null, Collections.emptyList());
+
+        assertThat(manager.check(() -> auth, null).isGranted()).isFalse();
+    }
+
+    @Test
+    void check_anonymous_denied() {
+        var auth = new AnonymousAuthenticationToken("key", "admin-1",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        assertThat(manager.check(() -> auth, null).isGranted()).isFalse();
+    }
+
+    @Test
+    void check_emptyAllowList_deniesEveryone() {
+        AdminAuthorizationManager locked = new AdminAuthorizationManager(List.of(""));
+        var auth = new UsernamePasswordAuthenticationToken("admin-1", null, Collections.emptyList());
+
+        assertThat(locked.check(() -> auth, null).isGranted()).isFalse();
+    }
+}
@@ -1,7 +1,24 @@
 package com.alang.config;
 
+import com.alang.stub.LLMCassette;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.nio.NioChannelOption;
+import jdk.net.ExtendedSocketOptions;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -15,7 +32,7 @@ class LLMConfigTest {
         api.setBaseUrl("https://api.example.com/v1");
         properties.setApi(api);
 
-        LLMConfig config = new LLMConfig(properties);
+        LLMConfig config = new LLMConfig(properties, new LLMCassette(properties, new ObjectMapper()));
         WebClient webClient = config.llmWebClient();
 
         assertThat(webClient).isNotNull();
@@ -29,9 +46,88 @@ class LLMConfigTest {
         api.setBaseUrl("http://localhost:11434/v1");
         properties.setApi(api);
 
-        LLMConfig config = new LLMConfig(properties);
+        LLMConfig config = new LLMConfig(properties, new LLMCassette(properties, new ObjectMapper()));
         WebClient webClient = config.llmWebClient();
 
         assertThat(webClient).isNotNull();
     }
+
+    @Test
+    void llmWebClient_withHttpsAndHttp2_returnsWebClient() {
+        LLMProperties.Http http = new LLMProperties.Http();
+        http.setHttp2(true);
+
+        WebClient webClient = LLMConfig.llmWebClient("openai", "https://api.example.com/v1", "key",
+                Duration.ofSeconds(60), http, new LLMCassette(new LLMProperties(), new ObjectMapper()));
+
+        assertThat(webClient).isNotNull();
+    }
+
+    /**
+     * Read back from the connected socket, on whichever transport Reactor
+     * Netty picked (native epoll on Linux, which ignores NIO options).
+     */
+    @Test
+    void httpClient_setsKeepAliveTimingsOnTheConnectedSocket() {
+        LLMProperties.Http http = new LLMProperties.Http();
+        http.setKeepAliveIdle(Duration.ofSeconds(45));
+        http.setKeepAliveInterval(Duration.ofSeconds(7));
+        http.setKeepAliveCount(4);
+        DisposableServer server = HttpServer.create().host("localhost").port(0)
+                .handle((request, response) -> response.sendString(Mono.just("ok")))
+                .bindNow();
+        AtomicReference<List<Object>> socketOptions = new AtomicReference<>();
+        HttpClient client = LLMConfig.httpClient("keepalive", "http://localhost:" + server.port(),
+                        Duration.ofSeconds(5), http)
+                .doOnConnected(connection -> socketOptions.set(keepAliveOptions(connection.channel())));
+        try {
+            client.get().uri("http://localhost:" + server.port() + "/")
+                    .responseContent().aggregate().asString().block(Duration.ofSeconds(5));
+        } finally {
+            server.disposeNow();
+        }
+
+        assertThat(socketOptions.get()).containsExactly(true, 45, 7, 4);
+    }
+
+    private static List<Object> keepAliveOptions(Channel channel) {
+        if (channel instanceof EpollSocketChannel) {
+            return List.of(channel.config().getOption(ChannelOption.SO_KEEPALIVE),
+                    channel.config().getOption(EpollChannelOption.TCP_KEEPIDLE),
+                    channel.config().getOption(EpollChannelOption.TCP_KEEPINTVL),
+                    channel.config().getOption(EpollChannelOption.TCP_KEEPCNT));
+        }
+        return List.of(channel.config().getOption(ChannelOption.SO_KEEPALIVE),
+                channel.config().getOption(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPIDLE)),
+                channel.config().getOption(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPINTERVAL)),
+                channel.config().getOption(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPCOUNT)));
+    }
+
+    @Test
+    void connectionProvider_isNamedAndSizedPerProvider() {
+        LLMProperties.Http http = new LLMProperties.Http();
+        http.setMaxConnections(42);
+
+        ConnectionProvider pool = LLMConfig.connectionProvider("ollama", http);
+        try {
+            assertThat(pool.name()).isEqualTo("llm-ollama");
+            assertThat(pool.maxConnections()).isEqualTo(42);
+        } finally {
+            pool.dispose();
+        }
+    }
+
+    @Test
+    void connectionProvider_withoutBackgroundEviction_builds() {
+        LLMProperties.Http http = new LLMProperties.Http();
+        http.setEvictionInterval(Duration.ZERO);
+        http.setMetrics(false);
+
+        ConnectionProvider pool = LLMConfig.connectionProvider("primary", http);
+        try {
+            assertThat(pool.maxConnections()).isEqualTo(http.getMaxConnections());
+        } finally {
+            pool.dispose();
+        }
+    }
 }
@@ -14,6 +14,31 @@ class LLMPropertiesTest {
         assertThat(properties.getModels()).isNotNull();
         assertThat(properties.getTokenLimits()).isNotNull();
         assertThat(properties.getSummarization()).isNotNull();
+        assertThat(properties.getAdmission()).isNotNull();
+    }
+
+    @Test
+    void admissionDefaults_areSensible() {
+        LLMProperties.Admission admission = new LLMProperties().getAdmission();
+
+        assertThat(admission.isEnabled()).isTrue();
+        assertThat(admission.getMaxConcurrency()).isPositive();
+        assertThat(admission.getMaxQueueSize()).isPositive();
+        assertThat(admission.getMaxQueueWait()).isPositive();
+        assertThat(admission.getModelMaxConcurrency()).isEmpty();
+    }
+
+    @Test
+    void httpDefaults_keepConnectionsWarm() {
+        LLMProperties.Http http = new LLMProperties().getHttp();
+
+        assertThat(http.getMaxConnections()).isPositive();
+        assertThat(http.getPendingAcquireMaxCount()).isPositive();
+        assertThat(http.getMaxIdleTime()).isLessThan(http.getMaxLifeTime());
+        assertThat(http.isHttp2()).isTrue();
+        assertThat(http.isTcpKeepAlive()).isTrue();
+        assertThat(http.getWarmupConnections()).isPositive();
+        assertThat(http.isMetrics()).isTrue();
     }
 
     @Test
@@ -0,0 +1,87 @@
+package com.alang.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestDbMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private RequestDbMetrics metrics;
+    private MockHttpServletRequest request;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new RequestDbMetrics(registry);
+        request = new MockHttpServletRequest("GET", "/notes/abc");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/notes/{id}");
+    }
+
+    private DistributionSummary statements() {
+        return registry.get("db.request.statements").tags("method", "GET", "uri", "/notes/{id}").summary();
+    }
+
+    @Test
+    void recordsStatementsAndTimePerEndpoint() {
+        metrics.preHandle(request, response, null);
+        RequestDbMetrics.recordStatement(TimeUnit.MILLISECONDS.toNanos(2));
+        RequestDbMetrics.recordStatement(TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.afterCompletion(request, response, null, null);
+
+        assertThat(statements().count()).isEqualTo(1);
+        assertThat(statements().totalAmount()).isEqualTo(2);
+        assertThat(registry.get("db.request.time").tag("uri", "/notes/{id}").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(5);
+    }
+
+    @Test
+    void statementsOutsideARequest_areIgnored() {
+        RequestDbMetrics.recordStatement(1_000);
+
+        metrics.preHandle(request, response, null);
+        metrics.afterCompletion(request, response, null, null);
+        RequestDbMetrics.recordStatement(1_000);
+
+        assertThat(statements().totalAmount()).isZero();
+    }
+
+    @Test
+    void asyncRequest_carriesItsTallyToTheAsyncDispatch() throws Exception {
+        metrics.preHandle(request, response, null);
+        RequestDbMetrics.recordStatement(1_000);
+        metrics.afterConcurrentHandlingStarted(request, response, null);
+
+        // Completion runs on another thread, as an ASYNC dispatch would
+        Thread dispatch = new Thread(() -> {
+            metrics.preHandle(request, response, null);
+            RequestDbMetrics.recordStatement(1_000);
+            metrics.afterCompletion(request, response, null, null);
+        });
+        dispatch.start();
+        dispatch.join();
+
+        assertThat(statements().count()).isEqualTo(1);
+        assertThat(statements().totalAmount()).isEqualTo(2);
+    }
+
+    @Test
+    void unmatchedRequest_isTaggedUnknown() {
+        MockHttpServletRequest unmatched = new MockHttpServletRequest("POST", "/nowhere");
+
+        metrics.preHandle(unmatched, response, null);
+        metrics.afterCompletion(unmatched, response, null, null);
+
+        assertThat(registry.get("db.request.statements").tags("method", "POST", "uri", "UNKNOWN").summary().count())
+                .isEqualTo(1);
+    }
+}
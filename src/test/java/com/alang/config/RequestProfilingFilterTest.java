@@ -0,0 +1,75 @@
+package com.alang.config;
+
+import com.alang.service.RequestProfile;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestProfilingFilterTest {
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/chat/sessions/s1/message");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void profileIsCurrentDuringTheChain_andStoredOnTheRequest() throws Exception {
+        RequestProfilingFilter filter = new RequestProfilingFilter(true, 0.0, Duration.ofSeconds(5));
+        AtomicReference<RequestProfile> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> {
+            seen.set(RequestProfile.current());
+            RequestProfile.current().add(RequestProfile.Span.DB, 1_000_000);
+        });
+
+        assertThat(seen.get().isEnabled()).isTrue();
+        assertThat(request.getAttribute(RequestProfilingFilter.PROFILE_ATTRIBUTE)).isSameAs(seen.get());
+        assertThat(seen.get().count(RequestProfile.Span.DB)).isEqualTo(1);
+        assertThat(RequestProfile.current().isEnabled()).isFalse();
+    }
+
+    @Test
+    void disabled_recordsNothing() throws Exception {
+        RequestProfilingFilter filter = new RequestProfilingFilter(false, 1.0, Duration.ZERO);
+        AtomicReference<RequestProfile> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> seen.set(RequestProfile.current()));
+
+        assertThat(seen.get().isEnabled()).isFalse();
+        assertThat(request.getAttribute(RequestProfilingFilter.PROFILE_ATTRIBUTE)).isNull();
+    }
+
+    @Test
+    void serverTimingAdvice_addsTheHeaderBeforeTheBodyIsWritten() throws Exception {
+        RequestProfilingFilter filter = new RequestProfilingFilter(true, 0.0, Duration.ofSeconds(5));
+        ServerTimingAdvice advice = new ServerTimingAdvice();
+        ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+
+        filter.doFilter(request, response, (req, res) -> {
+            RequestProfile.current().add(RequestProfile.Span.LLM, 800_000_000);
+            advice.beforeBodyWrite("body", null, MediaType.APPLICATION_JSON,
+                    MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(request), serverResponse);
+            serverResponse.flush();
+        });
+
+        assertThat(response.getHeader(ServerTimingAdvice.HEADER)).startsWith("llm;dur=800.0, total;dur=");
+    }
+
+    @Test
+    void serverTimingAdvice_withoutAProfile_leavesTheResponseAlone() {
+        ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+
+        Object body = new ServerTimingAdvice().beforeBodyWrite("body", null, MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(request), serverResponse);
+
+        assertThat(body).isEqualTo("body");
+        assertThat(serverResponse.getHeaders().containsKey(ServerTimingAdvice.HEADER)).isFalse();
+    }
+}
@@ -0,0 +1,116 @@
+package com.alang.controller;
+
+import com.alang.dto.admin.FlightRecording;
+import com.alang.dto.admin.LLMAdmissionStats;
+import com.alang.dto.admin.LLMProviderStats;
+import com.alang.dto.admin.RescheduleJobResponse;
+import com.alang.dto.admin.RuntimeStats;
+import com.alang.service.FlightRecorderService;
+import com.alang.service.LLMAdmissionController;
+import com.alang.service.LLMProviderRouter;
+import com.alang.service.RescheduleService;
+import com.alang.service.RuntimeStatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class AdminControllerTest {
+
+    private final RescheduleService rescheduleService = mock(RescheduleService.class);
+    private final LLMAdmissionController llmAdmissionController = mock(LLMAdmissionController.class);
+    private final LLMProviderRouter llmProviderRouter = mock(LLMProviderRouter.class);
+    private final RuntimeStatsService runtimeStatsService = mock(RuntimeStatsService.class);
+    private final FlightRecorderService flightRecorderService = mock(FlightRecorderService.class);
+    private final AdminController adminController = new AdminController(rescheduleService, llmAdmissionController,
+            llmProviderRouter, runtimeStatsService, flightRecorderService);
+
+    @Test
+    void startReschedule_returns202WithJob() {
+        RescheduleJobResponse job = new RescheduleJobResponse();
+        job.setId("job-1");
+        when(rescheduleService.startJob("admin-1")).thenReturn(job);
+
+        ResponseEntity<RescheduleJobResponse> result = adminController.startReschedule("admin-1");
+
+        assertThat(result.getStatusCode().value()).isEqualTo(202);
+        assertThat(result.getBody()).isEqualTo(job);
+    }
+
+    @Test
+    void getReschedule_returns200() {
+        RescheduleJobResponse job = new RescheduleJobResponse();
+        when(rescheduleService.getJob("job-1")).thenReturn(job);
+
+        assertThat(adminController.getReschedule("job-1").getBody()).isEqualTo(job);
+    }
+
+    @Test
+    void resumeReschedule_returns202() {
+        ResponseEntity<RescheduleJobResponse> result = adminController.resumeReschedule("job-1");
+
+        assertThat(result.getStatusCode().value()).isEqualTo(202);
+        verify(rescheduleService).resumeJob("job-1");
+    }
+
+    @Test
+    void cancelReschedule_returns200() {
+        ResponseEntity<RescheduleJobResponse> result = adminController.cancelReschedule("job-1");
+
+        assertThat(result.getStatusCode().value()).isEqualTo(200);
+        verify(rescheduleService).cancelJob("job-1");
+    }
+
+    @Test
+    void getLLMAdmission_returnsSnapshot() {
+        LLMAdmissionStats stats = new LLMAdmissionStats();
+        stats.setModel("gpt-3.5-turbo");
+        when(llmAdmissionController.snapshot()).thenReturn(List.of(stats));
+
+        assertThat(adminController.getLLMAdmission().getBody()).containsExactly(stats);
+    }
+
+    @Test
+    void getLLMProviders_returnsSnapshot() {
+        LLMProviderStats stats = new LLMProviderStats();
+        stats.setName("openai");
+        when(llmProviderRouter.snapshot()).thenReturn(List.of(stats));
+
+        assertThat(adminController.getLLMProviders().getBody()).containsExactly(stats);
+    }
+
+    @Test
+    void getRuntime_returnsSnapshot() {
+        RuntimeStats stats = new RuntimeStats();
+        stats.setJdbcStatements(42);
+        when(runtimeStatsService.snapshot()).thenReturn(stats);
+
+        assertThat(adminController.getRuntime().getBody()).isEqualTo(stats);
+    }
+
+    @Test
+    void startRecording_returnsRecording() {
+        FlightRecording recording = new FlightRecording();
+        recording.setState("RUNNING");
+        when(flightRecorderService.start()).thenReturn(recording);
+
+        assertThat(adminController.startRecording().getBody()).isEqualTo(recording);
+    }
+
+    @Test
+    void dumpRecording_isAJfrAttachment() throws Exception {
+        when(flightRecorderService.dump()).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+
+        ResponseEntity<InputStreamResource> result = adminController.dumpRecording();
+
+        assertThat(result.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_OCTET_STREAM);
+        assertThat(result.getHeaders().getContentDisposition().getFilename()).startsWith("alang-").endsWith(".jfr");
+        assertThat(result.getBody().getInputStream().readAllBytes()).containsExactly(1, 2, 3);
+    }
+}
@@ -3,21 +3,45 @@ package com.alang.controller;
 import com.alang.dto.chat.ChatMessageRequest;
 import com.alang.dto.chat.ChatMessageResponse;
 import com.alang.dto.chat.CloseSessionRequest;
+import com.alang.dto.chat.NoteFromSessionRequest;
 import com.alang.dto.chat.SessionDetailResponse;
 import com.alang.dto.chat.SessionResponse;
 import com.alang.dto.chat.UpdateSessionTitleRequest;
+import com.alang.dto.note.NoteDto;
 import com.alang.service.ChatService;
+import com.alang.service.Deadline;
+import com.alang.service.IdempotentRequests;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
-
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @ExtendWith(MockitoExtension.class)
 class ChatControllerTest {
@@ -25,11 +49,18 @@ class ChatControllerTest {
     @Mock
     private ChatService chatService;
 
-    @InjectMocks
+    @Mock
+    private IdempotentRequests idempotentRequests;
+
     private ChatController chatController;
 
+    @BeforeEach
+    void setUp() {
+        chatController = new ChatController(chatService, idempotentRequests, Duration.ofSeconds(5), Duration.ofSeconds(5));
+    }
+
     @Test
-    void sendMessage_returnsOkWithResponse() {
+    void sendMessage_returnsOkWithResponse() throws Exception {
         ChatMessageRequest request = new ChatMessageRequest();
         request.setMessage("What is the て-form?");
         request.setSessionId("session-1"); // pre-set so stub matches after controller injects it
@@ -38,28 +69,204 @@ class ChatControllerTest {
         chatResponse.setReply("The て-form is...");
         chatResponse.setModelUsed("gpt-3.5-turbo");
 
-        when(chatService.sendMessage(request, "user-1")).thenReturn(chatResponse);
+        when(chatService.sendMessageAsync(eq(request), eq("user-1"), any(Deadline.class))).thenReturn(CompletableFuture.completedFuture(chatResponse));
 
-        var response = chatController.sendMessage("session-1", request, "user-1");
+        var response = await(chatController.sendMessage("session-1", request, null, "user-1"));
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEqualTo(chatResponse);
-        verify(chatService).sendMessage(request, "user-1");
+        verify(chatService).sendMessageAsync(eq(request), eq("user-1"), any(Deadline.class));
     }
 
     @Test
-    void sendMessage_passesUserIdToService() {
+    void sendMessage_passesUserIdToService() throws Exception {
         ChatMessageRequest request = new ChatMessageRequest();
         request.setMessage("How do I conjugate ser?");
         request.setSessionId("session-42");
 
         ChatMessageResponse chatResponse = new ChatMessageResponse();
         chatResponse.setReply("Ser conjugates as...");
-        when(chatService.sendMessage(request, "user-42")).thenReturn(chatResponse);
+        when(chatService.sendMessageAsync(eq(request), eq("user-42"), any(Deadline.class))).thenReturn(CompletableFuture.completedFuture(chatResponse));
+
+        await(chatController.sendMessage("session-42", request, null, "user-42"));
+
+        verify(chatService).sendMessageAsync(eq(request), eq("user-42"), any(Deadline.class));
+    }
+
+    @Test
+    void sendMessage_doesNotWaitForTheReply() throws Exception {
+        ChatMessageRequest request = new ChatMessageRequest();
+        request.setMessage("Hello");
+        CompletableFuture<ChatMessageResponse> pending = new CompletableFuture<>();
+        when(chatService.sendMessageAsync(eq(request), eq("user-1"), any(Deadline.class))).thenReturn(pending);
+
+        var response = chatController.sendMessage("session-1", request, null, "user-1");
+
+        assertThat(response.hasResult()).isFalse();
+        pending.complete(new ChatMessageResponse());
+        assertThat(await(response).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void sendMessage_timesOutWithTimeoutException() throws Exception {
+        chatController = new ChatController(chatService, idempotentRequests, Duration.ofMillis(20), Duration.ofSeconds(5));
+        ChatMessageRequest request = new ChatMessageRequest();
+        request.setMessage("Hello");
+        when(chatService.sendMessageAsync(eq(request), eq("user-1"), any(Deadline.class))).thenReturn(new CompletableFuture<>());
+
+        var response = chatController.sendMessage("session-1", request, null, "user-1");
+
+        assertThatThrownBy(() -> await(response)).isInstanceOf(TimeoutException.class);
+        ArgumentCaptor<Deadline> deadline = ArgumentCaptor.forClass(Deadline.class);
+        verify(chatService).sendMessageAsync(eq(request), eq("user-1"), deadline.capture());
+        assertThat(deadline.getValue().isCancelled()).isTrue();
+    }
+
+    @Test
+    void sendMessage_cancelsDeadlineWhenClientDisconnects() throws Exception {
+        when(chatService.sendMessageAsync(any(ChatMessageRequest.class), any(), any(Deadline.class)))
+                .thenReturn(new CompletableFuture<>());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(chatController).build();
+
+        MvcResult result = mockMvc.perform(post("/chat/sessions/session-1/message")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"Hello\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ArgumentCaptor<Deadline> deadline = ArgumentCaptor.forClass(Deadline.class);
+        verify(chatService).sendMessageAsync(any(ChatMessageRequest.class), any(), deadline.capture());
+        assertThat(deadline.getValue().isCancelled()).isFalse();
+
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onError(new AsyncEvent(asyncContext, new IOException("Connection reset by peer")));
+        }
+
+        assertThat(deadline.getValue().isCancelled()).isTrue();
+    }
+
+    @Test
+    void sendMessage_cancelsDeadlineOnContainerAsyncTimeout() throws Exception {
+        when(chatService.sendMessageAsync(any(ChatMessageRequest.class), any(), any(Deadline.class)))
+                .thenReturn(new CompletableFuture<>());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(chatController).build();
+
+        MvcResult result = mockMvc.perform(post("/chat/sessions/session-1/message")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"Hello\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        ArgumentCaptor<Deadline> deadline = ArgumentCaptor.forClass(Deadline.class);
+        verify(chatService).sendMessageAsync(any(ChatMessageRequest.class), any(), deadline.capture());
+        assertThat(deadline.getValue().isCancelled()).isTrue();
+    }
+
+    @Test
+    void sendMessage_unwrapsServiceFailure() throws Exception {
+        ChatMessageRequest request = new ChatMessageRequest();
+        request.setMessage("Hello");
+        when(chatService.sendMessageAsync(eq(request), eq("user-1"), any(Deadline.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("closed")));
+
+        var response = chatController.sendMessage("session-1", request, null, "user-1");
+
+        assertThatThrownBy(() -> await(response)).isInstanceOf(IllegalStateException.class);
+    }
 
-        chatController.sendMessage("session-42", request, "user-42");
+    @Test
+    void sendMessage_passesDeadlineMatchingItsTimeout() {
+        ChatMessageRequest request = new ChatMessageRequest();
+        request.setMessage("Hello");
+        when(chatService.sendMessageAsync(eq(request), eq("user-1"), any(Deadline.class)))
+                .thenReturn(new CompletableFuture<>());
+
+        chatController.sendMessage("session-1", request, null, "user-1");
+
+        ArgumentCaptor<Deadline> deadline = ArgumentCaptor.forClass(Deadline.class);
+        verify(chatService).sendMessageAsync(eq(request), eq("user-1"), deadline.capture());
+        assertThat(deadline.getValue().remaining())
+                .isPositive()
+                .isLessThanOrEqualTo(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void sendMessage_withoutIdempotencyKey_bypassesIdempotentRequests() throws Exception {
+        ChatMessageRequest request = new ChatMessageRequest();
+        request.setMessage("Hello");
+        when(chatService.sendMessageAsync(eq(request), eq("user-1"), any(Deadline.class)))
+                .thenReturn(CompletableFuture.completedFuture(new ChatMessageResponse()));
+
+        await(chatController.sendMessage("session-1", request, null, "user-1"));
+
+        verifyNoInteractions(idempotentRequests);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendMessage_withIdempotencyKey_runsThroughIdempotentRequests() throws Exception {
+        ChatMessageRequest request = new ChatMessageRequest();
+        request.setMessage("Hello");
+        ChatMessageResponse replayed = new ChatMessageResponse();
+        replayed.setReply("Stored reply");
+        when(idempotentRequests.execute(eq("user-1"), eq("key-1"), eq("POST /chat/sessions/session-1/message"),
+                eq(request), eq(ChatMessageResponse.class), any(Deadline.class), any(Function.class)))
+                .thenReturn(CompletableFuture.completedFuture(replayed));
+
+        var response = await(chatController.sendMessage("session-1", request, "key-1", "user-1"));
+
+        assertThat(response.getBody()).isEqualTo(replayed);
+        verify(chatService, never()).sendMessageAsync(any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createNote_withIdempotencyKey_runsThroughIdempotentRequests() throws Exception {
+        NoteDto note = new NoteDto();
+        note.setId("note-1");
+        when(idempotentRequests.execute(eq("user-1"), eq("key-1"), eq("POST /chat/sessions/session-1/note"),
+                any(NoteFromSessionRequest.class), eq(NoteDto.class), any(Deadline.class), any(Function.class)))
+                .thenReturn(CompletableFuture.completedFuture(note));
+
+        var response = await(chatController.createNote("session-1", null, "key-1", "user-1"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).isEqualTo(note);
+    }
+
+    // ---- createNote / updateNote ----
+
+    @Test
+    void createNote_returnsCreatedWithNote() throws Exception {
+        NoteDto note = new NoteDto();
+        note.setId("note-1");
+        when(chatService.createNoteFromSessionAsync(eq("session-1"), any(NoteFromSessionRequest.class), eq("user-1"),
+                any(Deadline.class)))
+                .thenReturn(CompletableFuture.completedFuture(note));
+
+        var response = await(chatController.createNote("session-1", null, null, "user-1"));
 
-        verify(chatService).sendMessage(request, "user-42");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).isEqualTo(note);
+    }
+
+    @Test
+    void updateNote_returnsOkWithNote() throws Exception {
+        NoteDto note = new NoteDto();
+        note.setId("note-1");
+        NoteFromSessionRequest request = new NoteFromSessionRequest();
+        when(chatService.updateNoteFromSessionAsync(eq("session-1"), eq("note-1"), eq(request), eq("user-1"),
+                any(Deadline.class)))
+                .thenReturn(CompletableFuture.completedFuture(note));
+
+        var response = await(chatController.updateNote("session-1", "note-1", request, "user-1"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(note);
     }
 
     // ---- closeSession ----
@@ -190,4 +397,23 @@ class ChatControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isEmpty();
     }
+
+    /**
+     * Wait for a DeferredResult the way Spring would, rethrowing an error result.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T await(DeferredResult<T> result) throws Exception {
+        long giveUp = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!result.hasResult()) {
+            if (System.nanoTime() > giveUp) {
+                throw new AssertionError("DeferredResult was never set");
+            }
+            Thread.sleep(5);
+        }
+        Object value = result.getResult();
+        if (value instanceof Exception e) {
+            throw e;
+        }
+        return (T) value;
+    }
 }
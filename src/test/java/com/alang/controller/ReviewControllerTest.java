@@ -1,11 +1,16 @@
 package com.alang.controller;
 
+import com.alang.dto.review.BatchReviewSubmissionRequest;
+import com.alang.dto.review.BatchReviewSubmissionResponse;
+import com.alang.dto.review.ReviewHeatmapResponse;
 import com.alang.dto.review.ReviewQueueResponse;
 import com.alang.dto.review.ReviewSubmissionRequest;
+import com.alang.dto.review.ReviewTrendResponse;
 import com.alang.service.ReviewService;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -43,4 +48,52 @@ class ReviewControllerTest {
         assertThat(result.getStatusCode().value()).isEqualTo(204);
         verify(reviewService).submitReview(request, "user-1");
     }
+
+    @Test
+    void submitReviews_returns200WithPerItemResults() {
+        ReviewSubmissionRequest item = new ReviewSubmissionRequest();
+        item.setNoteId("note-1");
+        item.setQuality(3);
+        BatchReviewSubmissionRequest request = new BatchReviewSubmissionRequest();
+        request.setReviews(List.of(item));
+        BatchReviewSubmissionResponse response = new BatchReviewSubmissionResponse();
+        response.setResults(List.of());
+
+        when(reviewService.submitReviews(request.getReviews(), "user-1")).thenReturn(response);
+
+        ResponseEntity<BatchReviewSubmissionResponse> result = reviewController.submitReviews(request, "user-1");
+
+        assertThat(result.getStatusCode().value()).isEqualTo(200);
+        assertThat(result.getBody()).isEqualTo(response);
+        verify(reviewService).submitReviews(request.getReviews(), "user-1");
+    }
+
+    @Test
+    void getDailyReviewStats_returns200WithResponse() {
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = LocalDate.of(2026, 1, 31);
+        ReviewHeatmapResponse response = new ReviewHeatmapResponse();
+        response.setDays(List.of());
+
+        when(reviewService.getDailyReviewStats("user-1", "ja", from, to)).thenReturn(response);
+
+        ResponseEntity<ReviewHeatmapResponse> result = reviewController.getDailyReviewStats("ja", from, to, "user-1");
+
+        assertThat(result.getStatusCode().value()).isEqualTo(200);
+        assertThat(result.getBody()).isEqualTo(response);
+    }
+
+    @Test
+    void getReviewTrend_returns200WithResponse() {
+        ReviewTrendResponse response = new ReviewTrendResponse();
+        response.setWeeks(List.of());
+
+        when(reviewService.getReviewTrend("user-1", null, 12)).thenReturn(response);
+
+        ResponseEntity<ReviewTrendResponse> result = reviewController.getReviewTrend(null, 12, "user-1");
+
+        assertThat(result.getStatusCode().value()).isEqualTo(200);
+        assertThat(result.getBody()).isEqualTo(response);
+        verify(reviewService).getReviewTrend("user-1", null, 12);
+    }
 }
@@ -7,6 +7,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+
+import java.util.concurrent.TimeoutException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -110,6 +113,18 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().getMessage()).isEqualTo("You cannot access this resource");
     }
 
+    // --- Idempotency key reuse ---
+
+    @Test
+    void handleIdempotencyKeyReused_returnsUnprocessableEntity() {
+        var ex = new IdempotencyKeyReusedException("Idempotency-Key k was already used for a different request");
+
+        var response = handler.handleIdempotencyKeyReused(ex);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(response.getBody().getMessage()).contains("already used");
+    }
+
     // --- Rate limit ---
 
     @Test
@@ -136,6 +151,30 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().getDetails()).isNull();
     }
 
+    @Test
+    void handleLLMCapacity_returnsServiceUnavailableWithRetryAfter() {
+        var response = handler.handleLLMCapacity(new LLMCapacityExceededException("AI service is busy.", 10));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst("Retry-After")).isEqualTo("10");
+        assertThat(response.getBody().getDetails().get("retryAfterSeconds")).isEqualTo(10L);
+    }
+
+    @Test
+    void handleTimeout_returnsGatewayTimeout() {
+        var response = handler.handleTimeout(new TimeoutException());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(response.getBody().getMessage()).isEqualTo("AI service took too long to respond. Please try again.");
+    }
+
+    @Test
+    void handleTimeout_containerAsyncTimeout_returnsGatewayTimeout() {
+        var response = handler.handleTimeout(new AsyncRequestTimeoutException());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
     // --- Generic fallback ---
 
     @Test
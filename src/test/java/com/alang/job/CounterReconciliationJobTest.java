@@ -0,0 +1,27 @@
+package com.alang.job;
+
+import com.alang.repository.ChatSessionRepository;
+import com.alang.repository.UserStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.mockito.Mockito.*;
+
+class CounterReconciliationJobTest {
+
+    private final UserStatsRepository userStatsRepository = mock(UserStatsRepository.class);
+    private final ChatSessionRepository chatSessionRepository = mock(ChatSessionRepository.class);
+    private final CounterReconciliationJob job = new CounterReconciliationJob(
+            userStatsRepository, chatSessionRepository, mock(PlatformTransactionManager.class));
+
+    @Test
+    void run_reconcilesNoteAndMessageCounters() {
+        when(userStatsRepository.reconcileNoteCounts()).thenReturn(2);
+        when(chatSessionRepository.reconcileMessageCounts()).thenReturn(0);
+
+        job.run();
+
+        verify(userStatsRepository).reconcileNoteCounts();
+        verify(chatSessionRepository).reconcileMessageCounts();
+    }
+}
@@ -0,0 +1,30 @@
+package com.alang.job;
+
+import com.alang.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.*;
+
+class IdempotencyKeyCleanupJobTest {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository = mock(IdempotencyKeyRepository.class);
+    private final IdempotencyKeyCleanupJob job = new IdempotencyKeyCleanupJob(idempotencyKeyRepository, 100);
+
+    @Test
+    void run_deletesInBatchesUntilAPartialBatch() {
+        when(idempotencyKeyRepository.deleteExpired(100)).thenReturn(100, 100, 7);
+
+        job.run();
+
+        verify(idempotencyKeyRepository, times(3)).deleteExpired(100);
+    }
+
+    @Test
+    void run_nothingExpired_singleQuery() {
+        when(idempotencyKeyRepository.deleteExpired(100)).thenReturn(0);
+
+        job.run();
+
+        verify(idempotencyKeyRepository, times(1)).deleteExpired(100);
+    }
+}
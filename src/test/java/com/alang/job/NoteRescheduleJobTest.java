@@ -0,0 +1,122 @@
+package com.alang.job;
+
+import com.alang.entity.Note;
+import com.alang.entity.RescheduleJob;
+import com.alang.entity.RescheduleStatus;
+import com.alang.repository.NoteRepository;
+import com.alang.repository.RescheduleJobRepository;
+import com.alang.service.DueCardIndex;
+import com.alang.service.ReviewScheduler;
+import com.alang.service.impl.ReviewServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NoteRescheduleJobTest {
+
+    private final RescheduleJobRepository repository = mock(RescheduleJobRepository.class);
+    private final ReviewScheduler reviewScheduler = new ReviewScheduler(
+            mock(NoteRepository.class), 6, true, 0.05, 4, 3);
+    private final ReviewServiceImpl reviewService = new ReviewServiceImpl(null, null, null, null, null, null, reviewScheduler, null);
+    private final NoteRescheduleJob job = new NoteRescheduleJob(
+            repository, reviewService, reviewScheduler, mock(DueCardIndex.class), mock(DataSource.class), mock(PlatformTransactionManager.class),
+            100, 100, 2, 0, 2000);
+
+    private static final LocalDateTime LAST_REVIEW = LocalDateTime.of(2026, 3, 10, 18, 30);
+
+    @Test
+    void replay_noHistory_returnsNull() {
+        NoteRescheduleJob.NoteHistory note = new NoteRescheduleJob.NoteHistory(
+                "note-1", Note.INITIAL_EASE_FACTOR, Note.INITIAL_INTERVAL_DAYS, null, null);
+
+        assertThat(job.replay(note)).isNull();
+    }
+
+    @Test
+    void replay_appliesCurrentRulesFromInitialState() {
+        NoteRescheduleJob.NoteHistory note = new NoteRescheduleJob.NoteHistory(
+                "note-1", 9.9, 99, LAST_REVIEW, LAST_REVIEW);
+        note.addReview(3, LAST_REVIEW.minusDays(1));
+        note.addReview(4, LAST_REVIEW);
+
+        double ease = reviewService.updateEaseFactor(Note.INITIAL_EASE_FACTOR, 3);
+        int interval = reviewService.calculateNextInterval(Note.INITIAL_INTERVAL_DAYS, ease, 3);
+        ease = reviewService.updateEaseFactor(ease, 4);
+        interval = reviewService.calculateNextInterval(interval, ease, 4);
+
+        NoteRescheduleJob.ScheduleUpdate update = job.replay(note);
+
+        assertThat(update).isNotNull();
+        assertThat(update.noteId()).isEqualTo("note-1");
+        assertThat(update.easeFactor()).isEqualTo(ease);
+        assertThat(update.intervalDays()).isEqualTo(interval);
+        assertThat(update.nextReviewAt())
+                .isEqualTo(reviewScheduler.nextReviewAt("note-1", LAST_REVIEW.toLocalDate(), interval));
+        assertThat(update.expectedLastReviewedAt()).isEqualTo(LAST_REVIEW);
+    }
+
+    @Test
+    void replay_scheduleAlreadyCurrent_returnsNull() {
+        double ease = reviewService.updateEaseFactor(Note.INITIAL_EASE_FACTOR, 3);
+        int interval = reviewService.calculateNextInterval(Note.INITIAL_INTERVAL_DAYS, ease, 3);
+        NoteRescheduleJob.NoteHistory note = new NoteRescheduleJob.NoteHistory(
+                "note-1", ease, interval, reviewScheduler.nextReviewAt("note-1", LAST_REVIEW.toLocalDate(), interval),
+                LAST_REVIEW);
+        note.addReview(3, LAST_REVIEW);
+
+        assertThat(job.replay(note)).isNull();
+    }
+
+    @Test
+    void replay_storedIntervalWithinFuzzWindow_keepsStoredInterval() {
+        NoteRescheduleJob.NoteHistory history = new NoteRescheduleJob.NoteHistory(
+                "note-1", 0, 0, null, LAST_REVIEW);
+        history.addReview(3, LAST_REVIEW.minusDays(30));
+        history.addReview(4, LAST_REVIEW.minusDays(20));
+        history.addReview(4, LAST_REVIEW);
+        NoteRescheduleJob.ScheduleUpdate replayed = job.replay(history);
+        int balanced = replayed.intervalDays() + 1;
+        assertThat(reviewScheduler.fuzzDays(replayed.intervalDays())).isGreaterThanOrEqualTo(1);
+
+        NoteRescheduleJob.NoteHistory note = new NoteRescheduleJob.NoteHistory(
+                "note-1", replayed.easeFactor(), balanced,
+                reviewScheduler.nextReviewAt("note-1", LAST_REVIEW.toLocalDate(), balanced), LAST_REVIEW);
+        note.addReview(3, LAST_REVIEW.minusDays(30));
+        note.addReview(4, LAST_REVIEW.minusDays(20));
+        note.addReview(4, LAST_REVIEW);
+
+        assertThat(job.replay(note)).isNull();
+    }
+
+    @Test
+    void run_cancelledBeforeFirstBatch_stopsWithoutFinishing() {
+        RescheduleJob row = new RescheduleJob();
+        row.setId("job-1");
+        row.setLastNoteId("note-500");
+        when(repository.findById("job-1")).thenReturn(Optional.of(row));
+        when(repository.findStatusById("job-1")).thenReturn(RescheduleStatus.cancelled);
+
+        job.run("job-1");
+
+        verify(repository, never()).finish(anyString(), any(), any(), any());
+        verify(repository, never()).checkpoint(anyString(), anyString(), anyLong(), anyLong(), any());
+        assertThat(job.isRunning("job-1")).isFalse();
+    }
+
+    @Test
+    void run_missingJob_marksFailed() {
+        when(repository.findById("job-1")).thenReturn(Optional.empty());
+
+        job.run("job-1");
+
+        verify(repository).finish(eq("job-1"), eq(RescheduleStatus.failed), contains("job-1"), any());
+        assertThat(job.isRunning("job-1")).isFalse();
+    }
+}
@@ -0,0 +1,94 @@
+package com.alang.job;
+
+import com.alang.repository.ReviewDailyStatRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReviewRollupJobTest {
+
+    private final ReviewDailyStatRepository repository = mock(ReviewDailyStatRepository.class);
+    private final ReviewRollupJob job = new ReviewRollupJob(
+            repository, mock(PlatformTransactionManager.class), 3, 7);
+
+    @Test
+    void backfill_splitsRangeIntoChunks() {
+        when(repository.recomputeFromEvents(any(), any())).thenReturn(5);
+
+        int rows = job.backfill(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 16));
+
+        // [1, 8), [8, 15), [15, 16)
+        verify(repository).recomputeFromEvents(
+                LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 8, 0, 0));
+        verify(repository).recomputeFromEvents(
+                LocalDateTime.of(2026, 1, 8, 0, 0), LocalDateTime.of(2026, 1, 15, 0, 0));
+        verify(repository).recomputeFromEvents(
+                LocalDateTime.of(2026, 1, 15, 0, 0), LocalDateTime.of(2026, 1, 16, 0, 0));
+        assertThat(rows).isEqualTo(15);
+    }
+
+    @Test
+    void run_backfillNotStarted_backfillsFromEarliestEvent_evenWithLiveRollups() {
+        when(repository.count()).thenReturn(10L); // rows written by submissions since deploy
+        when(repository.isBackfillComplete()).thenReturn(false);
+        when(repository.findEarliestReviewedAt()).thenReturn(LocalDate.now().minusDays(30).atTime(10, 0));
+
+        job.run();
+
+        verify(repository).recomputeFromEvents(
+                LocalDate.now().minusDays(30).atStartOfDay(), LocalDate.now().minusDays(23).atStartOfDay());
+        verify(repository).recomputeFromEvents(
+                LocalDate.now().minusDays(2).atStartOfDay(), LocalDate.now().atStartOfDay());
+        verify(repository).markBackfilledThrough(LocalDate.now().minusDays(23));
+        verify(repository).markBackfilledThrough(LocalDate.now());
+        verify(repository).markBackfillComplete();
+    }
+
+    @Test
+    void run_interruptedBackfill_resumesFromCheckpoint() {
+        when(repository.isBackfillComplete()).thenReturn(false);
+        when(repository.findBackfilledThrough()).thenReturn(LocalDate.now().minusDays(5));
+
+        job.run();
+
+        verify(repository, never()).findEarliestReviewedAt();
+        verify(repository).recomputeFromEvents(
+                LocalDate.now().minusDays(5).atStartOfDay(), LocalDate.now().atStartOfDay());
+        verify(repository).markBackfillComplete();
+    }
+
+    @Test
+    void run_noEvents_marksBackfillComplete() {
+        when(repository.isBackfillComplete()).thenReturn(false);
+        when(repository.findEarliestReviewedAt()).thenReturn(null);
+
+        job.run();
+
+        verify(repository, never()).recomputeFromEvents(any(), any());
+        verify(repository).markBackfillComplete();
+    }
+
+    @Test
+    void run_backfillComplete_reconcilesCompletedDaysOnly() {
+        when(repository.isBackfillComplete()).thenReturn(true);
+
+        job.run();
+
+        verify(repository).recomputeFromEvents(
+                LocalDate.now().minusDays(3).atStartOfDay(), LocalDate.now().atStartOfDay());
+        verify(repository, never()).markBackfilledThrough(any());
+    }
+
+    @Test
+    void backfill_outsideTheFullBackfill_movesNoCheckpoint() {
+        job.backfill(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 3));
+
+        verify(repository, never()).markBackfilledThrough(any());
+    }
+}
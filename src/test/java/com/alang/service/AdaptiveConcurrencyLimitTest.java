@@ -0,0 +1,214 @@
+package com.alang.service;
+
+import com.alang.config.LLMProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MS = 1_000_000L;
+    private static final int TOKENS = 100;
+    private static final int[] CHAT_REPLY_TOKENS = {20, 45, 80, 120, 60};
+    private static final int[] NOTE_TOKENS = {800, 1500, 1100};
+
+    private LLMProperties.Adaptive config;
+    private AtomicLong clock;
+
+    @BeforeEach
+    void setUp() {
+        config = new LLMProperties.Adaptive();
+        config.setMinLimit(2);
+        config.setMaxLimit(20);
+        config.setMinRttWindow(Duration.ofSeconds(10));
+        clock = new AtomicLong(0);
+    }
+
+    private AdaptiveConcurrencyLimit limit(int initial) {
+        return new AdaptiveConcurrencyLimit(initial, config, clock::get);
+    }
+
+    @Test
+    void stableLatencyUnderFullUse_growsAboutOnePerLimitSuccesses() {
+        AdaptiveConcurrencyLimit limit = limit(4);
+
+        // 4 + 1/4 + 1/4.25 + ... crosses 5 on the fifth success
+        for (int i = 0; i < 5; i++) {
+            limit.onSuccess(100 * MS, TOKENS, limit.limit());
+        }
+
+        assertThat(limit.limit()).isEqualTo(5);
+        assertThat(limit.increases()).isEqualTo(1);
+    }
+
+    @Test
+    void lightlyUsedLimit_doesNotGrow() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSuccess(100 * MS, TOKENS, 2);
+        }
+
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void growth_isCappedAtMaxLimit() {
+        AdaptiveConcurrencyLimit limit = limit(19);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSuccess(100 * MS, TOKENS, 20);
+        }
+
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void drop_cutsMultiplicatively_downToMinLimit() {
+        AdaptiveConcurrencyLimit limit = limit(16);
+
+        limit.onDrop(100 * MS);
+        assertThat(limit.limit()).isEqualTo(8);
+
+        for (int i = 0; i < 5; i++) {
+            clock.addAndGet(1000 * MS);
+            limit.onDrop(100 * MS);
+        }
+        assertThat(limit.limit()).isEqualTo(2);
+    }
+
+    @Test
+    void burstOfDropsWithinOneRtt_cutsOnce() {
+        AdaptiveConcurrencyLimit limit = limit(16);
+        limit.onSuccess(100 * MS, TOKENS, 1);
+
+        for (int i = 0; i < 10; i++) {
+            limit.onDrop(150 * MS);
+        }
+        assertThat(limit.limit()).isEqualTo(8);
+        assertThat(limit.decreases()).isEqualTo(1);
+
+        clock.addAndGet(100 * MS);
+        limit.onDrop(150 * MS);
+        assertThat(limit.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void latencyInflation_cutsGently() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+        limit.onSuccess(100 * MS, TOKENS, 1);
+
+        clock.addAndGet(100 * MS);
+        limit.onSuccess(250 * MS, TOKENS, 10);
+
+        assertThat(limit.limit()).isEqualTo(9);
+        assertThat(limit.decreases()).isEqualTo(1);
+        assertThat(limit.minRttNanos()).isEqualTo(100 * MS);
+    }
+
+    /**
+     * RTT of an unloaded provider: 200ms to start plus 4ms per completion
+     * token, with +-5% jitter.
+     */
+    private static long providerRtt(int tokens, int call) {
+        double jitter = call % 2 == 0 ? 0.95 : 1.05;
+        return (long) ((200 + 4 * tokens) * jitter * MS);
+    }
+
+    private static int mixedTokens(int call) {
+        // Every third call is a note generation on the same lane
+        return call % 3 == 2
+                ? NOTE_TOKENS[(call / 3) % NOTE_TOKENS.length]
+                : CHAT_REPLY_TOKENS[call % CHAT_REPLY_TOKENS.length];
+    }
+
+    @Test
+    void mixedShortAndLongCallsAtSteadyLoad_doNotLowerTheLimit() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+
+        for (int call = 0; call < 2_000; call++) {
+            clock.addAndGet(50 * MS);
+            int tokens = mixedTokens(call);
+            limit.onSuccess(providerRtt(tokens, call), tokens, limit.limit());
+        }
+
+        // A 1,500-token note takes ~6s against ~250ms chat replies; only
+        // compared with each other would they read as latency inflation
+        assertThat(limit.decreases()).isZero();
+        assertThat(limit.limit()).isGreaterThanOrEqualTo(10);
+        assertThat(limit.minRttNanos()).isLessThan(300 * MS);
+    }
+
+    @Test
+    void inflationOfLongCalls_isStillDetectedAgainstOtherLongCalls() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+        for (int call = 0; call < 300; call++) {
+            clock.addAndGet(50 * MS);
+            int tokens = mixedTokens(call);
+            limit.onSuccess(providerRtt(tokens, call), tokens, 1);
+        }
+
+        // The provider starts queueing: notes take 2.5x as long as before
+        clock.addAndGet(50 * MS);
+        limit.onSuccess(providerRtt(1500, 0) * 5 / 2, 1500, 10);
+
+        assertThat(limit.decreases()).isEqualTo(1);
+        assertThat(limit.limit()).isEqualTo(9);
+    }
+
+    @Test
+    void lengthBand_isSqrtTwoWide() {
+        assertThat(AdaptiveConcurrencyLimit.lengthBand(0)).isZero();
+        assertThat(AdaptiveConcurrencyLimit.lengthBand(1)).isZero();
+        assertThat(AdaptiveConcurrencyLimit.lengthBand(2)).isEqualTo(2);
+        assertThat(AdaptiveConcurrencyLimit.lengthBand(16)).isEqualTo(8);
+        assertThat(AdaptiveConcurrencyLimit.lengthBand(22)).isEqualTo(8);
+        assertThat(AdaptiveConcurrencyLimit.lengthBand(23)).isEqualTo(9);
+        assertThat(AdaptiveConcurrencyLimit.lengthBand(Integer.MAX_VALUE)).isEqualTo(39);
+    }
+
+    @Test
+    void minRtt_rollsForwardWhenProviderGetsPermanentlySlower() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+        limit.onSuccess(100 * MS, TOKENS, 1);
+
+        clock.addAndGet(10_000 * MS);
+        limit.onSuccess(300 * MS, TOKENS, 1);
+        assertThat(limit.minRttNanos()).isEqualTo(100 * MS);
+
+        clock.addAndGet(10_000 * MS);
+        limit.onSuccess(300 * MS, TOKENS, 1);
+        assertThat(limit.minRttNanos()).isEqualTo(300 * MS);
+    }
+
+    @Test
+    void concurrentUpdates_neverLeaveBounds() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, config);
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int worker = t;
+            workers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    if ((i + worker) % 50 == 0) {
+                        limit.onDrop(MS);
+                    } else {
+                        limit.onSuccess(MS, TOKENS, limit.limit());
+                    }
+                    assertThat(limit.limit()).isBetween(2, 20);
+                }
+            }));
+        }
+        CompletableFuture.allOf(workers.toArray(CompletableFuture[]::new)).get();
+
+        assertThat(limit.limit()).isBetween(2, 20);
+        assertThat(limit.increases()).isPositive();
+        assertThat(limit.decreases()).isPositive();
+    }
+}
@@ -0,0 +1,117 @@
+package com.alang.service;
+
+import com.alang.dto.llm.ChatCompletionRequest;
+import com.alang.dto.llm.ChatCompletionResponse;
+import com.alang.dto.llm.ChatMessage;
+import com.alang.exception.LLMProviderException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatCompletionCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static DataBuffer buffer(String json) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // --- encode ---
+
+    @Test
+    void encode_writesSystemPromptFirstThenMessages() throws Exception {
+        ChatCompletionRequest request = new ChatCompletionRequest("gpt-3.5-turbo", "You are a tutor.",
+                List.of(new ChatMessage("assistant", "Earlier reply"), ChatMessage.user("What is \"は\"?\n")), 4096);
+
+        DataBuffer buffer = ChatCompletionCodec.encode(request, DefaultDataBufferFactory.sharedInstance);
+        JsonNode json = objectMapper.readTree(buffer.toString(StandardCharsets.UTF_8));
+
+        assertThat(json.get("model").asText()).isEqualTo("gpt-3.5-turbo");
+        assertThat(json.get("max_tokens").asInt()).isEqualTo(4096);
+        JsonNode messages = json.get("messages");
+        assertThat(messages).hasSize(3);
+        assertThat(messages.get(0).get("role").asText()).isEqualTo("system");
+        assertThat(messages.get(0).get("content").asText()).isEqualTo("You are a tutor.");
+        assertThat(messages.get(1).get("role").asText()).isEqualTo("assistant");
+        assertThat(messages.get(2).get("content").asText()).isEqualTo("What is \"は\"?\n");
+    }
+
+    @Test
+    void encode_asciiContentFitsTheInitialBuffer() {
+        ChatCompletionRequest request = new ChatCompletionRequest("gpt-3.5-turbo", "s".repeat(500),
+                List.of(ChatMessage.user("u".repeat(2000))), 100);
+
+        DataBuffer buffer = ChatCompletionCodec.encode(request, DefaultDataBufferFactory.sharedInstance);
+
+        assertThat(buffer.capacity()).isGreaterThanOrEqualTo(buffer.readableByteCount());
+        assertThat(buffer.capacity()).isLessThan(2 * buffer.readableByteCount());
+    }
+
+    // --- decode ---
+
+    @Test
+    void decode_readsFirstChoiceContentAndUsage() {
+        ChatCompletionResponse response = ChatCompletionCodec.decode(buffer("""
+                {"id":"chatcmpl-1","object":"chat.completion","created":1,
+                 "choices":[
+                   {"index":0,"message":{"role":"assistant","content":"Hello!","tool_calls":[]},"logprobs":null,"finish_reason":"stop"},
+                   {"index":1,"message":{"role":"assistant","content":"Ignored"}}
+                 ],
+                 "usage":{"prompt_tokens":12,"completion_tokens":3,"total_tokens":15,"completion_tokens_details":{"reasoning_tokens":0}},
+                 "system_fingerprint":"fp"}
+                """));
+
+        assertThat(response.choices()).isEqualTo(2);
+        assertThat(response.content()).isEqualTo("Hello!");
+        assertThat(response.usage()).isEqualTo(new ChatCompletionResponse.Usage(12, 3, 15));
+    }
+
+    @Test
+    void decode_missingChoicesAndUsage() {
+        ChatCompletionResponse response = ChatCompletionCodec.decode(buffer("{\"error\":{\"message\":\"nope\"}}"));
+
+        assertThat(response.choices()).isEqualTo(ChatCompletionResponse.MISSING);
+        assertThat(response.content()).isNull();
+        assertThat(response.usage()).isNull();
+    }
+
+    @Test
+    void decode_emptyChoices() {
+        ChatCompletionResponse response = ChatCompletionCodec.decode(buffer("{\"choices\":[]}"));
+
+        assertThat(response.choices()).isZero();
+    }
+
+    @Test
+    void decode_nullContent() {
+        ChatCompletionResponse response = ChatCompletionCodec.decode(
+                buffer("{\"choices\":[{\"message\":{\"content\":null}}]}"));
+
+        assertThat(response.choices()).isEqualTo(1);
+        assertThat(response.content()).isNull();
+    }
+
+    @Test
+    void decode_truncatedJson_throws() {
+        assertThatThrownBy(() -> ChatCompletionCodec.decode(buffer("{\"choices\":[{\"message\":{\"content\":\"Hel")))
+                .isInstanceOf(LLMProviderException.class)
+                .hasMessageContaining("Invalid LLM response");
+        assertThatThrownBy(() -> ChatCompletionCodec.decode(buffer("{\"choices\":[")))
+                .isInstanceOf(LLMProviderException.class);
+    }
+
+    @Test
+    void decode_notAnObject_throws() {
+        assertThatThrownBy(() -> ChatCompletionCodec.decode(buffer("[]")))
+                .isInstanceOf(LLMProviderException.class)
+                .hasMessageContaining("not a JSON object");
+    }
+}
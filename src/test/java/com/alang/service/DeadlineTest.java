@@ -0,0 +1,50 @@
+package com.alang.service;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeadlineTest {
+
+    @Test
+    void remainingNeverGoesNegative() {
+        Deadline deadline = Deadline.after(Duration.ofMillis(-10));
+
+        assertThat(deadline.isExpired()).isTrue();
+        assertThat(deadline.remaining()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void allowsOnlyWhatFitsInTheRemainingTime() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+
+        assertThat(deadline.allows(Duration.ofSeconds(30))).isTrue();
+        assertThat(deadline.allows(Duration.ofMinutes(2))).isFalse();
+    }
+
+    @Test
+    void cancellationCompletesOnlyOnceCancelled() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+
+        CompletableFuture<Void> cancelled = deadline.cancellation().toFuture();
+
+        assertThat(cancelled).isNotDone();
+        assertThat(deadline.isCancelled()).isFalse();
+        deadline.cancel();
+        assertThat(cancelled).isCompleted();
+        assertThat(deadline.isCancelled()).isTrue();
+        assertThat(deadline.isExpired()).isFalse();
+    }
+
+    @Test
+    void cancelIsIdempotentAndReplayedToLateSubscribers() {
+        Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+        deadline.cancel();
+        deadline.cancel();
+
+        assertThat(deadline.cancellation().toFuture()).isCompleted();
+        assertThat(deadline.toString()).contains("cancelled");
+    }
+}
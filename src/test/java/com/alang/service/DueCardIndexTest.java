@@ -0,0 +1,149 @@
+package com.alang.service;
+
+import com.alang.repository.NoteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DueCardIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+    private final NoteRepository noteRepository = mock(NoteRepository.class);
+    private final DueCardIndex index = new DueCardIndex(noteRepository, true, 2, 100, 300);
+
+    private final String a = UUID.randomUUID().toString();
+    private final String b = UUID.randomUUID().toString();
+    private final String c = UUID.randomUUID().toString();
+
+    private void stubNotes(String userId, Object[]... rows) {
+        when(noteRepository.findScheduleByUserId(eq(userId), any())).thenReturn(List.of(rows));
+    }
+
+    @Test
+    void findDue_returnsOldestDueFirstUpToNow() {
+        stubNotes("user-1",
+                new Object[]{a, NOW.minusHours(1), "ja"},
+                new Object[]{b, NOW.minusDays(2), "es"},
+                new Object[]{c, NOW.plusHours(1), "ja"});
+
+        DueCardIndex.UserDueCards cards = index.get("user-1");
+
+        assertThat(cards.findDue(null, NOW, 10)).containsExactly(b, a);
+        assertThat(cards.findDue("ja", NOW, 10)).containsExactly(a);
+        assertThat(cards.findDue("fr", NOW, 10)).isEmpty();
+        assertThat(cards.findDue(null, NOW, 1)).containsExactly(b);
+        assertThat(cards.countDueBy(NOW.plusHours(2))).isEqualTo(3);
+    }
+
+    @Test
+    void get_loadsOncePerUser() {
+        stubNotes("user-1", new Object[]{a, NOW, "ja"});
+
+        index.get("user-1");
+        index.get("user-1");
+
+        verify(noteRepository, times(1)).findScheduleByUserId(eq("user-1"), any());
+    }
+
+    @Test
+    void noteScheduled_movesExistingNote() {
+        stubNotes("user-1",
+                new Object[]{a, NOW.minusHours(1), "ja"},
+                new Object[]{b, NOW.minusHours(2), "ja"});
+        DueCardIndex.UserDueCards cards = index.get("user-1");
+
+        index.noteScheduled("user-1", b, "ja", NOW.plusDays(3));
+
+        assertThat(cards.size()).isEqualTo(2);
+        assertThat(cards.findDue(null, NOW, 10)).containsExactly(a);
+        assertThat(cards.findDue(null, NOW.plusDays(4), 10)).containsExactly(a, b);
+    }
+
+    @Test
+    void noteScheduled_addsNewNoteAndNewLanguage() {
+        stubNotes("user-1", new Object[]{a, NOW.minusHours(1), "ja"});
+        DueCardIndex.UserDueCards cards = index.get("user-1");
+
+        index.noteScheduled("user-1", c, "es", NOW.minusHours(5));
+
+        assertThat(cards.findDue(null, NOW, 10)).containsExactly(c, a);
+        assertThat(cards.findDue("es", NOW, 10)).containsExactly(c);
+    }
+
+    @Test
+    void noteRemoved_dropsNote() {
+        stubNotes("user-1",
+                new Object[]{a, NOW.minusHours(1), "ja"},
+                new Object[]{b, NOW.minusHours(2), "ja"});
+        DueCardIndex.UserDueCards cards = index.get("user-1");
+
+        index.noteRemoved("user-1", b);
+
+        assertThat(cards.findDue(null, NOW, 10)).containsExactly(a);
+    }
+
+    @Test
+    void updatesForUncachedUser_areIgnored() {
+        index.noteScheduled("user-9", a, "ja", NOW);
+
+        verifyNoInteractions(noteRepository);
+    }
+
+    @Test
+    void get_tooManyNotes_returnsNull() {
+        DueCardIndex small = new DueCardIndex(noteRepository, true, 2, 1, 300);
+        stubNotes("user-1", new Object[]{a, NOW, "ja"}, new Object[]{b, NOW, "ja"});
+
+        assertThat(small.get("user-1")).isNull();
+    }
+
+    @Test
+    void get_disabled_returnsNullWithoutLoading() {
+        DueCardIndex disabled = new DueCardIndex(noteRepository, false, 2, 100, 300);
+
+        assertThat(disabled.get("user-1")).isNull();
+        verifyNoInteractions(noteRepository);
+    }
+
+    @Test
+    void leastRecentlyUsedUserIsEvicted() {
+        stubNotes("user-1", new Object[]{a, NOW, "ja"});
+        stubNotes("user-2", new Object[]{b, NOW, "ja"});
+        stubNotes("user-3", new Object[]{c, NOW, "ja"});
+
+        index.get("user-1");
+        index.get("user-2");
+        index.get("user-3"); // max-users = 2, evicts user-1
+        index.get("user-1");
+
+        verify(noteRepository, times(2)).findScheduleByUserId(eq("user-1"), any());
+    }
+
+    @Test
+    void manyInserts_keepOrder() {
+        stubNotes("user-1");
+        DueCardIndex.UserDueCards cards = index.get("user-1");
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String id = UUID.randomUUID().toString();
+            expected.add(id);
+            // insert in reverse due order
+            index.noteScheduled("user-1", id, "ja", NOW.minusMinutes(i));
+        }
+
+        List<String> due = cards.findDue(null, NOW, 100);
+
+        assertThat(due).hasSize(50);
+        assertThat(due.get(0)).isEqualTo(expected.get(49));
+        assertThat(due.get(49)).isEqualTo(expected.get(0));
+    }
+}
@@ -0,0 +1,91 @@
+package com.alang.service;
+
+import com.alang.dto.admin.FlightRecording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightRecorderServiceTest {
+
+    private final FlightRecorderService service =
+            new FlightRecorderService("default", Duration.ofMinutes(5), DataSize.ofMegabytes(32));
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        if (service.snapshot().getState().equals("RUNNING")) {
+            service.stop();
+        }
+    }
+
+    @Test
+    void beforeStart_thereIsNothingToStopOrDump() {
+        assertThat(service.snapshot().getState()).isEqualTo("NONE");
+        assertThatThrownBy(service::stop).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(service::dump).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void start_whileRunning_isRejected() {
+        FlightRecording started = service.start();
+
+        assertThat(started.getState()).isEqualTo("RUNNING");
+        assertThat(started.getSettings()).isEqualTo("default");
+        assertThatThrownBy(service::start).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void dump_whileRunning_containsTheAppsEvents_andKeepsRecording() throws Exception {
+        service.start();
+        LLMMetrics.noop().startAttempt("openai", "gpt-3.5-turbo", 1, null).cancelled();
+
+        List<RecordedEvent> events = read(service.dump());
+
+        assertThat(service.snapshot().getState()).isEqualTo("RUNNING");
+        assertThat(events)
+                .filteredOn(event -> event.getEventType().getName().equals("com.alang.LLMAttempt"))
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getString("provider")).isEqualTo("openai");
+                    assertThat(event.getInt("retryAttempt")).isEqualTo(1);
+                    assertThat(event.getString("outcome")).isEqualTo("cancelled");
+                });
+    }
+
+    @Test
+    void stop_keepsTheDataForDumping() throws Exception {
+        service.start();
+        FlightEvents.ReviewSubmission submission = new FlightEvents.ReviewSubmission();
+        submission.submitted = 3;
+        submission.commit();
+
+        FlightRecording stopped = service.stop();
+
+        assertThat(stopped.getState()).isEqualTo("STOPPED");
+        assertThat(stopped.getStoppedAt()).isNotNull();
+        assertThat(read(service.dump()))
+                .anyMatch(event -> event.getEventType().getName().equals("com.alang.ReviewSubmission"));
+    }
+
+    private List<RecordedEvent> read(InputStream dump) throws Exception {
+        Path file = dir.resolve("dump.jfr");
+        try (dump) {
+            Files.copy(dump, file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+}
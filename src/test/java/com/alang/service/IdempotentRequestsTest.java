@@ -0,0 +1,235 @@
+package com.alang.service;
+
+import com.alang.dto.chat.ChatMessageRequest;
+import com.alang.dto.chat.ChatMessageResponse;
+import com.alang.entity.IdempotencyKey;
+import com.alang.exception.IdempotencyKeyReusedException;
+import com.alang.exception.LLMProviderException;
+import com.alang.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotentRequestsTest {
+
+    private static final String ENDPOINT = "POST /chat/sessions/session-1/message";
+
+    private final IdempotencyKeyRepository repository = mock(IdempotencyKeyRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicReference<byte[]> claimedHash = new AtomicReference<>();
+    private IdempotentRequests idempotentRequests;
+
+    @BeforeEach
+    void setUp() {
+        idempotentRequests = new IdempotentRequests(repository, objectMapper,
+                Duration.ofHours(24), Duration.ofMinutes(5), Duration.ofMillis(10));
+    }
+
+    private void claimSucceeds() {
+        when(repository.claim(eq("user-1"), eq("key-1"), any(), anyLong())).thenAnswer(inv -> {
+            claimedHash.set(inv.getArgument(2));
+            return 1;
+        });
+    }
+
+    private void claimHeldElsewhere() {
+        when(repository.claim(eq("user-1"), eq("key-1"), any(), anyLong())).thenAnswer(inv -> {
+            claimedHash.set(inv.getArgument(2));
+            return 0;
+        });
+    }
+
+    private IdempotencyKey row(byte[] hash, ChatMessageResponse response) throws Exception {
+        IdempotencyKey row = new IdempotencyKey();
+        row.setUserId("user-1");
+        row.setIdempotencyKey("key-1");
+        row.setRequestHash(hash);
+        row.setResponseBody(response == null ? null : objectMapper.writeValueAsString(response));
+        return row;
+    }
+
+    private static ChatMessageRequest request(String message) {
+        ChatMessageRequest request = new ChatMessageRequest();
+        request.setSessionId("session-1");
+        request.setMessage(message);
+        return request;
+    }
+
+    private static ChatMessageResponse reply(String text) {
+        ChatMessageResponse response = new ChatMessageResponse();
+        response.setReply(text);
+        return response;
+    }
+
+    private CompletableFuture<ChatMessageResponse> execute(ChatMessageRequest request, Deadline deadline,
+                                                           Function<Deadline, CompletableFuture<ChatMessageResponse>> call) {
+        return idempotentRequests.execute("user-1", "key-1", ENDPOINT, request, ChatMessageResponse.class,
+                deadline, call);
+    }
+
+    @Test
+    void firstRequest_claimsKeyRunsCallAndStoresResponse() throws Exception {
+        claimSucceeds();
+
+        ChatMessageResponse response = execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)),
+                d -> CompletableFuture.completedFuture(reply("Hello"))).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getReply()).isEqualTo("Hello");
+        verify(repository).complete(eq("user-1"), eq("key-1"), contains("Hello"), eq(Duration.ofHours(24).toSeconds()));
+    }
+
+    @Test
+    void duplicateWhileInFlight_sharesTheOriginalCall() throws Exception {
+        claimSucceeds();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<ChatMessageResponse> original = new CompletableFuture<>();
+        Function<Deadline, CompletableFuture<ChatMessageResponse>> call = d -> {
+            calls.incrementAndGet();
+            return original;
+        };
+
+        var first = execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)), call);
+        var retry = execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)), call);
+        original.complete(reply("Hello"));
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getReply()).isEqualTo("Hello");
+        assertThat(retry.get(5, TimeUnit.SECONDS).getReply()).isEqualTo("Hello");
+        assertThat(calls).hasValue(1);
+        verify(repository, times(1)).claim(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void duplicateWhileInFlight_withDifferentBody_isRejected() {
+        claimSucceeds();
+        execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)), d -> new CompletableFuture<>());
+
+        var other = execute(request("Something else"), Deadline.after(Duration.ofMinutes(1)),
+                d -> CompletableFuture.completedFuture(reply("never")));
+
+        assertThatThrownBy(other::join).hasCauseInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    @Test
+    void completedKey_replaysStoredResponseWithoutCalling() throws Exception {
+        claimHeldElsewhere();
+        when(repository.findById(new IdempotencyKey.Key("user-1", "key-1")))
+                .thenAnswer(inv -> Optional.of(row(claimedHash.get(), reply("Stored"))));
+        AtomicInteger calls = new AtomicInteger();
+
+        ChatMessageResponse response = execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)), d -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(reply("Fresh"));
+        }).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getReply()).isEqualTo("Stored");
+        assertThat(calls).hasValue(0);
+        verify(repository, never()).complete(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void storedKey_forDifferentRequest_isRejected() {
+        claimHeldElsewhere();
+        when(repository.findById(any())).thenAnswer(inv -> Optional.of(row(new byte[32], reply("Stored"))));
+
+        var response = execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)),
+                d -> CompletableFuture.completedFuture(reply("Fresh")));
+
+        assertThatThrownBy(response::join).hasCauseInstanceOf(IdempotencyKeyReusedException.class);
+    }
+
+    @Test
+    void inFlightOnAnotherNode_pollsUntilResponseIsStored() throws Exception {
+        claimHeldElsewhere();
+        AtomicInteger polls = new AtomicInteger();
+        when(repository.findById(any())).thenAnswer(inv -> Optional.of(
+                row(claimedHash.get(), polls.incrementAndGet() < 3 ? null : reply("From other node"))));
+
+        ChatMessageResponse response = execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)),
+                d -> CompletableFuture.completedFuture(reply("Fresh"))).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getReply()).isEqualTo("From other node");
+        assertThat(polls).hasValue(3);
+    }
+
+    @Test
+    void failedOriginal_releasesKeyAndPropagatesError() {
+        claimSucceeds();
+
+        var response = execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)),
+                d -> CompletableFuture.failedFuture(new LLMProviderException("LLM API returned 503")));
+
+        assertThatThrownBy(response::join).hasCauseInstanceOf(LLMProviderException.class);
+        verify(repository).release("user-1", "key-1");
+        verify(repository, never()).complete(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void afterFailure_retryRunsAfresh() throws Exception {
+        claimSucceeds();
+        execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)),
+                d -> CompletableFuture.failedFuture(new LLMProviderException("LLM API returned 503")));
+
+        ChatMessageResponse response = execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)),
+                d -> CompletableFuture.completedFuture(reply("Second try"))).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getReply()).isEqualTo("Second try");
+    }
+
+    @Test
+    void callIsCancelledOnlyWhenEveryWaiterHasGone() {
+        claimSucceeds();
+        AtomicReference<Deadline> callDeadline = new AtomicReference<>();
+        Deadline first = Deadline.after(Duration.ofMinutes(1));
+        Deadline retry = Deadline.after(Duration.ofMinutes(1));
+
+        execute(request("Hi"), first, d -> {
+            callDeadline.set(d);
+            return new CompletableFuture<>();
+        });
+        execute(request("Hi"), retry, d -> new CompletableFuture<>());
+
+        first.cancel();
+        assertThat(callDeadline.get().isCancelled()).isFalse();
+        retry.cancel();
+        assertThat(callDeadline.get().isCancelled()).isTrue();
+    }
+
+    @Test
+    void blankKey_isRejectedWithoutTouchingTheTable() {
+        var response = idempotentRequests.execute("user-1", " ", ENDPOINT, request("Hi"),
+                ChatMessageResponse.class, Deadline.after(Duration.ofMinutes(1)),
+                d -> CompletableFuture.completedFuture(reply("Hello")));
+
+        assertThatThrownBy(response::join).hasCauseInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void storeFailure_stillAnswersTheCaller() throws Exception {
+        claimSucceeds();
+        when(repository.complete(anyString(), anyString(), anyString(), anyLong()))
+                .thenThrow(new RuntimeException("connection refused"));
+
+        ChatMessageResponse response = execute(request("Hi"), Deadline.after(Duration.ofMinutes(1)),
+                d -> CompletableFuture.completedFuture(reply("Hello"))).get(5, TimeUnit.SECONDS);
+
+        assertThat(response.getReply()).isEqualTo("Hello");
+        verify(repository).release("user-1", "key-1");
+    }
+}
@@ -0,0 +1,260 @@
+package com.alang.service;
+
+import com.alang.config.LLMProperties;
+import com.alang.dto.admin.LLMAdmissionStats;
+import com.alang.entity.UserTier;
+import com.alang.exception.LLMCapacityExceededException;
+import com.alang.service.LLMAdmissionController.Priority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class LLMAdmissionControllerTest {
+
+    private static final String MODEL = "gpt-3.5-turbo";
+
+    private LLMProperties properties;
+    private LLMAdmissionController controller;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LLMProperties();
+        properties.getAdmission().setMaxConcurrency(1);
+        properties.getAdmission().setMaxQueueSize(10);
+        properties.getAdmission().setMaxQueueWait(Duration.ofSeconds(5));
+        properties.getAdmission().getAdaptive().setEnabled(false);
+        controller = new LLMAdmissionController(properties);
+    }
+
+    /**
+     * Starts a call that stays in flight until the returned sink is completed.
+     */
+    private Sinks.One<String> occupy(Priority priority, List<String> started) {
+        Sinks.One<String> provider = Sinks.one();
+        controller.admit(MODEL, priority, () -> {
+            started.add(priority.name());
+            return provider.asMono();
+        }).subscribe();
+        return provider;
+    }
+
+    private LLMAdmissionStats stats() {
+        return controller.snapshot().get(0);
+    }
+
+    @Test
+    void priorityOf_mapsTierAndWorkload() {
+        assertThat(Priority.of(UserTier.pro, true)).isEqualTo(Priority.INTERACTIVE_PRO);
+        assertThat(Priority.of(UserTier.free, true)).isEqualTo(Priority.INTERACTIVE_FREE);
+        assertThat(Priority.of(UserTier.pro, false)).isEqualTo(Priority.BACKGROUND_PRO);
+        assertThat(Priority.of(UserTier.free, false)).isEqualTo(Priority.BACKGROUND_FREE);
+    }
+
+    @Test
+    void admit_overLimit_waitsForASlot() {
+        properties.getAdmission().setMaxConcurrency(2);
+        List<String> started = new CopyOnWriteArrayList<>();
+
+        Sinks.One<String> first = occupy(Priority.INTERACTIVE_FREE, started);
+        occupy(Priority.INTERACTIVE_FREE, started);
+        occupy(Priority.INTERACTIVE_FREE, started);
+
+        assertThat(started).hasSize(2);
+        assertThat(stats().getInFlight()).isEqualTo(2);
+        assertThat(stats().getQueueDepth()).isEqualTo(1);
+
+        first.tryEmitValue("done");
+
+        assertThat(started).hasSize(3);
+        assertThat(stats().getInFlight()).isEqualTo(2);
+        assertThat(stats().getQueueDepth()).isZero();
+    }
+
+    @Test
+    void admit_servesQueueByPriorityThenArrival() {
+        List<String> started = new CopyOnWriteArrayList<>();
+        Sinks.One<String> running = occupy(Priority.BACKGROUND_FREE, started);
+        started.clear();
+
+        List<Sinks.One<String>> queued = new ArrayList<>();
+        queued.add(occupy(Priority.BACKGROUND_FREE, started));
+        queued.add(occupy(Priority.INTERACTIVE_FREE, started));
+        queued.add(occupy(Priority.BACKGROUND_PRO, started));
+        queued.add(occupy(Priority.INTERACTIVE_PRO, started));
+        queued.add(occupy(Priority.INTERACTIVE_FREE, started));
+        assertThat(stats().getQueueDepthByPriority()).containsEntry("INTERACTIVE_FREE", 2);
+
+        running.tryEmitValue("done");
+        for (Sinks.One<String> sink : queued) {
+            sink.tryEmitValue("done");
+        }
+
+        assertThat(started).containsExactly(
+                "INTERACTIVE_PRO", "INTERACTIVE_FREE", "INTERACTIVE_FREE", "BACKGROUND_PRO", "BACKGROUND_FREE");
+    }
+
+    @Test
+    void admit_queueFull_rejectsImmediatelyWithRetryAfter() {
+        properties.getAdmission().setMaxQueueSize(1);
+        List<String> started = new CopyOnWriteArrayList<>();
+        occupy(Priority.INTERACTIVE_PRO, started);
+        occupy(Priority.INTERACTIVE_PRO, started);
+
+        Mono<String> rejected = controller.admit(MODEL, Priority.INTERACTIVE_PRO, () -> Mono.just("never"));
+
+        assertThatThrownBy(rejected::block)
+                .isInstanceOfSatisfying(LLMCapacityExceededException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(5));
+        assertThat(stats().getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void admit_waitBudgetExceeded_timesOut() {
+        properties.getAdmission().setMaxQueueWait(Duration.ofMillis(50));
+        occupy(Priority.INTERACTIVE_PRO, new CopyOnWriteArrayList<>());
+
+        Mono<String> waiting = controller.admit(MODEL, Priority.BACKGROUND_FREE, () -> Mono.just("never"));
+
+        assertThatThrownBy(() -> waiting.block(Duration.ofSeconds(5)))
+                .isInstanceOf(LLMCapacityExceededException.class);
+        assertThat(stats().getTimedOut()).isEqualTo(1);
+        assertThat(stats().getQueueDepth()).isZero();
+    }
+
+    @Test
+    void admit_cancelledWhileQueued_leavesQueueAndDoesNotTakeASlot() {
+        List<String> started = new CopyOnWriteArrayList<>();
+        Sinks.One<String> running = occupy(Priority.INTERACTIVE_PRO, started);
+        Disposable abandoned = controller.admit(MODEL, Priority.INTERACTIVE_PRO, () -> {
+            started.add("abandoned");
+            return Mono.just("x");
+        }).subscribe();
+
+        abandoned.dispose();
+        running.tryEmitValue("done");
+
+        assertThat(started).containsExactly("INTERACTIVE_PRO");
+        assertThat(stats().getInFlight()).isZero();
+        assertThat(stats().getQueueDepth()).isZero();
+    }
+
+    @Test
+    void admit_failedCall_releasesItsSlot() throws Exception {
+        Mono<String> failing = controller.admit(MODEL, Priority.INTERACTIVE_PRO,
+                () -> Mono.error(new IllegalStateException("provider down")));
+        assertThatThrownBy(failing::block).isInstanceOf(IllegalStateException.class);
+
+        CompletableFuture<String> next = controller.admit(MODEL, Priority.INTERACTIVE_PRO, () -> Mono.just("ok"))
+                .toFuture();
+
+        assertThat(next.get(1, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(stats().getInFlight()).isZero();
+        assertThat(stats().getAdmitted()).isEqualTo(2);
+    }
+
+    @Test
+    void admit_limitsArePerModel() {
+        properties.getAdmission().getModelMaxConcurrency().put("gpt-4", 3);
+        List<String> started = new CopyOnWriteArrayList<>();
+        occupy(Priority.INTERACTIVE_PRO, started);
+        for (int i = 0; i < 3; i++) {
+            controller.admit("gpt-4", Priority.INTERACTIVE_PRO, () -> {
+                started.add("gpt-4");
+                return Sinks.<String>one().asMono();
+            }).subscribe();
+        }
+
+        assertThat(started).containsExactly("INTERACTIVE_PRO", "gpt-4", "gpt-4", "gpt-4");
+        assertThat(controller.snapshot()).extracting(LLMAdmissionStats::getModel, LLMAdmissionStats::getMaxConcurrency)
+                .containsExactly(
+                        tuple("gpt-3.5-turbo", 1),
+                        tuple("gpt-4", 3));
+    }
+
+    @Nested
+    class Adaptive {
+
+        @BeforeEach
+        void enableAdaptive() {
+            properties.getAdmission().setMaxConcurrency(4);
+            properties.getAdmission().getAdaptive().setEnabled(true);
+        }
+
+        private void run(Mono<String> outcome) {
+            controller.admit(MODEL, Priority.INTERACTIVE_PRO, () -> outcome).onErrorResume(e -> Mono.empty()).block();
+        }
+
+        @Test
+        void providerRateLimit_halvesLimitAndReleasesSlot() {
+            run(Mono.error(WebClientResponseException.create(429, "Too Many Requests", null, null, null)));
+
+            assertThat(stats().getMaxConcurrency()).isEqualTo(2);
+            assertThat(stats().getLimitDecreases()).isEqualTo(1);
+            assertThat(stats().getInFlight()).isZero();
+        }
+
+        @Test
+        void serverErrorAndTimeout_countAsPushback_butClientErrorDoesNot() {
+            run(Mono.error(WebClientResponseException.create(400, "Bad Request", null, null, null)));
+            assertThat(stats().getMaxConcurrency()).isEqualTo(4);
+
+            run(Mono.error(new TimeoutException()));
+            assertThat(stats().getMaxConcurrency()).isEqualTo(2);
+        }
+
+        @Test
+        void raisedLimit_admitsQueuedCallsBeyondTheOldOne() {
+            properties.getAdmission().setMaxConcurrency(1);
+            List<String> started = new CopyOnWriteArrayList<>();
+            Sinks.One<String> first = occupy(Priority.INTERACTIVE_PRO, started);
+            occupy(Priority.INTERACTIVE_PRO, started);
+            occupy(Priority.INTERACTIVE_PRO, started);
+            assertThat(started).hasSize(1);
+
+            // Fully used limit of 1 + fast success -> limit 2, so both waiters start
+            first.tryEmitValue("done");
+
+            assertThat(started).hasSize(3);
+            assertThat(stats().getMaxConcurrency()).isEqualTo(2);
+            assertThat(stats().isAdaptive()).isTrue();
+        }
+
+        @Test
+        void cancelledCall_doesNotMoveTheLimit() {
+            Disposable call = controller.admit(MODEL, Priority.INTERACTIVE_PRO, () -> Sinks.<String>one().asMono())
+                    .subscribe();
+            call.dispose();
+
+            assertThat(stats().getMaxConcurrency()).isEqualTo(4);
+            assertThat(stats().getLimitDecreases()).isZero();
+            assertThat(stats().getInFlight()).isZero();
+        }
+    }
+
+    @Test
+    void admit_disabled_passesStraightThrough() {
+        properties.getAdmission().setEnabled(false);
+        List<String> started = new CopyOnWriteArrayList<>();
+        occupy(Priority.INTERACTIVE_PRO, started);
+        occupy(Priority.INTERACTIVE_PRO, started);
+
+        assertThat(started).hasSize(2);
+        assertThat(controller.snapshot()).isEmpty();
+    }
+}
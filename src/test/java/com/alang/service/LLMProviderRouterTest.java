@@ -0,0 +1,436 @@
+package com.alang.service;
+
+import com.alang.config.LLMProperties;
+import com.alang.dto.admin.LLMProviderStats;
+import com.alang.dto.llm.ChatCompletionRequest;
+import com.alang.dto.llm.ChatCompletionResponse;
+import com.alang.exception.DeadlineExceededException;
+import com.alang.service.LLMAdmissionController.Priority;
+import com.alang.service.LLMProviderRouter.CircuitBreaker;
+import com.alang.service.LLMProviderRouter.LatencyWindow;
+import com.alang.service.LLMProviderRouter.Provider;
+import com.alang.service.LLMProviderRouter.Routed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import io.micrometer.observation.tck.TestObservationRegistry;
+import io.micrometer.observation.tck.TestObservationRegistryAssert;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LLMProviderRouterTest {
+
+    private static final String BODY = "{\"choices\":[{\"message\":{\"content\":\"Hello!\"}}]}";
+
+    private LLMProperties.Routing routing;
+    private LLMProperties.Timeouts timeouts;
+    private LLMAdmissionController admission;
+
+    @BeforeEach
+    void setUp() {
+        routing = new LLMProperties.Routing();
+        routing.getHedging().setDefaultDelay(Duration.ofMillis(100));
+        routing.getHedging().setMinDelay(Duration.ofMillis(10));
+        timeouts = new LLMProperties.Timeouts();
+        LLMProperties properties = new LLMProperties();
+        properties.getAdmission().getAdaptive().setEnabled(false);
+        admission = new LLMAdmissionController(properties);
+    }
+
+    /**
+     * An OpenAI-compatible endpoint that answers with status after latency.
+     */
+    private static final class StubProvider {
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final WebClient client;
+
+        StubProvider(HttpStatus status, Duration latency) {
+            client = WebClient.builder()
+                    .exchangeFunction(request -> {
+                        calls.incrementAndGet();
+                        return Mono.delay(latency)
+                                .map(tick -> ClientResponse.create(status)
+                                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                        .body(status.is2xxSuccessful() ? BODY : "{}")
+                                        .build())
+                                .doOnCancel(() -> cancelled.set(true));
+                    })
+                    .build();
+        }
+    }
+
+    private Provider provider(String name, StubProvider stub, String model) {
+        return new Provider(name, stub.client, model, new CircuitBreaker(routing.getBreaker(), System::nanoTime));
+    }
+
+    private LLMProviderRouter router(Provider... providers) {
+        return new LLMProviderRouter(List.of(providers), routing, timeouts, admission);
+    }
+
+    private Routed<ChatCompletionResponse> call(LLMProviderRouter router) {
+        return call(router, Deadline.after(Duration.ofSeconds(5)));
+    }
+
+    private Routed<ChatCompletionResponse> call(LLMProviderRouter router, Deadline deadline) {
+        return router.chatCompletion("gpt-3.5-turbo", Priority.INTERACTIVE_FREE, deadline,
+                        model -> new ChatCompletionRequest(model, "system", List.of(), 100))
+                .block(Duration.ofSeconds(5));
+    }
+
+    private LLMProviderStats stats(LLMProviderRouter router, String name) {
+        return router.snapshot().stream().filter(s -> s.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void singleProvider_servesAndReportsProviderAndModel() {
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ZERO);
+
+        Routed<ChatCompletionResponse> routed = call(router(provider("openai", openai, null)));
+
+        assertThat(routed.servedBy()).isEqualTo("openai/gpt-3.5-turbo");
+        assertThat(routed.body().choices()).isEqualTo(1);
+    }
+
+    @Test
+    void warmUpConnections_requestsEachProviderUpFront() {
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ZERO);
+        StubProvider ollama = new StubProvider(HttpStatus.UNAUTHORIZED, Duration.ZERO);
+        LLMProviderRouter router = new LLMProviderRouter(
+                List.of(provider("openai", openai, null), provider("ollama", ollama, "llama3")),
+                routing, timeouts, admission, 3);
+
+        router.warmUpConnections().block(Duration.ofSeconds(5));
+
+        assertThat(openai.calls).hasValue(3);
+        assertThat(ollama.calls).hasValue(3);
+        assertThat(stats(router, "openai").getServed()).isZero();
+    }
+
+    @Test
+    void warmUpConnections_disabled_sendsNothing() {
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ZERO);
+
+        router(provider("openai", openai, null)).warmUpConnections().block(Duration.ofSeconds(5));
+
+        assertThat(openai.calls).hasValue(0);
+    }
+
+    @Test
+    void fastPrimary_isNotHedged() {
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ZERO);
+        StubProvider ollama = new StubProvider(HttpStatus.OK, Duration.ZERO);
+
+        Routed<ChatCompletionResponse> routed = call(router(provider("openai", openai, null), provider("ollama", ollama, "llama3")));
+
+        assertThat(routed.servedBy()).isEqualTo("openai/gpt-3.5-turbo");
+        assertThat(ollama.calls).hasValue(0);
+    }
+
+    @Test
+    void slowPrimary_isHedged_firstSuccessWins_andLoserIsCancelled() {
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ofSeconds(3));
+        StubProvider ollama = new StubProvider(HttpStatus.OK, Duration.ofMillis(20));
+        LLMProviderRouter router = router(provider("openai", openai, null), provider("ollama", ollama, "llama3"));
+
+        Routed<ChatCompletionResponse> routed = call(router);
+
+        assertThat(routed.servedBy()).isEqualTo("ollama/llama3");
+        assertThat(openai.cancelled).isTrue();
+        assertThat(stats(router, "ollama").getHedgesSent()).isEqualTo(1);
+        assertThat(stats(router, "ollama").getHedgesWon()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgingDisabled_waitsForSlowPrimary() {
+        routing.getHedging().setEnabled(false);
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ofMillis(300));
+        StubProvider ollama = new StubProvider(HttpStatus.OK, Duration.ZERO);
+
+        Routed<ChatCompletionResponse> routed = call(router(provider("openai", openai, null), provider("ollama", ollama, null)));
+
+        assertThat(routed.servedBy()).isEqualTo("openai/gpt-3.5-turbo");
+        assertThat(ollama.calls).hasValue(0);
+    }
+
+    @Test
+    void exhaustedHedgeBudget_stopsHedging() {
+        routing.getHedging().setBudgetRatio(0);
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ofMillis(300));
+        StubProvider ollama = new StubProvider(HttpStatus.OK, Duration.ZERO);
+        LLMProviderRouter router = router(provider("openai", openai, null), provider("ollama", ollama, null));
+
+        assertThat(call(router).servedBy()).startsWith("ollama/");
+        assertThat(call(router).servedBy()).startsWith("openai/");
+        assertThat(ollama.calls).hasValue(1);
+    }
+
+    @Test
+    void primaryProviderFailure_failsOverWithoutWaitingForHedgeDelay() {
+        routing.getHedging().setDefaultDelay(Duration.ofSeconds(30));
+        StubProvider openai = new StubProvider(HttpStatus.SERVICE_UNAVAILABLE, Duration.ZERO);
+        StubProvider ollama = new StubProvider(HttpStatus.OK, Duration.ZERO);
+        LLMProviderRouter router = router(provider("openai", openai, null), provider("ollama", ollama, null));
+
+        assertThat(call(router).servedBy()).isEqualTo("ollama/gpt-3.5-turbo");
+        assertThat(stats(router, "ollama").getFailovers()).isEqualTo(1);
+        assertThat(stats(router, "openai").getFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void primaryClientError_isReturnedWithoutFailover() {
+        StubProvider openai = new StubProvider(HttpStatus.BAD_REQUEST, Duration.ZERO);
+        StubProvider ollama = new StubProvider(HttpStatus.OK, Duration.ZERO);
+        LLMProviderRouter router = router(provider("openai", openai, null), provider("ollama", ollama, null));
+
+        assertThatThrownBy(() -> call(router))
+                .isInstanceOfSatisfying(WebClientResponseException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(400));
+        assertThat(ollama.calls).hasValue(0);
+    }
+
+    @Test
+    void allProvidersFailing_surfacesThePrimaryError() {
+        StubProvider openai = new StubProvider(HttpStatus.TOO_MANY_REQUESTS, Duration.ZERO);
+        StubProvider ollama = new StubProvider(HttpStatus.BAD_GATEWAY, Duration.ZERO);
+        LLMProviderRouter router = router(provider("openai", openai, null), provider("ollama", ollama, null));
+
+        assertThatThrownBy(() -> call(router))
+                .isInstanceOfSatisfying(WebClientResponseException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(429));
+    }
+
+    @Test
+    void openBreaker_routesStraightToFallback() {
+        routing.getBreaker().setFailureThreshold(1);
+        StubProvider openai = new StubProvider(HttpStatus.SERVICE_UNAVAILABLE, Duration.ZERO);
+        StubProvider ollama = new StubProvider(HttpStatus.OK, Duration.ZERO);
+        LLMProviderRouter router = router(provider("openai", openai, null), provider("ollama", ollama, null));
+
+        call(router);
+        Routed<ChatCompletionResponse> routed = call(router);
+
+        assertThat(routed.servedBy()).isEqualTo("ollama/gpt-3.5-turbo");
+        assertThat(openai.calls).hasValue(1);
+        assertThat(stats(router, "openai").getBreakerState()).isEqualTo("OPEN");
+        assertThat(stats(router, "ollama").getFailovers()).isEqualTo(2);
+    }
+
+    @Test
+    void attempts_areTimedByProviderModelAndOutcome_andTripsAndRateLimitsCounted() {
+        routing.getBreaker().setFailureThreshold(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StubProvider openai = new StubProvider(HttpStatus.TOO_MANY_REQUESTS, Duration.ZERO);
+        StubProvider ollama = new StubProvider(HttpStatus.OK, Duration.ZERO);
+        LLMProviderRouter router = new LLMProviderRouter(
+                List.of(provider("openai", openai, null), provider("ollama", ollama, "llama3")),
+                routing, timeouts, admission, 0, new LLMMetrics(registry));
+
+        call(router);
+        call(router);
+
+        assertThat(registry.get("llm.requests")
+                .tags("provider", "openai", "model", "gpt-3.5-turbo", "outcome", "rate_limited").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("llm.requests")
+                .tags("provider", "ollama", "model", "llama3", "outcome", "success").timer().count())
+                .isEqualTo(2);
+        assertThat(registry.get("llm.rate.limited").tag("provider", "openai").counter().count()).isEqualTo(1);
+        assertThat(registry.get("llm.breaker.trips").tag("provider", "openai").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void attempts_areTracedUnderTheCallersSpan_withTheirRetryAttempt() {
+        TestObservationRegistry observations = TestObservationRegistry.create();
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ZERO);
+        LLMProviderRouter router = new LLMProviderRouter(List.of(provider("openai", openai, null)),
+                routing, timeouts, admission, 0, new LLMMetrics(new SimpleMeterRegistry(), observations));
+        Observation parent = Observation.start("llm.service", observations);
+
+        router.chatCompletion("gpt-3.5-turbo", Priority.INTERACTIVE_FREE, Deadline.after(Duration.ofSeconds(5)),
+                        model -> new ChatCompletionRequest(model, "system", List.of(), 100))
+                .contextWrite(Context.of(LLMMetrics.RETRY_ATTEMPT, 2, ObservationThreadLocalAccessor.KEY, parent))
+                .block(Duration.ofSeconds(5));
+        parent.stop();
+
+        TestObservationRegistryAssert.assertThat(observations)
+                .hasObservationWithNameEqualTo("llm.requests").that()
+                .hasParentObservationEqualTo(parent)
+                .hasLowCardinalityKeyValue("provider", "openai")
+                .hasLowCardinalityKeyValue("outcome", "success")
+                .hasHighCardinalityKeyValue("llm.retry.attempt", "2");
+    }
+
+    @Test
+    void deadline_endsTheWholeCall_andCancelsTheProvider() {
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ofSeconds(3));
+
+        assertThatThrownBy(() -> call(router(provider("openai", openai, null)), Deadline.after(Duration.ofMillis(100))))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(openai.cancelled).isTrue();
+    }
+
+    @Test
+    void expiredDeadline_neverReachesAProvider() {
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ZERO);
+
+        assertThatThrownBy(() -> call(router(provider("openai", openai, null)), Deadline.after(Duration.ZERO)))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(openai.calls).hasValue(0);
+    }
+
+    @Test
+    void attemptSlowerThanLearnedTimeout_failsOverLongBeforeTheDeadline() {
+        routing.getHedging().setEnabled(false);
+        timeouts.setMinSamples(5);
+        timeouts.setMin(Duration.ofMillis(50));
+        StubProvider openai = new StubProvider(HttpStatus.OK, Duration.ofSeconds(3));
+        Provider primary = provider("openai", openai, null);
+        for (int i = 0; i < 5; i++) {
+            primary.latency("gpt-3.5-turbo").record(Duration.ofMillis(10).toNanos());
+        }
+        LLMProviderRouter router = router(primary, provider("ollama", new StubProvider(HttpStatus.OK, Duration.ZERO), null));
+
+        long start = System.nanoTime();
+        Routed<ChatCompletionResponse> routed = call(router, Deadline.after(Duration.ofSeconds(5)));
+
+        assertThat(routed.servedBy()).isEqualTo("ollama/gpt-3.5-turbo");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(stats(router, "openai").getFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void attemptTimeout_isMultipleOfRecentPercentile_withinBounds() {
+        timeouts.setMinSamples(10);
+        timeouts.setMultiplier(2.0);
+        timeouts.setMin(Duration.ofSeconds(5));
+        timeouts.setMax(Duration.ofSeconds(60));
+        Provider openai = provider("openai", new StubProvider(HttpStatus.OK, Duration.ZERO), null);
+
+        assertThat(openai.attemptTimeout("gpt-4", timeouts)).isEqualTo(Duration.ofSeconds(60));
+
+        for (int i = 0; i < 10; i++) {
+            openai.latency("gpt-4").record(Duration.ofSeconds(8).toNanos());
+            openai.latency("gpt-3.5-turbo").record(Duration.ofSeconds(1).toNanos());
+        }
+        assertThat(openai.attemptTimeout("gpt-4", timeouts)).isEqualTo(Duration.ofSeconds(16));
+        assertThat(openai.attemptTimeout("gpt-3.5-turbo", timeouts)).isEqualTo(Duration.ofSeconds(5));
+
+        openai.latency("gpt-4").record(Duration.ofSeconds(45).toNanos());
+        assertThat(openai.attemptTimeout("gpt-4", timeouts)).isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Nested
+    class CircuitBreakerState {
+
+        private final AtomicLong clock = new AtomicLong();
+        private CircuitBreaker breaker;
+
+        @BeforeEach
+        void createBreaker() {
+            LLMProperties.Breaker config = new LLMProperties.Breaker();
+            config.setFailureThreshold(3);
+            config.setOpenDuration(Duration.ofSeconds(30));
+            breaker = new CircuitBreaker(config, clock::get);
+        }
+
+        private void fail(int times) {
+            for (int i = 0; i < times; i++) {
+                breaker.onFailure();
+            }
+        }
+
+        @Test
+        void opensAfterConsecutiveFailures_only() {
+            fail(2);
+            breaker.onSuccess();
+            fail(2);
+            assertThat(breaker.tryAcquire()).isTrue();
+
+            fail(1);
+            assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+            assertThat(breaker.tryAcquire()).isFalse();
+        }
+
+        @Test
+        void afterOpenDuration_letsOneTrialThrough() {
+            fail(3);
+            clock.addAndGet(Duration.ofSeconds(30).toNanos());
+
+            assertThat(breaker.tryAcquire()).isTrue();
+            assertThat(breaker.tryAcquire()).isFalse();
+
+            breaker.onSuccess();
+            assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        }
+
+        @Test
+        void failedTrial_reopensForAnotherFullPeriod() {
+            fail(3);
+            clock.addAndGet(Duration.ofSeconds(30).toNanos());
+            breaker.tryAcquire();
+
+            breaker.onFailure();
+            clock.addAndGet(Duration.ofSeconds(29).toNanos());
+
+            assertThat(breaker.tryAcquire()).isFalse();
+        }
+
+        @Test
+        void cancelledTrial_freesTheTrialForTheNextCaller() {
+            fail(3);
+            clock.addAndGet(Duration.ofSeconds(30).toNanos());
+            breaker.tryAcquire();
+
+            breaker.onCancel();
+
+            assertThat(breaker.tryAcquire()).isTrue();
+        }
+
+        @Test
+        void onFailure_reportsOnlyTheFailureThatOpensIt() {
+            assertThat(breaker.onFailure()).isFalse();
+            assertThat(breaker.onFailure()).isFalse();
+            assertThat(breaker.onFailure()).isTrue();
+            assertThat(breaker.onFailure()).isFalse();
+
+            clock.addAndGet(Duration.ofSeconds(30).toNanos());
+            breaker.tryAcquire();
+            assertThat(breaker.onFailure()).isTrue();
+        }
+    }
+
+    @Test
+    void latencyWindow_percentileNeedsMinSamples_andKeepsOnlyRecentOnes() {
+        LatencyWindow window = new LatencyWindow(10);
+        for (int i = 1; i <= 5; i++) {
+            window.record(i);
+        }
+        assertThat(window.percentile(0.95, 10)).isEqualTo(-1);
+
+        for (int i = 1; i <= 20; i++) {
+            window.record(i * 100L);
+        }
+        // Only the last ten (1100..2000) remain
+        assertThat(window.percentile(0.5, 10)).isEqualTo(1500);
+        assertThat(window.percentile(0.95, 10)).isEqualTo(2000);
+    }
+}
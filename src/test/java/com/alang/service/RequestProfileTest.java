@@ -0,0 +1,85 @@
+package com.alang.service;
+
+import com.alang.service.RequestProfile.Span;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestProfileTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void withoutARequest_currentIsANoOp() {
+        RequestProfile profile = RequestProfile.current();
+
+        profile.add(Span.DB, 5 * MS);
+
+        assertThat(profile.isEnabled()).isFalse();
+        assertThat(profile.start()).isZero();
+        assertThat(profile.count(Span.DB)).isZero();
+    }
+
+    @Test
+    void attach_makesItCurrentUntilClosed() {
+        RequestProfile profile = RequestProfile.start(System.nanoTime());
+
+        try (RequestProfile.Scope ignored = profile.attach()) {
+            assertThat(RequestProfile.current()).isSameAs(profile);
+        }
+
+        assertThat(RequestProfile.current().isEnabled()).isFalse();
+    }
+
+    @Test
+    void within_carriesTheProfileToAnotherThread() {
+        RequestProfile profile = RequestProfile.start(System.nanoTime());
+
+        CompletableFuture.supplyAsync(() -> profile.within(() -> {
+            RequestProfile.current().add(Span.PERSIST, 2 * MS);
+            return null;
+        })).join();
+
+        assertThat(profile.nanos(Span.PERSIST)).isEqualTo(2 * MS);
+    }
+
+    @Test
+    void spansAreSummed_andCounted() {
+        RequestProfile profile = RequestProfile.start(System.nanoTime());
+
+        profile.add(Span.DB, 2 * MS);
+        profile.add(Span.DB, 3 * MS);
+        profile.add(Span.LLM, 800 * MS);
+
+        assertThat(profile.nanos(Span.DB)).isEqualTo(5 * MS);
+        assertThat(profile.count(Span.DB)).isEqualTo(2);
+        assertThat(profile.count(Span.AUTH)).isZero();
+    }
+
+    @Test
+    void serverTiming_listsRecordedSpansThenTotal() {
+        RequestProfile profile = RequestProfile.start(System.nanoTime());
+        profile.add(Span.AUTH, MS / 2);
+        profile.add(Span.DB, 2 * MS);
+        profile.add(Span.DB, 3 * MS);
+
+        assertThat(profile.serverTiming())
+                .startsWith("auth;dur=0.5, db;dur=5.0;desc=\"2x\", total;dur=")
+                .doesNotContain("llm");
+    }
+
+    @Test
+    void breakdown_isKeyValuePairs() {
+        RequestProfile profile = RequestProfile.start(System.nanoTime());
+        profile.add(Span.LLM, 812 * MS);
+        profile.add(Span.DB, MS);
+        profile.add(Span.DB, MS);
+
+        assertThat(profile.breakdown())
+                .startsWith("total_ms=")
+                .contains(" db_ms=2.0 db_count=2 llm_ms=812.0");
+    }
+}
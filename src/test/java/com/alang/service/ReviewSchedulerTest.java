@@ -0,0 +1,104 @@
+package com.alang.service;
+
+import com.alang.entity.User;
+import com.alang.repository.NoteRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReviewSchedulerTest {
+
+    private final NoteRepository noteRepository = mock(NoteRepository.class);
+    private final ReviewScheduler scheduler = new ReviewScheduler(noteRepository, 6, true, 0.05, 4, 3);
+    private final User user = new User();
+    private final LocalDate today = LocalDate.of(2026, 5, 4);
+
+    @Test
+    void nextReviewAt_isDeterministicAndInsideWindow() {
+        LocalDateTime first = scheduler.nextReviewAt("note-1", today, 3);
+
+        assertThat(scheduler.nextReviewAt("note-1", today, 3)).isEqualTo(first);
+        assertThat(first).isAfterOrEqualTo(today.plusDays(3).atStartOfDay());
+        assertThat(first).isBefore(today.plusDays(3).atTime(6, 0));
+    }
+
+    @Test
+    void nextReviewAt_spreadsNotesAcrossWindow() {
+        long distinct = java.util.stream.IntStream.range(0, 200)
+                .mapToObj(i -> scheduler.nextReviewAt("note-" + i, today, 1))
+                .distinct()
+                .count();
+
+        assertThat(distinct).isGreaterThan(190);
+    }
+
+    @Test
+    void nextReviewAt_zeroInterval_dueAtStartOfToday() {
+        assertThat(scheduler.nextReviewAt("note-1", today, 0)).isEqualTo(today.atStartOfDay());
+    }
+
+    @Test
+    void nextReviewAt_zeroWindow_disablesJitter() {
+        ReviewScheduler noJitter = new ReviewScheduler(noteRepository, 0, true, 0.05, 4, 3);
+
+        assertThat(noJitter.nextReviewAt("note-1", today, 5)).isEqualTo(today.plusDays(5).atStartOfDay());
+    }
+
+    @Test
+    void fuzzDays_scalesWithIntervalAndIsCapped() {
+        assertThat(scheduler.fuzzDays(2)).isZero();
+        assertThat(scheduler.fuzzDays(3)).isEqualTo(1);
+        assertThat(scheduler.fuzzDays(40)).isEqualTo(2);
+        assertThat(scheduler.fuzzDays(365)).isEqualTo(4);
+    }
+
+    @Test
+    void fuzzDays_loadBalancingDisabled_isZero() {
+        ReviewScheduler disabled = new ReviewScheduler(noteRepository, 6, false, 0.05, 4, 3);
+
+        assertThat(disabled.fuzzDays(100)).isZero();
+    }
+
+    @Test
+    void balanceInterval_picksLeastLoadedDay() {
+        when(noteRepository.countDueByDay(eq(user), any(), any())).thenReturn(List.of(
+                new Object[]{today.plusDays(38), 10L},
+                new Object[]{today.plusDays(39), 3L},
+                new Object[]{today.plusDays(40), 10L},
+                new Object[]{today.plusDays(41), 10L},
+                new Object[]{today.plusDays(42), 10L}));
+
+        assertThat(scheduler.balanceInterval(scheduler.dueLoad(user), today, 40)).isEqualTo(39);
+    }
+
+    @Test
+    void balanceInterval_tie_keepsOriginalInterval() {
+        when(noteRepository.countDueByDay(eq(user), any(), any())).thenReturn(List.of());
+
+        assertThat(scheduler.balanceInterval(scheduler.dueLoad(user), today, 40)).isEqualTo(40);
+    }
+
+    @Test
+    void balanceInterval_countsEarlierPlacementsInSameLoad() {
+        when(noteRepository.countDueByDay(eq(user), any(), any())).thenReturn(List.of());
+        ReviewScheduler.DueLoad load = scheduler.dueLoad(user);
+
+        // First card lands on day 40; the second should avoid it
+        assertThat(scheduler.balanceInterval(load, today, 40)).isEqualTo(40);
+        assertThat(scheduler.balanceInterval(load, today, 40)).isEqualTo(39);
+        verify(noteRepository, times(1)).countDueByDay(eq(user), any(), any());
+    }
+
+    @Test
+    void balanceInterval_shortInterval_skipsQuery() {
+        assertThat(scheduler.balanceInterval(scheduler.dueLoad(user), today, 1)).isEqualTo(1);
+        verifyNoInteractions(noteRepository);
+    }
+}
@@ -0,0 +1,35 @@
+package com.alang.service;
+
+import com.alang.dto.admin.RuntimeStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RuntimeStatsServiceTest {
+
+    @Test
+    void snapshot_combinesHibernateAndJvmCounters() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        Statistics statistics = mock(Statistics.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.isStatisticsEnabled()).thenReturn(true);
+        when(statistics.getPrepareStatementCount()).thenReturn(120L);
+        when(statistics.getCollectionFetchCount()).thenReturn(7L);
+
+        RuntimeStats stats = new RuntimeStatsService(entityManagerFactory).snapshot();
+
+        assertThat(stats.isHibernateStatisticsEnabled()).isTrue();
+        assertThat(stats.getJdbcStatements()).isEqualTo(120);
+        assertThat(stats.getCollectionFetches()).isEqualTo(7);
+        assertThat(stats.getHeapUsedBytes()).isPositive();
+        assertThat(stats.getLiveThreads()).isPositive();
+        assertThat(stats.getUptimeMs()).isPositive();
+    }
+}
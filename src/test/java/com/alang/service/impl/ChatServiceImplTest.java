@@ -18,12 +18,16 @@ import com.alang.entity.RecentMessage;
 import com.alang.entity.RoleType;
 import com.alang.entity.SessionStatus;
 import com.alang.entity.User;
+import com.alang.exception.LLMProviderException;
+import com.alang.exception.RequestCancelledException;
 import com.alang.exception.UnauthorizedException;
 import com.alang.exception.UserNotFoundException;
 import com.alang.repository.ChatSessionRepository;
 import com.alang.repository.LanguageRepository;
+import com.alang.repository.NoteRepository;
 import com.alang.repository.RecentMessageRepository;
 import com.alang.repository.UserRepository;
+import com.alang.service.Deadline;
 import com.alang.service.LLMService;
 import com.alang.service.NoteService;
 import com.alang.service.PromptTemplates;
@@ -32,13 +36,30 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -67,9 +88,15 @@ class ChatServiceImplTest {
     @Mock
     private ChatSessionRepository chatSessionRepository;
 
+    @Mock
+    private NoteRepository noteRepository;
+
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
 
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private ChatServiceImpl chatService;
 
@@ -102,6 +129,44 @@ class ChatServiceImplTest {
         activeSession.setLearningLanguage(japanese);
     }
 
+    /**
+     * Counts transactions and tells whether the calling thread is inside one.
+     */
+    private static class TrackingTransactionManager implements PlatformTransactionManager {
+        private final ThreadLocal<Boolean> inTransaction = ThreadLocal.withInitial(() -> false);
+        private final AtomicInteger begun = new AtomicInteger();
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            inTransaction.set(true);
+            begun.incrementAndGet();
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            inTransaction.set(false);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            inTransaction.set(false);
+        }
+
+        boolean inTransaction() {
+            return inTransaction.get();
+        }
+
+        int begun() {
+            return begun.get();
+        }
+    }
+
+    private ChatServiceImpl serviceWith(PlatformTransactionManager txManager) {
+        return new ChatServiceImpl(llmService, noteService, userRepository, languageRepository, noteRepository,
+                recentMessageRepository, chatSessionRepository, objectMapper, new TransactionTemplate(txManager));
+    }
+
     private LLMService.LLMResponse makeLLMResponse(String reply) {
         TokenUsageDto usage = new TokenUsageDto(10, 20, 30, null);
         return new LLMService.LLMResponse(reply, "gpt-3.5-turbo", usage);
@@ -294,6 +359,7 @@ class ChatServiceImplTest {
             assertThat(response.getModelUsed()).isEqualTo("gpt-3.5-turbo");
             assertThat(response.getTokenUsage().getTotalTokens()).isEqualTo(30);
             verify(recentMessageRepository, times(2)).save(any(RecentMessage.class));
+            verify(chatSessionRepository).recordMessages(eq(activeSession.getId()), eq(2), any());
             verify(llmService).recordTokenUsage(eq("user-1"), any(TokenUsageDto.class));
         }
 
@@ -339,6 +405,258 @@ class ChatServiceImplTest {
 
             assertThat(response.getSuggestedTopics()).isNull();
         }
+
+        @Test
+        void sendMessage_llmFailure_removesUserMessageAndRecordsNothing() {
+            ChatMessageRequest request = new ChatMessageRequest();
+            request.setMessage("What is は?");
+            request.setSessionId("session-1");
+
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+            when(chatSessionRepository.findByIdAndUser("session-1", testUser))
+                    .thenReturn(Optional.of(activeSession));
+            when(recentMessageRepository.save(any(RecentMessage.class)))
+                    .thenAnswer(inv -> inv.getArgument(0));
+            when(llmService.generateReply(request, "user-1"))
+                    .thenThrow(new LLMProviderException("LLM API returned 500"));
+
+            assertThatThrownBy(() -> chatService.sendMessage(request, "user-1"))
+                    .isInstanceOf(LLMProviderException.class);
+
+            verify(recentMessageRepository).delete(argThat(m -> m.getRole() == RoleType.user));
+            verify(chatSessionRepository, never()).recordMessages(any(), anyInt(), any());
+            verify(llmService, never()).recordTokenUsage(any(), any());
+        }
+    }
+
+    // ---- Async variants (ChatController) ----
+
+    @Nested
+    class AsyncVariants {
+
+        private final Deadline deadline = Deadline.after(Duration.ofSeconds(60));
+
+        private ChatMessageRequest request() {
+            ChatMessageRequest request = new ChatMessageRequest();
+            request.setMessage("What is は?");
+            request.setSessionId("session-1");
+            return request;
+        }
+
+        private void stubActiveSession() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+            when(chatSessionRepository.findByIdAndUser("session-1", testUser))
+                    .thenReturn(Optional.of(activeSession));
+        }
+
+        @Test
+        void sendMessageAsync_completesAfterLlmReply() {
+            ChatMessageRequest request = request();
+            stubActiveSession();
+            when(recentMessageRepository.save(any(RecentMessage.class)))
+                    .thenAnswer(inv -> inv.getArgument(0));
+            CompletableFuture<LLMService.LLMResponse> reply = new CompletableFuture<>();
+            when(llmService.generateReplyAsync(request, "user-1", deadline)).thenReturn(reply);
+
+            CompletableFuture<ChatMessageResponse> response = chatService.sendMessageAsync(request, "user-1", deadline);
+
+            assertThat(response).isNotDone();
+            verify(recentMessageRepository, times(1)).save(any(RecentMessage.class));
+
+            reply.complete(makeLLMResponse("は is the topic marker."));
+
+            assertThat(response.join().getReply()).isEqualTo("は is the topic marker.");
+            verify(recentMessageRepository, times(2)).save(any(RecentMessage.class));
+            verify(chatSessionRepository).recordMessages(eq("session-1"), eq(2), any());
+        }
+
+        @Test
+        void sendMessageAsync_llmFailure_removesUserMessage() {
+            ChatMessageRequest request = request();
+            stubActiveSession();
+            when(recentMessageRepository.save(any(RecentMessage.class)))
+                    .thenAnswer(inv -> inv.getArgument(0));
+            when(llmService.generateReplyAsync(request, "user-1", deadline))
+                    .thenReturn(CompletableFuture.failedFuture(new LLMProviderException("LLM API returned 500")));
+
+            CompletableFuture<ChatMessageResponse> response = chatService.sendMessageAsync(request, "user-1", deadline);
+
+            assertThatThrownBy(response::join).hasCauseInstanceOf(LLMProviderException.class);
+            verify(recentMessageRepository).delete(argThat(m -> m.getRole() == RoleType.user));
+            verify(chatSessionRepository, never()).recordMessages(any(), anyInt(), any());
+        }
+
+        @Test
+        void sendMessageAsync_clientGone_savesNoReplyAndBillsNothing() {
+            ChatMessageRequest request = request();
+            stubActiveSession();
+            when(recentMessageRepository.save(any(RecentMessage.class)))
+                    .thenAnswer(inv -> inv.getArgument(0));
+            when(llmService.generateReplyAsync(request, "user-1", deadline))
+                    .thenReturn(CompletableFuture.failedFuture(new RequestCancelledException("Client disconnected")));
+
+            CompletableFuture<ChatMessageResponse> response = chatService.sendMessageAsync(request, "user-1", deadline);
+
+            assertThatThrownBy(response::join).hasCauseInstanceOf(RequestCancelledException.class);
+            verify(recentMessageRepository).delete(argThat(m -> m.getRole() == RoleType.user));
+            verify(recentMessageRepository, times(1)).save(any(RecentMessage.class));
+            verify(llmService, never()).recordTokenUsage(any(), any());
+        }
+
+        @Test
+        void sendMessageAsync_closedSession_completesExceptionallyWithoutCallingLlm() {
+            activeSession.setStatus(SessionStatus.closed);
+            stubActiveSession();
+
+            CompletableFuture<ChatMessageResponse> response = chatService.sendMessageAsync(request(), "user-1", deadline);
+
+            assertThatThrownBy(response::join).hasCauseInstanceOf(IllegalStateException.class);
+            verifyNoInteractions(llmService);
+        }
+
+        @Test
+        void updateNoteFromSessionAsync_updatesWithMarkAsUserEditedFalse() {
+            RecentMessage msg = new RecentMessage();
+            msg.setRole(RoleType.user);
+            msg.setContent("What about が?");
+            NoteDto existingNote = new NoteDto();
+            existingNote.setId("note-1");
+            NoteDto updatedNote = new NoteDto();
+            updatedNote.setId("note-1");
+            updatedNote.setTitle("は vs が");
+
+            stubActiveSession();
+            when(noteService.getNote("note-1", "user-1")).thenReturn(existingNote);
+            when(recentMessageRepository.findBySessionOrderByCreatedAtAsc(activeSession))
+                    .thenReturn(List.of(msg));
+            when(llmService.generateNoteFromConversationAsync(any(), any(), eq(existingNote),
+                    eq(japanese), eq(english), eq("user-1"), eq(deadline)))
+                    .thenReturn(CompletableFuture.completedFuture(updatedNote));
+            when(noteService.updateNote(eq("note-1"), any(UpdateNoteRequest.class), eq("user-1"), eq(false)))
+                    .thenReturn(updatedNote);
+
+            NoteDto result = chatService.updateNoteFromSessionAsync(
+                    "session-1", "note-1", new NoteFromSessionRequest(), "user-1", deadline).join();
+
+            assertThat(result.getTitle()).isEqualTo("は vs が");
+        }
+
+        @Test
+        void createNoteFromSessionAsync_sessionClosedDuringLlmCall_closeSurvives() {
+            RecentMessage msg = new RecentMessage();
+            msg.setRole(RoleType.user);
+            msg.setContent("What is は?");
+            NoteDto generatedNote = new NoteDto();
+            generatedNote.setId("note-1");
+            CompletableFuture<NoteDto> llmCall = new CompletableFuture<>();
+
+            stubActiveSession();
+            when(recentMessageRepository.findBySessionOrderByCreatedAtAsc(activeSession)).thenReturn(List.of(msg));
+            when(llmService.generateNoteFromConversationAsync(any(), any(), eq(null),
+                    eq(japanese), eq(english), eq("user-1"), eq(deadline)))
+                    .thenReturn(llmCall);
+            when(noteService.createNote(generatedNote, "user-1")).thenReturn(generatedNote);
+
+            CompletableFuture<NoteDto> result = chatService.createNoteFromSessionAsync(
+                    "session-1", new NoteFromSessionRequest(), "user-1", deadline);
+
+            // Closed and committed by another request while the LLM is generating
+            ChatSession current = new ChatSession();
+            current.setId("session-1");
+            current.setUser(testUser);
+            current.setStatus(SessionStatus.closed);
+            current.setClosedAt(LocalDateTime.now());
+            when(chatSessionRepository.findById("session-1")).thenReturn(Optional.of(current));
+            llmCall.complete(generatedNote);
+
+            assertThat(result.join().getId()).isEqualTo("note-1");
+            ArgumentCaptor<ChatSession> saved = ArgumentCaptor.forClass(ChatSession.class);
+            verify(chatSessionRepository).save(saved.capture());
+            assertThat(saved.getValue()).isSameAs(current);
+            assertThat(saved.getValue().getStatus()).isEqualTo(SessionStatus.closed);
+            assertThat(saved.getValue().getClosedAt()).isNotNull();
+            assertThat(saved.getValue().getNoteCreated()).isTrue();
+            assertThat(activeSession.getNoteCreated()).isFalse();
+        }
+
+        @Test
+        void createNoteFromSessionAsync_emptySession_completesExceptionally() {
+            stubActiveSession();
+            when(recentMessageRepository.findBySessionOrderByCreatedAtAsc(activeSession)).thenReturn(List.of());
+
+            CompletableFuture<NoteDto> result = chatService.createNoteFromSessionAsync(
+                    "session-1", new NoteFromSessionRequest(), "user-1", deadline);
+
+            assertThatThrownBy(result::join)
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("empty session");
+        }
+    }
+
+    // ---- Concurrency (virtual threads) ----
+
+    @Nested
+    class ConcurrentLoad {
+
+        private static final int IN_FLIGHT = 3;
+
+        /**
+         * A few chat requests waiting on the LLM at once, each on its own
+         * virtual thread. Checks that the LLM call stays on the request's
+         * virtual thread and that none of them holds a transaction (i.e. a
+         * pooled connection) while it waits. Throughput at scale is measured
+         * by the load test, not here.
+         */
+        @Test
+        void sendMessage_concurrentOnVirtualThreads_waitOnLlmOutsideTransaction() throws Exception {
+            TrackingTransactionManager txManager = new TrackingTransactionManager();
+            ChatServiceImpl service = serviceWith(txManager);
+
+            CountDownLatch allInFlight = new CountDownLatch(IN_FLIGHT);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger callsInsideTransaction = new AtomicInteger();
+            AtomicInteger callsOnVirtualThread = new AtomicInteger();
+
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+            when(chatSessionRepository.findByIdAndUser("session-1", testUser))
+                    .thenReturn(Optional.of(activeSession));
+            when(recentMessageRepository.save(any(RecentMessage.class)))
+                    .thenAnswer(inv -> inv.getArgument(0));
+            when(llmService.generateReply(any(ChatMessageRequest.class), eq("user-1"))).thenAnswer(inv -> {
+                if (txManager.inTransaction()) {
+                    callsInsideTransaction.incrementAndGet();
+                }
+                if (Thread.currentThread().isVirtual()) {
+                    callsOnVirtualThread.incrementAndGet();
+                }
+                allInFlight.countDown();
+                release.await();
+                return makeLLMResponse("は is the topic marker.");
+            });
+
+            List<Future<ChatMessageResponse>> responses = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < IN_FLIGHT; i++) {
+                    ChatMessageRequest request = new ChatMessageRequest();
+                    request.setMessage("Message " + i);
+                    request.setSessionId("session-1");
+                    responses.add(executor.submit(() -> service.sendMessage(request, "user-1")));
+                }
+
+                assertThat(allInFlight.await(10, TimeUnit.SECONDS))
+                        .as("all %d requests waiting on the LLM at once", IN_FLIGHT)
+                        .isTrue();
+                release.countDown();
+
+                for (Future<ChatMessageResponse> response : responses) {
+                    assertThat(response.get(10, TimeUnit.SECONDS).getReply()).isEqualTo("は is the topic marker.");
+                }
+            }
+
+            assertThat(callsOnVirtualThread.get()).isEqualTo(IN_FLIGHT);
+            assertThat(callsInsideTransaction.get()).isZero();
+            verify(chatSessionRepository, times(IN_FLIGHT)).recordMessages(eq("session-1"), eq(2), any());
+        }
     }
 
     // ---- createNoteFromSession ----
@@ -402,6 +720,7 @@ class ChatServiceImplTest {
             when(llmService.generateNoteFromConversation(any(), eq("topic marker"), eq(null),
                     eq(japanese), eq(english), eq("user-1")))
                     .thenReturn(generatedNote);
+            when(chatSessionRepository.findById("session-1")).thenReturn(Optional.of(activeSession));
             when(noteService.createNote(generatedNote, "user-1")).thenReturn(generatedNote);
 
             NoteDto result = chatService.createNoteFromSession("session-1", request, "user-1");
@@ -413,6 +732,39 @@ class ChatServiceImplTest {
             assertThat(activeSession.getNoteCreated()).isTrue();
             verify(chatSessionRepository).save(activeSession);
         }
+
+        @Test
+        void createNoteFromSession_callsLlmOutsideTransaction() {
+            TrackingTransactionManager txManager = new TrackingTransactionManager();
+            ChatServiceImpl service = serviceWith(txManager);
+            RecentMessage msg = new RecentMessage();
+            msg.setRole(RoleType.user);
+            msg.setContent("What is は?");
+            NoteDto generatedNote = new NoteDto();
+            generatedNote.setId("note-1");
+            AtomicBoolean llmCalledInTransaction = new AtomicBoolean(true);
+
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+            when(chatSessionRepository.findByIdAndUser("session-1", testUser))
+                    .thenReturn(Optional.of(activeSession));
+            when(recentMessageRepository.findBySessionOrderByCreatedAtAsc(activeSession))
+                    .thenReturn(List.of(msg));
+            when(llmService.generateNoteFromConversation(any(), any(), eq(null),
+                    eq(japanese), eq(english), eq("user-1")))
+                    .thenAnswer(inv -> {
+                        llmCalledInTransaction.set(txManager.inTransaction());
+                        return generatedNote;
+                    });
+            when(chatSessionRepository.findById("session-1")).thenReturn(Optional.of(activeSession));
+            when(noteService.createNote(generatedNote, "user-1")).thenReturn(generatedNote);
+
+            service.createNoteFromSession("session-1", new NoteFromSessionRequest(), "user-1");
+
+            assertThat(llmCalledInTransaction).isFalse();
+            // One to read the session, one to save the note
+            assertThat(txManager.begun()).isEqualTo(2);
+            verify(chatSessionRepository).save(activeSession);
+        }
     }
 
     // ---- updateNoteFromSession ----
@@ -491,6 +843,41 @@ class ChatServiceImplTest {
             // Key assertion: LLM-driven update must pass markAsUserEdited=false
             verify(noteService).updateNote(eq("note-1"), any(UpdateNoteRequest.class), eq("user-1"), eq(false));
         }
+
+        @Test
+        void updateNoteFromSession_callsLlmOutsideTransaction() {
+            TrackingTransactionManager txManager = new TrackingTransactionManager();
+            ChatServiceImpl service = serviceWith(txManager);
+            RecentMessage msg = new RecentMessage();
+            msg.setRole(RoleType.user);
+            msg.setContent("What about が?");
+            NoteDto existingNote = new NoteDto();
+            existingNote.setId("note-1");
+            NoteDto updatedNote = new NoteDto();
+            updatedNote.setId("note-1");
+            AtomicBoolean llmCalledInTransaction = new AtomicBoolean(true);
+
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+            when(chatSessionRepository.findByIdAndUser("session-1", testUser))
+                    .thenReturn(Optional.of(activeSession));
+            when(noteService.getNote("note-1", "user-1")).thenReturn(existingNote);
+            when(recentMessageRepository.findBySessionOrderByCreatedAtAsc(activeSession))
+                    .thenReturn(List.of(msg));
+            when(llmService.generateNoteFromConversation(any(), any(), eq(existingNote),
+                    eq(japanese), eq(english), eq("user-1")))
+                    .thenAnswer(inv -> {
+                        llmCalledInTransaction.set(txManager.inTransaction());
+                        return updatedNote;
+                    });
+            when(noteService.updateNote(eq("note-1"), any(UpdateNoteRequest.class), eq("user-1"), eq(false)))
+                    .thenReturn(updatedNote);
+
+            service.updateNoteFromSession("session-1", "note-1", new NoteFromSessionRequest(), "user-1");
+
+            assertThat(llmCalledInTransaction).isFalse();
+            // One to read the session and note, one to save the update
+            assertThat(txManager.begun()).isEqualTo(2);
+        }
     }
 
     // ---- closeSession ----
@@ -529,7 +916,7 @@ class ChatServiceImplTest {
                     .thenReturn(false);
             when(chatSessionRepository.findByIdAndUser("session-1", testUser))
                     .thenReturn(Optional.of(activeSession));
-            when(recentMessageRepository.countBySession(activeSession)).thenReturn(3L);
+            activeSession.setMessageCount(3);
 
             SessionResponse response = chatService.closeSession("session-1", request, "user-1");
 
@@ -571,7 +958,7 @@ class ChatServiceImplTest {
             when(chatSessionRepository.findByIdAndUser("session-1", testUser))
                     .thenReturn(Optional.of(activeSession));
             when(chatSessionRepository.save(activeSession)).thenReturn(activeSession);
-            when(recentMessageRepository.countBySession(activeSession)).thenReturn(7L);
+            activeSession.setMessageCount(7);
 
             SessionResponse response = chatService.closeSession("session-1", request, "user-1");
 
@@ -590,7 +977,7 @@ class ChatServiceImplTest {
             when(chatSessionRepository.findByIdAndUser("session-1", testUser))
                     .thenReturn(Optional.of(activeSession));
             when(chatSessionRepository.save(activeSession)).thenReturn(activeSession);
-            when(recentMessageRepository.countBySession(activeSession)).thenReturn(7L);
+            activeSession.setMessageCount(7);
 
             SessionResponse response = chatService.closeSession("session-1", request, "user-1");
 
@@ -642,7 +1029,7 @@ class ChatServiceImplTest {
                 s.setTitle("Japanese Particles");
                 return s;
             });
-            when(recentMessageRepository.countBySession(activeSession)).thenReturn(4L);
+            activeSession.setMessageCount(4);
 
             SessionResponse response = chatService.updateSessionTitle("session-1", request, "user-1");
 
@@ -669,7 +1056,7 @@ class ChatServiceImplTest {
             when(chatSessionRepository.findByIdAndUser("session-1", testUser))
                     .thenReturn(Optional.of(closedSession));
             when(chatSessionRepository.save(closedSession)).thenReturn(closedSession);
-            when(recentMessageRepository.countBySession(closedSession)).thenReturn(10L);
+            closedSession.setMessageCount(10);
 
             SessionResponse response = chatService.updateSessionTitle("session-1", request, "user-1");
 
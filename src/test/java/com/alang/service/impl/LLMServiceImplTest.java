@@ -5,8 +5,11 @@ import com.alang.dto.chat.ChatMessageRequest;
 import com.alang.dto.chat.TokenUsageDto;
 import com.alang.dto.note.NoteDto;
 import com.alang.entity.*;
+import com.alang.exception.DeadlineExceededException;
+import com.alang.exception.LLMCapacityExceededException;
 import com.alang.exception.LLMProviderException;
 import com.alang.exception.RateLimitExceededException;
+import com.alang.exception.RequestCancelledException;
 import com.alang.exception.UserNotFoundException;
 import com.alang.exception.UnauthorizedException;
 import com.alang.repository.ChatSessionRepository;
@@ -14,29 +17,53 @@ import com.alang.repository.ConversationSummaryRepository;
 import com.alang.repository.LanguageRepository;
 import com.alang.repository.RecentMessageRepository;
 import com.alang.repository.UserRepository;
+import com.alang.service.Deadline;
+import com.alang.service.LLMAdmissionController;
+import com.alang.service.LLMMetrics;
+import com.alang.service.LLMProviderRouter;
 import com.alang.service.LLMService;
 import com.alang.service.PromptTemplates;
+import com.alang.stub.LLMCassette;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.tck.TestObservationRegistry;
+import io.micrometer.observation.tck.TestObservationRegistryAssert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -75,7 +102,13 @@ class LLMServiceImplTest {
     @Spy
     private ObjectMapper objectMapper = new ObjectMapper();
 
-    @InjectMocks
+    @Spy
+    private LLMAdmissionController admissionController = new LLMAdmissionController(new LLMProperties());
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TestObservationRegistry observations = TestObservationRegistry.create();
+    private final LLMMetrics metrics = new LLMMetrics(meterRegistry, observations);
+
     private LLMServiceImpl llmService;
 
     private User freeUser;
@@ -83,6 +116,9 @@ class LLMServiceImplTest {
 
     @BeforeEach
     void setUp() {
+        observations.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+        llmService = newService(llmWebClient, admissionController);
+
         freeUser = new User();
         freeUser.setId("free-user");
         freeUser.setTier(UserTier.free);
@@ -98,6 +134,22 @@ class LLMServiceImplTest {
         proUser.setLastTokenResetDate(LocalDateTime.now());
     }
 
+    /**
+     * The service behind a router with llmWebClient as its only provider, "openai".
+     */
+    private LLMServiceImpl newService(WebClient provider, LLMAdmissionController admission) {
+        LLMProperties routing = new LLMProperties();
+        routing.setProvider("openai");
+        return new LLMServiceImpl(new LLMProviderRouter(provider, routing, admission,
+                new LLMCassette(routing, new ObjectMapper()), metrics), llmProperties, promptTemplates,
+                userRepository, languageRepository, recentMessageRepository, conversationSummaryRepository,
+                chatSessionRepository, metrics, objectMapper);
+    }
+
+    private static Deadline inOneMinute() {
+        return Deadline.after(Duration.ofMinutes(1));
+    }
+
     private LLMProperties.Models createModels() {
         LLMProperties.Models models = new LLMProperties.Models();
         models.setCheap("gpt-3.5-turbo");
@@ -122,14 +174,12 @@ class LLMServiceImplTest {
         WebClient.RequestBodySpec requestBodySpec = mock(WebClient.RequestBodySpec.class);
         WebClient.RequestHeadersSpec requestHeadersSpec = mock(WebClient.RequestHeadersSpec.class);
         WebClient.ResponseSpec responseSpec = mock(WebClient.ResponseSpec.class);
-        Mono<Map> mono = mock(Mono.class);
 
         when(llmWebClient.post()).thenReturn(requestBodyUriSpec);
         when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodySpec);
-        when(requestBodySpec.bodyValue(any())).thenReturn(requestHeadersSpec);
+        when(requestBodySpec.body(any(BodyInserter.class))).thenReturn(requestHeadersSpec);
         when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(mono);
-        when(mono.block()).thenReturn(apiResponse);
+        when(responseSpec.bodyToMono(DataBuffer.class)).thenReturn(Mono.justOrEmpty(apiResponse).map(this::toBuffer));
     }
 
     @SuppressWarnings("unchecked")
@@ -138,14 +188,20 @@ class LLMServiceImplTest {
         WebClient.RequestBodySpec requestBodySpec = mock(WebClient.RequestBodySpec.class);
         WebClient.RequestHeadersSpec requestHeadersSpec = mock(WebClient.RequestHeadersSpec.class);
         WebClient.ResponseSpec responseSpec = mock(WebClient.ResponseSpec.class);
-        Mono<Map> mono = mock(Mono.class);
 
         when(llmWebClient.post()).thenReturn(requestBodyUriSpec);
         when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodySpec);
-        when(requestBodySpec.bodyValue(any())).thenReturn(requestHeadersSpec);
+        when(requestBodySpec.body(any(BodyInserter.class))).thenReturn(requestHeadersSpec);
         when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        when(responseSpec.bodyToMono(Map.class)).thenReturn(mono);
-        when(mono.block()).thenThrow(exception);
+        when(responseSpec.bodyToMono(DataBuffer.class)).thenReturn(Mono.error(exception));
+    }
+
+    private DataBuffer toBuffer(Map<String, Object> apiResponse) {
+        try {
+            return DefaultDataBufferFactory.sharedInstance.wrap(objectMapper.writeValueAsBytes(apiResponse));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     private Map<String, Object> buildApiResponse(String content, int prompt, int completion, int total) {
@@ -429,10 +485,23 @@ class LLMServiceImplTest {
             LLMService.LLMResponse response = llmService.generateReply(request, "free-user");
 
             assertThat(response.getReply()).isEqualTo("Hello!");
-            assertThat(response.getModelUsed()).isEqualTo("gpt-3.5-turbo");
+            assertThat(response.getModelUsed()).isEqualTo("openai/gpt-3.5-turbo");
             assertThat(response.getTokenUsage().getTotalTokens()).isEqualTo(150);
             assertThat(response.getTokenUsage().getPromptTokens()).isEqualTo(50);
             assertThat(response.getTokenUsage().getCompletionTokens()).isEqualTo(100);
+            assertThat(meterRegistry.get("llm.requests")
+                    .tags("provider", "openai", "model", "gpt-3.5-turbo", "outcome", "success").timer().count())
+                    .isEqualTo(1);
+            assertThat(meterRegistry.get("llm.tokens").tags("type", "prompt", "tier", "free").summary().totalAmount())
+                    .isEqualTo(50);
+            assertThat(meterRegistry.get("llm.tokens").tags("type", "completion", "tier", "free").summary().totalAmount())
+                    .isEqualTo(100);
+            TestObservationRegistryAssert.assertThat(observations)
+                    .hasObservationWithNameEqualTo("llm.requests").that()
+                    .hasContextualNameEqualTo("llm openai/gpt-3.5-turbo")
+                    .hasHighCardinalityKeyValue("llm.retry.attempt", "0")
+                    .hasHighCardinalityKeyValue("llm.tokens.prompt", "50")
+                    .hasHighCardinalityKeyValue("llm.tokens.completion", "100");
         }
 
         @Test
@@ -537,6 +606,8 @@ class LLMServiceImplTest {
                     .isInstanceOf(LLMProviderException.class)
                     .hasMessageContaining("Failed to call LLM API after 3 attempts")
                     .cause().hasMessageContaining("missing 'choices'");
+            assertThat(meterRegistry.get("llm.parse.failures").tag("kind", "response").counter().count())
+                    .isEqualTo(3);
         }
 
         @Test
@@ -577,21 +648,19 @@ class LLMServiceImplTest {
             WebClientResponseException serverError = WebClientResponseException.create(
                     500, "Internal Server Error", null, "error".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
 
-            // Mock the full chain so each post() returns fresh mocks that throw
+            // Mock the full chain; the retried Mono fails every time
             WebClient.RequestBodyUriSpec uriSpec = mock(WebClient.RequestBodyUriSpec.class);
             WebClient.RequestBodySpec bodySpec = mock(WebClient.RequestBodySpec.class);
             @SuppressWarnings("unchecked")
             WebClient.RequestHeadersSpec headersSpec = mock(WebClient.RequestHeadersSpec.class);
             WebClient.ResponseSpec responseSpec = mock(WebClient.ResponseSpec.class);
-            @SuppressWarnings("unchecked")
-            Mono<Map> mono = mock(Mono.class);
 
             when(llmWebClient.post()).thenReturn(uriSpec);
             when(uriSpec.uri(anyString())).thenReturn(bodySpec);
-            when(bodySpec.bodyValue(any())).thenReturn(headersSpec);
+            when(bodySpec.body(any(BodyInserter.class))).thenReturn(headersSpec);
             when(headersSpec.retrieve()).thenReturn(responseSpec);
-            when(responseSpec.bodyToMono(Map.class)).thenReturn(mono);
-            when(mono.block()).thenThrow(serverError);
+            // Resubscribed on each retry
+            when(responseSpec.bodyToMono(DataBuffer.class)).thenReturn(Mono.error(serverError));
 
             ChatMessageRequest request = buildRequest("Hi");
 
@@ -614,6 +683,14 @@ class LLMServiceImplTest {
             assertThatThrownBy(() -> llmService.generateReply(request, "free-user"))
                     .isInstanceOf(LLMProviderException.class)
                     .hasMessageContaining("after 3 attempts");
+            assertThat(meterRegistry.get("llm.retries").tag("reason", "429").counter().count()).isEqualTo(2);
+            assertThat(meterRegistry.get("llm.rate.limited").tag("provider", "openai").counter().count()).isEqualTo(3);
+            assertThat(meterRegistry.get("llm.requests").tag("outcome", "rate_limited").timer().count()).isEqualTo(3);
+            TestObservationRegistryAssert.assertThat(observations).hasHandledContextsThatSatisfy(contexts ->
+                    assertThat(contexts)
+                            .filteredOn(context -> context.getName().equals("llm.requests"))
+                            .extracting(context -> context.getHighCardinalityKeyValue("llm.retry.attempt").getValue())
+                            .containsExactly("0", "1", "2"));
         }
 
         @Test
@@ -679,6 +756,242 @@ class LLMServiceImplTest {
                     any(ChatSession.class), any());
         }
 
+        @Test
+        void generateReply_capacityExceeded_isNotRetriedOrWrapped() {
+            mockCommonDependencies();
+            doReturn(Mono.error(new LLMCapacityExceededException("AI service is busy.", 10)))
+                    .when(admissionController).admit(eq("openai/gpt-3.5-turbo"),
+                            eq(LLMAdmissionController.Priority.INTERACTIVE_FREE), any(), any());
+
+            assertThatThrownBy(() -> llmService.generateReply(buildRequest("Hi"), "free-user"))
+                    .isInstanceOf(LLMCapacityExceededException.class);
+            verifyNoInteractions(llmWebClient);
+        }
+
+        // --- generateReplyAsync ---
+
+        @Test
+        void generateReplyAsync_completesWithReply() throws Exception {
+            mockCommonDependencies();
+            mockWebClientSuccess(buildApiResponse("Hello!", 50, 100, 150));
+
+            LLMService.LLMResponse response = llmService.generateReplyAsync(buildRequest("Hi"), "free-user", inOneMinute())
+                    .get(5, TimeUnit.SECONDS);
+
+            assertThat(response.getReply()).isEqualTo("Hello!");
+            assertThat(response.getTokenUsage().getTotalTokens()).isEqualTo(150);
+        }
+
+        @Test
+        void generateReplyAsync_preparationFailure_completesExceptionallyInsteadOfThrowing() {
+            when(userRepository.findById("missing")).thenReturn(Optional.empty());
+
+            CompletableFuture<LLMService.LLMResponse> future = llmService.generateReplyAsync(buildRequest("Hi"), "missing", inOneMinute());
+
+            assertThat(future).isCompletedExceptionally();
+            assertThatThrownBy(future::join).hasCauseInstanceOf(UserNotFoundException.class);
+        }
+
+        @Test
+        void generateReplyAsync_nonRetryableError_mapsToProviderException() {
+            mockCommonDependencies();
+            mockWebClientThrows(WebClientResponseException.create(
+                    400, "Bad Request", null, "error body".getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+
+            assertThatThrownBy(() -> llmService.generateReplyAsync(buildRequest("Hi"), "free-user", inOneMinute()).join())
+                    .hasCauseInstanceOf(LLMProviderException.class)
+                    .hasMessageContaining("LLM API returned 400");
+        }
+
+        // --- deadline ---
+
+        @Test
+        void generateReplyAsync_expiredDeadline_failsWithoutCallingProvider() {
+            mockCommonDependencies();
+
+            CompletableFuture<LLMService.LLMResponse> future =
+                    llmService.generateReplyAsync(buildRequest("Hi"), "free-user", Deadline.after(Duration.ZERO));
+
+            assertThatThrownBy(future::join).hasCauseInstanceOf(DeadlineExceededException.class);
+            verifyNoInteractions(llmWebClient);
+        }
+
+        @Test
+        void generateReplyAsync_deadlineTooShortForBackoff_givesUpAfterFirstAttempt() {
+            mockCommonDependencies();
+            mockWebClientThrows(WebClientResponseException.create(503, "Service Unavailable", null, null, null));
+
+            // 1s backoff + 5s minimum attempt does not fit in 3s
+            CompletableFuture<LLMService.LLMResponse> future =
+                    llmService.generateReplyAsync(buildRequest("Hi"), "free-user", Deadline.after(Duration.ofSeconds(3)));
+
+            assertThatThrownBy(future::join)
+                    .hasCauseInstanceOf(LLMProviderException.class)
+                    .hasMessageContaining("LLM API returned 503 after 1 attempts");
+            verify(llmWebClient, times(1)).post();
+        }
+
+        @Test
+        void generateReplyAsync_slowProvider_failsAtDeadline() {
+            mockCommonDependencies();
+            WebClient hangingProvider = WebClient.builder()
+                    .exchangeFunction(request -> Mono.never())
+                    .build();
+            LLMServiceImpl service = newService(hangingProvider, admissionController);
+
+            long start = System.nanoTime();
+            CompletableFuture<LLMService.LLMResponse> future =
+                    service.generateReplyAsync(buildRequest("Hi"), "free-user", Deadline.after(Duration.ofMillis(200)));
+
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(DeadlineExceededException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        }
+
+        @Test
+        void generateReplyAsync_cancelledDeadline_abortsProviderRequestAndBillsThePromptEstimate() throws Exception {
+            mockCommonDependencies();
+            CountDownLatch requestSent = new CountDownLatch(1);
+            AtomicBoolean providerCancelled = new AtomicBoolean();
+            WebClient hangingProvider = WebClient.builder()
+                    .exchangeFunction(request -> Mono.<ClientResponse>never()
+                            .doOnSubscribe(s -> requestSent.countDown())
+                            .doOnCancel(() -> providerCancelled.set(true)))
+                    .build();
+            LLMServiceImpl service = newService(hangingProvider, admissionController);
+            Deadline deadline = inOneMinute();
+
+            CompletableFuture<LLMService.LLMResponse> future =
+                    service.generateReplyAsync(buildRequest("Hi"), "free-user", deadline);
+            assertThat(requestSent.await(5, TimeUnit.SECONDS)).isTrue();
+            deadline.cancel();
+
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(RequestCancelledException.class);
+            assertThat(providerCancelled).isTrue();
+            // The provider was processing the prompt; without a response, the estimate is all there is
+            long promptEstimate = service.countTokens("System prompt", "gpt-3.5-turbo")
+                    + service.countTokens("Hi", "gpt-3.5-turbo");
+            verify(userRepository, timeout(5000)).save(freeUser);
+            assertThat(freeUser.getTotalDailyTokensUsed()).isEqualTo(promptEstimate);
+        }
+
+        @Test
+        void generateReplyAsync_cancelledAfterAnUnusableResponse_billsItsUsagePlusTheRetryInFlight()
+                throws Exception {
+            mockCommonDependencies();
+            AtomicInteger requests = new AtomicInteger();
+            CountDownLatch retrySent = new CountDownLatch(1);
+            WebClient provider = WebClient.builder()
+                    .exchangeFunction(request -> requests.getAndIncrement() == 0
+                            // Processed and billed by the provider, but unusable: retried
+                            ? Mono.just(ClientResponse.create(HttpStatus.OK)
+                                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                    .body("{\"choices\":[],\"usage\":{\"prompt_tokens\":10,"
+                                            + "\"completion_tokens\":5,\"total_tokens\":15}}")
+                                    .build())
+                            : Mono.<ClientResponse>never().doOnSubscribe(s -> retrySent.countDown()))
+                    .build();
+            LLMServiceImpl service = newService(provider, admissionController);
+            Deadline deadline = inOneMinute();
+
+            CompletableFuture<LLMService.LLMResponse> future =
+                    service.generateReplyAsync(buildRequest("Hi"), "free-user", deadline);
+            assertThat(retrySent.await(5, TimeUnit.SECONDS)).isTrue();
+            deadline.cancel();
+
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(RequestCancelledException.class);
+            long promptEstimate = service.countTokens("System prompt", "gpt-3.5-turbo")
+                    + service.countTokens("Hi", "gpt-3.5-turbo");
+            verify(userRepository, timeout(5000)).save(freeUser);
+            assertThat(freeUser.getTotalDailyTokensUsed()).isEqualTo(15 + promptEstimate);
+        }
+
+        @Test
+        void generateReplyAsync_cancelledWhileQueuedForAdmission_billsNothing() throws Exception {
+            mockCommonDependencies();
+            CountDownLatch firstSent = new CountDownLatch(1);
+            WebClient hangingProvider = WebClient.builder()
+                    .exchangeFunction(request -> Mono.<ClientResponse>never()
+                            .doOnSubscribe(s -> firstSent.countDown()))
+                    .build();
+            LLMProperties oneSlot = new LLMProperties();
+            oneSlot.getAdmission().setMaxConcurrency(1);
+            oneSlot.getAdmission().getAdaptive().setEnabled(false);
+            LLMServiceImpl service = newService(hangingProvider, new LLMAdmissionController(oneSlot));
+            Deadline holdsTheSlot = inOneMinute();
+            Deadline queued = inOneMinute();
+
+            service.generateReplyAsync(buildRequest("Hi"), "free-user", holdsTheSlot);
+            assertThat(firstSent.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<LLMService.LLMResponse> future =
+                    service.generateReplyAsync(buildRequest("Hi"), "free-user", queued);
+            queued.cancel();
+
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(RequestCancelledException.class);
+            verify(userRepository, never()).save(any());
+            holdsTheSlot.cancel();
+        }
+
+        /**
+         * Many chats issued from 2 threads standing in for Tomcat's pool,
+         * against a provider that holds every response until released. Each
+         * call returns its future straight away, every request is in flight
+         * at once, and the pool stays free to take more work; a blocking
+         * call would hold both threads and never get past the first two.
+         */
+        @Test
+        void generateReplyAsync_manyConcurrentChats_returnBeforeProviderRespondsAndKeepContainerThreadsFree()
+                throws Exception {
+            mockCommonDependencies();
+            int chats = 50;
+            String body = "{\"choices\":[{\"message\":{\"content\":\"Hello!\"}}],"
+                    + "\"usage\":{\"prompt_tokens\":1,\"completion_tokens\":2,\"total_tokens\":3}}";
+            CountDownLatch requestsSent = new CountDownLatch(chats);
+            CompletableFuture<Void> providerResponds = new CompletableFuture<>();
+            WebClient heldProvider = WebClient.builder()
+                    .exchangeFunction(request -> Mono.fromFuture(providerResponds)
+                            .doOnSubscribe(s -> requestsSent.countDown())
+                            .then(Mono.fromSupplier(() -> ClientResponse.create(HttpStatus.OK)
+                                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                    .body(body)
+                                    .build())))
+                    .build();
+            LLMProperties unlimited = new LLMProperties();
+            unlimited.getAdmission().setMaxConcurrency(chats);
+            unlimited.getAdmission().getAdaptive().setEnabled(false);
+            LLMServiceImpl service = newService(heldProvider, new LLMAdmissionController(unlimited));
+
+            ExecutorService container = Executors.newFixedThreadPool(2);
+            List<CompletableFuture<LLMService.LLMResponse>> inFlight = new ArrayList<>();
+            try {
+                List<Future<CompletableFuture<LLMService.LLMResponse>>> issued = new ArrayList<>();
+                for (int i = 0; i < chats; i++) {
+                    ChatMessageRequest request = buildRequest("Hi " + i);
+                    issued.add(container.submit(
+                            () -> service.generateReplyAsync(request, "free-user", inOneMinute())));
+                }
+                for (Future<CompletableFuture<LLMService.LLMResponse>> call : issued) {
+                    inFlight.add(call.get(10, TimeUnit.SECONDS));
+                }
+
+                assertThat(requestsSent.await(10, TimeUnit.SECONDS))
+                        .as("all %d provider requests in flight at once", chats).isTrue();
+                assertThat(inFlight).noneMatch(CompletableFuture::isDone);
+                assertThat(container.submit(() -> "free").get(10, TimeUnit.SECONDS))
+                        .as("container pool takes new work while the replies are pending").isEqualTo("free");
+
+                providerResponds.complete(null);
+                CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+            } finally {
+                container.shutdownNow();
+            }
+
+            assertThat(inFlight).allSatisfy(f -> assertThat(f.join().getReply()).isEqualTo("Hello!"));
+        }
+
         @Test
         void generateReply_handlesEmptyContextGracefully() {
             mockCommonDependencies();
@@ -741,7 +1054,7 @@ class LLMServiceImplTest {
 
             LLMService.LLMResponse response = llmService.generateReply(request, "pro-user");
 
-            assertThat(response.getModelUsed()).isEqualTo("gpt-4-turbo");
+            assertThat(response.getModelUsed()).isEqualTo("openai/gpt-4-turbo");
         }
     }
 
@@ -897,6 +1210,7 @@ class LLMServiceImplTest {
                     sessionMessages, null, null, japanese, english, "free-user"))
                     .isInstanceOf(LLMProviderException.class)
                     .hasMessageContaining("unparseable JSON");
+            assertThat(meterRegistry.get("llm.parse.failures").tag("kind", "note").counter().count()).isEqualTo(1);
         }
 
         @Test
@@ -8,6 +8,7 @@ import com.alang.entity.Language;
 import com.alang.entity.Note;
 import com.alang.entity.NoteType;
 import com.alang.entity.User;
+import com.alang.entity.UserStats;
 import com.alang.exception.NoteNotFoundException;
 import com.alang.exception.UnauthorizedException;
 import com.alang.exception.UserNotFoundException;
@@ -15,6 +16,8 @@ import com.alang.repository.LanguageRepository;
 import com.alang.repository.NoteRepository;
 import com.alang.repository.NoteTagRepository;
 import com.alang.repository.UserRepository;
+import com.alang.repository.UserStatsRepository;
+import com.alang.service.DueCardIndex;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,8 +28,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -52,6 +57,12 @@ class NoteServiceImplTest {
     @Mock
     private LanguageRepository languageRepository;
 
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private DueCardIndex dueCardIndex;
+
     @Mock
     private EntityManager entityManager;
 
@@ -120,6 +131,8 @@ class NoteServiceImplTest {
         assertThat(result.getTitle()).isEqualTo("水");
         assertThat(result.getType()).isEqualTo(NoteType.vocab);
         verify(noteRepository).save(any(Note.class));
+        verify(userStatsRepository).adjustNoteCount("user-1", "ja:vocab", 1);
+        verify(dueCardIndex).noteScheduled(eq("user-1"), eq("note-1"), eq("ja"), any());
     }
 
     @Test
@@ -278,7 +291,45 @@ class NoteServiceImplTest {
         NoteListResponse result = noteService.getNotes("user-1", null, null, null, null, null, null, 0, 20);
 
         assertThat(result.getNotes()).hasSize(1);
-        assertThat(result.getTotalCount()).isEqualTo(1);
+        assertThat(result.getTotalCount()).isZero(); // no user_stats row yet
+    }
+
+    @Test
+    void getNotes_unfilteredTotalComesFromUserStats() {
+        Note note = createTestNote("note-1", "Test");
+        UserStats stats = new UserStats();
+        stats.setUserId("user-1");
+        stats.setNoteCount(42L);
+
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+        when(noteRepository.findByUser(eq(testUser), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of(note)));
+        when(userStatsRepository.findById("user-1")).thenReturn(Optional.of(stats));
+
+        NoteListResponse result = noteService.getNotes("user-1", null, null, null, null, null, null, 0, 20);
+
+        assertThat(result.getNotes()).hasSize(1);
+        assertThat(result.getTotalCount()).isEqualTo(42);
+    }
+
+    @Test
+    void getNotes_languageAndTypeTotalsComeFromPerKeyCounters() {
+        UserStats stats = new UserStats();
+        stats.setUserId("user-1");
+        stats.setNoteCounts(new HashMap<>(Map.of("ja:vocab", 7L, "ja:grammar", 3L, "es:vocab", 9L)));
+
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(testUser));
+        when(languageRepository.findById("ja")).thenReturn(Optional.of(japanese));
+        when(noteRepository.findByUserAndLearningLanguage(eq(testUser), eq(japanese), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(noteRepository.findByUserAndLearningLanguageAndType(
+                eq(testUser), eq(japanese), eq(NoteType.vocab), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        when(userStatsRepository.findById("user-1")).thenReturn(Optional.of(stats));
+
+        assertThat(noteService.getNotes("user-1", "ja", null, null, null, null, null, 0, 20).getTotalCount())
+                .isEqualTo(10);
+        assertThat(noteService.getNotes("user-1", "ja", "vocab", null, null, null, null, 0, 20).getTotalCount())
+                .isEqualTo(7);
     }
 
     @Test
@@ -465,6 +516,8 @@ class NoteServiceImplTest {
         noteService.deleteNote("note-1", "user-1");
 
         verify(noteRepository).delete(note);
+        verify(userStatsRepository).adjustNoteCount("user-1", "ja:vocab", -1);
+        verify(dueCardIndex).noteRemoved("user-1", "note-1");
     }
 
     @Test
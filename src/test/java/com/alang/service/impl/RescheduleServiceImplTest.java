@@ -0,0 +1,133 @@
+package com.alang.service.impl;
+
+import com.alang.dto.admin.RescheduleJobResponse;
+import com.alang.entity.RescheduleJob;
+import com.alang.entity.RescheduleStatus;
+import com.alang.exception.RescheduleJobNotFoundException;
+import com.alang.job.NoteRescheduleJob;
+import com.alang.repository.RescheduleJobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RescheduleServiceImplTest {
+
+    @Mock
+    private RescheduleJobRepository rescheduleJobRepository;
+
+    @Mock
+    private NoteRescheduleJob noteRescheduleJob;
+
+    @InjectMocks
+    private RescheduleServiceImpl rescheduleService;
+
+    private RescheduleJob buildJob(String id, RescheduleStatus status) {
+        RescheduleJob job = new RescheduleJob();
+        job.setId(id);
+        job.setStatus(status);
+        job.setLastNoteId("note-42");
+        return job;
+    }
+
+    @Test
+    void startJob_savesRunningJobAndLaunchesEngine() {
+        when(rescheduleJobRepository.findFirstByStatus(RescheduleStatus.running)).thenReturn(Optional.empty());
+        when(rescheduleJobRepository.save(any(RescheduleJob.class))).thenAnswer(inv -> {
+            RescheduleJob job = inv.getArgument(0);
+            job.setId("job-1");
+            return job;
+        });
+
+        RescheduleJobResponse response = rescheduleService.startJob("admin-1");
+
+        assertThat(response.getId()).isEqualTo("job-1");
+        assertThat(response.getStatus()).isEqualTo("running");
+        assertThat(response.getRequestedBy()).isEqualTo("admin-1");
+        verify(noteRescheduleJob).run("job-1");
+    }
+
+    @Test
+    void startJob_anotherRunning_throwsIllegalState() {
+        when(rescheduleJobRepository.findFirstByStatus(RescheduleStatus.running))
+                .thenReturn(Optional.of(buildJob("job-0", RescheduleStatus.running)));
+
+        assertThatThrownBy(() -> rescheduleService.startJob("admin-1"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("job-0");
+        verify(noteRescheduleJob, never()).run(any());
+    }
+
+    @Test
+    void resumeJob_failedJob_restartsFromCheckpoint() {
+        RescheduleJob job = buildJob("job-1", RescheduleStatus.failed);
+        job.setErrorMessage("lock timeout");
+        when(rescheduleJobRepository.findById("job-1")).thenReturn(Optional.of(job));
+        when(rescheduleJobRepository.findFirstByStatus(RescheduleStatus.running)).thenReturn(Optional.empty());
+        when(rescheduleJobRepository.save(job)).thenReturn(job);
+
+        RescheduleJobResponse response = rescheduleService.resumeJob("job-1");
+
+        assertThat(response.getStatus()).isEqualTo("running");
+        assertThat(response.getErrorMessage()).isNull();
+        assertThat(response.getLastNoteId()).isEqualTo("note-42");
+        verify(noteRescheduleJob).run("job-1");
+    }
+
+    @Test
+    void resumeJob_completed_throwsIllegalState() {
+        when(rescheduleJobRepository.findById("job-1"))
+                .thenReturn(Optional.of(buildJob("job-1", RescheduleStatus.completed)));
+
+        assertThatThrownBy(() -> rescheduleService.resumeJob("job-1"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void resumeJob_activeOnThisNode_throwsIllegalState() {
+        when(rescheduleJobRepository.findById("job-1"))
+                .thenReturn(Optional.of(buildJob("job-1", RescheduleStatus.running)));
+        when(noteRescheduleJob.isRunning("job-1")).thenReturn(true);
+
+        assertThatThrownBy(() -> rescheduleService.resumeJob("job-1"))
+                .isInstanceOf(IllegalStateException.class);
+        verify(noteRescheduleJob, never()).run(any());
+    }
+
+    @Test
+    void cancelJob_running_marksCancelled() {
+        when(rescheduleJobRepository.findById("job-1"))
+                .thenReturn(Optional.of(buildJob("job-1", RescheduleStatus.running)));
+
+        rescheduleService.cancelJob("job-1");
+
+        verify(rescheduleJobRepository).finish(eq("job-1"), eq(RescheduleStatus.cancelled), eq(null), any());
+    }
+
+    @Test
+    void cancelJob_notRunning_throwsIllegalState() {
+        when(rescheduleJobRepository.findById("job-1"))
+                .thenReturn(Optional.of(buildJob("job-1", RescheduleStatus.cancelled)));
+
+        assertThatThrownBy(() -> rescheduleService.cancelJob("job-1"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void getJob_unknown_throwsNotFound() {
+        when(rescheduleJobRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> rescheduleService.getJob("missing"))
+                .isInstanceOf(RescheduleJobNotFoundException.class);
+    }
+}
@@ -1,31 +1,48 @@
 package com.alang.service.impl;
 
+import com.alang.dto.review.BatchReviewSubmissionResponse;
+import com.alang.dto.review.DueForecastResponse;
+import com.alang.dto.review.ReviewHeatmapResponse;
 import com.alang.dto.review.ReviewQueueResponse;
+import com.alang.dto.review.ReviewResultDto;
 import com.alang.dto.review.ReviewSubmissionRequest;
+import com.alang.dto.review.ReviewTrendResponse;
 import com.alang.entity.Language;
 import com.alang.entity.Note;
+import com.alang.entity.ReviewDailyStat;
 import com.alang.entity.ReviewEvent;
 import com.alang.entity.User;
+import com.alang.entity.UserStats;
 import com.alang.exception.NoteNotFoundException;
 import com.alang.exception.UserNotFoundException;
 import com.alang.repository.LanguageRepository;
 import com.alang.repository.NoteRepository;
+import com.alang.repository.ReviewDailyStatRepository;
 import com.alang.repository.ReviewEventRepository;
 import com.alang.repository.UserRepository;
+import com.alang.repository.UserStatsRepository;
+import com.alang.service.DueCardIndex;
+import com.alang.service.ReviewScheduler;
 import com.alang.service.ReviewService.ReviewStats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -35,9 +52,13 @@ class ReviewServiceImplTest {
     private final ReviewEventRepository reviewEventRepository = mock(ReviewEventRepository.class);
     private final UserRepository userRepository = mock(UserRepository.class);
     private final LanguageRepository languageRepository = mock(LanguageRepository.class);
+    private final ReviewDailyStatRepository reviewDailyStatRepository = mock(ReviewDailyStatRepository.class);
 
+    private final UserStatsRepository userStatsRepository = mock(UserStatsRepository.class);
+    private final ReviewScheduler reviewScheduler = new ReviewScheduler(noteRepository, 6, true, 0.05, 4, 3);
     private final ReviewServiceImpl service = new ReviewServiceImpl(
-            noteRepository, reviewEventRepository, userRepository, languageRepository);
+            noteRepository, reviewEventRepository, userRepository, languageRepository, reviewDailyStatRepository,
+            userStatsRepository, reviewScheduler, new DueCardIndex(noteRepository, false, 10, 100, 300));
 
     private User user;
     private Language language;
@@ -179,6 +200,55 @@ class ReviewServiceImplTest {
     @Nested
     class GetReviewQueue {
 
+        private ReviewServiceImpl indexedService() {
+            DueCardIndex index = new DueCardIndex(noteRepository, true, 10, 100, 300);
+            return new ReviewServiceImpl(noteRepository, reviewEventRepository, userRepository, languageRepository,
+                    reviewDailyStatRepository, userStatsRepository, reviewScheduler, index);
+        }
+
+        @Test
+        void indexEnabled_servesIdsFromIndexAndOnlyHydratesThePage() {
+            ReviewServiceImpl indexed = indexedService();
+            LocalDateTime now = LocalDateTime.now();
+            String dueId = UUID.randomUUID().toString();
+            String futureId = UUID.randomUUID().toString();
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(noteRepository.findScheduleByUserId(eq("user-1"), any())).thenReturn(List.of(
+                    new Object[]{futureId, now.plusDays(2), "ja"},
+                    new Object[]{dueId, now.minusHours(1), "ja"}));
+            Note due = buildNote(dueId, 5, 2.5);
+            due.setNextReviewAt(now.minusHours(1));
+            when(noteRepository.findByUserAndIdIn(user, List.of(dueId))).thenReturn(List.of(due));
+            stubNoteCount(2);
+
+            ReviewQueueResponse response = indexed.getReviewQueue("user-1", null, 20);
+
+            assertThat(response.getDueNotes()).extracting("id").containsExactly(dueId);
+            assertThat(response.getDueTodayCount()).isEqualTo(1);
+            assertThat(response.getTotalNotes()).isEqualTo(2);
+            verify(noteRepository, never()).findDueForReview(any(), any(), any());
+            verify(noteRepository, never()).countDueByEndOfDay(any(), any());
+        }
+
+        @Test
+        void indexEnabled_staleEntry_isFilteredAndUserReloaded() {
+            ReviewServiceImpl indexed = indexedService();
+            LocalDateTime now = LocalDateTime.now();
+            String noteId = UUID.randomUUID().toString();
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(noteRepository.findScheduleByUserId(eq("user-1"), any()))
+                    .thenReturn(List.<Object[]>of(new Object[]{noteId, now.minusHours(1), "ja"}));
+            // Reviewed on another node: no longer due
+            Note reviewed = buildNote(noteId, 5, 2.5);
+            reviewed.setNextReviewAt(now.plusDays(3));
+            when(noteRepository.findByUserAndIdIn(user, List.of(noteId))).thenReturn(List.of(reviewed));
+
+            assertThat(indexed.getReviewQueue("user-1", null, 20).getDueNotes()).isEmpty();
+            indexed.getReviewQueue("user-1", null, 20);
+
+            verify(noteRepository, times(2)).findScheduleByUserId(eq("user-1"), any());
+        }
+
         @Test
         void userNotFound_throwsUserNotFoundException() {
             when(userRepository.findById("missing")).thenReturn(Optional.empty());
@@ -192,7 +262,7 @@ class ReviewServiceImplTest {
             Note note = buildNote("note-1", 5, 2.5);
             when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
             when(noteRepository.findDueForReview(eq(user), any(), any())).thenReturn(List.of(note));
-            when(noteRepository.countByUser(user)).thenReturn(10L);
+            stubNoteCount(10L);
             when(noteRepository.countDueByEndOfDay(eq(user), any())).thenReturn(3L);
 
             ReviewQueueResponse response = service.getReviewQueue("user-1", null, 20);
@@ -209,7 +279,7 @@ class ReviewServiceImplTest {
             when(languageRepository.findById("ja")).thenReturn(Optional.of(language));
             when(noteRepository.findDueForReviewByLanguage(eq(user), eq(language), any(), any()))
                     .thenReturn(List.of(note));
-            when(noteRepository.countByUser(user)).thenReturn(5L);
+            stubNoteCount(5L);
             when(noteRepository.countDueByEndOfDay(eq(user), any())).thenReturn(1L);
 
             ReviewQueueResponse response = service.getReviewQueue("user-1", "ja", 10);
@@ -223,7 +293,7 @@ class ReviewServiceImplTest {
         void withLanguageFilter_languageNotFound_returnsEmptyList() {
             when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
             when(languageRepository.findById("xx")).thenReturn(Optional.empty());
-            when(noteRepository.countByUser(user)).thenReturn(5L);
+            stubNoteCount(5L);
             when(noteRepository.countDueByEndOfDay(eq(user), any())).thenReturn(0L);
 
             ReviewQueueResponse response = service.getReviewQueue("user-1", "xx", 20);
@@ -356,6 +426,72 @@ class ReviewServiceImplTest {
             verify(noteRepository).save(noteCaptor.capture());
             assertThat(noteCaptor.getValue().getIntervalDays()).isEqualTo(1);
         }
+
+        @Test
+        void validSubmission_incrementsTodaysRollupForQualityGrade() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            Note note = buildNote("note-1", 5, 2.5);
+            note.setReviewCount(3);
+            when(noteRepository.findByIdAndUser("note-1", user)).thenReturn(Optional.of(note));
+
+            service.submitReview(buildRequest("note-1", 3, 45), "user-1");
+
+            verify(reviewDailyStatRepository).increment(
+                    "user-1", "ja", LocalDate.now(), 1, 0, 0, 1, 0, 45L, 0, 0);
+        }
+
+        @Test
+        void firstReview_countsAsNew() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            Note note = buildNote("note-1", 0, 2.5);
+            when(noteRepository.findByIdAndUser("note-1", user)).thenReturn(Optional.of(note));
+
+            service.submitReview(buildRequest("note-1", 4, 10), "user-1");
+
+            verify(reviewDailyStatRepository).increment(
+                    "user-1", "ja", LocalDate.now(), 1, 0, 0, 0, 1, 10L, 1, 0);
+        }
+
+        @Test
+        void longPreviousInterval_countsAsMature() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            Note note = buildNote("note-1", 30, 2.5);
+            note.setReviewCount(8);
+            when(noteRepository.findByIdAndUser("note-1", user)).thenReturn(Optional.of(note));
+
+            service.submitReview(buildRequest("note-1", 1, 20), "user-1");
+
+            verify(reviewDailyStatRepository).increment(
+                    "user-1", "ja", LocalDate.now(), 1, 1, 0, 0, 0, 20L, 0, 1);
+        }
+
+        @Test
+        void nullTimeSpent_recordsZeroSeconds() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            Note note = buildNote("note-1", 5, 2.5);
+            note.setReviewCount(1);
+            when(noteRepository.findByIdAndUser("note-1", user)).thenReturn(Optional.of(note));
+
+            ReviewSubmissionRequest req = buildRequest("note-1", 2, 0);
+            req.setTimeSpentSeconds(null);
+            service.submitReview(req, "user-1");
+
+            verify(reviewDailyStatRepository).increment(
+                    eq("user-1"), eq("ja"), any(), eq(1), eq(0), eq(1), eq(0), eq(0), eq(0L), eq(0), eq(0));
+        }
+
+        @Test
+        void invalidQuality_doesNotTouchRollup() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            Note note = buildNote("note-1", 5, 2.5);
+            when(noteRepository.findByIdAndUser("note-1", user)).thenReturn(Optional.of(note));
+
+            assertThatThrownBy(() -> service.submitReview(buildRequest("note-1", 0, 30), "user-1"))
+                    .isInstanceOf(IllegalArgumentException.class);
+
+            verify(reviewDailyStatRepository, never()).increment(
+                    any(), any(), any(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(), anyLong(), anyInt(), anyInt());
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -376,7 +512,7 @@ class ReviewServiceImplTest {
         @Test
         void returnsCorrectTotals() {
             when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
-            when(noteRepository.countByUser(user)).thenReturn(15L);
+            stubNoteCount(15L);
             when(noteRepository.countDueByEndOfDay(eq(user), any())).thenReturn(3L);
             // First call: reviewedToday stat (5). Second call: streak check today (0 → no loop).
             when(reviewEventRepository.countByUserAndReviewedAtBetween(eq(user), any(), any()))
@@ -392,7 +528,7 @@ class ReviewServiceImplTest {
         @Test
         void streakIsZeroWhenNeverReviewed() {
             when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
-            when(noteRepository.countByUser(user)).thenReturn(5L);
+            stubNoteCount(5L);
             when(noteRepository.countDueByEndOfDay(eq(user), any())).thenReturn(0L);
             when(reviewEventRepository.countByUserAndReviewedAtBetween(eq(user), any(), any())).thenReturn(0L);
 
@@ -404,7 +540,7 @@ class ReviewServiceImplTest {
         @Test
         void streakCountsConsecutiveDaysWithReviewsToday() {
             when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
-            when(noteRepository.countByUser(user)).thenReturn(5L);
+            stubNoteCount(5L);
             when(noteRepository.countDueByEndOfDay(eq(user), any())).thenReturn(0L);
 
             // countByUserAndReviewedAtBetween call order:
@@ -423,10 +559,361 @@ class ReviewServiceImplTest {
         }
     }
 
+    // -------------------------------------------------------------------------
+    // submitReviews (batch)
+    // -------------------------------------------------------------------------
+
+    @Nested
+    class SubmitReviews {
+
+        @Test
+        void userNotFound_throwsUserNotFoundException() {
+            when(userRepository.findById("missing")).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> service.submitReviews(List.of(buildRequest("note-1", 3, 10)), "missing"))
+                    .isInstanceOf(UserNotFoundException.class);
+        }
+
+        @Test
+        void loadsAllNotesInOneQuery() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(noteRepository.findByUserAndIdIn(eq(user), any()))
+                    .thenReturn(List.of(buildNote("note-1", 5, 2.5), buildNote("note-2", 5, 2.5)));
+
+            service.submitReviews(List.of(
+                    buildRequest("note-1", 3, 10),
+                    buildRequest("note-2", 4, 10)), "user-1");
+
+            verify(noteRepository).findByUserAndIdIn(user, java.util.Set.of("note-1", "note-2"));
+            verify(noteRepository, never()).findByIdAndUser(any(), any());
+        }
+
+        @Test
+        void appliesSameSm2UpdateAsSingleSubmission() {
+            Note note = buildNote("note-1", 5, 2.5);
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(noteRepository.findByUserAndIdIn(eq(user), any())).thenReturn(List.of(note));
+            double expectedEase = service.updateEaseFactor(2.5, 3);
+            int expectedInterval = service.calculateNextInterval(5, expectedEase, 3);
+
+            BatchReviewSubmissionResponse response = service.submitReviews(
+                    List.of(buildRequest("note-1", 3, 10)), "user-1");
+
+            ReviewResultDto result = response.getResults().get(0);
+            assertThat(result.getStatus()).isEqualTo(ReviewResultDto.STATUS_APPLIED);
+            assertThat(result.getIntervalDays()).isEqualTo(expectedInterval);
+            assertThat(result.getEaseFactor()).isCloseTo(expectedEase, within(0.001));
+            assertThat(result.getNextReviewAt()).isNotNull();
+            assertThat(note.getReviewCount()).isEqualTo(1);
+        }
+
+        @Test
+        void sameNoteTwice_appliesReviewsInOrder() {
+            Note note = buildNote("note-1", 5, 2.5);
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(noteRepository.findByUserAndIdIn(eq(user), any())).thenReturn(List.of(note));
+
+            BatchReviewSubmissionResponse response = service.submitReviews(List.of(
+                    buildRequest("note-1", 1, 10),
+                    buildRequest("note-1", 3, 10)), "user-1");
+
+            assertThat(response.getResults().get(0).getIntervalDays()).isEqualTo(1);
+            assertThat(response.getResults().get(1).getIntervalDays())
+                    .isEqualTo(service.calculateNextInterval(1, note.getEaseFactor(), 3));
+            assertThat(note.getReviewCount()).isEqualTo(2);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void writesEventsAndNotesWithSaveAll() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(noteRepository.findByUserAndIdIn(eq(user), any()))
+                    .thenReturn(List.of(buildNote("note-1", 5, 2.5), buildNote("note-2", 5, 2.5)));
+
+            service.submitReviews(List.of(
+                    buildRequest("note-1", 3, 10),
+                    buildRequest("note-2", 4, 10),
+                    buildRequest("note-1", 2, 10)), "user-1");
+
+            ArgumentCaptor<Iterable<ReviewEvent>> events = ArgumentCaptor.forClass(Iterable.class);
+            verify(reviewEventRepository).saveAll(events.capture());
+            assertThat(events.getValue()).hasSize(3);
+
+            ArgumentCaptor<Iterable<Note>> notes = ArgumentCaptor.forClass(Iterable.class);
+            verify(noteRepository).saveAll(notes.capture());
+            assertThat(notes.getValue()).hasSize(2);
+
+            verify(reviewEventRepository, never()).save(any());
+            verify(noteRepository, never()).save(any());
+        }
+
+        @Test
+        void reportsPerItemFailuresAndAppliesTheRest() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(noteRepository.findByUserAndIdIn(eq(user), any())).thenReturn(List.of(buildNote("note-1", 5, 2.5)));
+
+            BatchReviewSubmissionResponse response = service.submitReviews(List.of(
+                    buildRequest("note-1", 3, 10),
+                    buildRequest("someone-elses-note", 3, 10),
+                    buildRequest("note-1", 7, 10)), "user-1");
+
+            assertThat(response.getResults()).extracting(ReviewResultDto::getStatus).containsExactly(
+                    ReviewResultDto.STATUS_APPLIED,
+                    ReviewResultDto.STATUS_NOT_FOUND,
+                    ReviewResultDto.STATUS_INVALID_QUALITY);
+            assertThat(response.getResults().get(1).getIntervalDays()).isNull();
+            assertThat(response.getAppliedCount()).isEqualTo(1);
+            assertThat(response.getFailedCount()).isEqualTo(2);
+        }
+
+        @Test
+        void writesOneRollupUpsertPerLanguage() {
+            Language spanish = new Language();
+            spanish.setCode("es");
+            Note japaneseNote = buildNote("note-1", 5, 2.5);
+            japaneseNote.setReviewCount(2);
+            Note spanishNote = buildNote("note-2", 0, 2.5);
+            spanishNote.setLearningLanguage(spanish);
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(noteRepository.findByUserAndIdIn(eq(user), any())).thenReturn(List.of(japaneseNote, spanishNote));
+
+            service.submitReviews(List.of(
+                    buildRequest("note-1", 3, 10),
+                    buildRequest("note-2", 4, 20),
+                    buildRequest("note-1", 1, 5)), "user-1");
+
+            verify(reviewDailyStatRepository).increment(
+                    "user-1", "ja", LocalDate.now(), 2, 1, 0, 1, 0, 15L, 0, 0);
+            verify(reviewDailyStatRepository).increment(
+                    "user-1", "es", LocalDate.now(), 1, 0, 0, 0, 1, 20L, 1, 0);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // getDailyReviewStats
+    // -------------------------------------------------------------------------
+
+    @Nested
+    class GetDailyReviewStats {
+
+        @Test
+        void userNotFound_throwsUserNotFoundException() {
+            when(userRepository.findById("missing")).thenReturn(Optional.empty());
+
+            assertThatThrownBy(() -> service.getDailyReviewStats("missing", null, null, null))
+                    .isInstanceOf(UserNotFoundException.class);
+        }
+
+        @Test
+        void noLanguageFilter_sumsLanguagesPerDay() {
+            LocalDate day1 = LocalDate.of(2026, 3, 1);
+            LocalDate day2 = LocalDate.of(2026, 3, 2);
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(reviewDailyStatRepository.findByUserAndDateRange("user-1", day1, day2)).thenReturn(List.of(
+                    buildRollup("ja", day1, 2, 1, 3, 4, 100, 1, 0),
+                    buildRollup("es", day1, 0, 0, 1, 1, 20, 0, 1),
+                    buildRollup("ja", day2, 1, 0, 0, 0, 5, 0, 0)));
+
+            ReviewHeatmapResponse response = service.getDailyReviewStats("user-1", null, day1, day2);
+
+            assertThat(response.getDays()).hasSize(2);
+            assertThat(response.getDays().get(0).getDate()).isEqualTo(day1);
+            assertThat(response.getDays().get(0).getReviewCount()).isEqualTo(12);
+            assertThat(response.getDays().get(0).getQuality4Count()).isEqualTo(5);
+            assertThat(response.getDays().get(0).getTotalTimeSpentSeconds()).isEqualTo(120);
+            assertThat(response.getDays().get(0).getNewCount()).isEqualTo(1);
+            assertThat(response.getDays().get(0).getMatureCount()).isEqualTo(1);
+            assertThat(response.getDays().get(1).getReviewCount()).isEqualTo(1);
+            verify(reviewEventRepository, never()).findByUserAndReviewedAtBetween(any(), any(), any());
+        }
+
+        @Test
+        void withLanguageFilter_readsLanguageRollupsOnly() {
+            LocalDate from = LocalDate.of(2026, 3, 1);
+            LocalDate to = LocalDate.of(2026, 3, 31);
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(reviewDailyStatRepository.findByUserAndLanguageAndDateRange("user-1", "ja", from, to))
+                    .thenReturn(List.of());
+
+            ReviewHeatmapResponse response = service.getDailyReviewStats("user-1", "ja", from, to);
+
+            assertThat(response.getDays()).isEmpty();
+            assertThat(response.getLanguage()).isEqualTo("ja");
+            verify(reviewDailyStatRepository, never()).findByUserAndDateRange(any(), any(), any());
+        }
+
+        @Test
+        void rangeLongerThanAYear_isClamped() {
+            LocalDate to = LocalDate.of(2026, 6, 30);
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+
+            ReviewHeatmapResponse response = service.getDailyReviewStats(
+                    "user-1", null, LocalDate.of(2020, 1, 1), to);
+
+            assertThat(response.getFrom()).isEqualTo(to.minusDays(365));
+            verify(reviewDailyStatRepository).findByUserAndDateRange("user-1", to.minusDays(365), to);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // getReviewTrend
+    // -------------------------------------------------------------------------
+
+    @Nested
+    class GetReviewTrend {
+
+        @Test
+        void returnsOnePointPerWeekIncludingEmptyWeeks() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+
+            ReviewTrendResponse response = service.getReviewTrend("user-1", null, 4);
+
+            LocalDate currentWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            assertThat(response.getWeeks()).hasSize(4);
+            assertThat(response.getWeeks().get(3).getWeekStart()).isEqualTo(currentWeek);
+            assertThat(response.getWeeks().get(0).getWeekStart()).isEqualTo(currentWeek.minusWeeks(3));
+            assertThat(response.getWeeks()).allMatch(p -> p.getReviewCount() == 0 && p.getAverageQuality() == 0);
+        }
+
+        @Test
+        void aggregatesDailyRollupsIntoWeeklyAverages() {
+            LocalDate currentWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(reviewDailyStatRepository.findByUserAndLanguageAndDateRange(
+                    eq("user-1"), eq("ja"), eq(currentWeek.minusWeeks(1)), any())).thenReturn(List.of(
+                    // 1x forgot, 1x good, 2x easy → quality (1 + 3 + 8) / 4 = 3.0, retention 3/4
+                    buildRollup("ja", currentWeek, 1, 0, 1, 2, 40, 2, 1)));
+
+            ReviewTrendResponse response = service.getReviewTrend("user-1", "ja", 2);
+
+            var point = response.getWeeks().get(1);
+            assertThat(point.getReviewCount()).isEqualTo(4);
+            assertThat(point.getAverageQuality()).isCloseTo(3.0, within(0.001));
+            assertThat(point.getAverageTimeSpentSeconds()).isCloseTo(10.0, within(0.001));
+            assertThat(point.getRetentionRate()).isCloseTo(0.75, within(0.001));
+            assertThat(point.getNewCount()).isEqualTo(2);
+            assertThat(point.getMatureCount()).isEqualTo(1);
+            assertThat(response.getWeeks().get(0).getReviewCount()).isEqualTo(0);
+        }
+
+        @Test
+        void weeksAreClamped() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+
+            assertThat(service.getReviewTrend("user-1", null, 0).getWeeks()).hasSize(1);
+            assertThat(service.getReviewTrend("user-1", null, 1000).getWeeks()).hasSize(104);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // getDueForecast / scheduling distribution
+    // -------------------------------------------------------------------------
+
+    @Nested
+    class GetDueForecast {
+
+        @Test
+        void zeroFillsDaysAndFoldsPastDaysIntoOverdue() {
+            LocalDate today = LocalDate.now();
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(noteRepository.countDueByDay(eq(user), any(), eq(today.plusDays(7).atStartOfDay())))
+                    .thenReturn(List.of(
+                            new Object[]{today.minusDays(3), 2L},
+                            new Object[]{today.minusDays(1), 1L},
+                            new Object[]{today, 4L},
+                            new Object[]{today.plusDays(2), 5L}));
+
+            DueForecastResponse result = service.getDueForecast("user-1", null, 7);
+
+            assertThat(result.getFrom()).isEqualTo(today);
+            assertThat(result.getTo()).isEqualTo(today.plusDays(6));
+            assertThat(result.getOverdueCount()).isEqualTo(3);
+            assertThat(result.getDays()).hasSize(7);
+            assertThat(result.getDays().get(0).getDueCount()).isEqualTo(4);
+            assertThat(result.getDays().get(1).getDueCount()).isZero();
+            assertThat(result.getDays().get(2).getDueCount()).isEqualTo(5);
+        }
+
+        @Test
+        void languageFilter_usesLanguageQuery() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            when(languageRepository.findById("ja")).thenReturn(Optional.of(language));
+
+            DueForecastResponse result = service.getDueForecast("user-1", "ja", 3);
+
+            assertThat(result.getLanguage()).isEqualTo("ja");
+            verify(noteRepository).countDueByDayAndLanguage(eq(user), eq(language), any(), any());
+            verify(noteRepository, never()).countDueByDay(any(), any(), any());
+        }
+
+        @Test
+        void daysClampedTo365() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+
+            assertThat(service.getDueForecast("user-1", null, 5000).getDays()).hasSize(365);
+        }
+
+        @Test
+        void submitReview_spreadsDueTimeAcrossJitterWindow() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            Note note = buildNote("note-1", 0, 2.5);
+            when(noteRepository.findByIdAndUser("note-1", user)).thenReturn(Optional.of(note));
+
+            service.submitReview(buildRequest("note-1", 4, 5), "user-1");
+
+            LocalDate dueDay = LocalDate.now().plusDays(note.getIntervalDays());
+            assertThat(note.getNextReviewAt())
+                    .isEqualTo(reviewScheduler.nextReviewAt("note-1", LocalDate.now(), note.getIntervalDays()))
+                    .isAfterOrEqualTo(dueDay.atStartOfDay())
+                    .isBefore(dueDay.atTime(6, 0));
+        }
+
+        @Test
+        void submitReviews_balancesIntervalTowardLessLoadedDay() {
+            when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+            Note note = buildNote("note-1", 40, 2.5);
+            when(noteRepository.findByUserAndIdIn(eq(user), any())).thenReturn(List.of(note));
+            int unbalanced = service.calculateNextInterval(40, service.updateEaseFactor(2.5, 3), 3);
+            LocalDate target = LocalDate.now().plusDays(unbalanced);
+            // Every day in the fuzz window is busy except one day later
+            when(noteRepository.countDueByDay(eq(user), any(), any())).thenReturn(List.of(
+                    new Object[]{target.minusDays(2), 50L},
+                    new Object[]{target.minusDays(1), 50L},
+                    new Object[]{target, 50L},
+                    new Object[]{target.plusDays(2), 50L}));
+
+            service.submitReviews(List.of(buildRequest("note-1", 3, 5)), "user-1");
+
+            assertThat(note.getIntervalDays()).isEqualTo(unbalanced + 1);
+        }
+    }
+
     // -------------------------------------------------------------------------
     // Helpers
     // -------------------------------------------------------------------------
 
+    private ReviewDailyStat buildRollup(String language, LocalDate date, int q1, int q2, int q3, int q4,
+                                        long timeSpent, int newCount, int matureCount) {
+        ReviewDailyStat stat = new ReviewDailyStat();
+        stat.setId(new ReviewDailyStat.Key("user-1", language, date));
+        stat.setReviewCount(q1 + q2 + q3 + q4);
+        stat.setQuality1Count(q1);
+        stat.setQuality2Count(q2);
+        stat.setQuality3Count(q3);
+        stat.setQuality4Count(q4);
+        stat.setTotalTimeSpentSeconds(timeSpent);
+        stat.setNewCount(newCount);
+        stat.setMatureCount(matureCount);
+        return stat;
+    }
+
+    private void stubNoteCount(long count) {
+        UserStats stats = new UserStats();
+        stats.setUserId("user-1");
+        stats.setNoteCount(count);
+        when(userStatsRepository.findById("user-1")).thenReturn(Optional.of(stats));
+    }
+
     private Note buildNote(String id, int intervalDays, double easeFactor) {
         Language teaching = new Language();
         teaching.setCode("en");
@@ -0,0 +1,184 @@
+package com.alang.stub;
+
+import com.alang.config.LLMConfig;
+import com.alang.config.LLMProperties;
+import com.alang.dto.llm.ChatCompletionRequest;
+import com.alang.dto.llm.ChatCompletionResponse;
+import com.alang.dto.llm.ChatMessage;
+import com.alang.service.ChatCompletionCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LLMCassetteTest {
+
+    private static final String BASE_URL = "http://127.0.0.1:%d/v1";
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StubLLMServer stub;
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        LLMProperties properties = new LLMProperties();
+        properties.getStub().setPort(0);
+        properties.getStub().getLatency().setDistribution(LLMProperties.StubLatency.Distribution.FIXED);
+        properties.getStub().getLatency().setMedian(Duration.ofMillis(300));
+        properties.getStub().setTokensPerSecond(0);
+        stub = new StubLLMServer(properties);
+        stub.start();
+        port = stub.port();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+    }
+
+    private LLMCassette cassette(LLMProperties.Cassette.Mode mode, boolean preserveTiming,
+                                 LLMProperties.Cassette.OnMiss onMiss) {
+        LLMProperties properties = new LLMProperties();
+        properties.getCassette().setMode(mode);
+        properties.getCassette().setPath(dir.resolve("llm.jsonl.gz").toString());
+        properties.getCassette().setPreserveTiming(preserveTiming);
+        properties.getCassette().setOnMiss(onMiss);
+        return new LLMCassette(properties, objectMapper);
+    }
+
+    private static WebClient client(LLMCassette cassette, int port) {
+        return LLMConfig.llmWebClient("stub", BASE_URL.formatted(port), "sk-secret", Duration.ofSeconds(10),
+                new LLMProperties.Http(), cassette);
+    }
+
+    private static ChatCompletionResponse call(WebClient client, String message) {
+        return client.post().uri("/chat/completions")
+                .body(ChatCompletionCodec.body(new ChatCompletionRequest("gpt-3.5-turbo", "You are a tutor.",
+                        List.of(ChatMessage.user(message)), 100)))
+                .retrieve()
+                .bodyToMono(DataBuffer.class)
+                .map(ChatCompletionCodec::decode)
+                .block(Duration.ofSeconds(10));
+    }
+
+    private String record(String... messages) throws Exception {
+        LLMCassette recorder = cassette(LLMProperties.Cassette.Mode.RECORD, true, LLMProperties.Cassette.OnMiss.FAIL);
+        WebClient client = client(recorder, port);
+        StringBuilder contents = new StringBuilder();
+        for (String message : messages) {
+            contents.append(call(client, message).content()).append('\n');
+        }
+        recorder.destroy();
+        return contents.toString();
+    }
+
+    @Test
+    void replay_servesRecordedResponsesWithoutTheProvider() throws Exception {
+        String recorded = record("What is は?", "What is が?");
+        stub.stop();
+
+        LLMCassette player = cassette(LLMProperties.Cassette.Mode.REPLAY, false, LLMProperties.Cassette.OnMiss.FAIL);
+        WebClient client = client(player, port);
+        String replayed = call(client, "What is は?").content() + "\n" + call(client, "What is が?").content() + "\n";
+
+        assertThat(replayed).isEqualTo(recorded);
+    }
+
+    @Test
+    void replay_preservesRecordedTiming() throws Exception {
+        record("What is は?");
+
+        LLMCassette player = cassette(LLMProperties.Cassette.Mode.REPLAY, true, LLMProperties.Cassette.OnMiss.FAIL);
+        long start = System.nanoTime();
+        call(client(player, port), "What is は?");
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(300));
+    }
+
+    @Test
+    void replay_unknownRequest_failsByDefault() throws Exception {
+        record("What is は?");
+
+        LLMCassette player = cassette(LLMProperties.Cassette.Mode.REPLAY, false, LLMProperties.Cassette.OnMiss.FAIL);
+
+        assertThatThrownBy(() -> call(client(player, port), "Something else"))
+                .hasMessageContaining("No recorded LLM response");
+    }
+
+    @Test
+    void replay_unknownRequest_sequentialServesRecordingsInOrder() throws Exception {
+        String recorded = record("What is は?");
+
+        LLMCassette player = cassette(LLMProperties.Cassette.Mode.REPLAY, false,
+                LLMProperties.Cassette.OnMiss.SEQUENTIAL);
+
+        assertThat(call(client(player, port), "Something else").content() + "\n").isEqualTo(recorded);
+    }
+
+    @Test
+    void record_keepsErrorsWithRetryAfter() throws Exception {
+        stub.stop();
+        LLMProperties properties = new LLMProperties();
+        properties.getStub().setPort(0);
+        properties.getStub().setRateLimitRate(1.0);
+        stub = new StubLLMServer(properties);
+        stub.start();
+        LLMCassette recorder = cassette(LLMProperties.Cassette.Mode.RECORD, true, LLMProperties.Cassette.OnMiss.FAIL);
+        assertThatThrownBy(() -> call(client(recorder, stub.port()), "Hi"))
+                .isInstanceOf(WebClientResponseException.class);
+        recorder.destroy();
+
+        LLMCassette player = cassette(LLMProperties.Cassette.Mode.REPLAY, false, LLMProperties.Cassette.OnMiss.FAIL);
+
+        assertThatThrownBy(() -> call(client(player, stub.port()), "Hi"))
+                .isInstanceOfSatisfying(WebClientResponseException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(e.getHeaders().getFirst("Retry-After")).isEqualTo("1");
+                });
+    }
+
+    @Test
+    void cassette_isSanitized() throws Exception {
+        record("My name is Alice and my email is alice@example.com");
+
+        String file;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(dir.resolve("llm.jsonl.gz")))) {
+            file = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        assertThat(file).doesNotContain("sk-secret").doesNotContain("alice@example.com").doesNotContain("You are a tutor");
+        LLMCassette.Entry entry = objectMapper.readValue(file.lines().findFirst().orElseThrow(), LLMCassette.Entry.class);
+        assertThat(entry.provider()).isEqualTo("stub");
+        assertThat(entry.path()).isEqualTo("/v1/chat/completions");
+        assertThat(entry.status()).isEqualTo(200);
+        assertThat(entry.headersMillis()).isGreaterThanOrEqualTo(300);
+        assertThat(entry.requestHash()).hasSize(64);
+    }
+
+    @Test
+    void off_returnsTheDelegate() {
+        LLMCassette off = new LLMCassette(new LLMProperties(), objectMapper);
+        var delegate = new org.springframework.http.client.reactive.ReactorClientHttpConnector();
+
+        assertThat(off.connector("stub", delegate)).isSameAs(delegate);
+    }
+}
@@ -0,0 +1,144 @@
+package com.alang.stub;
+
+import com.alang.config.LLMProperties;
+import com.alang.service.PromptTemplates;
+import com.alang.stub.StubCompletions.Outcome;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StubCompletionsTest {
+
+    private static LLMProperties.Stub stub() {
+        return new LLMProperties.Stub();
+    }
+
+    @Test
+    void sameSeed_sameSequence() {
+        LLMProperties.Stub stub = stub();
+        stub.setRateLimitRate(0.2);
+        stub.setServerErrorRate(0.2);
+        StubCompletions first = new StubCompletions(stub);
+        StubCompletions second = new StubCompletions(stub);
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(first.nextOutcome()).isEqualTo(second.nextOutcome());
+            assertThat(first.nextLatency()).isEqualTo(second.nextLatency());
+        }
+    }
+
+    @Test
+    void faultRates_areRoughlyHonoured() {
+        LLMProperties.Stub stub = stub();
+        stub.setRateLimitRate(0.1);
+        stub.setServerErrorRate(0.2);
+        stub.setSlowLorisRate(0.05);
+        StubCompletions completions = new StubCompletions(stub);
+
+        int[] counts = new int[Outcome.values().length];
+        for (int i = 0; i < 10_000; i++) {
+            counts[completions.nextOutcome().ordinal()]++;
+        }
+
+        assertThat(counts[Outcome.RATE_LIMITED.ordinal()]).isBetween(800, 1200);
+        assertThat(counts[Outcome.SERVER_ERROR.ordinal()]).isBetween(1700, 2300);
+        assertThat(counts[Outcome.SLOW_LORIS.ordinal()]).isBetween(350, 650);
+    }
+
+    @Test
+    void noFaultsByDefault() {
+        StubCompletions completions = new StubCompletions(stub());
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(completions.nextOutcome()).isEqualTo(Outcome.OK);
+        }
+    }
+
+    @Test
+    void lognormalLatency_hasConfiguredMedianAndIsClamped() {
+        LLMProperties.Stub stub = stub();
+        stub.getLatency().setMedian(Duration.ofMillis(800));
+        stub.getLatency().setMax(Duration.ofSeconds(2));
+        StubCompletions completions = new StubCompletions(stub);
+
+        List<Duration> samples = new ArrayList<>();
+        for (int i = 0; i < 2001; i++) {
+            samples.add(completions.nextLatency());
+        }
+        samples.sort(null);
+
+        assertThat(samples.get(1000).toMillis()).isBetween(700L, 900L);
+        assertThat(samples.get(samples.size() - 1)).isLessThanOrEqualTo(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void fixedAndUniformLatency() {
+        LLMProperties.Stub stub = stub();
+        stub.getLatency().setDistribution(LLMProperties.StubLatency.Distribution.FIXED);
+        stub.getLatency().setMedian(Duration.ofMillis(250));
+        assertThat(new StubCompletions(stub).nextLatency()).isEqualTo(Duration.ofMillis(250));
+
+        stub.getLatency().setDistribution(LLMProperties.StubLatency.Distribution.UNIFORM);
+        stub.getLatency().setMin(Duration.ofMillis(100));
+        stub.getLatency().setMax(Duration.ofMillis(200));
+        StubCompletions uniform = new StubCompletions(stub);
+        for (int i = 0; i < 100; i++) {
+            assertThat(uniform.nextLatency()).isBetween(Duration.ofMillis(100), Duration.ofMillis(200));
+        }
+    }
+
+    @Test
+    void generationTime_followsTokensPerSecond() {
+        LLMProperties.Stub stub = stub();
+        stub.setTokensPerSecond(50);
+        StubCompletions completions = new StubCompletions(stub);
+
+        assertThat(completions.generationTime(101)).isEqualTo(Duration.ofSeconds(2));
+        assertThat(completions.generationTime(1)).isZero();
+
+        stub.setTokensPerSecond(0);
+        assertThat(completions.generationTime(101)).isZero();
+    }
+
+    @Test
+    void replyContent_isCappedByMaxTokens_andMayCarryTopics() {
+        LLMProperties.Stub stub = stub();
+        stub.setCompletionTokens(150);
+        stub.setTopicsRate(1.0);
+        StubCompletions completions = new StubCompletions(stub);
+
+        String reply = completions.replyContent(20);
+
+        assertThat(StubCompletions.countTokens(PromptTemplates.stripTopicsBlock(reply))).isEqualTo(20);
+        assertThat(PromptTemplates.extractTopics(reply, new ObjectMapper())).hasSize(3);
+    }
+
+    @Test
+    void noteContent_isValidNoteJsonWithDistinctTitles() throws Exception {
+        StubCompletions completions = new StubCompletions(stub());
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        JsonNode first = objectMapper.readTree(completions.noteContent());
+        JsonNode second = objectMapper.readTree(completions.noteContent());
+
+        assertThat(first.path("type").asText()).isEqualTo("grammar");
+        assertThat(first.path("structured").isObject()).isTrue();
+        assertThat(first.path("tags")).isNotEmpty();
+        assertThat(first.path("title").asText()).isNotEqualTo(second.path("title").asText());
+    }
+
+    @Test
+    void isNoteRequest_recognisesTheNotePrompts() {
+        PromptTemplates prompts = new PromptTemplates();
+
+        assertThat(StubCompletions.isNoteRequest(prompts.buildNoteCreationSystemPrompt("English", "Japanese"))).isTrue();
+        assertThat(StubCompletions.isNoteRequest(prompts.buildChatSystemPrompt("English", "Japanese"))).isFalse();
+        assertThat(StubCompletions.isNoteRequest(null)).isFalse();
+    }
+}
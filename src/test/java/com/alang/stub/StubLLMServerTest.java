@@ -0,0 +1,153 @@
+package com.alang.stub;
+
+import com.alang.config.LLMProperties;
+import com.alang.dto.llm.ChatCompletionRequest;
+import com.alang.dto.llm.ChatCompletionResponse;
+import com.alang.dto.llm.ChatMessage;
+import com.alang.service.ChatCompletionCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StubLLMServerTest {
+
+    private StubLLMServer server;
+    private WebClient client;
+
+    private LLMProperties.Stub start(LLMProperties.Stub stub) {
+        LLMProperties properties = new LLMProperties();
+        stub.setPort(0);
+        stub.getLatency().setDistribution(LLMProperties.StubLatency.Distribution.FIXED);
+        stub.getLatency().setMedian(Duration.ZERO);
+        stub.setTokensPerSecond(0);
+        properties.setStub(stub);
+        server = new StubLLMServer(properties);
+        server.start();
+        client = WebClient.create("http://127.0.0.1:" + server.port() + "/v1");
+        return stub;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private ChatCompletionResponse call(String systemPrompt) {
+        return client.post().uri("/chat/completions")
+                .body(ChatCompletionCodec.body(new ChatCompletionRequest("gpt-3.5-turbo", systemPrompt,
+                        List.of(ChatMessage.user("What is は?")), 40)))
+                .retrieve()
+                .bodyToMono(DataBuffer.class)
+                .map(ChatCompletionCodec::decode)
+                .block(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void chatCompletion_answersInOpenAiFormat() {
+        start(new LLMProperties.Stub());
+
+        ChatCompletionResponse response = call("You are a tutor.");
+
+        assertThat(response.choices()).isEqualTo(1);
+        assertThat(response.content()).isNotBlank();
+        assertThat(response.usage().completionTokens()).isPositive();
+        assertThat(response.usage().promptTokens()).isEqualTo(7); // words in the system and user messages
+        assertThat(response.usage().totalTokens())
+                .isEqualTo(response.usage().promptTokens() + response.usage().completionTokens());
+    }
+
+    @Test
+    void noteRequest_getsNoteJson() {
+        start(new LLMProperties.Stub());
+
+        ChatCompletionResponse response = call("Respond with ONLY valid JSON matching this exact schema");
+
+        assertThat(response.content()).startsWith("{\"type\":\"grammar\"");
+    }
+
+    @Test
+    void rateLimited_returns429WithRetryAfter() {
+        LLMProperties.Stub stub = new LLMProperties.Stub();
+        stub.setRateLimitRate(1.0);
+        stub.setRetryAfter(Duration.ofSeconds(3));
+        start(stub);
+
+        assertThatThrownBy(() -> call("You are a tutor."))
+                .isInstanceOfSatisfying(WebClientResponseException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+                    assertThat(e.getHeaders().getFirst("Retry-After")).isEqualTo("3");
+                });
+    }
+
+    @Test
+    void serverError_returnsConfiguredStatus() {
+        LLMProperties.Stub stub = new LLMProperties.Stub();
+        stub.setServerErrorRate(1.0);
+        stub.setServerErrorStatus(502);
+        start(stub);
+
+        assertThatThrownBy(() -> call("You are a tutor."))
+                .isInstanceOfSatisfying(WebClientResponseException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(502));
+    }
+
+    @Test
+    void slowLoris_sendsHeadersButNotTheBody() {
+        LLMProperties.Stub stub = new LLMProperties.Stub();
+        stub.setSlowLorisRate(1.0);
+        stub.setSlowLorisInterval(Duration.ofSeconds(1));
+        start(stub);
+
+        var response = client.post().uri("/chat/completions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"model\":\"m\",\"messages\":[]}")
+                .exchangeToMono(r -> {
+                    assertThat(r.statusCode()).isEqualTo(HttpStatus.OK);
+                    return r.bodyToMono(String.class);
+                })
+                .timeout(Duration.ofMillis(500));
+
+        assertThatThrownBy(() -> response.block(Duration.ofSeconds(5))).hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void streaming_sendsChunksThenDone() {
+        LLMProperties.Stub stub = new LLMProperties.Stub();
+        stub.setCompletionTokens(12);
+        stub.setStreamChunkTokens(5);
+        stub.setTopicsRate(0);
+        start(stub);
+
+        String body = client.post().uri("/chat/completions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"model\":\"m\",\"stream\":true,\"messages\":[{\"role\":\"user\",\"content\":\"hi\"}]}")
+                .retrieve()
+                .bodyToMono(String.class)
+                .block(Duration.ofSeconds(5));
+
+        assertThat(body.split("\n\n")).hasSize(5); // 3 content chunks, the finish chunk and [DONE]
+        assertThat(body).contains("\"finish_reason\":\"stop\"").endsWith("data: [DONE]\n\n");
+    }
+
+    @Test
+    void models_isServedForWarmUp() {
+        start(new LLMProperties.Stub());
+
+        String models = client.get().uri("/models").retrieve().bodyToMono(String.class).block(Duration.ofSeconds(5));
+
+        assertThat(models).contains("\"object\":\"list\"");
+    }
+}